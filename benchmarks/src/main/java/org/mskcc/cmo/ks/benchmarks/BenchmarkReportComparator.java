@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compares two JMH JSON reports, typically from a baseline commit and a candidate commit.
+ *
+ * Benchmarks are matched by name and parameters. A benchmark regresses when
+ * its score moved in the worse direction (slower for time modes, lower for
+ * throughput) by more than the threshold and by more than the combined
+ * score errors of both runs. Exits with status 1 if any benchmark regressed.
+ *
+ * Usage : BenchmarkReportComparator baseline.json candidate.json [threshold percent, default 10]
+ */
+public class BenchmarkReportComparator {
+
+    public static final double DEFAULT_THRESHOLD_PERCENT = 10d;
+
+    public static class Comparison {
+        private final String key;
+        private final String unit;
+        private final Double baselineScore;
+        private final Double candidateScore;
+        private final boolean regression;
+        private final boolean improvement;
+
+        Comparison(String key, String unit, Double baselineScore, Double candidateScore, boolean regression, boolean improvement) {
+            this.key = key;
+            this.unit = unit;
+            this.baselineScore = baselineScore;
+            this.candidateScore = candidateScore;
+            this.regression = regression;
+            this.improvement = improvement;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public boolean isRegression() {
+            return regression;
+        }
+
+        public boolean isImprovement() {
+            return improvement;
+        }
+
+        /**
+         * @return change of the candidate score relative to the baseline, in percent, or null if either run is missing
+         */
+        public Double getChangePercent() {
+            if (baselineScore == null || candidateScore == null || baselineScore == 0d) {
+                return null;
+            }
+            return 100d * (candidateScore - baselineScore) / baselineScore;
+        }
+
+        @Override
+        public String toString() {
+            String status = regression ? "REGRESSION" : (improvement ? "improved" : "");
+            if (baselineScore == null || candidateScore == null) {
+                status = (baselineScore == null) ? "new" : "removed";
+            }
+            return String.format("%-90s %14s %14s %9s %-8s %s", key, format(baselineScore), format(candidateScore),
+                    (getChangePercent() == null) ? "" : String.format("%+.1f%%", getChangePercent()), unit, status);
+        }
+
+        private static String format(Double score) {
+            return (score == null) ? "-" : String.format("%.3f", score);
+        }
+    }
+
+    private static class Score {
+        private final String mode;
+        private final String unit;
+        private final double score;
+        private final double error;
+
+        Score(JsonNode result) {
+            JsonNode primaryMetric = result.get("primaryMetric");
+            this.mode = result.path("mode").asText();
+            this.unit = primaryMetric.path("scoreUnit").asText();
+            this.score = primaryMetric.path("score").asDouble();
+            // error is NaN when there are too few iterations to compute it
+            double scoreError = primaryMetric.path("scoreError").asDouble(0d);
+            this.error = Double.isNaN(scoreError) ? 0d : scoreError;
+        }
+    }
+
+    public static List<Comparison> compare(JsonNode baselineReport, JsonNode candidateReport, double thresholdPercent) {
+        Map<String, Score> baselineScores = indexReport(baselineReport);
+        Map<String, Score> candidateScores = indexReport(candidateReport);
+        Set<String> keys = new TreeSet<>(baselineScores.keySet());
+        keys.addAll(candidateScores.keySet());
+        List<Comparison> comparisons = new ArrayList<>();
+        for (String key : keys) {
+            Score baseline = baselineScores.get(key);
+            Score candidate = candidateScores.get(key);
+            if (baseline == null || candidate == null) {
+                Score present = (baseline != null) ? baseline : candidate;
+                comparisons.add(new Comparison(key, present.unit, (baseline != null) ? baseline.score : null,
+                        (candidate != null) ? candidate.score : null, false, false));
+                continue;
+            }
+            // positive when the candidate is worse
+            double worsening = "thrpt".equals(candidate.mode) ? baseline.score - candidate.score : candidate.score - baseline.score;
+            boolean significant = Math.abs(worsening) > baseline.error + candidate.error
+                    && Math.abs(worsening) > Math.abs(baseline.score) * thresholdPercent / 100d;
+            comparisons.add(new Comparison(key, candidate.unit, baseline.score, candidate.score,
+                    significant && worsening > 0, significant && worsening < 0));
+        }
+        return comparisons;
+    }
+
+    private static Map<String, Score> indexReport(JsonNode report) {
+        Map<String, Score> scores = new HashMap<>();
+        for (JsonNode result : report) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.get("params");
+            if (params != null) {
+                // parameter order in the report follows declaration order, sort for a stable key
+                Map<String, String> sortedParams = new TreeMap<>();
+                params.fields().forEachRemaining(param -> sortedParams.put(param.getKey(), param.getValue().asText()));
+                key.append(sortedParams.toString().replace(" ", ""));
+            }
+            scores.put(key.toString(), new Score(result));
+        }
+        return scores;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkReportComparator baseline.json candidate.json [threshold percent, default " + DEFAULT_THRESHOLD_PERCENT + "]");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        double thresholdPercent = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        List<Comparison> comparisons = compare(mapper.readTree(new File(args[0])), mapper.readTree(new File(args[1])), thresholdPercent);
+        System.out.println(String.format("%-90s %14s %14s %9s %-8s", "Benchmark", "Baseline", "Candidate", "Change", "Unit"));
+        int regressionCount = 0;
+        for (Comparison comparison : comparisons) {
+            System.out.println(comparison);
+            if (comparison.isRegression()) {
+                regressionCount++;
+            }
+        }
+        System.out.println(regressionCount + " regression(s) beyond " + thresholdPercent + "%");
+        System.exit((regressionCount > 0) ? 1 : 0);
+    }
+}
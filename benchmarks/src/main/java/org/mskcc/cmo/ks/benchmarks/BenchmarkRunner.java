@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks;
+
+import java.util.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Runs the pipeline benchmarks and writes the results as a JMH JSON report.
+ *
+ * Accepts the usual JMH command line options. Unless -rf/-rff are given the
+ * report is written as JSON to benchmark-report.json in the working
+ * directory. Reports from two commits are compared with
+ * BenchmarkReportComparator :
+ *   mvn -P benchmarks -pl benchmarks -am package -DskipTests
+ *   java -jar benchmarks/target/benchmarks.jar -rff baseline.json
+ *   java -cp benchmarks/target/benchmarks.jar org.mskcc.cmo.ks.benchmarks.BenchmarkReportComparator baseline.json candidate.json
+ */
+public class BenchmarkRunner {
+
+    public static final String DEFAULT_REPORT_FILENAME = "benchmark-report.json";
+    private static final List<String> NON_RUN_OPTIONS = Arrays.asList("-h", "-l", "-lp", "-lprof", "-lrf");
+
+    public static void main(String[] args) throws Exception {
+        if (!Collections.disjoint(Arrays.asList(args), NON_RUN_OPTIONS)) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_REPORT_FILENAME);
+        }
+        new Runner(options.build()).run();
+    }
+}
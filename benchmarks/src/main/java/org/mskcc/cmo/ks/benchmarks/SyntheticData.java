@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Seeded source of the identifiers, dates and free text found in pipeline data.
+ *
+ * The same seed always produces the same sequence of values, so the data a
+ * benchmark runs over does not change between commits.
+ */
+public class SyntheticData {
+
+    public static final long DEFAULT_SEED = 20161L;
+
+    private static final String[] GENES = {"TP53", "KRAS", "EGFR", "PIK3CA", "APC", "BRAF", "PTEN", "ARID1A",
+        "KMT2D", "TERT", "CDKN2A", "ERBB2", "NF1", "RB1", "ATM", "BRCA1", "BRCA2", "SMAD4", "FBXW7", "CTNNB1",
+        "MYC", "MDM2", "CDK4", "FGFR1", "FGFR3", "IDH1", "NOTCH1", "KEAP1", "STK11", "SMARCA4"};
+    private static final String[] BASES = {"A", "C", "G", "T"};
+    private static final String[] WORDS = {"sample", "tumor", "purity", "low", "review", "resected", "primary",
+        "metastasis", "liver", "lung", "node", "see", "comment", "pending", "confirmed", "NA"};
+    private static final String[] SEPARATORS = {" ", " ", " ", "\t", "\n", "\r\n", "\u00A0", "  "};
+    private static final LocalDate FIRST_DATE = LocalDate.of(1930, 1, 1);
+    private static final int DATE_RANGE_IN_DAYS = 365 * 90;
+
+    private final Random random;
+
+    public SyntheticData() {
+        this(DEFAULT_SEED);
+    }
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public String patientId(int index) {
+        return String.format("P-%07d", index + 1);
+    }
+
+    public String sampleId(int index) {
+        return patientId(index) + "-T01-IM" + (5 + (index % 3));
+    }
+
+    public String gene() {
+        return pick(GENES);
+    }
+
+    /**
+     * @return a gene symbol from a pool of the given size, drawn from the fixed list first
+     */
+    public String gene(int poolSize) {
+        int index = random.nextInt(poolSize);
+        return (index < GENES.length) ? GENES[index] : "GENE" + index;
+    }
+
+    public String base() {
+        return pick(BASES);
+    }
+
+    public String allele(int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = 1 + random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            builder.append(base());
+        }
+        return builder.toString();
+    }
+
+    public String chromosome() {
+        int chromosome = 1 + random.nextInt(23);
+        return (chromosome == 23) ? "X" : String.valueOf(chromosome);
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    public boolean chance(double probability) {
+        return random.nextDouble() < probability;
+    }
+
+    /**
+     * @return a yyyy-MM-dd date between 1930 and 2020
+     */
+    public String date() {
+        return FIRST_DATE.plusDays(random.nextInt(DATE_RANGE_IN_DAYS)).toString();
+    }
+
+    /**
+     * @return a yyyy-MM-dd date up to maxDays after the given date
+     */
+    public String dateAfter(String date, int maxDays) {
+        return LocalDate.parse(date).plusDays(random.nextInt(maxDays)).toString();
+    }
+
+    /**
+     * @return words separated by spaces only
+     */
+    public String cleanText(int wordCount) {
+        return text(wordCount, false);
+    }
+
+    /**
+     * @return words separated by a mix of spaces, tabs, line breaks and non-breaking spaces
+     */
+    public String messyText(int wordCount) {
+        return text(wordCount, true);
+    }
+
+    private String text(int wordCount, boolean messy) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                builder.append(messy ? pick(SEPARATORS) : " ");
+            }
+            builder.append(pick(WORDS));
+        }
+        if (messy && chance(0.5d)) {
+            builder.append("\t\u0007");
+        }
+        return builder.toString();
+    }
+
+    public <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
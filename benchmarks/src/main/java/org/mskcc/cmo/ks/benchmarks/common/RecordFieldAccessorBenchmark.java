@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.mskcc.cmo.ks.benchmarks.common;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.ddp.pipeline.model.TimelineRadiationRecord;
+import org.mskcc.cmo.ks.ddp.source.model.Radiation;
+import org.openjdk.jmh.annotations.*;
+
+/* Compares RecordFieldAccessor with the per-field reflective lookup previously used by
+ * DDPUtils.constructRecord() and the CRDB processors, on DDP radiation timeline records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordFieldAccessorBenchmark {
+
+    private static final int RECORD_COUNT = 1024;
+
+    private TimelineRadiationRecord[] records;
+    private int index;
+
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticData data = new SyntheticData();
+        records = new TimelineRadiationRecord[RECORD_COUNT];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            String diagnosisDate = data.date();
+            Radiation radiation = new Radiation();
+            String startDate = data.dateAfter(diagnosisDate, 365);
+            radiation.setRadOncTreatmentCourseStartDate(startDate);
+            radiation.setRadOncTreatmentCourseStopDate(data.dateAfter(startDate, 60));
+            radiation.setPlanName("Plan " + data.nextInt(10));
+            radiation.setPlanNameAnatomy(data.cleanText(2));
+            radiation.setPlannedDose(String.valueOf(data.nextInt(6000)));
+            radiation.setDeliveredDose(String.valueOf(data.nextInt(6000)));
+            radiation.setPlannedFractions(data.nextInt(30));
+            radiation.setDeliveredFractions(data.nextInt(30));
+            radiation.setReferencePointSite(data.cleanText(1));
+            records[i] = new TimelineRadiationRecord(data.patientId(i), diagnosisDate, radiation);
+        }
+    }
+
+    private TimelineRadiationRecord nextRecord() {
+        index = (index + 1) % RECORD_COUNT;
+        return records[index];
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String reflective() throws Exception {
+        Object record = nextRecord();
+        List<String> fields = (List<String>) record.getClass().getMethod("getFieldNames").invoke(record);
+        List<String> values = new ArrayList<>();
+        for (String field : fields) {
+            values.add(record.getClass().getMethod("get" + field).invoke(record).toString().trim());
+        }
+        return String.join("\t", values);
+    }
+
+    @Benchmark
+    public String recordFieldAccessor() throws Exception {
+        Object record = nextRecord();
+        RecordFieldAccessor accessor = RecordFieldAccessor.forClass(record.getClass());
+        return RecordFieldAccessor.toLine(record, accessor.getFieldNames(), String::trim);
+    }
+}
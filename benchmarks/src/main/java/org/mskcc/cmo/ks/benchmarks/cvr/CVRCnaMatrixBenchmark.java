@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.cvr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
+import org.cbioportal.cmo.pipelines.cvr.CvrSampleListUtil;
+import org.cbioportal.cmo.pipelines.cvr.cna.CVRCnaDataReader;
+import org.cbioportal.cmo.pipelines.cvr.model.CVRData;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/* CVRCnaDataReader builds the gene x sample CNA matrix in open(): it loads cvr_data.json, the
+ * gene panel and the existing staging CNA file, then renders one line per gene. Each invocation
+ * opens a new reader over the same files and reads every line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CVRCnaMatrixBenchmark {
+
+    private static final int GENE_POOL_SIZE = 500;
+    private static final int VARIANTS_PER_SAMPLE = 10;
+    private static final String[] CNA_VALUES = {"0", "0", "0", "0", "2", "-2", "-1.5"};
+
+    @Param({"100", "1000"})
+    public int newSampleCount;
+
+    @Param({"10000"})
+    public int existingSampleCount;
+
+    private Path workingDirectory;
+    private Path privateDirectory;
+    private Path stagingDirectory;
+    private CvrSampleListUtil cvrSampleListUtil;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticData data = new SyntheticData();
+        workingDirectory = Files.createTempDirectory("cvr_cna_benchmark");
+        privateDirectory = Files.createDirectories(workingDirectory.resolve("private"));
+        stagingDirectory = Files.createDirectories(workingDirectory.resolve("staging"));
+        cvrSampleListUtil = new CvrSampleListUtil();
+
+        // new samples, fetched from CVR
+        CVRData cvrData = new CVRDataGenerator(data).makeCnaData(newSampleCount, GENE_POOL_SIZE, VARIANTS_PER_SAMPLE);
+        new ObjectMapper().writeValue(privateDirectory.resolve(CVRUtilities.CVR_FILE).toFile(), cvrData);
+        for (int i = 0; i < newSampleCount; i++) {
+            cvrSampleListUtil.addPortalSample(data.sampleId(i));
+            cvrSampleListUtil.addNewDmpSample(data.sampleId(i));
+        }
+
+        // samples already in the staging CNA file
+        List<String> genes = new ArrayList<>();
+        for (int i = 0; i < GENE_POOL_SIZE; i++) {
+            genes.add(data.gene(GENE_POOL_SIZE));
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(stagingDirectory.resolve(CVRUtilities.CNA_FILE), StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder(CVRUtilities.CNA_HEADER_HUGO_SYMBOL);
+            for (int i = newSampleCount; i < newSampleCount + existingSampleCount; i++) {
+                header.append("\t").append(data.sampleId(i));
+                cvrSampleListUtil.addPortalSample(data.sampleId(i));
+            }
+            writer.write(header.toString());
+            writer.newLine();
+            for (String gene : new LinkedHashSet<>(genes)) {
+                StringBuilder line = new StringBuilder(gene);
+                for (int i = 0; i < existingSampleCount; i++) {
+                    line.append("\t").append(data.pick(CNA_VALUES));
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+
+        Path genePanelFile = stagingDirectory.resolve(CVRUtilities.GENE_PANEL);
+        Files.createDirectories(genePanelFile.getParent());
+        Files.write(genePanelFile, Arrays.asList(
+                "stable_id=IMPACT468",
+                "description=Synthetic gene panel",
+                "cancer_study_identifier=mskimpact",
+                "gene_list=" + String.join("\t", new LinkedHashSet<>(genes))), StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workingDirectory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int buildMatrix() throws Exception {
+        CVRCnaDataReader reader = new CVRCnaDataReader();
+        ReflectionTestUtils.setField(reader, "stagingDirectory", stagingDirectory.toString());
+        ReflectionTestUtils.setField(reader, "privateDirectory", privateDirectory.toString());
+        reader.cvrUtilities = new CVRUtilities();
+        reader.cvrSampleListUtil = cvrSampleListUtil;
+        reader.open(new ExecutionContext());
+        int lineCount = 0;
+        while (reader.read() != null) {
+            lineCount++;
+        }
+        reader.close();
+        return lineCount;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.cvr;
+
+import java.util.*;
+import org.cbioportal.cmo.pipelines.cvr.model.*;
+import org.cbioportal.cmo.pipelines.cvr.model.staging.*;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+
+/**
+ * Synthetic CVR results and staging records shaped like the ones the CVR
+ * pipeline fetches from DMP and reads back from the staging files.
+ */
+public class CVRDataGenerator {
+
+    private static final String[] VARIANT_CLASSES = {"Missense_Mutation", "Nonsense_Mutation", "Frame_Shift_Del",
+        "Frame_Shift_Ins", "Splice_Site", "In_Frame_Del", "Silent", "5'Flank"};
+    private static final String[] TUMOR_TYPES = {"LUAD", "COADREAD", "BRCA", "PRAD", "PAAD", "SKCM", "GBM", "BLCA"};
+
+    private final SyntheticData data;
+
+    public CVRDataGenerator(SyntheticData data) {
+        this.data = data;
+    }
+
+    public CVRSnp makeSnp() {
+        CVRSnp snp = new CVRSnp();
+        String refAllele;
+        String altAllele;
+        switch (data.nextInt(4)) {
+            case 0: refAllele = "-"; altAllele = data.allele(4); break;
+            case 1: refAllele = data.allele(6); altAllele = "-"; break;
+            default: refAllele = data.base(); altAllele = data.base(); break;
+        }
+        snp.setGeneId(data.gene());
+        snp.setChromosome(data.chromosome());
+        snp.setStartPosition(1 + data.nextInt(200_000_000));
+        snp.setRefAllele(refAllele);
+        snp.setAltAllele(altAllele);
+        snp.setVariantClass(data.pick(VARIANT_CLASSES));
+        snp.setDbSNPId(data.chance(0.2d) ? "rs" + data.nextInt(1_000_000) : "");
+        snp.setClinicalSignedOut(data.chance(0.9d) ? "1" : "0");
+        snp.setTumorDp(100 + data.nextInt(900));
+        snp.setTumorAd(5 + data.nextInt(95));
+        snp.setNormalDp(100 + data.nextInt(500));
+        snp.setNormalAd(data.nextInt(5));
+        return snp;
+    }
+
+    public CVRMetaData makeMetaData(int sampleIndex) {
+        CVRMetaData metaData = new CVRMetaData();
+        metaData.setDmpSampleId(data.sampleId(sampleIndex));
+        metaData.setDmpPatientId(data.patientId(sampleIndex));
+        metaData.setTumorTypeName(data.cleanText(3));
+        metaData.setTumorTypeCode(data.pick(TUMOR_TYPES));
+        metaData.setIsMetastasis(data.nextInt(3));
+        metaData.setMetastasisSite(data.chance(0.3d) ? data.messyText(2) : "Not Applicable");
+        metaData.setPrimarySite(data.cleanText(1));
+        metaData.setGenePanel("IMPACT468");
+        metaData.setLegacyPatientId("");
+        metaData.setSoComments(data.messyText(8));
+        metaData.setSampleCoverage(200 + data.nextInt(800));
+        metaData.setCycleThreshold(data.nextInt(40));
+        metaData.setTumorPurity(String.valueOf(10 * data.nextInt(10)));
+        metaData.setConsentPartA("YES");
+        metaData.setConsentPartC(data.chance(0.8d) ? "YES" : "NO");
+        metaData.setMsiComment(data.messyText(4));
+        metaData.setMsiScore(String.format("%.2f", data.nextDouble() * 40));
+        metaData.setMsiType(data.chance(0.9d) ? "Stable" : "Instable");
+        metaData.setOutsideInstitute("");
+        metaData.setSomatic_status(data.chance(0.95d) ? "Matched" : "Unmatched");
+        metaData.setDateTumorSequencing(data.date());
+        metaData.setTmbScore(data.nextDouble() * 30);
+        metaData.setTmbCohortPercentile(data.nextDouble() * 100);
+        metaData.setWholeSlideViewerId(data.chance(0.5d) ? String.valueOf(data.nextInt(1_000_000)) : "NA");
+        return metaData;
+    }
+
+    /**
+     * @param sampleCount
+     * @param genePoolSize number of distinct genes copy number variants are drawn from
+     * @param variantsPerSample copy number variants per sample
+     * @return results holding metadata and copy number variants only
+     */
+    public CVRData makeCnaData(int sampleCount, int genePoolSize, int variantsPerSample) {
+        List<CVRMergedResult> results = new ArrayList<>();
+        for (int sampleIndex = 0; sampleIndex < sampleCount; sampleIndex++) {
+            CVRMergedResult result = new CVRMergedResult();
+            result.setMetaData(makeMetaData(sampleIndex));
+            List<CVRCnvVariant> cnvVariants = new ArrayList<>();
+            List<CVRCnvIntragenicVariant> intragenicVariants = new ArrayList<>();
+            for (int i = 0; i < variantsPerSample; i++) {
+                if (data.chance(0.1d)) {
+                    CVRCnvIntragenicVariant variant = new CVRCnvIntragenicVariant();
+                    variant.setGeneId(data.gene(genePoolSize));
+                    intragenicVariants.add(variant);
+                } else {
+                    CVRCnvVariant variant = new CVRCnvVariant();
+                    variant.setGeneId(data.gene(genePoolSize));
+                    variant.setClinicalSignedOut(data.chance(0.9d) ? "1" : "0");
+                    variant.setGeneFoldChange((data.nextDouble() - 0.5d) * 8);
+                    cnvVariants.add(variant);
+                }
+            }
+            result.setCnvVariants(cnvVariants);
+            result.setCnvIntragenicVariants(intragenicVariants);
+            results.add(result);
+        }
+        return new CVRData(sampleCount, "", results);
+    }
+
+    public CVRClinicalRecord makeClinicalRecord(int sampleIndex) {
+        return new CVRClinicalRecord(makeMetaData(sampleIndex), "https://slides.example.org/", "mskimpact");
+    }
+
+    public CVRSegRecord makeSegRecord(int sampleIndex) {
+        CVRSegRecord record = new CVRSegRecord();
+        int start = data.nextInt(200_000_000);
+        record.setID(data.sampleId(sampleIndex));
+        record.setchrom(data.chromosome());
+        record.setloc_start(String.valueOf(start));
+        record.setloc_end(String.valueOf(start + data.nextInt(10_000_000)));
+        record.setnum_mark(String.valueOf(data.nextInt(2000)));
+        record.setseg_mean(String.format("%.4f", (data.nextDouble() - 0.5d) * 2));
+        return record;
+    }
+
+    public CVRSvRecord makeSvRecord(int sampleIndex) {
+        CVRSvRecord record = new CVRSvRecord();
+        record.setSample_ID(data.sampleId(sampleIndex));
+        record.setSV_Status("SOMATIC");
+        record.setSite1_Hugo_Symbol(data.gene());
+        record.setSite2_Hugo_Symbol(data.gene());
+        record.setSite1_Chromosome(data.chromosome());
+        record.setSite2_Chromosome(data.chromosome());
+        record.setSite1_Position(String.valueOf(data.nextInt(200_000_000)));
+        record.setSite2_Position(String.valueOf(data.nextInt(200_000_000)));
+        record.setSite1_Description(data.messyText(4));
+        record.setSite2_Description(data.messyText(4));
+        record.setNCBI_Build("GRCh37");
+        record.setSV_Class(data.chance(0.5d) ? "DELETION" : "TRANSLOCATION");
+        record.setTumor_Split_Read_Count(String.valueOf(data.nextInt(100)));
+        record.setTumor_Paired_End_Read_Count(String.valueOf(data.nextInt(100)));
+        record.setEvent_Info(data.messyText(6));
+        record.setAnnotation(data.messyText(10));
+        record.setComments(data.messyText(12));
+        return record;
+    }
+}
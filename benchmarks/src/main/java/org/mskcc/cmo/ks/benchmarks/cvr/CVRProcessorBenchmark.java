@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.cvr;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
+import org.cbioportal.cmo.pipelines.cvr.clinical.CVRClinicalDataProcessor;
+import org.cbioportal.cmo.pipelines.cvr.model.composite.CompositeClinicalRecord;
+import org.cbioportal.cmo.pipelines.cvr.model.staging.*;
+import org.cbioportal.cmo.pipelines.cvr.mutation.CVRMutationDataProcessor;
+import org.cbioportal.cmo.pipelines.cvr.seg.CVRSegDataProcessor;
+import org.cbioportal.cmo.pipelines.cvr.sv.CVRSvDataProcessor;
+import org.cbioportal.models.AnnotatedRecord;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/* Per-record cost of the CVR step processors, each turning a staging record into an output line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CVRProcessorBenchmark {
+
+    private static final int RECORD_COUNT = 1024;
+    private static final List<String> MUTATION_HEADER = Arrays.asList("Hugo_Symbol", "Entrez_Gene_Id", "Center",
+            "NCBI_Build", "Chromosome", "Start_Position", "End_Position", "Strand", "Variant_Classification",
+            "Variant_Type", "Reference_Allele", "Tumor_Seq_Allele1", "Tumor_Seq_Allele2", "dbSNP_RS",
+            "dbSNP_Val_Status", "Tumor_Sample_Barcode", "Matched_Norm_Sample_Barcode", "Match_Norm_Seq_Allele1",
+            "Match_Norm_Seq_Allele2", "Tumor_Validation_Allele1", "Tumor_Validation_Allele2",
+            "Match_Norm_Validation_Allele1", "Match_Norm_Validation_Allele2", "Verification_Status",
+            "Validation_Status", "Mutation_Status", "Sequencing_Phase", "Sequence_Source", "Validation_Method",
+            "Score", "BAM_File", "Sequencer", "Tumor_Sample_UUID", "Matched_Norm_Sample_UUID", "HGVSc", "HGVSp",
+            "HGVSp_Short", "Transcript_ID", "RefSeq", "Protein_position", "Codons", "Exon_Number", "t_ref_count",
+            "t_alt_count", "n_ref_count", "n_alt_count", "Comments");
+
+    private CVRClinicalDataProcessor clinicalDataProcessor;
+    private CVRMutationDataProcessor mutationDataProcessor;
+    private CVRSegDataProcessor segDataProcessor;
+    private CVRSvDataProcessor svDataProcessor;
+    private CVRClinicalRecord[] clinicalRecords;
+    private AnnotatedRecord[] annotatedRecords;
+    private CVRSegRecord[] segRecords;
+    private CVRSvRecord[] svRecords;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        CVRDataGenerator generator = new CVRDataGenerator(data);
+        CVRUtilities cvrUtilities = new CVRUtilities();
+        clinicalDataProcessor = new CVRClinicalDataProcessor();
+        ReflectionTestUtils.setField(clinicalDataProcessor, "cvrUtilities", cvrUtilities);
+        mutationDataProcessor = new CVRMutationDataProcessor();
+        ReflectionTestUtils.setField(mutationDataProcessor, "cvrUtilities", cvrUtilities);
+        ReflectionTestUtils.setField(mutationDataProcessor, "header", MUTATION_HEADER);
+        segDataProcessor = new CVRSegDataProcessor();
+        ReflectionTestUtils.setField(segDataProcessor, "cvrUtilities", cvrUtilities);
+        svDataProcessor = new CVRSvDataProcessor();
+        ReflectionTestUtils.setField(svDataProcessor, "cvrUtilities", cvrUtilities);
+
+        clinicalRecords = new CVRClinicalRecord[RECORD_COUNT];
+        annotatedRecords = new AnnotatedRecord[RECORD_COUNT];
+        segRecords = new CVRSegRecord[RECORD_COUNT];
+        svRecords = new CVRSvRecord[RECORD_COUNT];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            clinicalRecords[i] = generator.makeClinicalRecord(i);
+            annotatedRecords[i] = cvrUtilities.buildCVRAnnotatedRecord(cvrUtilities.buildCVRMutationRecord(generator.makeSnp(), data.sampleId(i), "Matched"));
+            segRecords[i] = generator.makeSegRecord(i);
+            svRecords[i] = generator.makeSvRecord(i);
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % RECORD_COUNT;
+        return index;
+    }
+
+    @Benchmark
+    public CompositeClinicalRecord clinical() throws Exception {
+        return clinicalDataProcessor.process(clinicalRecords[nextIndex()]);
+    }
+
+    @Benchmark
+    public String mutation() throws Exception {
+        return mutationDataProcessor.process(annotatedRecords[nextIndex()]);
+    }
+
+    @Benchmark
+    public String seg() throws Exception {
+        return segDataProcessor.process(segRecords[nextIndex()]);
+    }
+
+    @Benchmark
+    public String sv() throws Exception {
+        return svDataProcessor.process(svRecords[nextIndex()]);
+    }
+}
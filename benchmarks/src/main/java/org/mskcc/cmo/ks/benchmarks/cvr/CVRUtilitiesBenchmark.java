@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.cvr;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
+import org.cbioportal.cmo.pipelines.cvr.model.CVRSnp;
+import org.cbioportal.models.AnnotatedRecord;
+import org.cbioportal.models.MutationRecord;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+/* CVRUtilities conversions run for every variant the CVR pipeline fetches. The duplicate check
+ * compares a record against the records already collected for its sample.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CVRUtilitiesBenchmark {
+
+    private static final int SNP_COUNT = 1024;
+
+    @Param({"50"})
+    public int recordsPerSample;
+
+    private final CVRUtilities cvrUtilities = new CVRUtilities();
+    private CVRSnp[] snps;
+    private MutationRecord[] mutationRecords;
+    private String[] comments;
+    private List<MutationRecord> sampleRecords;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        CVRDataGenerator generator = new CVRDataGenerator(data);
+        snps = new CVRSnp[SNP_COUNT];
+        mutationRecords = new MutationRecord[SNP_COUNT];
+        comments = new String[SNP_COUNT];
+        for (int i = 0; i < SNP_COUNT; i++) {
+            snps[i] = generator.makeSnp();
+            mutationRecords[i] = cvrUtilities.buildCVRMutationRecord(snps[i], data.sampleId(i % 64), "Matched");
+            comments[i] = data.messyText(10);
+        }
+        sampleRecords = new ArrayList<>();
+        for (int i = 0; i < recordsPerSample; i++) {
+            sampleRecords.add(cvrUtilities.buildCVRMutationRecord(generator.makeSnp(), data.sampleId(0), "Matched"));
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % SNP_COUNT;
+        return index;
+    }
+
+    @Benchmark
+    public MutationRecord buildCVRMutationRecord() {
+        return cvrUtilities.buildCVRMutationRecord(snps[nextIndex()], "P-0000001-T01-IM6", "Matched");
+    }
+
+    @Benchmark
+    public AnnotatedRecord buildCVRAnnotatedRecord() {
+        return cvrUtilities.buildCVRAnnotatedRecord(mutationRecords[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean isDuplicateRecord() {
+        return cvrUtilities.isDuplicateRecord(mutationRecords[nextIndex()], sampleRecords);
+    }
+
+    @Benchmark
+    public String convertWhitespace() {
+        return cvrUtilities.convertWhitespace(comments[nextIndex()]);
+    }
+}
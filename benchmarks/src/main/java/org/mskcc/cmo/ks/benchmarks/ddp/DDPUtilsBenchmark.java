@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.ddp;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.ddp.pipeline.model.ClinicalRecord;
+import org.mskcc.cmo.ks.ddp.pipeline.model.TimelineRadiationRecord;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPSeqDateIndex;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
+import org.mskcc.cmo.ks.ddp.source.model.Radiation;
+import org.openjdk.jmh.annotations.*;
+
+/* Date math and record serialization done by the DDP composite processor for every patient.
+ * Each invocation handles the next patient of a fixed synthetic cohort.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DDPUtilsBenchmark {
+
+    private static final int PATIENT_COUNT = 1024;
+
+    private String[] birthDates;
+    private String[] diagnosisDates;
+    private String[] sampleIds;
+    private ClinicalRecord[] clinicalRecords;
+    private Radiation[] radiations;
+    private DDPSeqDateIndex seqDateIndex;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        birthDates = new String[PATIENT_COUNT];
+        diagnosisDates = new String[PATIENT_COUNT];
+        sampleIds = new String[PATIENT_COUNT];
+        clinicalRecords = new ClinicalRecord[PATIENT_COUNT];
+        radiations = new Radiation[PATIENT_COUNT];
+        DDPSeqDateIndex.Builder seqDateIndexBuilder = new DDPSeqDateIndex.Builder();
+        for (int i = 0; i < PATIENT_COUNT; i++) {
+            birthDates[i] = data.date();
+            diagnosisDates[i] = data.dateAfter(birthDates[i], 365 * 60);
+            sampleIds[i] = data.sampleId(i);
+            Instant seqDate = LocalDate.parse(data.dateAfter(diagnosisDates[i], 365)).atStartOfDay().toInstant(ZoneOffset.UTC);
+            seqDateIndexBuilder.addSeqDate(sampleIds[i], data.patientId(i), seqDate);
+            clinicalRecords[i] = makeClinicalRecord(data, i);
+            radiations[i] = makeRadiation(data, diagnosisDates[i]);
+        }
+        seqDateIndex = seqDateIndexBuilder.build();
+    }
+
+    private ClinicalRecord makeClinicalRecord(SyntheticData data, int patientIndex) {
+        ClinicalRecord record = new ClinicalRecord();
+        record.setPATIENT_ID(data.patientId(patientIndex));
+        record.setAGE_CURRENT(String.valueOf(18 + data.nextInt(70)));
+        record.setRACE(data.chance(0.1d) ? "NA" : "WHITE");
+        record.setRELIGION(data.cleanText(1));
+        record.setSEX(data.chance(0.5d) ? "Female" : "Male");
+        record.setETHNICITY("Non-Spanish; Non-Hispanic");
+        record.setOS_STATUS(data.chance(0.2d) ? "1:DECEASED" : "0:LIVING");
+        record.setPED_IND(data.chance(0.05d) ? "Yes" : "No");
+        record.setOS_MONTHS(String.format("%.3f", data.nextDouble() * 200));
+        record.setRADIATION_THERAPY(data.chance(0.3d) ? "Yes" : "No");
+        record.setCHEMOTHERAPY(data.chance(0.4d) ? "Yes" : "No");
+        record.setSURGERY(data.chance(0.5d) ? "Yes" : "No");
+        return record;
+    }
+
+    private Radiation makeRadiation(SyntheticData data, String diagnosisDate) {
+        Radiation radiation = new Radiation();
+        String startDate = data.dateAfter(diagnosisDate, 365);
+        radiation.setRadOncTreatmentCourseStartDate(startDate);
+        radiation.setRadOncTreatmentCourseStopDate(data.dateAfter(startDate, 60));
+        radiation.setPlanName("Plan " + data.nextInt(10));
+        radiation.setPlanNameAnatomy(data.cleanText(2));
+        radiation.setPlannedDose(String.valueOf(data.nextInt(6000)));
+        radiation.setDeliveredDose(String.valueOf(data.nextInt(6000)));
+        radiation.setPlannedFractions(data.nextInt(30));
+        radiation.setDeliveredFractions(data.nextInt(30));
+        radiation.setReferencePointSite(data.cleanText(1));
+        return radiation;
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % PATIENT_COUNT;
+        return index;
+    }
+
+    @Benchmark
+    public String intervalInDays() throws Exception {
+        int i = nextIndex();
+        return DDPUtils.resolveIntervalInDays(birthDates[i], diagnosisDates[i], true);
+    }
+
+    @Benchmark
+    public String timelineEventDateInDays() throws Exception {
+        int i = nextIndex();
+        return DDPUtils.resolveTimelineEventDateInDays(diagnosisDates[i], radiations[i].getRadOncTreatmentCourseStartDate());
+    }
+
+    @Benchmark
+    public String dateInDays() throws Exception {
+        return DDPUtils.getDateInDaysAsString(birthDates[nextIndex()]);
+    }
+
+    @Benchmark
+    public String ageAtSeqDate() throws Exception {
+        int i = nextIndex();
+        return DDPUtils.resolveAgeAtSeqDate(sampleIds[i], birthDates[i], "24.5", seqDateIndex);
+    }
+
+    @Benchmark
+    public String constructClinicalRecord() throws Exception {
+        return DDPUtils.constructRecord(clinicalRecords[nextIndex()], true, true, true, true);
+    }
+
+    @Benchmark
+    public String constructTimelineRadiationRecord() throws Exception {
+        int i = nextIndex();
+        return DDPUtils.constructRecord(new TimelineRadiationRecord(clinicalRecords[i].getPATIENT_ID(), diagnosisDates[i], radiations[i]));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes of the Genome Nexus annotation endpoints under genomenexus.base.
+ *
+ * The posted genomic locations (or hgvs strings) are each answered with a
+ * successful, minimal annotation : the location echoed back with a single
+ * consequence, enough for the annotator client to build its records. No
+ * real annotation is attempted.
+ */
+public class AnnotatorStandIn {
+
+    private static final String[] CONSEQUENCES = {"missense_variant", "stop_gained", "frameshift_variant", "synonymous_variant",
+        "splice_region_variant", "inframe_deletion"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LongAdder annotatedCount = new LongAdder();
+
+    public void addRoutes(StandInServer server) {
+        server.addRoute("annotate", "POST", ".*/annotation(/genomic)?/?", this::annotate);
+    }
+
+    /**
+     * @return number of variants annotated so far
+     */
+    public long getAnnotatedCount() {
+        return annotatedCount.sum();
+    }
+
+    private ArrayNode annotate(StandInRequest request) throws Exception {
+        JsonNode queries = mapper.readTree(request.getBody());
+        ArrayNode annotations = JsonNodeFactory.instance.arrayNode();
+        if (queries == null || !queries.isArray()) {
+            throw new StandInServer.StatusException(400, "expected an array of variants");
+        }
+        for (JsonNode query : queries) {
+            annotations.add(makeAnnotation(query));
+        }
+        annotatedCount.add(annotations.size());
+        return annotations;
+    }
+
+    private ObjectNode makeAnnotation(JsonNode query) {
+        ObjectNode annotation = JsonNodeFactory.instance.objectNode();
+        String variant;
+        if (query.isObject()) {
+            String chromosome = query.path("chromosome").asText("1");
+            long start = query.path("start").asLong(1L);
+            long end = query.path("end").asLong(start);
+            String referenceAllele = query.path("referenceAllele").asText("-");
+            String variantAllele = query.path("variantAllele").asText("-");
+            variant = chromosome + ":g." + start + referenceAllele + ">" + variantAllele;
+            annotation.set("genomicLocation", query);
+            annotation.put("seq_region_name", chromosome);
+            annotation.put("start", start);
+            annotation.put("end", end);
+            annotation.put("allele_string", referenceAllele + "/" + variantAllele);
+        } else {
+            variant = query.asText();
+        }
+        String consequence = CONSEQUENCES[Math.floorMod(variant.hashCode(), CONSEQUENCES.length)];
+        annotation.put("variant", variant);
+        annotation.put("originalVariantQuery", variant);
+        annotation.put("assembly_name", "GRCh37");
+        annotation.put("strand", 1);
+        annotation.put("most_severe_consequence", consequence);
+        annotation.put("successfully_annotated", true);
+        ArrayNode transcriptConsequences = annotation.putArray("transcript_consequences");
+        ObjectNode transcriptConsequence = transcriptConsequences.addObject();
+        transcriptConsequence.put("transcript_id", "ENST" + String.format("%011d", Math.floorMod(variant.hashCode(), 100_000_000)));
+        transcriptConsequence.put("canonical", "1");
+        transcriptConsequence.putArray("consequence_terms").add(consequence);
+        return annotation;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cbioportal.cmo.pipelines.cvr.model.*;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.benchmarks.cvr.CVRDataGenerator;
+
+/**
+ * Routes of the DMP CVR and GML web services, serving the samples of a SyntheticCohort.
+ *
+ * Like DMP, retrieve_variants returns the samples which have not been
+ * consumed yet (at most batchSize of them) and consume_sample takes a sample
+ * out of the queue, so a fetch without --test drains the cohort. The CVR and
+ * GML queues are separate. Both services can be served by the same server,
+ * dmp.server_name and dmp.gml_server_name then hold the same base url.
+ */
+public class CvrStandIn {
+
+    public static final String SEG_DATA_HEADER = "ID,chrom,loc.start,loc.end,num.mark,seg.mean";
+
+    private final SyntheticCohort cohort;
+    private final int variantsPerSample;
+    private final int segmentsPerSample;
+    private final int batchSize;
+    private final Set<Integer> consumedCvrSamples = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> consumedGmlSamples = ConcurrentHashMap.newKeySet();
+    private StandInServer server;
+
+    /**
+     * @param cohort
+     * @param variantsPerSample mutations and copy number variants per sample
+     * @param segmentsPerSample rows of seg data per sample
+     * @param batchSize most samples returned by one retrieve_variants request, 0 for no limit
+     */
+    public CvrStandIn(SyntheticCohort cohort, int variantsPerSample, int segmentsPerSample, int batchSize) {
+        this.cohort = cohort;
+        this.variantsPerSample = variantsPerSample;
+        this.segmentsPerSample = segmentsPerSample;
+        this.batchSize = (batchSize <= 0) ? Integer.MAX_VALUE : batchSize;
+    }
+
+    public void addRoutes(StandInServer server) {
+        this.server = server;
+        server.addRoute("create_session", "POST", "/create_(gml_)?session/[^/]*/[^/]*/0/?", request -> makeSession())
+                .addRoute("retrieve_gml_variants", "GET", "/gml_\\w*retrieve_variants/([^/]+)/0/?", request -> makeGmlVariants())
+                .addRoute("retrieve_variants", "GET", "/\\w*retrieve\\w*_variants/([^/]+)/0/?", request -> makeCvrResponse())
+                .addRoute("get_seg_data", "GET", "/\\w*get_seg_data/([^/]+)/([^/]+)/?", request -> makeSegData(request.getPathGroup(2)))
+                .addRoute("consume_gml_sample", "GET", "/gml_\\w*consume_sample/([^/]+)/([^/]+)/?",
+                        request -> consume(consumedGmlSamples, request.getPathGroup(2)))
+                .addRoute("consume_sample", "GET", "/\\w*consume_sample/([^/]+)/([^/]+)/?",
+                        request -> consume(consumedCvrSamples, request.getPathGroup(2)))
+                .addRoute("requeue", null, "/\\w*requeue\\w*/([^/]+)/([^/]+)/?", request -> requeue(request.getPathGroup(2)))
+                .addRoute("master_list", "GET", "/\\w*signedout_samples/([^/]+)/([^/]+)/?", request -> makeMasterList());
+    }
+
+    public int getConsumedSampleCount() {
+        return consumedCvrSamples.size();
+    }
+
+    public int getConsumedGmlSampleCount() {
+        return consumedGmlSamples.size();
+    }
+
+    private CVRSession makeSession() {
+        Instant now = Instant.now();
+        return new CVRSession(UUID.randomUUID().toString(), now.toString(), now.plus(4, ChronoUnit.HOURS).toString(), server.getPadding());
+    }
+
+    private List<Integer> nextBatch(Set<Integer> consumedSamples) {
+        List<Integer> batch = new ArrayList<>();
+        for (int index = 0; index < cohort.getPatientCount() && batch.size() < batchSize; index++) {
+            if (!consumedSamples.contains(index)) {
+                batch.add(index);
+            }
+        }
+        return batch;
+    }
+
+    private CvrResponse makeCvrResponse() {
+        Map<String, CVRResult> results = new LinkedHashMap<>();
+        for (int index : nextBatch(consumedCvrSamples)) {
+            results.put(cohort.sampleId(index), makeCvrResult(index));
+        }
+        return new CvrResponse(server.getPadding(), results, results.size(), "");
+    }
+
+    private CVRResult makeCvrResult(int index) {
+        SyntheticData data = cohort.dataFor(index);
+        CVRDataGenerator generator = new CVRDataGenerator(data);
+        List<CVRSnp> exonic = new ArrayList<>();
+        List<CVRSnp> silent = new ArrayList<>();
+        List<CVRCnvVariant> cnvVariants = new ArrayList<>();
+        List<CVRSvVariant> svVariants = new ArrayList<>();
+        for (int i = 0; i < variantsPerSample; i++) {
+            int kind = data.nextInt(10);
+            if (kind < 6) {
+                exonic.add(generator.makeSnp());
+            } else if (kind < 8) {
+                silent.add(generator.makeSnp());
+            } else if (kind < 9) {
+                CVRCnvVariant variant = new CVRCnvVariant();
+                variant.setGeneId(data.gene());
+                variant.setClinicalSignedOut("1");
+                variant.setGeneFoldChange((data.nextDouble() - 0.5d) * 8);
+                cnvVariants.add(variant);
+            } else {
+                svVariants.add(makeSvVariant(data));
+            }
+        }
+        return new CVRResult(new ArrayList<>(), cnvVariants, generator.makeMetaData(index), exonic, new ArrayList<>(), silent, new ArrayList<>(), svVariants);
+    }
+
+    private CVRSvVariant makeSvVariant(SyntheticData data) {
+        CVRSvVariant variant = new CVRSvVariant();
+        variant.setSite1_Gene(data.gene());
+        variant.setSite2_Gene(data.gene());
+        variant.setSite1_Chrom(data.chromosome());
+        variant.setSite2_Chrom(data.chromosome());
+        variant.setSite1_Pos(String.valueOf(data.nextInt(200_000_000)));
+        variant.setSite2_Pos(String.valueOf(data.nextInt(200_000_000)));
+        variant.setSite1_Desc(data.cleanText(3));
+        variant.setSite2_Desc(data.cleanText(3));
+        variant.setSv_Class_Name(data.chance(0.5d) ? "DELETION" : "TRANSLOCATION");
+        variant.setVariant_Status_Name("SOMATIC");
+        variant.setTumor_Read_Count(String.valueOf(data.nextInt(200)));
+        variant.setTumor_Variant_Count(String.valueOf(data.nextInt(50)));
+        variant.setEvent_Info(data.cleanText(2));
+        variant.setAnnotation(data.messyText(6));
+        variant.setComments(data.messyText(8));
+        return variant;
+    }
+
+    private GMLVariant makeGmlVariants() {
+        HashMap<String, GMLResult> results = new LinkedHashMap<>();
+        for (int index : nextBatch(consumedGmlSamples)) {
+            SyntheticData data = cohort.dataFor(index);
+            GMLMetaData metaData = new GMLMetaData(index, "GML", cohort.patientId(index), cohort.sampleId(index), data.nextInt(2),
+                    "IMPACT468", "", "", 0, 200 + data.nextInt(800), data.cleanText(4), "signed_out");
+            List<GMLSnp> snps = new ArrayList<>();
+            // germline results are sparse compared to somatic ones
+            for (int i = 0; i < Math.max(1, variantsPerSample / 10); i++) {
+                snps.add(makeGmlSnp(data));
+            }
+            results.put(cohort.sampleId(index), new GMLResult(new ArrayList<>(), new ArrayList<>(), metaData, snps));
+        }
+        return new GMLVariant(server.getPadding(), results, results.size());
+    }
+
+    private GMLSnp makeGmlSnp(SyntheticData data) {
+        GMLSnp snp = new GMLSnp();
+        snp.setGeneId(data.gene());
+        snp.setChromosome(data.chromosome());
+        snp.setStartPosition(1 + data.nextInt(200_000_000));
+        snp.setRefAllele(data.base());
+        snp.setAltAllele(data.base());
+        snp.setTranscriptId("NM_" + data.nextInt(1_000_000));
+        snp.setAaChange("p.X" + data.nextInt(1000) + "Y");
+        snp.setCDNAChange("c." + data.nextInt(5000) + "A>G");
+        snp.setExonNum(String.valueOf(1 + data.nextInt(20)));
+        snp.setClinicalSignedOut("1");
+        snp.setInterpretation(data.chance(0.5d) ? "Pathogenic" : "Likely Pathogenic");
+        snp.setDbSNPId("");
+        snp.setDepth(100 + data.nextInt(900));
+        snp.setAlleleDepth(10 + data.nextInt(90));
+        return snp;
+    }
+
+    private CVRSegData makeSegData(String sampleId) {
+        int index = cohort.indexOf(sampleId);
+        if (index < 0) {
+            throw new StandInServer.StatusException(404, "unknown sample " + sampleId);
+        }
+        SyntheticData data = cohort.dataFor(index);
+        List<List<String>> segData = new ArrayList<>();
+        segData.add(Arrays.asList(SEG_DATA_HEADER.split(",")));
+        for (int i = 0; i < segmentsPerSample; i++) {
+            int start = data.nextInt(200_000_000);
+            segData.add(Arrays.asList(sampleId, data.chromosome(), String.valueOf(start), String.valueOf(start + data.nextInt(10_000_000)),
+                    String.valueOf(data.nextInt(2000)), String.format("%.4f", (data.nextDouble() - 0.5d) * 2)));
+        }
+        return new CVRSegData(String.valueOf(index), server.getPadding(), sampleId, segData);
+    }
+
+    private CVRConsumeSample consume(Set<Integer> consumedSamples, String sampleId) {
+        int index = cohort.indexOf(sampleId);
+        int affectedRows = (index >= 0 && consumedSamples.add(index)) ? 1 : 0;
+        return new CVRConsumeSample(affectedRows, sampleId, String.valueOf(index), server.getPadding());
+    }
+
+    private CVRRequeueRecord requeue(String sampleId) {
+        int index = cohort.indexOf(sampleId);
+        boolean requeued = index >= 0 && consumedCvrSamples.remove(index);
+        return new CVRRequeueRecord(server.getPadding(), requeued ? "sample requeued" : "sample not found", requeued ? 1 : 0, sampleId);
+    }
+
+    private CVRMasterList makeMasterList() {
+        List<Map<String, String>> samples = new ArrayList<>();
+        for (int index = 0; index < cohort.getPatientCount(); index++) {
+            samples.add(Collections.singletonMap("dmp_assay_lbl", cohort.sampleId(index)));
+        }
+        return new CVRMasterList(server.getPadding(), samples, samples.size());
+    }
+}
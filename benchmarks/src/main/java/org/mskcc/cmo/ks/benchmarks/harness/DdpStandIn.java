@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.*;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.ddp.source.model.*;
+
+/**
+ * Routes of the DDP API under ddp.base_url, serving the patients of a SyntheticCohort.
+ *
+ * Authentication hands out a session cookie, and requests without it are
+ * refused with a 401 as DDP would. The user is authorized for cohortId, and
+ * every cohort id holds the whole synthetic cohort. Patient endpoints take the
+ * {"id": ...} body the DDP repository posts and wrap their answer in
+ * {"data": ...}.
+ */
+public class DdpStandIn {
+
+    public static final String SESSION_COOKIE_NAME = "session";
+
+    private static final String[] DIAGNOSIS_SITES = {"LUNG", "COLON", "BREAST", "PROSTATE", "PANCREAS", "SKIN", "BRAIN", "BLADDER"};
+    private static final String[] CHEMO_AGENTS = {"CISplatin INJ", "PACLitaxel INJ", "DOXOrubicin INJ", "Pembrolizumab INJ", "Gemcitabine INJ"};
+
+    private final SyntheticCohort cohort;
+    private final int cohortId;
+    private final int eventsPerPatient;
+    private final String sessionCookie = UUID.randomUUID().toString();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param cohort
+     * @param cohortId id of the cohort listed as authorized
+     * @param eventsPerPatient most diagnoses, radiation courses, chemotherapies and surgeries returned per patient
+     */
+    public DdpStandIn(SyntheticCohort cohort, int cohortId, int eventsPerPatient) {
+        this.cohort = cohort;
+        this.cohortId = cohortId;
+        this.eventsPerPatient = eventsPerPatient;
+    }
+
+    public void addRoutes(StandInServer server) {
+        server.addRoute("authenticate", "POST", ".*/authenticate/login/?", this::authenticate)
+                .addRoute("cohort_patients", "GET", ".*/cohorts/(\\d+)/patients/?", request -> {
+                    checkSession(request);
+                    return data(makeCohortPatients(Integer.parseInt(request.getPathGroup(1))));
+                })
+                .addRoute("cohorts", "GET", ".*/cohorts/?", request -> {
+                    checkSession(request);
+                    return data(Collections.singletonList(makeCohort()));
+                })
+                .addRoute("demographics", "POST", ".*/patient/demographics/general/?",
+                        request -> data(Collections.singletonList(makeDemographics(patientIndex(request)))))
+                .addRoute("diagnosis", "POST", ".*/patient/diagnosis/code/?", request -> data(makeDiagnoses(patientIndex(request))))
+                .addRoute("identifiers", "POST", ".*/patient/id/?", request -> data(makeIdentifiers(patientIndex(request))))
+                .addRoute("radiation", "POST", ".*/patient/treatment/procedure/radiation/?", request -> data(makeRadiations(patientIndex(request))))
+                .addRoute("chemotherapy", "POST", ".*/patient/treatment/medication/chemo/?", request -> data(makeChemotherapies(patientIndex(request))))
+                .addRoute("surgery", "POST", ".*/patient/treatment/procedure/surgery/?", request -> data(makeSurgeries(patientIndex(request))));
+    }
+
+    private Object authenticate(StandInRequest request) throws Exception {
+        JsonNode credentials = mapper.readTree(request.getBody());
+        if (credentials == null || !credentials.hasNonNull("username")) {
+            throw new StandInServer.StatusException(401, "missing credentials");
+        }
+        request.setResponseHeader("Set-Cookie", SESSION_COOKIE_NAME + "=" + sessionCookie + "; Path=/");
+        return Collections.singletonMap("message", "authenticated");
+    }
+
+    private void checkSession(StandInRequest request) {
+        String cookie = request.getHeader("Cookie");
+        if (cookie == null || !cookie.contains(SESSION_COOKIE_NAME + "=" + sessionCookie)) {
+            throw new StandInServer.StatusException(401, "not authenticated");
+        }
+    }
+
+    private int patientIndex(StandInRequest request) throws Exception {
+        checkSession(request);
+        JsonNode body = mapper.readTree(request.getBody());
+        String id = (body == null || !body.hasNonNull("id")) ? null : body.get("id").asText();
+        int index = cohort.indexOf(id);
+        if (index < 0) {
+            // DDP answers 400 when the id does not resolve to a patient
+            throw new StandInServer.StatusException(400, "unknown patient id " + id);
+        }
+        return index;
+    }
+
+    private static Map<String, Object> data(Object data) {
+        return Collections.singletonMap("data", data);
+    }
+
+    private String mrn(int index) {
+        return String.valueOf(3_000_000 + index);
+    }
+
+    private Cohort makeCohort() {
+        Cohort ddpCohort = new Cohort();
+        ddpCohort.setCHTCOHORTID(cohortId);
+        ddpCohort.setTITLE("COHORT " + cohortId);
+        ddpCohort.setDESC("SYNTHETIC COHORT " + cohortId);
+        ddpCohort.setACTIVE("Y");
+        ddpCohort.setPATIENTCOUNT(cohort.getPatientCount());
+        ddpCohort.setACTIVEPATIENTCOUNT(cohort.getPatientCount());
+        ddpCohort.setINACTIVEPATIENTCOUNT(0);
+        return ddpCohort;
+    }
+
+    private List<CohortPatient> makeCohortPatients(int cohortId) {
+        List<CohortPatient> patients = new ArrayList<>();
+        for (int index = 0; index < cohort.getPatientCount(); index++) {
+            SyntheticData data = cohort.dataFor(index);
+            CohortPatient patient = new CohortPatient();
+            patient.setPID(cohort.deidentifiedId(index));
+            patient.setCOHORTID(cohortId);
+            patient.setMRN(mrn(index));
+            patient.setAGE(18 + data.nextInt(70));
+            patient.setPTSEX(data.chance(0.5d) ? "F" : "M");
+            patient.setPTVITALSTATUS(data.chance(0.8d) ? "ALIVE" : "DECEASED");
+            patient.setCHPACTIVEIND("Y");
+            patient.setDAYSONCOHORT(data.nextInt(3000));
+            patient.setNOTES("");
+            patients.add(patient);
+        }
+        return patients;
+    }
+
+    private PatientDemographics makeDemographics(int index) {
+        SyntheticData data = cohort.dataFor(index);
+        String birthDate = data.date();
+        String lastContactDate = data.dateAfter(birthDate, 365 * 80);
+        boolean deceased = data.chance(0.2d);
+        PatientDemographics demographics = new PatientDemographics();
+        demographics.setDeidentPT(cohort.deidentifiedId(index));
+        demographics.setMRN(mrn(index));
+        demographics.setDateOfBirth(birthDate);
+        demographics.setPTBIRTHDTE(birthDate);
+        demographics.setCurrentAge(18 + data.nextInt(70));
+        demographics.setGender(data.chance(0.5d) ? "FEMALE" : "MALE");
+        demographics.setRace(data.chance(0.7d) ? "WHITE" : "ASIAN-FAR EAST/INDIAN SUBCONT");
+        demographics.setReligion(data.chance(0.5d) ? "CATHOLIC" : "NONE");
+        demographics.setEthnicity("Non-Spanish; Non-Hispanic");
+        demographics.setDeceasedDate(deceased ? lastContactDate : "");
+        demographics.setPTDEATHDTE(deceased ? lastContactDate : "");
+        demographics.setLastContactDate(lastContactDate);
+        demographics.setPLALASTCONTACTDTE(lastContactDate);
+        demographics.setLastActivity(lastContactDate);
+        demographics.setPLALASTACTVDTE(lastContactDate);
+        demographics.setFirstName("FIRST" + index);
+        demographics.setLastName("LAST" + index);
+        return demographics;
+    }
+
+    private List<PatientDiagnosis> makeDiagnoses(int index) {
+        SyntheticData data = cohort.dataFor(index);
+        List<PatientDiagnosis> diagnoses = new ArrayList<>();
+        for (int i = data.nextInt(eventsPerPatient + 1); i > 0; i--) {
+            String site = data.pick(DIAGNOSIS_SITES);
+            String date = data.date();
+            PatientDiagnosis diagnosis = new PatientDiagnosis();
+            diagnosis.setPID(String.valueOf(cohort.deidentifiedId(index)));
+            diagnosis.setMRN(mrn(index));
+            diagnosis.setDiagnosis(Collections.singletonList("C" + data.nextInt(100) + " - " + site));
+            diagnosis.setDiagnosisDate(date);
+            diagnosis.setTumorDiagnosisDate(date);
+            diagnosis.setMinICD910DxDate(date);
+            diagnosis.setDiagnosisType(data.chance(0.7d) ? "PRIMARY" : "METS");
+            diagnosis.setDiagnosisDescription(site);
+            diagnosis.setICD910DxCode("C" + data.nextInt(100));
+            diagnosis.setICD910DxDesc(site);
+            diagnosis.setCATEGORY1(site);
+            diagnosis.setAJCC("");
+            diagnosis.setClinicalGroup(String.valueOf(1 + data.nextInt(4)));
+            diagnosis.setPathGroup("");
+            diagnosis.setSummary("");
+            diagnoses.add(diagnosis);
+        }
+        return diagnoses;
+    }
+
+    private PatientIdentifiers makeIdentifiers(int index) {
+        PatientIdentifiers identifiers = new PatientIdentifiers();
+        identifiers.setDeId(String.valueOf(cohort.deidentifiedId(index)));
+        identifiers.setDmpPatientId(cohort.patientId(index));
+        identifiers.setDmpSampleIds(Collections.singletonList(cohort.sampleId(index)));
+        identifiers.setMrn(mrn(index));
+        return identifiers;
+    }
+
+    private List<Radiation> makeRadiations(int index) {
+        SyntheticData data = cohort.dataFor(index);
+        List<Radiation> radiations = new ArrayList<>();
+        for (int i = data.nextInt(eventsPerPatient + 1); i > 0; i--) {
+            String startDate = data.date();
+            Radiation radiation = new Radiation();
+            radiation.setCourseID(data.nextInt(100_000_000));
+            radiation.setMRN(mrn(index));
+            radiation.setPlanName(data.pick(DIAGNOSIS_SITES));
+            radiation.setPlanNameAnatomy("");
+            radiation.setDeliveredDose(String.format("%d.00", 100 * (1 + data.nextInt(60))));
+            radiation.setPlannedDose(radiation.getDeliveredDose());
+            radiation.setDeliveredFractions(1 + data.nextInt(30));
+            radiation.setPlannedFractions(radiation.getDeliveredFractions());
+            radiation.setRadOncTreatmentCourseStartDate(startDate);
+            radiation.setRadOncTreatmentCourseStopDate(data.dateAfter(startDate, 60));
+            radiation.setReferencePointSite("PTV" + data.nextInt(6000));
+            radiations.add(radiation);
+        }
+        return radiations;
+    }
+
+    private List<Chemotherapy> makeChemotherapies(int index) {
+        SyntheticData data = cohort.dataFor(index);
+        List<Chemotherapy> chemotherapies = new ArrayList<>();
+        for (int i = data.nextInt(eventsPerPatient + 1); i > 0; i--) {
+            String startDate = data.date();
+            Chemotherapy chemotherapy = new Chemotherapy();
+            chemotherapy.setORDNAME(data.pick(CHEMO_AGENTS));
+            chemotherapy.setSETNAME("IRB_#" + cohort.deidentifiedId(index));
+            chemotherapy.setCOUNT(1 + data.nextInt(12));
+            chemotherapy.setSTARTDATE(startDate);
+            chemotherapy.setSTOPDATE(data.dateAfter(startDate, 180));
+            chemotherapies.add(chemotherapy);
+        }
+        return chemotherapies;
+    }
+
+    private List<Surgery> makeSurgeries(int index) {
+        SyntheticData data = cohort.dataFor(index);
+        List<Surgery> surgeries = new ArrayList<>();
+        for (int i = data.nextInt(eventsPerPatient + 1); i > 0; i--) {
+            String date = data.date();
+            Surgery surgery = new Surgery();
+            surgery.setPID(cohort.deidentifiedId(index));
+            surgery.setMRN(mrn(index));
+            surgery.setProcedureDate(date);
+            surgery.setProcYear(Integer.parseInt(date.substring(0, 4)));
+            surgery.setProcedureDescription(data.cleanText(3).toUpperCase());
+            surgery.setExtendedDescription(data.cleanText(5).toUpperCase());
+            surgery.setCPTCode(String.valueOf(10_000 + data.nextInt(90_000)));
+            surgery.setPBDCode(surgery.getCPTCode());
+            surgery.setProcIPOP(data.chance(0.5d) ? "INPATIENT" : "OUTPATIENT");
+            surgery.setAgeAtProc(18 + data.nextInt(70));
+            surgery.setPhysician("");
+            surgery.setPhyService("");
+            surgeries.add(surgery);
+        }
+        return surgeries;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+
+/**
+ * Runs the pipelines against the stand-in services and reports their throughput and memory use.
+ *
+ * Each job in loadtest.jobs is launched as its own JVM from the pipeline's
+ * executable jar, with the stand-in endpoints passed as system properties
+ * (which take precedence over the jar's application.properties). While a
+ * job runs its resident memory is sampled from /proc, so peak memory is only
+ * reported on Linux. The report is printed and written as JSON :
+ *
+ *   java -cp benchmarks.jar org.mskcc.cmo.ks.benchmarks.harness.LoadTestRunner loadtest.properties
+ *
+ * Job arguments are taken from loadtest.job.NAME.args when set. The
+ * placeholders {work}, {stableId} and {projectTitle} are replaced in them.
+ */
+public class LoadTestRunner {
+
+    public static final String DEFAULT_JOBS = "cvr,gml,ddp,redcap_import,redcap_export";
+    private static final long MEMORY_SAMPLE_INTERVAL_MILLIS = 100L;
+
+    private final Properties properties;
+    private final StandInServices services;
+    private final Path workDirectory;
+    private final String stableId;
+
+    private static final Logger LOG = Logger.getLogger(LoadTestRunner.class);
+
+    public LoadTestRunner(Properties properties, StandInServices services) {
+        this.properties = properties;
+        this.services = services;
+        this.workDirectory = Paths.get(properties.getProperty("loadtest.work_directory", "loadtest")).toAbsolutePath();
+        this.stableId = properties.getProperty("loadtest.stable_id", "mskimpact");
+    }
+
+    public List<JobResult> run() throws Exception {
+        Files.createDirectories(workDirectory);
+        List<JobResult> results = new ArrayList<>();
+        for (String jobName : properties.getProperty("loadtest.jobs", DEFAULT_JOBS).split(",")) {
+            results.add(runJob(jobName.trim()));
+        }
+        return results;
+    }
+
+    private JobResult runJob(String jobName) throws Exception {
+        String jar;
+        String defaultArgs;
+        int recordCount = services.getCohort().getPatientCount();
+        switch (jobName) {
+            case "cvr":
+                jar = properties.getProperty("loadtest.cvr.jar", "cvr/target/cvr_fetcher.jar");
+                defaultArgs = "-d {work}/cvr -p {work}/cvr_private -j -i {stableId}";
+                break;
+            case "gml":
+                jar = properties.getProperty("loadtest.cvr.jar", "cvr/target/cvr_fetcher.jar");
+                defaultArgs = "-d {work}/cvr -p {work}/cvr_private -g -i {stableId}";
+                break;
+            case "ddp":
+                jar = properties.getProperty("loadtest.ddp.jar", "ddp/ddp_pipeline/target/ddp_fetcher.jar");
+                defaultArgs = "-c {stableId} -o {work}/ddp -f diagnosis,radiation,chemotherapy,surgery";
+                break;
+            case "redcap_import":
+                jar = properties.getProperty("loadtest.redcap.jar", "redcap/redcap_pipeline/target/redcap_pipeline.jar");
+                defaultArgs = "-i -p {projectTitle} -f {work}/redcap_import.txt";
+                recordCount = writeRedcapImportFile(workDirectory.resolve("redcap_import.txt"));
+                break;
+            case "redcap_export":
+                jar = properties.getProperty("loadtest.redcap.jar", "redcap/redcap_pipeline/target/redcap_pipeline.jar");
+                defaultArgs = "-e -s {stableId} -d {work}/redcap_export";
+                recordCount = services.getRedcapStandIn().getRecordCount(stableId);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown load test job : " + jobName);
+        }
+        for (String directory : new String[] {"cvr", "cvr_private", "ddp", "redcap_export"}) {
+            Files.createDirectories(workDirectory.resolve(directory));
+        }
+        List<String> command = new ArrayList<>();
+        command.add(properties.getProperty("loadtest.java", "java"));
+        command.addAll(splitArgs(properties.getProperty("loadtest.jvm_options", "")));
+        for (Map.Entry<String, String> entry : services.getPipelineProperties().entrySet()) {
+            command.add("-D" + entry.getKey() + "=" + entry.getValue());
+        }
+        command.add("-jar");
+        command.add(jar);
+        command.addAll(splitArgs(expand(properties.getProperty("loadtest.job." + jobName + ".args", defaultArgs))));
+        return execute(jobName, command, recordCount);
+    }
+
+    private JobResult execute(String jobName, List<String> command, int recordCount) throws Exception {
+        File logFile = workDirectory.resolve(jobName + ".log").toFile();
+        LOG.info("Running load test job " + jobName + " (output in " + logFile + ") : " + String.join(" ", command));
+        long requestsBefore = services.getRequestCount();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile).start();
+        long timeoutMillis = TimeUnit.MINUTES.toMillis(Long.parseLong(properties.getProperty("loadtest.job_timeout_minutes", "240")));
+        long peakRssKb = -1L;
+        while (!process.waitFor(MEMORY_SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            peakRssKb = Math.max(peakRssKb, readPeakRssKb(process.pid()));
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) > timeoutMillis) {
+                LOG.error("Load test job " + jobName + " timed out, stopping it");
+                process.destroyForcibly().waitFor();
+                break;
+            }
+        }
+        double wallSeconds = (System.nanoTime() - start) / 1e9d;
+        return new JobResult(jobName, process.exitValue(), wallSeconds, recordCount, services.getRequestCount() - requestsBefore, peakRssKb);
+    }
+
+    /**
+     * @return the high water mark of the process' resident set, or -1 when /proc is not available
+     */
+    static long readPeakRssKb(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // the process exited between samples, or this is not Linux
+        }
+        return -1L;
+    }
+
+    private int writeRedcapImportFile(Path file) throws IOException {
+        List<String> lines = services.getRedcapStandIn().getGenerator().makeFileForImport(services.getCohort().getPatientCount(),
+                Double.parseDouble(properties.getProperty("loadtest.redcap.modified_fraction", "0.1")),
+                Double.parseDouble(properties.getProperty("loadtest.redcap.dropped_fraction", "0.05")),
+                Double.parseDouble(properties.getProperty("loadtest.redcap.new_fraction", "0.1")));
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return lines.size() - 1;
+    }
+
+    private String expand(String args) {
+        return args.replace("{work}", workDirectory.toString())
+                .replace("{stableId}", stableId)
+                .replace("{projectTitle}", RedcapStandIn.getProjectTitle(stableId));
+    }
+
+    private static List<String> splitArgs(String args) {
+        List<String> split = new ArrayList<>();
+        for (String arg : args.trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                split.add(arg);
+            }
+        }
+        return split;
+    }
+
+    public static String formatReport(List<JobResult> results) {
+        StringBuilder builder = new StringBuilder(String.format("%-15s %5s %10s %10s %12s %10s %12s %12s%n",
+                "job", "exit", "seconds", "records", "records/s", "requests", "requests/s", "peak RSS MB"));
+        for (JobResult result : results) {
+            builder.append(String.format("%-15s %5d %10.1f %10d %12.1f %10d %12.1f %12.1f%n", result.getJob(), result.getExitCode(),
+                    result.getWallSeconds(), result.getRecordCount(), result.getRecordsPerSecond(), result.getRequestCount(),
+                    result.getRequestsPerSecond(), result.getPeakRssMb()));
+        }
+        return builder.toString();
+    }
+
+    public static class JobResult {
+        private final String job;
+        private final int exitCode;
+        private final double wallSeconds;
+        private final long recordCount;
+        private final long requestCount;
+        private final long peakRssKb;
+
+        public JobResult(String job, int exitCode, double wallSeconds, long recordCount, long requestCount, long peakRssKb) {
+            this.job = job;
+            this.exitCode = exitCode;
+            this.wallSeconds = wallSeconds;
+            this.recordCount = recordCount;
+            this.requestCount = requestCount;
+            this.peakRssKb = peakRssKb;
+        }
+
+        public String getJob() {
+            return job;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public double getWallSeconds() {
+            return wallSeconds;
+        }
+
+        public long getRecordCount() {
+            return recordCount;
+        }
+
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        public double getRecordsPerSecond() {
+            return (wallSeconds > 0) ? recordCount / wallSeconds : 0d;
+        }
+
+        public double getRequestsPerSecond() {
+            return (wallSeconds > 0) ? requestCount / wallSeconds : 0d;
+        }
+
+        /**
+         * @return peak resident memory of the job's JVM, or -1 if it could not be sampled
+         */
+        public double getPeakRssMb() {
+            return (peakRssKb < 0) ? -1d : peakRssKb / 1024d;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties properties = StandInServices.loadProperties((args.length > 0) ? args[0] : null);
+        StandInServices services = new StandInServices(properties);
+        services.start();
+        List<JobResult> results;
+        try {
+            results = new LoadTestRunner(properties, services).run();
+        } finally {
+            services.stop();
+        }
+        System.out.print(services.getStatsReport());
+        System.out.print(formatReport(results));
+        Path reportFile = Paths.get(properties.getProperty("loadtest.report_file", "loadtest-report.json"));
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), results);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+        boolean failed = results.stream().anyMatch(result -> result.getExitCode() != 0);
+        System.exit(failed ? 1 : 0);
+    }
+}
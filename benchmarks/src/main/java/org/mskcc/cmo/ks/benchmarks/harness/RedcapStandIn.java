@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.*;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.benchmarks.redcap.RedcapDataGenerator;
+import org.mskcc.cmo.ks.redcap.models.*;
+
+/**
+ * Routes of the REDCap API (redcap_base_url + api/) and of the clinical data
+ * dictionary (cdd_base_url), for one clinical project per stable id.
+ *
+ * Every project starts out holding a record per cohort patient, generated by
+ * RedcapDataGenerator. Imports and deletes change the records kept in
+ * memory, so an export following an import sees the imported data. The
+ * mapping project, queried with mappingToken, lists the project tokens.
+ */
+public class RedcapStandIn {
+
+    private final String mappingToken;
+    private final RedcapDataGenerator generator;
+    private final Map<String, Project> projectsByToken = new LinkedHashMap<>();
+
+    /**
+     * @param cohort
+     * @param mappingToken token of the mapping project
+     * @param fieldCount fields of each clinical project, including the record name field
+     * @param stableIds one project is served for each
+     */
+    public RedcapStandIn(SyntheticCohort cohort, String mappingToken, int fieldCount, List<String> stableIds) {
+        this.mappingToken = mappingToken;
+        this.generator = new RedcapDataGenerator(new SyntheticData(), fieldCount);
+        for (String stableId : stableIds) {
+            Project project = new Project(stableId, getProjectTitle(stableId), UUID.randomUUID().toString().replace("-", "").toUpperCase());
+            for (JsonNode record : generator.makeProjectRecords(cohort.getPatientCount())) {
+                project.records.put(record.get(RedcapDataGenerator.RECORD_NAME_FIELD).asText(), (ObjectNode) record);
+            }
+            projectsByToken.put(project.token, project);
+        }
+    }
+
+    public static String getProjectTitle(String stableId) {
+        return stableId + "_clinical_data";
+    }
+
+    public RedcapDataGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * @return number of records currently held by the project of the stable id
+     */
+    public int getRecordCount(String stableId) {
+        for (Project project : projectsByToken.values()) {
+            if (project.stableId.equals(stableId)) {
+                synchronized (project) {
+                    return project.records.size();
+                }
+            }
+        }
+        return 0;
+    }
+
+    public void addRedcapRoutes(StandInServer server) {
+        server.addRoute("api", "POST", "/api/?", this::respond);
+    }
+
+    public void addCddRoutes(StandInServer server) {
+        server.addRoute("cdd_overrides", "GET", "/cancerStudies/?", request -> new OverriddenCancerStudy[0])
+                .addRoute("cdd_metadata", "GET", "/?", request -> makeAttributeMetadata());
+    }
+
+    private Object respond(StandInRequest request) throws Exception {
+        String token = request.getFormParameter("token");
+        String content = request.getFormParameter("content");
+        if (mappingToken.equals(token)) {
+            return makeTokens();
+        }
+        Project project = projectsByToken.get(token);
+        if (project == null) {
+            throw new StandInServer.StatusException(403, "You do not have permissions to use the API");
+        }
+        synchronized (project) {
+            switch (String.valueOf(content)) {
+                case "metadata":
+                    return generator.getAttributes();
+                case "project":
+                    return new RedcapProjectInfo[] {makeProjectInfo(project)};
+                case "generateNextRecordName":
+                    return String.valueOf(project.records.size() + 1);
+                case "record":
+                    if ("delete".equals(request.getFormParameter("action"))) {
+                        return String.valueOf(deleteRecords(project, request));
+                    }
+                    String data = request.getFormParameter("data");
+                    if (data != null) {
+                        return String.valueOf(importRecords(project, data));
+                    }
+                    return new ArrayList<>(project.records.values());
+                default:
+                    throw new StandInServer.StatusException(400, "unsupported content " + content);
+            }
+        }
+    }
+
+    private List<RedcapToken> makeTokens() {
+        List<RedcapToken> tokens = new ArrayList<>();
+        for (Project project : projectsByToken.values()) {
+            tokens.add(new RedcapToken(project.title, project.token, project.stableId, "2"));
+        }
+        return tokens;
+    }
+
+    private RedcapProjectInfo makeProjectInfo(Project project) {
+        RedcapProjectInfo projectInfo = new RedcapProjectInfo();
+        projectInfo.setProjectId(String.valueOf(Math.abs(project.token.hashCode())));
+        projectInfo.setProjectTitle(project.title);
+        projectInfo.setInProduction("1");
+        projectInfo.setIsLongitudinal("0");
+        projectInfo.setRecordAutonumberingEnabled("0");
+        return projectInfo;
+    }
+
+    private List<RedcapAttributeMetadata> makeAttributeMetadata() {
+        List<RedcapAttributeMetadata> metadata = new ArrayList<>();
+        for (RedcapProjectAttribute attribute : generator.getAttributes()) {
+            if (attribute.getFieldName().endsWith("_complete")) {
+                continue;
+            }
+            String columnHeader = attribute.getFieldName().toUpperCase();
+            RedcapAttributeMetadata attributeMetadata = new RedcapAttributeMetadata();
+            attributeMetadata.setNormalizedColumnHeader(columnHeader);
+            attributeMetadata.setDisplayName(columnHeader.replace('_', ' '));
+            attributeMetadata.setDescriptions(columnHeader.replace('_', ' '));
+            attributeMetadata.setDatatype("STRING");
+            attributeMetadata.setAttributeType(attribute.getFieldName().equals(RedcapDataGenerator.RECORD_NAME_FIELD) ? "PATIENT" : "SAMPLE");
+            attributeMetadata.setPriority("1");
+            metadata.add(attributeMetadata);
+        }
+        return metadata;
+    }
+
+    private int deleteRecords(Project project, StandInRequest request) throws Exception {
+        int deletedCount = 0;
+        for (String name : request.getFormParameterNames("records[")) {
+            if (project.records.remove(request.getFormParameter(name)) != null) {
+                deletedCount++;
+            }
+        }
+        return deletedCount;
+    }
+
+    private int importRecords(Project project, String csv) {
+        List<List<String>> rows = parseCsv(csv);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<String> header = rows.get(0);
+        for (List<String> row : rows.subList(1, rows.size())) {
+            ObjectNode record = JsonNodeFactory.instance.objectNode();
+            for (int column = 0; column < header.size(); column++) {
+                record.put(header.get(column), (column < row.size()) ? row.get(column) : "");
+            }
+            project.records.put(row.get(0), record);
+        }
+        return rows.size() - 1;
+    }
+
+    /**
+     * Splits the csv the repository imports, where values holding commas,
+     * quotes or line breaks are quoted and quotes are doubled.
+     */
+    static List<List<String>> parseCsv(String csv) {
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                row.add(value.toString());
+                value.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+            } else {
+                value.append(c);
+            }
+        }
+        if (value.length() > 0 || !row.isEmpty()) {
+            row.add(value.toString());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static class Project {
+        private final String stableId;
+        private final String title;
+        private final String token;
+        private final Map<String, ObjectNode> records = new LinkedHashMap<>();
+
+        private Project(String stableId, String title, String token) {
+            this.stableId = stableId;
+            this.title = title;
+            this.token = token;
+        }
+    }
+}
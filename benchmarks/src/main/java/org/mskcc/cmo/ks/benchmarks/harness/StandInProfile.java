@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import java.util.Properties;
+
+/**
+ * How a stand-in server misbehaves : the latency added to every response and
+ * the share of requests answered with a server error.
+ *
+ * Settings are read from properties as standin.SERVICE.KEY, falling back to
+ * standin.KEY for every service, e.g. standin.latency_ms=50 and
+ * standin.ddp.error_rate=0.01.
+ */
+public class StandInProfile {
+
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double errorRate;
+    private final int paddingBytes;
+
+    public StandInProfile(long latencyMillis, long latencyJitterMillis, double errorRate, int paddingBytes) {
+        if (errorRate < 0d || errorRate > 1d) {
+            throw new IllegalArgumentException("error rate must be between 0 and 1 : " + errorRate);
+        }
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        this.errorRate = errorRate;
+        this.paddingBytes = paddingBytes;
+    }
+
+    public static StandInProfile none() {
+        return new StandInProfile(0L, 0L, 0d, 0);
+    }
+
+    public static StandInProfile fromProperties(Properties properties, String service) {
+        return new StandInProfile(
+                Long.parseLong(getSetting(properties, service, "latency_ms", "0")),
+                Long.parseLong(getSetting(properties, service, "latency_jitter_ms", "0")),
+                Double.parseDouble(getSetting(properties, service, "error_rate", "0")),
+                Integer.parseInt(getSetting(properties, service, "padding_bytes", "0")));
+    }
+
+    public static String getSetting(Properties properties, String service, String key, String defaultValue) {
+        return properties.getProperty("standin." + service + "." + key, properties.getProperty("standin." + key, defaultValue));
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * @return upper bound of the random delay added on top of the fixed latency
+     */
+    public long getLatencyJitterMillis() {
+        return latencyJitterMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * @return size of the filler disclaimer added to responses which carry one
+     */
+    public int getPaddingBytes() {
+        return paddingBytes;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+
+/**
+ * A request received by a stand-in server, with the groups captured by the
+ * path pattern of the route which matched it.
+ */
+public class StandInRequest {
+
+    private final HttpExchange exchange;
+    private final Matcher pathMatcher;
+    private String body;
+    private Map<String, List<String>> formParameters;
+
+    StandInRequest(HttpExchange exchange, Matcher pathMatcher) {
+        this.exchange = exchange;
+        this.pathMatcher = pathMatcher;
+    }
+
+    public String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    public String getPath() {
+        return exchange.getRequestURI().getPath();
+    }
+
+    /**
+     * @param group index of a capturing group in the route's path pattern
+     */
+    public String getPathGroup(int group) {
+        return pathMatcher.group(group);
+    }
+
+    public String getHeader(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    public void setResponseHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    public String getQueryParameter(String name) {
+        List<String> values = parseParameters(exchange.getRequestURI().getRawQuery()).get(name);
+        return (values == null) ? null : values.get(0);
+    }
+
+    public String getBody() throws IOException {
+        if (body == null) {
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+        return body;
+    }
+
+    /**
+     * @return the first value of a parameter of an application/x-www-form-urlencoded body
+     */
+    public String getFormParameter(String name) throws IOException {
+        List<String> values = getFormParameters(name);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    public List<String> getFormParameters(String name) throws IOException {
+        if (formParameters == null) {
+            formParameters = parseParameters(getBody());
+        }
+        return formParameters.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * @return names of the form parameters which start with the given prefix, e.g. "records["
+     */
+    public List<String> getFormParameterNames(String prefix) throws IOException {
+        getFormParameters(prefix);
+        List<String> names = new ArrayList<>();
+        for (String name : formParameters.keySet()) {
+            if (name.startsWith(prefix)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static Map<String, List<String>> parseParameters(String encoded) {
+        Map<String, List<String>> parameters = new LinkedHashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = URLDecoder.decode((separator < 0) ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = (separator < 0) ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.log4j.Logger;
+
+/**
+ * Local HTTP server standing in for one of the services the pipelines fetch from.
+ *
+ * Requests are dispatched to the first route whose path pattern matches the
+ * request path. Before a route runs, the server waits for the latency of its
+ * StandInProfile and fails the configured share of requests with a 500.
+ * Requests, injected errors, bytes sent and time spent are counted per route.
+ */
+public class StandInServer {
+
+    public static final String CONTENT_TYPE_JSON = "application/json";
+
+    private final String name;
+    private final StandInProfile profile;
+    private final List<Route> routes = new CopyOnWriteArrayList<>();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final Logger LOG = Logger.getLogger(StandInServer.class);
+
+    public StandInServer(String name, StandInProfile profile) {
+        this.name = name;
+        this.profile = profile;
+    }
+
+    /**
+     * @param routeName name the route's statistics are reported under
+     * @param method HTTP method, or null for any
+     * @param pathPattern regular expression matched against the whole request path
+     * @param route
+     */
+    public StandInServer addRoute(String routeName, String method, String pathPattern, StandInRoute route) {
+        routes.add(new Route(routeName, method, Pattern.compile(pathPattern), route));
+        return this;
+    }
+
+    public void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start stand-in " + name + " server on any port", e);
+        }
+        // latency is simulated by sleeping, so a handler thread is needed per request in flight
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "standin-" + name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        LOG.info("Stand-in " + name + " server listening at " + getBaseUrl());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return http://localhost:PORT/
+     */
+    public String getBaseUrl() {
+        if (server == null) {
+            throw new IllegalStateException("stand-in " + name + " server is not running");
+        }
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    public StandInProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * @return statistics per route name, in the order the routes were added
+     */
+    public Map<String, RouteStats> getStats() {
+        Map<String, RouteStats> stats = new LinkedHashMap<>();
+        for (Route route : routes) {
+            stats.put(route.name, route.stats);
+        }
+        return stats;
+    }
+
+    /**
+     * @return requests served by every route so far
+     */
+    public long getRequestCount() {
+        long requestCount = 0L;
+        for (Route route : routes) {
+            requestCount += route.stats.getRequestCount();
+        }
+        return requestCount;
+    }
+
+    /**
+     * @return a filler string of the profile's padding size, for disclaimer-like fields
+     */
+    public String getPadding() {
+        if (profile.getPaddingBytes() <= 0) {
+            return "";
+        }
+        char[] padding = new char[profile.getPaddingBytes()];
+        Arrays.fill(padding, 'x');
+        return new String(padding);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String path = exchange.getRequestURI().getPath();
+        Route matchedRoute = null;
+        Matcher matcher = null;
+        for (Route route : routes) {
+            if (route.method != null && !route.method.equalsIgnoreCase(exchange.getRequestMethod())) {
+                continue;
+            }
+            matcher = route.pathPattern.matcher(path);
+            if (matcher.matches()) {
+                matchedRoute = route;
+                break;
+            }
+        }
+        try {
+            if (matchedRoute == null) {
+                LOG.warn("Stand-in " + name + " server has no route for " + exchange.getRequestMethod() + " " + path);
+                send(exchange, 404, "no route for " + path, null);
+                return;
+            }
+            matchedRoute.stats.requests.increment();
+            simulateLatency();
+            if (profile.getErrorRate() > 0d && ThreadLocalRandom.current().nextDouble() < profile.getErrorRate()) {
+                matchedRoute.stats.injectedErrors.increment();
+                send(exchange, 500, "injected error", matchedRoute.stats);
+                return;
+            }
+            Object body;
+            try {
+                body = matchedRoute.route.respond(new StandInRequest(exchange, matcher));
+            } catch (StatusException e) {
+                send(exchange, e.getStatus(), e.getMessage(), matchedRoute.stats);
+                return;
+            } catch (Exception e) {
+                LOG.error("Stand-in " + name + " route " + matchedRoute.name + " failed on " + path, e);
+                matchedRoute.stats.failures.increment();
+                send(exchange, 500, String.valueOf(e.getMessage()), matchedRoute.stats);
+                return;
+            }
+            if (body instanceof String) {
+                send(exchange, 200, (String) body, matchedRoute.stats);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_JSON);
+                send(exchange, 200, mapper.writeValueAsString(body), matchedRoute.stats);
+            }
+        } finally {
+            if (matchedRoute != null) {
+                matchedRoute.stats.totalNanos.add(System.nanoTime() - start);
+            }
+            exchange.close();
+        }
+    }
+
+    private void simulateLatency() {
+        long latencyMillis = profile.getLatencyMillis();
+        if (profile.getLatencyJitterMillis() > 0) {
+            latencyMillis += ThreadLocalRandom.current().nextLong(profile.getLatencyJitterMillis() + 1);
+        }
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String body, RouteStats stats) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, (bytes.length == 0) ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        }
+        if (stats != null) {
+            stats.bytesSent.add(bytes.length);
+        }
+    }
+
+    /**
+     * Thrown by a route to answer with the given status and message.
+     */
+    public static class StatusException extends RuntimeException {
+        private final int status;
+
+        public StatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    public static class RouteStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder injectedErrors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        public long getRequestCount() {
+            return requests.sum();
+        }
+
+        public long getInjectedErrorCount() {
+            return injectedErrors.sum();
+        }
+
+        /**
+         * @return requests for which the route itself threw an unexpected exception
+         */
+        public long getFailureCount() {
+            return failures.sum();
+        }
+
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        public double getMeanMillis() {
+            long requestCount = requests.sum();
+            return (requestCount == 0) ? 0d : totalNanos.sum() / 1e6d / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d injected errors, %d failures, %.1f MB sent, %.1f ms mean",
+                    getRequestCount(), getInjectedErrorCount(), getFailureCount(), getBytesSent() / (1024d * 1024d), getMeanMillis());
+        }
+    }
+
+    private static class Route {
+        private final String name;
+        private final String method;
+        private final Pattern pathPattern;
+        private final StandInRoute route;
+        private final RouteStats stats = new RouteStats();
+
+        private Route(String name, String method, Pattern pathPattern, StandInRoute route) {
+            this.name = name;
+            this.method = method;
+            this.pathPattern = pathPattern;
+            this.route = route;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.apache.log4j.Logger;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+
+/**
+ * The full set of stand-in services for one synthetic cohort : DMP (CVR and
+ * GML), DDP, REDCap, the clinical data dictionary and Genome Nexus.
+ *
+ * Settings come from standin.* properties (see loadtest.properties.EXAMPLE).
+ * getPipelineProperties() returns the properties which point the pipelines
+ * at the running stand-ins. Run on its own, the suite writes those
+ * properties to a file and serves until it is stopped :
+ *
+ *   java -cp benchmarks.jar org.mskcc.cmo.ks.benchmarks.harness.StandInServices loadtest.properties
+ */
+public class StandInServices {
+
+    public static final String STANDIN_USERNAME = "standin";
+    public static final String STANDIN_PASSWORD = "standin";
+
+    private final SyntheticCohort cohort;
+    private final CvrStandIn cvrStandIn;
+    private final DdpStandIn ddpStandIn;
+    private final RedcapStandIn redcapStandIn;
+    private final AnnotatorStandIn annotatorStandIn = new AnnotatorStandIn();
+    private final String mappingToken;
+    private final StandInServer dmpServer;
+    private final StandInServer ddpServer;
+    private final StandInServer redcapServer;
+    private final StandInServer cddServer;
+    private final StandInServer annotatorServer;
+
+    private static final Logger LOG = Logger.getLogger(StandInServices.class);
+
+    public StandInServices(Properties properties) {
+        cohort = new SyntheticCohort(Integer.parseInt(properties.getProperty("standin.patient_count", "1000")),
+                Long.parseLong(properties.getProperty("standin.seed", String.valueOf(SyntheticData.DEFAULT_SEED))));
+        cvrStandIn = new CvrStandIn(cohort,
+                Integer.parseInt(StandInProfile.getSetting(properties, "cvr", "variants_per_sample", "20")),
+                Integer.parseInt(StandInProfile.getSetting(properties, "cvr", "segments_per_sample", "50")),
+                Integer.parseInt(StandInProfile.getSetting(properties, "cvr", "batch_size", "0")));
+        ddpStandIn = new DdpStandIn(cohort,
+                Integer.parseInt(StandInProfile.getSetting(properties, "ddp", "cohort_id", "2033")),
+                Integer.parseInt(StandInProfile.getSetting(properties, "ddp", "events_per_patient", "3")));
+        mappingToken = StandInProfile.getSetting(properties, "redcap", "mapping_token", "STANDIN_MAPPING_TOKEN");
+        redcapStandIn = new RedcapStandIn(cohort, mappingToken,
+                Integer.parseInt(StandInProfile.getSetting(properties, "redcap", "field_count", "20")),
+                Arrays.asList(StandInProfile.getSetting(properties, "redcap", "stable_ids", "mskimpact").split(",")));
+        dmpServer = new StandInServer("dmp", StandInProfile.fromProperties(properties, "cvr"));
+        ddpServer = new StandInServer("ddp", StandInProfile.fromProperties(properties, "ddp"));
+        redcapServer = new StandInServer("redcap", StandInProfile.fromProperties(properties, "redcap"));
+        cddServer = new StandInServer("cdd", StandInProfile.fromProperties(properties, "cdd"));
+        annotatorServer = new StandInServer("annotator", StandInProfile.fromProperties(properties, "annotator"));
+        cvrStandIn.addRoutes(dmpServer);
+        ddpStandIn.addRoutes(ddpServer);
+        redcapStandIn.addRedcapRoutes(redcapServer);
+        redcapStandIn.addCddRoutes(cddServer);
+        annotatorStandIn.addRoutes(annotatorServer);
+    }
+
+    public void start() {
+        for (StandInServer server : getServers()) {
+            server.start();
+        }
+    }
+
+    public void stop() {
+        for (StandInServer server : getServers()) {
+            server.stop();
+        }
+    }
+
+    public List<StandInServer> getServers() {
+        return Arrays.asList(dmpServer, ddpServer, redcapServer, cddServer, annotatorServer);
+    }
+
+    public SyntheticCohort getCohort() {
+        return cohort;
+    }
+
+    public CvrStandIn getCvrStandIn() {
+        return cvrStandIn;
+    }
+
+    public RedcapStandIn getRedcapStandIn() {
+        return redcapStandIn;
+    }
+
+    /**
+     * @return requests served by every stand-in so far
+     */
+    public long getRequestCount() {
+        long requestCount = 0L;
+        for (StandInServer server : getServers()) {
+            requestCount += server.getRequestCount();
+        }
+        return requestCount;
+    }
+
+    /**
+     * @return pipeline properties pointing at the running stand-ins
+     */
+    public Map<String, String> getPipelineProperties() {
+        Map<String, String> pipelineProperties = new LinkedHashMap<>();
+        // the CVR urls are built as server_name + token, so the base url keeps its trailing slash
+        pipelineProperties.put("dmp.server_name", dmpServer.getBaseUrl());
+        pipelineProperties.put("dmp.gml_server_name", dmpServer.getBaseUrl());
+        pipelineProperties.put("dmp.user_name", STANDIN_USERNAME);
+        pipelineProperties.put("dmp.password", STANDIN_PASSWORD);
+        pipelineProperties.put("genomenexus.base", annotatorServer.getBaseUrl());
+        pipelineProperties.put("ddp.base_url", ddpServer.getBaseUrl() + "api/v1/");
+        pipelineProperties.put("ddp.username", STANDIN_USERNAME);
+        pipelineProperties.put("ddp.password", STANDIN_PASSWORD);
+        // the REDCap and CDD session managers append the slash themselves
+        pipelineProperties.put("redcap_base_url", stripTrailingSlash(redcapServer.getBaseUrl()));
+        pipelineProperties.put("mapping_token", mappingToken);
+        pipelineProperties.put("cdd_base_url", stripTrailingSlash(cddServer.getBaseUrl()));
+        return pipelineProperties;
+    }
+
+    /**
+     * @return one line per route of every stand-in
+     */
+    public String getStatsReport() {
+        StringBuilder builder = new StringBuilder();
+        for (StandInServer server : getServers()) {
+            for (Map.Entry<String, StandInServer.RouteStats> entry : server.getStats().entrySet()) {
+                if (entry.getValue().getRequestCount() > 0) {
+                    builder.append(server.getName()).append(" ").append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    public void writePipelineProperties(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# stand-in service endpoints, cohort of " + cohort.getPatientCount() + " synthetic patients");
+        for (Map.Entry<String, String> entry : getPipelineProperties().entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    public static Properties loadProperties(String filename) throws IOException {
+        Properties properties = new Properties();
+        if (filename != null) {
+            try (Reader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        properties.putAll(System.getProperties());
+        return properties;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties properties = loadProperties((args.length > 0) ? args[0] : null);
+        StandInServices services = new StandInServices(properties);
+        services.start();
+        Path overlayFile = Paths.get(properties.getProperty("standin.pipeline_properties_file", "standin-pipeline.properties"));
+        services.writePipelineProperties(overlayFile);
+        LOG.info("Stand-in services for " + services.getCohort().getPatientCount() + " patients running, pipeline properties written to "
+                + overlayFile.toAbsolutePath());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.print(services.getStatsReport());
+            services.stop();
+        }));
+        Thread.currentThread().join();
+    }
+}
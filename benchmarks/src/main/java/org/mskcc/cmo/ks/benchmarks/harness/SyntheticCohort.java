@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+
+/**
+ * A cohort of synthetic patients, each with one sample, shared by the stand-in servers.
+ *
+ * Nothing is held in memory : the data of patient i is generated on demand
+ * from a SyntheticData seeded with the cohort seed and i, so every server
+ * describes the same patient the same way, request after request.
+ */
+public class SyntheticCohort {
+
+    public static final int DEIDENTIFIED_ID_OFFSET = 1_000_000;
+
+    private final int patientCount;
+    private final long seed;
+    private final SyntheticData identifiers = new SyntheticData();
+
+    public SyntheticCohort(int patientCount, long seed) {
+        if (patientCount <= 0) {
+            throw new IllegalArgumentException("patient count must be positive : " + patientCount);
+        }
+        this.patientCount = patientCount;
+        this.seed = seed;
+    }
+
+    public int getPatientCount() {
+        return patientCount;
+    }
+
+    /**
+     * @param index patient index in [0, patientCount)
+     * @return a fresh source of the values describing that patient and its sample
+     */
+    public SyntheticData dataFor(int index) {
+        return new SyntheticData(seed * 1_000_003L + index);
+    }
+
+    public String patientId(int index) {
+        return identifiers.patientId(index);
+    }
+
+    public String sampleId(int index) {
+        return identifiers.sampleId(index);
+    }
+
+    /**
+     * @return the numeric id DDP uses for the patient
+     */
+    public int deidentifiedId(int index) {
+        return DEIDENTIFIED_ID_OFFSET + index;
+    }
+
+    /**
+     * @param id a DMP patient id, DMP sample id or DDP deidentified id
+     * @return the patient index, or -1 if the id does not belong to the cohort
+     */
+    public int indexOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int index;
+        try {
+            if (id.startsWith("P-") && id.length() >= 9) {
+                index = Integer.parseInt(id.substring(2, 9)) - 1;
+            } else {
+                index = Integer.parseInt(id.trim()) - DEIDENTIFIED_ID_OFFSET;
+            }
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return (index >= 0 && index < patientCount) ? index : -1;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.redcap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.*;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.redcap.models.RedcapProjectAttribute;
+
+/**
+ * Synthetic REDCap project and a clinical file to import into it.
+ *
+ * The file holds every project record, with a share of them modified, plus
+ * new records; a share of the project records is left out of the file so
+ * that the import also has deletions to compute.
+ */
+public class RedcapDataGenerator {
+
+    public static final String FORM_NAME = "my_first_instrument";
+    public static final String RECORD_NAME_FIELD = "patient_id";
+
+    private final SyntheticData data;
+    private final int fieldCount;
+    private final RedcapProjectAttribute[] attributes;
+    private final List<String> fieldNames = new ArrayList<>();
+
+    public RedcapDataGenerator(SyntheticData data, int fieldCount) {
+        this.data = data;
+        this.fieldCount = fieldCount;
+        this.attributes = new RedcapProjectAttribute[fieldCount + 1];
+        for (int i = 0; i < fieldCount; i++) {
+            String fieldName = (i == 0) ? RECORD_NAME_FIELD : "clinical_attribute_" + i;
+            fieldNames.add(fieldName);
+            attributes[i] = makeAttribute(fieldName);
+        }
+        // instrument complete fields are part of the project metadata and filtered out by the repository
+        attributes[fieldCount] = makeAttribute(FORM_NAME + "_complete");
+    }
+
+    private RedcapProjectAttribute makeAttribute(String fieldName) {
+        RedcapProjectAttribute attribute = new RedcapProjectAttribute();
+        attribute.setFieldName(fieldName);
+        attribute.setFormName(FORM_NAME);
+        return attribute;
+    }
+
+    public RedcapProjectAttribute[] getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @param recordCount number of records in the project
+     * @return the project records as returned by the REDCap export API
+     */
+    public JsonNode[] makeProjectRecords(int recordCount) {
+        JsonNode[] records = new JsonNode[recordCount];
+        for (int i = 0; i < recordCount; i++) {
+            ObjectNode record = JsonNodeFactory.instance.objectNode();
+            List<String> values = makeRecordValues(i);
+            for (int field = 0; field < fieldCount; field++) {
+                record.put(fieldNames.get(field), values.get(field));
+            }
+            record.put(FORM_NAME + "_complete", "2");
+            records[i] = record;
+        }
+        return records;
+    }
+
+    /**
+     * @param recordCount number of records in the project
+     * @param modifiedFraction share of project records changed in the file
+     * @param droppedFraction share of project records missing from the file
+     * @param newFraction new records in the file, relative to recordCount
+     * @return tab-delimited file lines, header first
+     */
+    public List<String> makeFileForImport(int recordCount, double modifiedFraction, double droppedFraction, double newFraction) {
+        List<String> lines = new ArrayList<>();
+        List<String> header = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            header.add(fieldName.toUpperCase());
+        }
+        lines.add(String.join("\t", header));
+        for (int i = 0; i < recordCount; i++) {
+            if (data.chance(droppedFraction)) {
+                continue;
+            }
+            List<String> values = makeRecordValues(i);
+            if (data.chance(modifiedFraction)) {
+                values.set(1 + data.nextInt(fieldCount - 1), data.messyText(3));
+            }
+            lines.add(String.join("\t", values));
+        }
+        int newRecordCount = (int) (recordCount * newFraction);
+        for (int i = recordCount; i < recordCount + newRecordCount; i++) {
+            lines.add(String.join("\t", makeRecordValues(i)));
+        }
+        return lines;
+    }
+
+    // values depend only on the record index, so the project and the file agree on unmodified records
+    private List<String> makeRecordValues(int recordIndex) {
+        SyntheticData recordData = new SyntheticData(recordIndex);
+        List<String> values = new ArrayList<>();
+        values.add(recordData.patientId(recordIndex));
+        for (int field = 1; field < fieldCount; field++) {
+            values.add((field % 3 == 0) ? recordData.date() : recordData.cleanText(1 + field % 4));
+        }
+        return values;
+    }
+}
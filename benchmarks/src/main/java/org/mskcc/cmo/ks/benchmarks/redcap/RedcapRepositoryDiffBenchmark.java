@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.redcap;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.redcap.source.internal.RedcapRepository;
+import org.mskcc.cmo.ks.redcap.util.ValueNormalizer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/* Import of a clinical file into a REDCap project held in memory: normalization of the
+ * file records, the diff against the project records, and the deletion and import batches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RedcapRepositoryDiffBenchmark {
+
+    private static final int FIELD_COUNT = 20;
+
+    @Param({"1000", "20000"})
+    public int recordCount;
+
+    private RedcapRepository redcapRepository;
+    private List<String> fileForImport;
+
+    @Setup
+    public void setUp() {
+        RedcapDataGenerator generator = new RedcapDataGenerator(new SyntheticData(), FIELD_COUNT);
+        StubRedcapSessionManager redcapSessionManager = new StubRedcapSessionManager(generator.getAttributes(), generator.makeProjectRecords(recordCount));
+        redcapRepository = new RedcapRepository();
+        ReflectionTestUtils.setField(redcapRepository, "redcapSessionManager", redcapSessionManager);
+        ReflectionTestUtils.setField(redcapRepository, "valueNormalizer", new ValueNormalizer());
+        ReflectionTestUtils.setField(redcapRepository, "redcapBatchSize", 10000);
+        fileForImport = generator.makeFileForImport(recordCount, 0.05d, 0.02d, 0.05d);
+    }
+
+    @Benchmark
+    public List<String> importClinicalData() throws Exception {
+        // the repository rewrites the header line, so every import gets its own list
+        List<String> dataForImport = new ArrayList<>(fileForImport);
+        redcapRepository.importClinicalData("benchmark_project_token", dataForImport, false);
+        return dataForImport;
+    }
+}
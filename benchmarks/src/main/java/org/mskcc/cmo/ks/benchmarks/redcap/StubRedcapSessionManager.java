@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.redcap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Set;
+import org.mskcc.cmo.ks.redcap.models.RedcapProjectAttribute;
+import org.mskcc.cmo.ks.redcap.source.internal.RedcapSessionManager;
+
+/**
+ * RedcapSessionManager serving a single in-memory project, so that
+ * RedcapRepository.importClinicalData() runs without a REDCap server.
+ * Deletions and imports are counted and otherwise dropped.
+ */
+public class StubRedcapSessionManager extends RedcapSessionManager {
+
+    private final RedcapProjectAttribute[] attributes;
+    private final JsonNode[] records;
+    private long deletedRecordCount = 0L;
+    private long importedCharacterCount = 0L;
+
+    public StubRedcapSessionManager(RedcapProjectAttribute[] attributes, JsonNode[] records) {
+        this.attributes = attributes;
+        this.records = records;
+    }
+
+    @Override
+    public RedcapProjectAttribute[] getRedcapAttributeByToken(String projectToken) {
+        return attributes;
+    }
+
+    @Override
+    public JsonNode[] getRedcapDataForProjectByToken(String projectToken) {
+        return records;
+    }
+
+    @Override
+    public Integer getNextRecordNameForAutonumberedProject(String projectToken) {
+        return records.length + 1;
+    }
+
+    @Override
+    public void deleteRedcapProjectData(String token, Set<String> recordNames) {
+        deletedRecordCount += recordNames.size();
+    }
+
+    @Override
+    public void importClinicalData(String token, String dataForImport) {
+        importedCharacterCount += dataForImport.length();
+    }
+
+    public long getDeletedRecordCount() {
+        return deletedRecordCount;
+    }
+
+    public long getImportedCharacterCount() {
+        return importedCharacterCount;
+    }
+}
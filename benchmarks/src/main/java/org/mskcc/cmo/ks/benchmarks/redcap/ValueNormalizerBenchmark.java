@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.redcap;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.mskcc.cmo.ks.benchmarks.SyntheticData;
+import org.mskcc.cmo.ks.redcap.util.ValueNormalizer;
+import org.openjdk.jmh.annotations.*;
+
+/* ValueNormalizer is applied to every field of every record imported into REDCap.
+ * Clean values take the early exit, messy values contain tabs, line breaks and control characters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueNormalizerBenchmark {
+
+    private static final int VALUE_COUNT = 1024;
+    private static final int TSV_LINE_COUNT = 1000;
+
+    private final ValueNormalizer valueNormalizer = new ValueNormalizer();
+    private String[] cleanValues;
+    private String[] messyValues;
+    private String[] csvValues;
+    private List<String> tsvLines;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        cleanValues = new String[VALUE_COUNT];
+        messyValues = new String[VALUE_COUNT];
+        csvValues = new String[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            cleanValues[i] = data.chance(0.5d) ? data.patientId(i) : data.date();
+            messyValues[i] = data.messyText(2 + data.nextInt(6));
+            csvValues[i] = data.chance(0.2d) ? "\"" + data.cleanText(2) + "\", " + data.cleanText(1) : data.cleanText(3);
+        }
+        tsvLines = new ArrayList<>();
+        for (int i = 0; i < TSV_LINE_COUNT; i++) {
+            List<String> fields = new ArrayList<>();
+            fields.add(data.patientId(i % (TSV_LINE_COUNT - 50)));
+            for (int field = 0; field < 15; field++) {
+                fields.add(csvValues[data.nextInt(VALUE_COUNT)]);
+            }
+            tsvLines.add(String.join("\t", fields));
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % VALUE_COUNT;
+        return index;
+    }
+
+    @Benchmark
+    public String normalizeCleanValue() {
+        return valueNormalizer.normalize(cleanValues[nextIndex()]);
+    }
+
+    @Benchmark
+    public String normalizeMessyValue() {
+        return valueNormalizer.normalize(messyValues[nextIndex()]);
+    }
+
+    @Benchmark
+    public String formatForCSV() {
+        return valueNormalizer.formatForCSV(csvValues[nextIndex()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<String> convertTSVtoCSV() {
+        return valueNormalizer.convertTSVtoCSV(tsvLines, true);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BenchmarkReportComparatorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /* slower average time and lower throughput are regressions, changes within the threshold
+     * or within the score error are not, and benchmarks are matched on their parameters
+     */
+    @Test
+    public void testRegressionsAreDetectedInTheWorseDirection() throws Exception {
+        JsonNode baseline = report(
+                result("a.Bench.time", "avgt", "{\"size\":\"10\"}", 100d, 1d),
+                result("a.Bench.time", "avgt", "{\"size\":\"100\"}", 1000d, 10d),
+                result("a.Bench.thrpt", "thrpt", null, 500d, 5d),
+                result("a.Bench.noisy", "avgt", null, 100d, 30d),
+                result("a.Bench.removed", "avgt", null, 1d, 0d));
+        JsonNode candidate = report(
+                result("a.Bench.time", "avgt", "{\"size\":\"10\"}", 150d, 1d),
+                result("a.Bench.time", "avgt", "{\"size\":\"100\"}", 1050d, 10d),
+                result("a.Bench.thrpt", "thrpt", null, 400d, 5d),
+                result("a.Bench.noisy", "avgt", null, 140d, 30d),
+                result("a.Bench.added", "avgt", null, 1d, 0d));
+        Map<String, BenchmarkReportComparator.Comparison> comparisons = new HashMap<>();
+        for (BenchmarkReportComparator.Comparison comparison : BenchmarkReportComparator.compare(baseline, candidate, 10d)) {
+            comparisons.put(comparison.getKey(), comparison);
+        }
+        Assert.assertEquals(6, comparisons.size());
+        Assert.assertTrue(comparisons.get("a.Bench.time{size=10}").isRegression());
+        Assert.assertEquals(50d, comparisons.get("a.Bench.time{size=10}").getChangePercent(), 1e-9);
+        Assert.assertFalse(comparisons.get("a.Bench.time{size=100}").isRegression());
+        Assert.assertTrue(comparisons.get("a.Bench.thrpt").isRegression());
+        Assert.assertFalse(comparisons.get("a.Bench.noisy").isRegression());
+        Assert.assertFalse(comparisons.get("a.Bench.added").isRegression());
+        Assert.assertNull(comparisons.get("a.Bench.removed").getChangePercent());
+        // faster in the other direction
+        Assert.assertTrue(BenchmarkReportComparator.compare(candidate, baseline, 10d).stream()
+                .anyMatch(comparison -> comparison.getKey().equals("a.Bench.time{size=10}") && comparison.isImprovement()));
+    }
+
+    private JsonNode report(String... results) throws Exception {
+        return mapper.readTree("[" + String.join(",", results) + "]");
+    }
+
+    private String result(String benchmark, String mode, String params, double score, double scoreError) {
+        return "{\"benchmark\":\"" + benchmark + "\",\"mode\":\"" + mode + "\","
+                + ((params != null) ? "\"params\":" + params + "," : "")
+                + "\"primaryMetric\":{\"score\":" + score + ",\"scoreError\":" + scoreError + ",\"scoreUnit\":\"ns/op\"}}";
+    }
+}
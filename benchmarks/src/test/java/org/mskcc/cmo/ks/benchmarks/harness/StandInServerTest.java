@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.benchmarks.harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mskcc.cmo.ks.redcap.source.internal.RedcapSessionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class StandInServerTest {
+
+    private StandInServer server;
+
+    @After
+    public void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testLatencyAndErrorInjection() throws Exception {
+        server = new StandInServer("test", new StandInProfile(100L, 0L, 1d, 0));
+        server.addRoute("echo", "GET", "/echo/(\\w+)", request -> request.getPathGroup(1));
+        server.start();
+        long start = System.nanoTime();
+        Assert.assertEquals(500, get(server.getBaseUrl() + "echo/hello").getResponseCode());
+        Assert.assertTrue((System.nanoTime() - start) / 1_000_000L >= 100L);
+        Assert.assertEquals(1L, server.getStats().get("echo").getInjectedErrorCount());
+        Assert.assertEquals(1L, server.getRequestCount());
+    }
+
+    @Test
+    public void testRoutesAndStatusExceptions() throws Exception {
+        server = new StandInServer("test", StandInProfile.none());
+        server.addRoute("echo", "GET", "/echo/(\\w+)", request -> Collections.singletonMap("echo", request.getPathGroup(1)))
+                .addRoute("refuse", null, "/refuse", request -> {
+                    throw new StandInServer.StatusException(401, "not authenticated");
+                });
+        server.start();
+        HttpURLConnection connection = get(server.getBaseUrl() + "echo/hello");
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("{\"echo\":\"hello\"}", read(connection.getInputStream()));
+        Assert.assertEquals(401, get(server.getBaseUrl() + "refuse").getResponseCode());
+        Assert.assertEquals(404, get(server.getBaseUrl() + "unknown").getResponseCode());
+        Assert.assertEquals(1L, server.getStats().get("refuse").getRequestCount());
+    }
+
+    @Test
+    public void testDdpRequiresSessionCookie() throws Exception {
+        server = new StandInServer("ddp", StandInProfile.none());
+        SyntheticCohort cohort = new SyntheticCohort(10, 1L);
+        new DdpStandIn(cohort, 2033, 3).addRoutes(server);
+        server.start();
+        String idUrl = server.getBaseUrl() + "api/v1/patient/id/";
+        String body = "{\"id\":\"" + cohort.deidentifiedId(4) + "\"}";
+        Assert.assertEquals(401, post(idUrl, body, null).getResponseCode());
+        HttpURLConnection login = post(server.getBaseUrl() + "api/v1/authenticate/login", "{\"username\":\"u\",\"password\":\"p\"}", null);
+        Assert.assertEquals(200, login.getResponseCode());
+        String cookie = login.getHeaderField("Set-Cookie").split(";")[0];
+        HttpURLConnection identifiers = post(idUrl, body, cookie);
+        Assert.assertEquals(200, identifiers.getResponseCode());
+        Assert.assertTrue(read(identifiers.getInputStream()).contains("\"dmp_patient_id\":\"" + cohort.patientId(4) + "\""));
+        Assert.assertEquals(400, post(idUrl, "{\"id\":\"12\"}", cookie).getResponseCode());
+    }
+
+    /* the REDCap stand-in answers the session manager the pipeline uses, and keeps imported records
+    */
+    @Test
+    public void testRedcapSessionManagerAgainstStandIn() throws Exception {
+        server = new StandInServer("redcap", StandInProfile.none());
+        RedcapStandIn redcapStandIn = new RedcapStandIn(new SyntheticCohort(25, 1L), "MAPPING", 5, Arrays.asList("study_a", "study_b"));
+        redcapStandIn.addRedcapRoutes(server);
+        server.start();
+        RedcapSessionManager sessionManager = new RedcapSessionManager();
+        ReflectionTestUtils.setField(RedcapSessionManager.class, "redcapBaseURI", null);
+        ReflectionTestUtils.setField(RedcapSessionManager.class, "redcapApiURI", null);
+        ReflectionTestUtils.setField(sessionManager, "redcapBaseUrl", server.getBaseUrl().substring(0, server.getBaseUrl().length() - 1));
+        ReflectionTestUtils.setField(sessionManager, "mappingToken", "MAPPING");
+        try {
+            String token = sessionManager.getTokenByProjectTitle(RedcapStandIn.getProjectTitle("study_b"));
+            Assert.assertNotNull(token);
+            Assert.assertEquals(6, sessionManager.getRedcapAttributeByToken(token).length);
+            JsonNode[] records = sessionManager.getRedcapDataForProjectByToken(token);
+            Assert.assertEquals(25, records.length);
+            sessionManager.importClinicalData(token, "patient_id,clinical_attribute_1\nP-9999999,\"a, \"\"quoted\"\" value\"\n");
+            sessionManager.deleteRedcapProjectData(token, new HashSet<>(Arrays.asList(records[0].get("patient_id").asText())));
+            Assert.assertEquals(25, redcapStandIn.getRecordCount("study_b"));
+            Assert.assertEquals(25, redcapStandIn.getRecordCount("study_a"));
+        } finally {
+            ReflectionTestUtils.setField(RedcapSessionManager.class, "redcapBaseURI", null);
+            ReflectionTestUtils.setField(RedcapSessionManager.class, "redcapApiURI", null);
+        }
+    }
+
+    @Test
+    public void testParseCsv() {
+        List<List<String>> rows = RedcapStandIn.parseCsv("A,B\r\n1,\"x,\"\"y\"\"\nz\"\n2,\n");
+        Assert.assertEquals(Arrays.asList(Arrays.asList("A", "B"), Arrays.asList("1", "x,\"y\"\nz"), Arrays.asList("2", "")), rows);
+    }
+
+    private HttpURLConnection get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("GET");
+        return connection;
+    }
+
+    private HttpURLConnection post(String url, String body, String cookie) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        if (cookie != null) {
+            connection.setRequestProperty("Cookie", cookie);
+        }
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private String read(InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
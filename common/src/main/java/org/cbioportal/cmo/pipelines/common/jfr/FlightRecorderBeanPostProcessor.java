@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.jfr;
+
+import org.springframework.batch.core.job.AbstractJob;
+import org.springframework.batch.core.step.AbstractStep;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * Adds Java Flight Recorder instrumentation to every job and step of a pipeline :
+ * a FlightRecorderStepListener on each step and a FlightRecorderJobListener on each job.
+ *
+ * Declare it as a static bean in the pipeline's BatchConfiguration. The job listener
+ * reads jfr.recording_file and jfr.settings from the environment.
+ */
+public class FlightRecorderBeanPostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private final FlightRecorderStepListener stepListener = new FlightRecorderStepListener();
+    private FlightRecorderJobListener jobListener;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        jobListener = new FlightRecorderJobListener(environment.getProperty("jfr.recording_file", ""),
+                environment.getProperty("jfr.settings", FlightRecorderJobListener.DEFAULT_SETTINGS));
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractStep) {
+            ((AbstractStep) bean).registerStepExecutionListener(stepListener);
+        }
+        if (bean instanceof TaskletStep) {
+            ((TaskletStep) bean).registerChunkListener(stepListener);
+        }
+        if (bean instanceof AbstractJob && jobListener != null) {
+            ((AbstractJob) bean).registerJobExecutionListener(jobListener);
+        }
+        return bean;
+    }
+}
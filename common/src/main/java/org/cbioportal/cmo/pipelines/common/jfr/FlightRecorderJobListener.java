@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.jfr;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.log4j.Logger;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+/**
+ * Runs a Java Flight Recorder recording for the length of a job when jfr.recording_file is set.
+ *
+ * The recording uses the JDK settings named by jfr.settings : "default" is meant to stay on in
+ * production (about 1% overhead), "profile" samples more and costs more. The pipeline events
+ * (org.cbioportal.pipelines.*) are recorded with either. The recording is written when the job
+ * ends, or when the JVM exits if the job never does. A path naming a directory gets a
+ * JOB_NAME-yyyyMMdd-HHmmss.jfr file.
+ *
+ * Summarize a recording with FlightRecordingAnalyzer, or open it in JDK Mission Control.
+ */
+public class FlightRecorderJobListener implements JobExecutionListener {
+
+    public static final String DEFAULT_SETTINGS = "default";
+
+    private final String recordingFile;
+    private final String settings;
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+
+    private final Logger LOG = Logger.getLogger(FlightRecorderJobListener.class);
+
+    public FlightRecorderJobListener(String recordingFile, String settings) {
+        this.recordingFile = recordingFile;
+        this.settings = settings;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (recordingFile == null || recordingFile.trim().isEmpty()) {
+            return;
+        }
+        String jobName = jobExecution.getJobInstance().getJobName();
+        Path file = resolveFile(jobName, LocalDateTime.now());
+        try {
+            Recording recording = new Recording(getConfiguration());
+            recording.setName(jobName);
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.setDumpOnExit(true);
+            recording.start();
+            recordings.put(jobExecution.getId(), recording);
+            LOG.info("Started flight recording of job '" + jobName + "' into " + file);
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            // profiling must not fail the job
+            LOG.error("Failed to start flight recording of job '" + jobName + "' : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        Recording recording = recordings.remove(jobExecution.getId());
+        if (recording == null) {
+            return;
+        }
+        try {
+            // stopping writes the recording to its destination
+            recording.stop();
+            LOG.info("Wrote flight recording of job '" + jobExecution.getJobInstance().getJobName() + "' to " + recording.getDestination());
+        } catch (IllegalStateException e) {
+            LOG.error("Failed to write flight recording to " + recording.getDestination() + " : " + e.getMessage());
+        } finally {
+            recording.close();
+        }
+    }
+
+    private Configuration getConfiguration() throws IOException, ParseException {
+        String name = (settings == null || settings.trim().isEmpty()) ? DEFAULT_SETTINGS : settings.trim();
+        if (name.endsWith(".jfc")) {
+            return Configuration.create(Paths.get(name));
+        }
+        return Configuration.getConfiguration(name);
+    }
+
+    Path resolveFile(String jobName, LocalDateTime startTime) {
+        Path path = Paths.get(recordingFile.trim());
+        if (Files.isDirectory(path)) {
+            return path.resolve(jobName + "-" + startTime.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr");
+        }
+        return path;
+    }
+}
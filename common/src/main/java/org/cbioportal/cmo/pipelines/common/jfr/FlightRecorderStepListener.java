@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.jfr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+/**
+ * Emits a StepEvent per step execution and a ChunkEvent per chunk.
+ *
+ * The events cost next to nothing when no recording is running, so the
+ * listener is registered on every step (see FlightRecorderBeanPostProcessor).
+ * Chunks of multi-threaded steps run on several threads at once, so the
+ * open chunk event is kept per thread.
+ */
+public class FlightRecorderStepListener implements StepExecutionListener, ChunkListener {
+
+    private final Map<Long, StepEvent> openStepEvents = new ConcurrentHashMap<>();
+    private final ThreadLocal<ChunkEvent> openChunkEvent = new ThreadLocal<>();
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        StepEvent event = new StepEvent();
+        if (event.isEnabled() && stepExecution.getId() != null) {
+            event.begin();
+            openStepEvents.put(stepExecution.getId(), event);
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepEvent event = (stepExecution.getId() == null) ? null : openStepEvents.remove(stepExecution.getId());
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.job = stepExecution.getJobExecution().getJobInstance().getJobName();
+                event.step = stepExecution.getStepName();
+                event.status = stepExecution.getStatus().name();
+                event.readCount = stepExecution.getReadCount();
+                event.writeCount = stepExecution.getWriteCount();
+                event.filterCount = stepExecution.getFilterCount();
+                event.skipCount = stepExecution.getSkipCount();
+                event.commitCount = stepExecution.getCommitCount();
+                event.commit();
+            }
+        }
+        // leave the exit status to the step and its other listeners
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        ChunkEvent event = new ChunkEvent();
+        if (event.isEnabled()) {
+            // counts are cumulative over the step : start from the current ones
+            StepExecution stepExecution = context.getStepContext().getStepExecution();
+            event.readCount = -stepExecution.getReadCount();
+            event.writeCount = -stepExecution.getWriteCount();
+            event.begin();
+            openChunkEvent.set(event);
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        commitChunkEvent(context, false);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        commitChunkEvent(context, true);
+    }
+
+    private void commitChunkEvent(ChunkContext context, boolean failed) {
+        ChunkEvent event = openChunkEvent.get();
+        openChunkEvent.remove();
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            StepExecution stepExecution = context.getStepContext().getStepExecution();
+            event.job = stepExecution.getJobExecution().getJobInstance().getJobName();
+            event.step = stepExecution.getStepName();
+            event.readCount += stepExecution.getReadCount();
+            event.writeCount += stepExecution.getWriteCount();
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.jfr;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes a flight recording by event type : count, total and longest duration.
+ *
+ * Pipeline events are further broken down by what they are about (the step, the HTTP
+ * endpoint and status, the annotation source, the merged file), with the bytes moved
+ * where the event records them. JDK events with a duration (garbage collection pauses,
+ * monitor waits, socket and file I/O...) are summarized by type only.
+ *
+ * Usage : FlightRecordingAnalyzer recording.jfr [number of rows, default all]
+ */
+public class FlightRecordingAnalyzer {
+
+    private static final String PIPELINE_EVENT_PREFIX = "org.cbioportal.pipelines.";
+
+    public static class Summary {
+        private final String eventType;
+        private final String key;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long bytes;
+
+        private Summary(String eventType, String key) {
+            this.eventType = eventType;
+            this.key = key;
+        }
+
+        private void add(Duration duration, long eventBytes) {
+            long nanos = duration.toNanos();
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            bytes += Math.max(0L, eventBytes);
+        }
+
+        public String getEventType() {
+            return eventType;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %-50s %10d %12.3f %10.3f %14s", eventType, key, count, totalNanos / 1e9, maxNanos / 1e9,
+                    (bytes > 0L) ? String.valueOf(bytes) : "");
+        }
+    }
+
+    /**
+     * @return summaries sorted by total duration, longest first
+     */
+    public static List<Summary> summarize(Path recording) throws IOException {
+        Map<List<String>, Summary> summaries = new HashMap<>();
+        try (RecordingFile recordingFile = new RecordingFile(recording)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                String eventType = event.getEventType().getName();
+                boolean isPipelineEvent = eventType.startsWith(PIPELINE_EVENT_PREFIX);
+                if (!isPipelineEvent && event.getDuration().isZero()) {
+                    continue; // instant and periodic JDK events say nothing about where the time went
+                }
+                String key = isPipelineEvent ? getKey(event) : "";
+                summaries.computeIfAbsent(Arrays.asList(eventType, key), k -> new Summary(eventType, key))
+                        .add(event.getDuration(), getBytes(event));
+            }
+        }
+        List<Summary> sortedSummaries = new ArrayList<>(summaries.values());
+        sortedSummaries.sort(Comparator.comparingLong(Summary::getTotalNanos).reversed()
+                .thenComparing(Summary::getEventType).thenComparing(Summary::getKey));
+        return sortedSummaries;
+    }
+
+    private static String getKey(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case StepEvent.NAME:
+            case ChunkEvent.NAME:
+                return getString(event, "job") + "/" + getString(event, "step");
+            case HttpRequestEvent.NAME:
+                return getString(event, "client") + " " + getString(event, "endpoint") + " " + getString(event, "status");
+            case AnnotationBatchEvent.NAME:
+                return getString(event, "source");
+            case FileMergeEvent.NAME:
+                return Paths.get(getString(event, "file")).getFileName().toString();
+            default:
+                return "";
+        }
+    }
+
+    private static String getString(RecordedEvent event, String field) {
+        String value = event.hasField(field) ? event.getString(field) : null;
+        return (value == null) ? "" : value;
+    }
+
+    private static long getBytes(RecordedEvent event) {
+        long bytes = 0L;
+        for (String field : new String[] {"requestBytes", "responseBytes", "bytesWritten"}) {
+            if (event.hasField(field)) {
+                bytes += Math.max(0L, event.getLong(field));
+            }
+        }
+        return bytes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: FlightRecordingAnalyzer recording.jfr [number of rows, default all]");
+            System.exit(2);
+        }
+        List<Summary> summaries = summarize(Paths.get(args[0]));
+        int rowCount = (args.length > 1) ? Integer.parseInt(args[1]) : summaries.size();
+        System.out.println(String.format("%-40s %-50s %10s %12s %10s %14s", "Event type", "Key", "Count", "Total (s)", "Max (s)", "Bytes"));
+        for (Summary summary : summaries.subList(0, Math.min(rowCount, summaries.size()))) {
+            System.out.println(summary);
+        }
+    }
+}
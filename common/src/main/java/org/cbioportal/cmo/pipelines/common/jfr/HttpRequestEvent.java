@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.jfr;
+
+import jdk.jfr.*;
+
+/* One attempt of an HTTP request; a request which is retried produces one event per attempt. */
+@Name(HttpRequestEvent.NAME)
+@Label("Pipeline HTTP Request")
+@Category({"cBioPortal Pipelines", "HTTP"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    public static final String NAME = "org.cbioportal.pipelines.HttpRequest";
+
+    @Label("Client")
+    public String client;
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Status")
+    @Description("HTTP status, or IO_ERROR / TIMEOUT / UNREADABLE_RESPONSE")
+    public String status;
+
+    @Label("Subject Id")
+    @Description("Sample id (CVR) or patient id (DDP) the request is about, if any")
+    public String subjectId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Request Bytes")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Bytes")
+    @Description("-1 when the response length is unknown")
+    @DataAmount
+    public long responseBytes;
+}
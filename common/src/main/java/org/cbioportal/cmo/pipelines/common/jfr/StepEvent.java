@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.jfr;
+
+import jdk.jfr.*;
+
+/* One Spring Batch step execution, from beforeStep to afterStep. */
+@Name(StepEvent.NAME)
+@Label("Pipeline Step")
+@Category({"cBioPortal Pipelines", "Batch"})
+@StackTrace(false)
+public class StepEvent extends Event {
+
+    public static final String NAME = "org.cbioportal.pipelines.Step";
+
+    @Label("Job")
+    String job;
+
+    @Label("Step")
+    String step;
+
+    @Label("Status")
+    String status;
+
+    @Label("Items Read")
+    long readCount;
+
+    @Label("Items Written")
+    long writeCount;
+
+    @Label("Items Filtered")
+    long filterCount;
+
+    @Label("Items Skipped")
+    long skipCount;
+
+    @Label("Commits")
+    long commitCount;
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.metrics;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import org.cbioportal.cmo.pipelines.common.jfr.HttpRequestEvent;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/* RestTemplate interceptor timing every request into PipelineMetrics, and into a flight recorder HttpRequestEvent.
+ * The endpoint tag is a fixed name given by the caller rather than the request path, since paths
+ * hold cohort and study ids.
+ */
+public class HttpMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String client;
+    private final String endpoint;
+
+    public HttpMetricsInterceptor(String client, String endpoint) {
+        this.client = client;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        long responseBytes = -1L;
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            responseBytes = response.getHeaders().getContentLength();
+            return response;
+        } catch (SocketTimeoutException e) {
+            status = "TIMEOUT";
+            throw e;
+        } finally {
+            PipelineMetrics.recordHttpRequest(client, endpoint, request.getMethod().name(), status, System.nanoTime() - start, body.length, responseBytes);
+            event.end();
+            if (event.shouldCommit()) {
+                event.client = client;
+                event.endpoint = endpoint;
+                event.method = request.getMethod().name();
+                event.status = status;
+                event.attempt = 1;
+                event.requestBytes = body.length;
+                event.responseBytes = responseBytes;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.metrics;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.web.client.RestTemplate;
+
+/* Micrometer meters shared by every pipeline.
+ *
+ * The registry is added to Metrics.globalRegistry, which is where Spring Batch records its own
+ * meters (spring.batch.job, spring.batch.step, spring.batch.item.read, spring.batch.item.process,
+ * spring.batch.chunk.write), so a scrape of getRegistry() holds the reader / processor / writer
+ * latencies along with the meters below :
+ *
+ *   pipeline.job.duration         timer    job, status
+ *   pipeline.step.duration        timer    job, step, status
+ *   pipeline.step.items           counter  job, step, type (read, write, filter, read_skip, process_skip, write_skip, commit, rollback)
+ *   pipeline.step.throughput      gauge    job, step (items written per second of step time)
+ *   pipeline.http.requests        timer    client, endpoint, method, status (http status, or IO_ERROR / TIMEOUT)
+ *   pipeline.http.retries         counter  client, endpoint, reason
+ *   pipeline.http.rejections      counter  client, endpoint, reason (circuit_open, retry_budget : requests HttpRetryScheduler did not send)
+ *   pipeline.http.request.bytes   counter  client, endpoint (bytes sent, where known)
+ *   pipeline.http.response.bytes  counter  client, endpoint (bytes received, where known)
+ *   pipeline.cache.requests       counter  cache, result (hit, miss)
+ *   pipeline.messages.handoff     timer    topic, status (accepted, rejected : time to hand a message to the messaging gateway)
+ *   pipeline.annotation.results   counter  source, status (annotation hit rate = SUCCESS / all)
+ *
+ * Static, so that clients created outside Spring (e.g. HttpClientWithTimeoutAndRetry) can record too.
+ * Endpoint tags must stay low-cardinality : never put ids into them.
+ */
+public class PipelineMetrics {
+
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private static final PrometheusMeterRegistry registry = createRegistry();
+    private static final Map<List<String>, double[]> stepThroughput = new ConcurrentHashMap<>();
+
+    private static PrometheusMeterRegistry createRegistry() {
+        PrometheusMeterRegistry prometheusMeterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(prometheusMeterRegistry);
+        return prometheusMeterRegistry;
+    }
+
+    public static PrometheusMeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Adds an HttpMetricsInterceptor recording every request of the template under the client and endpoint names.
+     * @return restTemplate
+     */
+    public static RestTemplate instrument(RestTemplate restTemplate, String client, String endpoint) {
+        restTemplate.getInterceptors().add(new HttpMetricsInterceptor(client, endpoint));
+        return restTemplate;
+    }
+
+    public static void recordHttpRequest(String client, String endpoint, String method, String status, long durationNanos) {
+        recordHttpRequest(client, endpoint, method, status, durationNanos, -1L, -1L);
+    }
+
+    /**
+     * @param requestBytes bytes sent, negative if unknown
+     * @param responseBytes bytes received, negative if unknown
+     */
+    public static void recordHttpRequest(String client, String endpoint, String method, String status, long durationNanos,
+            long requestBytes, long responseBytes) {
+        Timer.builder("pipeline.http.requests")
+                .description("HTTP requests sent by the pipelines")
+                .tags("client", tagValue(client), "endpoint", tagValue(endpoint), "method", tagValue(method), "status", tagValue(status))
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        if (requestBytes > 0L) {
+            countHttpBytes("pipeline.http.request.bytes", client, endpoint, requestBytes);
+        }
+        if (responseBytes > 0L) {
+            countHttpBytes("pipeline.http.response.bytes", client, endpoint, responseBytes);
+        }
+    }
+
+    private static void countHttpBytes(String name, String client, String endpoint, long bytes) {
+        Counter.builder(name)
+                .baseUnit("bytes")
+                .tags("client", tagValue(client), "endpoint", tagValue(endpoint))
+                .register(registry)
+                .increment(bytes);
+    }
+
+    /**
+     * @param cache name of the cache (e.g. ddp_response)
+     * @param hit true when the cache answered the request
+     */
+    public static void recordCacheRequest(String cache, boolean hit) {
+        Counter.builder("pipeline.cache.requests")
+                .tags("cache", tagValue(cache), "result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * @param status accepted when the messaging gateway took the message for publishing, rejected when it threw
+     */
+    public static void recordMessageHandoff(String topic, String status, long durationNanos) {
+        Timer.builder("pipeline.messages.handoff")
+                .description("Messages handed to the messaging gateway for publishing, timed until the gateway returned")
+                .tags("topic", tagValue(topic), "status", tagValue(status))
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordHttpRetry(String client, String endpoint, String reason) {
+        Counter.builder("pipeline.http.retries")
+                .description("HTTP requests sent again after a failed attempt")
+                .tags("client", tagValue(client), "endpoint", tagValue(endpoint), "reason", tagValue(reason))
+                .register(registry)
+                .increment();
+    }
+
+    public static void recordHttpRejection(String client, String endpoint, String reason) {
+        Counter.builder("pipeline.http.rejections")
+                .description("HTTP requests not sent because the circuit of the host was open or its retry budget was spent")
+                .tags("client", tagValue(client), "endpoint", tagValue(endpoint), "reason", tagValue(reason))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * @param status annotation status of one record (e.g. SUCCESS, FAILED)
+     */
+    public static void recordAnnotation(String source, String status) {
+        Counter.builder("pipeline.annotation.results")
+                .description("Records sent for annotation, by annotation status")
+                .tags("source", tagValue(source), "status", tagValue((status == null) ? null : status.toUpperCase()))
+                .register(registry)
+                .increment();
+    }
+
+    public static void recordJob(JobExecution jobExecution) {
+        Timer.builder("pipeline.job.duration")
+                .tags("job", jobExecution.getJobInstance().getJobName(), "status", jobExecution.getStatus().name())
+                .register(registry)
+                .record(elapsed(jobExecution.getStartTime(), jobExecution.getEndTime()));
+    }
+
+    public static void recordStep(String jobName, StepExecution stepExecution) {
+        String stepName = stepExecution.getStepName();
+        Duration duration = elapsed(stepExecution.getStartTime(), stepExecution.getEndTime());
+        Timer.builder("pipeline.step.duration")
+                .tags("job", jobName, "step", stepName, "status", stepExecution.getStatus().name())
+                .register(registry)
+                .record(duration);
+        countItems(jobName, stepName, "read", stepExecution.getReadCount());
+        countItems(jobName, stepName, "write", stepExecution.getWriteCount());
+        countItems(jobName, stepName, "filter", stepExecution.getFilterCount());
+        countItems(jobName, stepName, "read_skip", stepExecution.getReadSkipCount());
+        countItems(jobName, stepName, "process_skip", stepExecution.getProcessSkipCount());
+        countItems(jobName, stepName, "write_skip", stepExecution.getWriteSkipCount());
+        countItems(jobName, stepName, "commit", stepExecution.getCommitCount());
+        countItems(jobName, stepName, "rollback", stepExecution.getRollbackCount());
+        double[] throughput = stepThroughput.computeIfAbsent(Arrays.asList(jobName, stepName), key -> {
+            double[] holder = new double[1];
+            Gauge.builder("pipeline.step.throughput", holder, h -> h[0])
+                    .description("Items written per second of step time")
+                    .tags("job", jobName, "step", stepName)
+                    .register(registry);
+            return holder;
+        });
+        long millis = duration.toMillis();
+        throughput[0] = (millis <= 0L) ? 0d : stepExecution.getWriteCount() * 1000d / millis;
+    }
+
+    private static void countItems(String jobName, String stepName, String type, long count) {
+        Counter.builder("pipeline.step.items")
+                .tags("job", jobName, "step", stepName, "type", type)
+                .register(registry)
+                .increment(count);
+    }
+
+    private static Duration elapsed(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return Duration.ZERO;
+        }
+        return Duration.between(start, end);
+    }
+
+    private static String tagValue(String value) {
+        return (value == null || value.isEmpty()) ? UNKNOWN : value;
+    }
+}
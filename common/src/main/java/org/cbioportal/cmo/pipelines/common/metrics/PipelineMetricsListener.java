@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import org.apache.log4j.Logger;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Records job and step metrics once a job has finished and exports every
+ * pipeline meter to a Prometheus text file.
+ *
+ * The export path comes from the metrics.prometheus_file property of each
+ * pipeline. An empty path disables the export (the meters are still
+ * recorded). A path naming a directory gets a JOB_NAME.prom file.
+ *
+ * The file holds a scrape of the PipelineMetrics registry, so it suits both the
+ * node_exporter textfile collector (write it to a *.prom file in the collector
+ * directory) and a Pushgateway (curl --data-binary @FILE http://GATEWAY/metrics/job/JOB).
+ * It is replaced atomically so that a collector never reads a partial file.
+ */
+public class PipelineMetricsListener implements JobExecutionListener {
+
+    private final String prometheusFile;
+
+    private final Logger LOG = Logger.getLogger(PipelineMetricsListener.class);
+
+    public PipelineMetricsListener(String prometheusFile) {
+        this.prometheusFile = prometheusFile;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String jobName = jobExecution.getJobInstance().getJobName();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            PipelineMetrics.recordStep(jobName, stepExecution);
+        }
+        PipelineMetrics.recordJob(jobExecution);
+        if (prometheusFile == null || prometheusFile.trim().isEmpty()) {
+            return;
+        }
+        Path file = resolveFile(jobName);
+        try {
+            write(PipelineMetrics.getRegistry().scrape(), file);
+            LOG.info("Wrote pipeline metrics to " + file);
+        } catch (IOException e) {
+            // metrics must not fail the job
+            LOG.error("Failed to write pipeline metrics to " + file + " : " + e.getMessage());
+        }
+    }
+
+    Path resolveFile(String jobName) {
+        Path path = Paths.get(prometheusFile.trim());
+        if (Files.isDirectory(path)) {
+            return path.resolve(jobName.replaceAll("[^a-zA-Z0-9_:]", "_") + ".prom");
+        }
+        return path;
+    }
+
+    private void write(String text, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporaryFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporaryFile, text.getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+}
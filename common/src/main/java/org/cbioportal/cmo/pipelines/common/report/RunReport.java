@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.report;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.*;
+
+/**
+ * Performance report of one job run, written as JSON by RunReportListener and compared
+ * between runs by RunReportComparator. Durations are in seconds and sizes in bytes.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RunReport {
+
+    private String job;
+    private Long jobExecutionId;
+    private String status;
+    private String exitCode;
+    private String startTime;
+    private String endTime;
+    private double durationSeconds;
+    private long peakHeapBytes;
+    private long gcCount;
+    private double gcSeconds;
+    private List<StepReport> steps = new ArrayList<>();
+    private List<HttpReport> http = new ArrayList<>();
+    private List<CacheReport> caches = new ArrayList<>();
+    private List<FileReport> files = new ArrayList<>();
+
+    public String getJob() {
+        return job;
+    }
+
+    public void setJob(String job) {
+        this.job = job;
+    }
+
+    public Long getJobExecutionId() {
+        return jobExecutionId;
+    }
+
+    public void setJobExecutionId(Long jobExecutionId) {
+        this.jobExecutionId = jobExecutionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getExitCode() {
+        return exitCode;
+    }
+
+    public void setExitCode(String exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(double durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * @return sum of the peak usage of each heap memory pool during the job
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public void setPeakHeapBytes(long peakHeapBytes) {
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public void setGcCount(long gcCount) {
+        this.gcCount = gcCount;
+    }
+
+    public double getGcSeconds() {
+        return gcSeconds;
+    }
+
+    public void setGcSeconds(double gcSeconds) {
+        this.gcSeconds = gcSeconds;
+    }
+
+    public List<StepReport> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<StepReport> steps) {
+        this.steps = steps;
+    }
+
+    public List<HttpReport> getHttp() {
+        return http;
+    }
+
+    public void setHttp(List<HttpReport> http) {
+        this.http = http;
+    }
+
+    public List<CacheReport> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(List<CacheReport> caches) {
+        this.caches = caches;
+    }
+
+    public List<FileReport> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<FileReport> files) {
+        this.files = files;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class StepReport {
+        private String name;
+        private String status;
+        private double durationSeconds;
+        private long readCount;
+        private long writeCount;
+        private long filterCount;
+        private long readSkipCount;
+        private long processSkipCount;
+        private long writeSkipCount;
+        private long commitCount;
+        private long rollbackCount;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public double getDurationSeconds() {
+            return durationSeconds;
+        }
+
+        public void setDurationSeconds(double durationSeconds) {
+            this.durationSeconds = durationSeconds;
+        }
+
+        public long getReadCount() {
+            return readCount;
+        }
+
+        public void setReadCount(long readCount) {
+            this.readCount = readCount;
+        }
+
+        public long getWriteCount() {
+            return writeCount;
+        }
+
+        public void setWriteCount(long writeCount) {
+            this.writeCount = writeCount;
+        }
+
+        public long getFilterCount() {
+            return filterCount;
+        }
+
+        public void setFilterCount(long filterCount) {
+            this.filterCount = filterCount;
+        }
+
+        public long getReadSkipCount() {
+            return readSkipCount;
+        }
+
+        public void setReadSkipCount(long readSkipCount) {
+            this.readSkipCount = readSkipCount;
+        }
+
+        public long getProcessSkipCount() {
+            return processSkipCount;
+        }
+
+        public void setProcessSkipCount(long processSkipCount) {
+            this.processSkipCount = processSkipCount;
+        }
+
+        public long getWriteSkipCount() {
+            return writeSkipCount;
+        }
+
+        public void setWriteSkipCount(long writeSkipCount) {
+            this.writeSkipCount = writeSkipCount;
+        }
+
+        public long getCommitCount() {
+            return commitCount;
+        }
+
+        public void setCommitCount(long commitCount) {
+            this.commitCount = commitCount;
+        }
+
+        public long getRollbackCount() {
+            return rollbackCount;
+        }
+
+        public void setRollbackCount(long rollbackCount) {
+            this.rollbackCount = rollbackCount;
+        }
+    }
+
+    /* HTTP requests of one client endpoint, attempts of retried requests included */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class HttpReport {
+        private String client;
+        private String endpoint;
+        private long requests;
+        private long errors;
+        private double totalSeconds;
+        private long requestBytes;
+        private long responseBytes;
+
+        public String getClient() {
+            return client;
+        }
+
+        public void setClient(String client) {
+            this.client = client;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public void setRequests(long requests) {
+            this.requests = requests;
+        }
+
+        /**
+         * @return attempts which did not get a 2xx or 3xx response
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        public void setErrors(long errors) {
+            this.errors = errors;
+        }
+
+        public double getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        public void setTotalSeconds(double totalSeconds) {
+            this.totalSeconds = totalSeconds;
+        }
+
+        public long getRequestBytes() {
+            return requestBytes;
+        }
+
+        public void setRequestBytes(long requestBytes) {
+            this.requestBytes = requestBytes;
+        }
+
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+
+        public void setResponseBytes(long responseBytes) {
+            this.responseBytes = responseBytes;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CacheReport {
+        private String name;
+        private long hits;
+        private long misses;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public void setHits(long hits) {
+            this.hits = hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public void setMisses(long misses) {
+            this.misses = misses;
+        }
+
+        /**
+         * @return hits / (hits + misses), or null when the cache was not used
+         */
+        public Double getHitRate() {
+            long requests = hits + misses;
+            return (requests == 0L) ? null : (double) hits / requests;
+        }
+    }
+
+    /* A file or directory named by a job parameter, sized when the job ended */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class FileReport {
+        private String parameter;
+        private String path;
+        private long fileCount;
+        private long bytes;
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        public void setParameter(String parameter) {
+            this.parameter = parameter;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        /**
+         * @return 1 for a file, the number of files directly inside for a directory
+         */
+        public long getFileCount() {
+            return fileCount;
+        }
+
+        public void setFileCount(long fileCount) {
+            this.fileCount = fileCount;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
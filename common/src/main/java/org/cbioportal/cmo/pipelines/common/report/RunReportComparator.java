@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compares two run reports, typically of the same job on two nights.
+ *
+ * Every figure of the reports is matched by name. Times, heap, GC, HTTP request and error
+ * counts regress when they grow by more than the threshold, cache hit rates when they drop
+ * by more than it. Item counts and byte counts drift when they move by more than the threshold
+ * in either direction - more or fewer records is not wrong in itself, but worth a look.
+ * Durations under a second are not flagged. Exits with status 1 if anything regressed or drifted.
+ *
+ * Usage : RunReportComparator baseline.json candidate.json [threshold percent, default 20]
+ */
+public class RunReportComparator {
+
+    public static final double DEFAULT_THRESHOLD_PERCENT = 20d;
+    private static final double MIN_FLAGGED_SECONDS = 1d;
+
+    enum Direction { HIGHER_IS_WORSE, LOWER_IS_WORSE, EITHER }
+
+    public static class Comparison {
+        private final String key;
+        private final Double baselineValue;
+        private final Double candidateValue;
+        private final String status;
+
+        Comparison(String key, Double baselineValue, Double candidateValue, String status) {
+            this.key = key;
+            this.baselineValue = baselineValue;
+            this.candidateValue = candidateValue;
+            this.status = status;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return REGRESSION, DRIFT, improved, new, removed, or an empty string
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isFlagged() {
+            return "REGRESSION".equals(status) || "DRIFT".equals(status);
+        }
+
+        /**
+         * @return change of the candidate value relative to the baseline, in percent, or null if either run is missing it
+         */
+        public Double getChangePercent() {
+            if (baselineValue == null || candidateValue == null || baselineValue == 0d) {
+                return null;
+            }
+            return 100d * (candidateValue - baselineValue) / baselineValue;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-80s %16s %16s %9s %s", key, format(baselineValue), format(candidateValue),
+                    (getChangePercent() == null) ? "" : String.format("%+.1f%%", getChangePercent()), status);
+        }
+
+        private static String format(Double value) {
+            if (value == null) {
+                return "-";
+            }
+            return (value == Math.rint(value)) ? String.format("%.0f", value) : String.format("%.3f", value);
+        }
+    }
+
+    private static class Figure {
+        private final double value;
+        private final Direction direction;
+        private final boolean isSeconds;
+
+        Figure(double value, Direction direction, boolean isSeconds) {
+            this.value = value;
+            this.direction = direction;
+            this.isSeconds = isSeconds;
+        }
+    }
+
+    public static List<Comparison> compare(RunReport baseline, RunReport candidate, double thresholdPercent) {
+        Map<String, Figure> baselineFigures = flatten(baseline);
+        Map<String, Figure> candidateFigures = flatten(candidate);
+        Set<String> keys = new LinkedHashSet<>(baselineFigures.keySet());
+        keys.addAll(candidateFigures.keySet());
+        List<Comparison> comparisons = new ArrayList<>();
+        for (String key : keys) {
+            Figure before = baselineFigures.get(key);
+            Figure after = candidateFigures.get(key);
+            if (before == null || after == null) {
+                comparisons.add(new Comparison(key, (before != null) ? before.value : null, (after != null) ? after.value : null,
+                        (before == null) ? "new" : "removed"));
+                continue;
+            }
+            comparisons.add(new Comparison(key, before.value, after.value, classify(before, after, thresholdPercent)));
+        }
+        return comparisons;
+    }
+
+    private static String classify(Figure before, Figure after, double thresholdPercent) {
+        double change = after.value - before.value;
+        if (Math.abs(change) <= Math.abs(before.value) * thresholdPercent / 100d) {
+            return "";
+        }
+        if (after.isSeconds && Math.max(before.value, after.value) < MIN_FLAGGED_SECONDS) {
+            return "";
+        }
+        switch (after.direction) {
+            case HIGHER_IS_WORSE:
+                return (change > 0) ? "REGRESSION" : "improved";
+            case LOWER_IS_WORSE:
+                return (change < 0) ? "REGRESSION" : "improved";
+            default:
+                return "DRIFT";
+        }
+    }
+
+    private static Map<String, Figure> flatten(RunReport report) {
+        Map<String, Figure> figures = new LinkedHashMap<>();
+        figures.put("job duration (s)", new Figure(report.getDurationSeconds(), Direction.HIGHER_IS_WORSE, true));
+        figures.put("peak heap (bytes)", new Figure(report.getPeakHeapBytes(), Direction.HIGHER_IS_WORSE, false));
+        figures.put("gc time (s)", new Figure(report.getGcSeconds(), Direction.HIGHER_IS_WORSE, true));
+        for (RunReport.StepReport step : report.getSteps()) {
+            String prefix = "step " + step.getName() + " ";
+            figures.put(prefix + "duration (s)", new Figure(step.getDurationSeconds(), Direction.HIGHER_IS_WORSE, true));
+            figures.put(prefix + "read", new Figure(step.getReadCount(), Direction.EITHER, false));
+            figures.put(prefix + "written", new Figure(step.getWriteCount(), Direction.EITHER, false));
+            figures.put(prefix + "skipped", new Figure(step.getReadSkipCount() + step.getProcessSkipCount() + step.getWriteSkipCount(),
+                    Direction.HIGHER_IS_WORSE, false));
+        }
+        for (RunReport.HttpReport http : report.getHttp()) {
+            String prefix = "http " + http.getClient() + " " + http.getEndpoint() + " ";
+            figures.put(prefix + "requests", new Figure(http.getRequests(), Direction.HIGHER_IS_WORSE, false));
+            figures.put(prefix + "errors", new Figure(http.getErrors(), Direction.HIGHER_IS_WORSE, false));
+            if (http.getRequests() > 0L) {
+                figures.put(prefix + "mean time (s)", new Figure(http.getTotalSeconds() / http.getRequests(), Direction.HIGHER_IS_WORSE, true));
+            }
+            figures.put(prefix + "response bytes", new Figure(http.getResponseBytes(), Direction.EITHER, false));
+        }
+        for (RunReport.CacheReport cache : report.getCaches()) {
+            if (cache.getHitRate() != null) {
+                figures.put("cache " + cache.getName() + " hit rate", new Figure(cache.getHitRate(), Direction.LOWER_IS_WORSE, false));
+            }
+        }
+        for (RunReport.FileReport file : report.getFiles()) {
+            figures.put("file " + file.getParameter() + " (bytes)", new Figure(file.getBytes(), Direction.EITHER, false));
+        }
+        return figures;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: RunReportComparator baseline.json candidate.json [threshold percent, default " + DEFAULT_THRESHOLD_PERCENT + "]");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        double thresholdPercent = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        List<Comparison> comparisons = compare(mapper.readValue(new File(args[0]), RunReport.class),
+                mapper.readValue(new File(args[1]), RunReport.class), thresholdPercent);
+        System.out.println(String.format("%-80s %16s %16s %9s", "Figure", "Baseline", "Candidate", "Change"));
+        int flaggedCount = 0;
+        for (Comparison comparison : comparisons) {
+            System.out.println(comparison);
+            if (comparison.isFlagged()) {
+                flaggedCount++;
+            }
+        }
+        System.out.println(flaggedCount + " figure(s) regressed or drifted beyond " + thresholdPercent + "%");
+        System.exit((flaggedCount > 0) ? 1 : 0);
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.springframework.batch.core.*;
+
+/**
+ * Writes a JSON RunReport when a job ends : step counts and durations, peak heap, GC time,
+ * HTTP requests and bytes per endpoint, cache hit rates, and the size of every file or
+ * directory named by a job parameter (input files and output directories alike).
+ *
+ * The report path comes from the report.run_report_file property of each pipeline. An empty
+ * path disables the report. A path naming a directory gets a JOB_NAME-yyyyMMdd-HHmmss.json
+ * file, so that successive runs can be compared with RunReportComparator.
+ *
+ * HTTP and cache figures come from PipelineMetrics and cover this job only; heap and GC
+ * figures cover the whole JVM while the job ran.
+ */
+public class RunReportListener implements JobExecutionListener {
+
+    private final String reportFile;
+    private final Map<Long, Snapshot> startSnapshots = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Logger LOG = Logger.getLogger(RunReportListener.class);
+
+    public RunReportListener(String reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    /* cumulative figures at the start of a job, subtracted from the figures at its end */
+    private static class Snapshot {
+        private final Map<List<String>, RunReport.HttpReport> http = collectHttp();
+        private final Map<String, RunReport.CacheReport> caches = collectCaches();
+        private final long gcCount;
+        private final long gcMillis;
+
+        private Snapshot() {
+            long count = 0L;
+            long millis = 0L;
+            for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                // -1 when the collector does not report it
+                count += Math.max(0L, garbageCollector.getCollectionCount());
+                millis += Math.max(0L, garbageCollector.getCollectionTime());
+            }
+            this.gcCount = count;
+            this.gcMillis = millis;
+        }
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.isValid()) {
+                memoryPool.resetPeakUsage();
+            }
+        }
+        startSnapshots.put(jobExecution.getId(), new Snapshot());
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        Snapshot startSnapshot = startSnapshots.remove(jobExecution.getId());
+        if (!isEnabled() || startSnapshot == null) {
+            return;
+        }
+        RunReport report = makeReport(jobExecution, startSnapshot, new Snapshot());
+        Path file = resolveFile(report.getJob(), jobExecution.getStartTime());
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporaryFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                mapper.writeValue(temporaryFile.toFile(), report);
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            LOG.info("Wrote run report to " + file);
+        } catch (IOException e) {
+            // the report must not fail the job
+            LOG.error("Failed to write run report to " + file + " : " + e.getMessage());
+        }
+    }
+
+    private boolean isEnabled() {
+        return reportFile != null && !reportFile.trim().isEmpty();
+    }
+
+    private RunReport makeReport(JobExecution jobExecution, Snapshot start, Snapshot end) {
+        RunReport report = new RunReport();
+        report.setJob(jobExecution.getJobInstance().getJobName());
+        report.setJobExecutionId(jobExecution.getId());
+        report.setStatus(jobExecution.getStatus().name());
+        report.setExitCode(jobExecution.getExitStatus().getExitCode());
+        LocalDateTime endTime = (jobExecution.getEndTime() != null) ? jobExecution.getEndTime() : LocalDateTime.now();
+        report.setStartTime(Objects.toString(jobExecution.getStartTime(), null));
+        report.setEndTime(endTime.toString());
+        report.setDurationSeconds(seconds(jobExecution.getStartTime(), endTime));
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            report.getSteps().add(makeStepReport(stepExecution));
+        }
+        long peakHeapBytes = 0L;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.isValid() && memoryPool.getPeakUsage() != null) {
+                peakHeapBytes += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        report.setPeakHeapBytes(peakHeapBytes);
+        report.setGcCount(end.gcCount - start.gcCount);
+        report.setGcSeconds((end.gcMillis - start.gcMillis) / 1000d);
+        for (Map.Entry<List<String>, RunReport.HttpReport> entry : end.http.entrySet()) {
+            RunReport.HttpReport http = entry.getValue();
+            RunReport.HttpReport before = start.http.get(entry.getKey());
+            if (before != null) {
+                http.setRequests(http.getRequests() - before.getRequests());
+                http.setErrors(http.getErrors() - before.getErrors());
+                http.setTotalSeconds(http.getTotalSeconds() - before.getTotalSeconds());
+                http.setRequestBytes(http.getRequestBytes() - before.getRequestBytes());
+                http.setResponseBytes(http.getResponseBytes() - before.getResponseBytes());
+            }
+            if (http.getRequests() > 0L) {
+                report.getHttp().add(http);
+            }
+        }
+        for (Map.Entry<String, RunReport.CacheReport> entry : end.caches.entrySet()) {
+            RunReport.CacheReport cache = entry.getValue();
+            RunReport.CacheReport before = start.caches.get(entry.getKey());
+            if (before != null) {
+                cache.setHits(cache.getHits() - before.getHits());
+                cache.setMisses(cache.getMisses() - before.getMisses());
+            }
+            if (cache.getHits() + cache.getMisses() > 0L) {
+                report.getCaches().add(cache);
+            }
+        }
+        for (Map.Entry<String, JobParameter<?>> parameter : new TreeMap<>(jobExecution.getJobParameters().getParameters()).entrySet()) {
+            RunReport.FileReport fileReport = makeFileReport(parameter.getKey(), parameter.getValue().getValue());
+            if (fileReport != null) {
+                report.getFiles().add(fileReport);
+            }
+        }
+        return report;
+    }
+
+    private RunReport.StepReport makeStepReport(StepExecution stepExecution) {
+        RunReport.StepReport step = new RunReport.StepReport();
+        step.setName(stepExecution.getStepName());
+        step.setStatus(stepExecution.getStatus().name());
+        step.setDurationSeconds(seconds(stepExecution.getStartTime(), stepExecution.getEndTime()));
+        step.setReadCount(stepExecution.getReadCount());
+        step.setWriteCount(stepExecution.getWriteCount());
+        step.setFilterCount(stepExecution.getFilterCount());
+        step.setReadSkipCount(stepExecution.getReadSkipCount());
+        step.setProcessSkipCount(stepExecution.getProcessSkipCount());
+        step.setWriteSkipCount(stepExecution.getWriteSkipCount());
+        step.setCommitCount(stepExecution.getCommitCount());
+        step.setRollbackCount(stepExecution.getRollbackCount());
+        return step;
+    }
+
+    private RunReport.FileReport makeFileReport(String parameterName, Object value) {
+        if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+            return null;
+        }
+        Path path;
+        try {
+            path = Paths.get(((String) value).trim());
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        RunReport.FileReport fileReport = new RunReport.FileReport();
+        fileReport.setParameter(parameterName);
+        fileReport.setPath(path.toString());
+        try {
+            if (Files.isRegularFile(path)) {
+                fileReport.setFileCount(1L);
+                fileReport.setBytes(Files.size(path));
+                return fileReport;
+            }
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    for (Path child : (Iterable<Path>) children::iterator) {
+                        if (Files.isRegularFile(child)) {
+                            fileReport.setFileCount(fileReport.getFileCount() + 1L);
+                            fileReport.setBytes(fileReport.getBytes() + Files.size(child));
+                        }
+                    }
+                }
+                return fileReport;
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not size " + path + " for the run report : " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static Map<List<String>, RunReport.HttpReport> collectHttp() {
+        MeterRegistry registry = PipelineMetrics.getRegistry();
+        Map<List<String>, RunReport.HttpReport> reports = new TreeMap<>(Comparator.comparing(Object::toString));
+        for (Timer timer : registry.find("pipeline.http.requests").timers()) {
+            RunReport.HttpReport http = httpReportFor(reports, timer.getId());
+            http.setRequests(http.getRequests() + timer.count());
+            http.setTotalSeconds(http.getTotalSeconds() + timer.totalTime(TimeUnit.SECONDS));
+            if (!isSuccessStatus(timer.getId().getTag("status"))) {
+                http.setErrors(http.getErrors() + timer.count());
+            }
+        }
+        for (Counter counter : registry.find("pipeline.http.request.bytes").counters()) {
+            RunReport.HttpReport http = httpReportFor(reports, counter.getId());
+            http.setRequestBytes(http.getRequestBytes() + (long) counter.count());
+        }
+        for (Counter counter : registry.find("pipeline.http.response.bytes").counters()) {
+            RunReport.HttpReport http = httpReportFor(reports, counter.getId());
+            http.setResponseBytes(http.getResponseBytes() + (long) counter.count());
+        }
+        return reports;
+    }
+
+    private static RunReport.HttpReport httpReportFor(Map<List<String>, RunReport.HttpReport> reports, Meter.Id id) {
+        String client = id.getTag("client");
+        String endpoint = id.getTag("endpoint");
+        return reports.computeIfAbsent(Arrays.asList(client, endpoint), key -> {
+            RunReport.HttpReport http = new RunReport.HttpReport();
+            http.setClient(client);
+            http.setEndpoint(endpoint);
+            return http;
+        });
+    }
+
+    private static boolean isSuccessStatus(String status) {
+        return status != null && (status.startsWith("2") || status.startsWith("3")) && status.length() == 3;
+    }
+
+    private static Map<String, RunReport.CacheReport> collectCaches() {
+        Map<String, RunReport.CacheReport> reports = new TreeMap<>();
+        for (Counter counter : PipelineMetrics.getRegistry().find("pipeline.cache.requests").counters()) {
+            String name = counter.getId().getTag("cache");
+            RunReport.CacheReport cache = reports.computeIfAbsent(name, key -> {
+                RunReport.CacheReport cacheReport = new RunReport.CacheReport();
+                cacheReport.setName(key);
+                return cacheReport;
+            });
+            if ("hit".equals(counter.getId().getTag("result"))) {
+                cache.setHits(cache.getHits() + (long) counter.count());
+            } else {
+                cache.setMisses(cache.getMisses() + (long) counter.count());
+            }
+        }
+        return reports;
+    }
+
+    private static double seconds(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return 0d;
+        }
+        return Duration.between(start, end).toMillis() / 1000d;
+    }
+
+    Path resolveFile(String jobName, LocalDateTime startTime) {
+        Path path = Paths.get(reportFile.trim());
+        if (Files.isDirectory(path)) {
+            LocalDateTime time = (startTime != null) ? startTime : LocalDateTime.now();
+            return path.resolve(jobName + "-" + time.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        }
+        return path;
+    }
+}
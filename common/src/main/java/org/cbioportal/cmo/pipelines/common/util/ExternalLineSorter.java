@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.jfr.FileMergeEvent;
+
+/**
+ * Sorts the lines of a text file while holding at most a configured number of bytes of lines in memory.
+ * Lines are collected until the memory budget is reached, sorted, and spilled to a temporary "run" file.
+ * The runs are then combined with a k-way merge (in several passes if there are more runs than can be
+ * merged at once). When the whole input fits in the budget no temporary files are written.
+ *
+ * The sort is stable : lines which compare as equal keep their input order, both within a run
+ * (List.sort is stable) and across runs (ties are broken by run order during the merge).
+ */
+public class ExternalLineSorter {
+
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024L * 1024L;
+    public static final int DEFAULT_MAX_MERGE_FAN_IN = 64;
+    // approximate heap used by a String beyond its characters (object headers, array header, list slot)
+    private static final int LINE_OVERHEAD_BYTES = 64;
+
+    private final long memoryBudgetBytes;
+    private final Comparator<String> comparator;
+    private final Path tempDirectory;
+    private final int maxMergeFanIn;
+    private final Logger log = Logger.getLogger(ExternalLineSorter.class);
+
+    public ExternalLineSorter() {
+        this(DEFAULT_MEMORY_BUDGET_BYTES);
+    }
+
+    public ExternalLineSorter(long memoryBudgetBytes) {
+        this(memoryBudgetBytes, Comparator.naturalOrder(), null);
+    }
+
+    /**
+     * @param memoryBudgetBytes approximate heap to use for lines held in memory
+     * @param comparator line order - see comparingKey() for sorting by a field of the line
+     * @param tempDirectory directory for run files, or null for the default temporary-file directory
+     */
+    public ExternalLineSorter(long memoryBudgetBytes, Comparator<String> comparator, Path tempDirectory) {
+        this(memoryBudgetBytes, comparator, tempDirectory, DEFAULT_MAX_MERGE_FAN_IN);
+    }
+
+    ExternalLineSorter(long memoryBudgetBytes, Comparator<String> comparator, Path tempDirectory, int maxMergeFanIn) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("memory budget must be positive : " + memoryBudgetBytes);
+        }
+        if (maxMergeFanIn < 2) {
+            throw new IllegalArgumentException("merge fan in must be at least 2 : " + maxMergeFanIn);
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.comparator = comparator;
+        this.tempDirectory = tempDirectory;
+        this.maxMergeFanIn = maxMergeFanIn;
+    }
+
+    /**
+     * Line order determined by a key taken from each line (e.g. the first tab delimited field).
+     * Lines with equal keys keep their input order.
+     */
+    public static <K extends Comparable<? super K>> Comparator<String> comparingKey(Function<String, K> keyExtractor) {
+        return Comparator.comparing(keyExtractor);
+    }
+
+    /**
+     * Sorts the records of a file in place. The first line of the file is treated as a header and replaced with the given header.
+     */
+    public void sortFile(Path file, String header) throws IOException {
+        Path sortedFile = createTempFile(file.toAbsolutePath().getParent());
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+                    BufferedWriter writer = Files.newBufferedWriter(sortedFile, StandardCharsets.UTF_8)) {
+                // skip first line (header)
+                reader.readLine();
+                writer.write(header);
+                writer.newLine();
+                sort(reader, writer);
+            }
+            Files.move(sortedFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(sortedFile);
+        }
+    }
+
+    /**
+     * Merges files which were each sorted with this sorter's order (e.g. by sortFile()) into one sorted output file.
+     * The first line of every input is treated as a header and the output gets the given header. Lines which compare
+     * as equal are written in input file order. All inputs are opened at once, so the number of files should stay
+     * within what the process may hold open.
+     */
+    public void mergeSortedFiles(List<Path> sortedFiles, Path outputFile, String header) throws IOException {
+        FileMergeEvent event = new FileMergeEvent();
+        event.begin();
+        List<BufferedReader> readers = new ArrayList<>(sortedFiles.size());
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            for (Path sortedFile : sortedFiles) {
+                BufferedReader reader = Files.newBufferedReader(sortedFile, StandardCharsets.UTF_8);
+                readers.add(reader);
+                // skip first line (header)
+                reader.readLine();
+            }
+            writer.write(header);
+            writer.newLine();
+            mergeReaders(readers, writer);
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = outputFile.toString();
+            event.inputFileCount = sortedFiles.size();
+            for (Path sortedFile : sortedFiles) {
+                event.bytesRead += Files.size(sortedFile);
+            }
+            event.bytesWritten = Files.size(outputFile);
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes every line remaining in the reader to the writer in sorted order.
+     */
+    public void sort(BufferedReader reader, BufferedWriter writer) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try {
+            List<String> lines = new ArrayList<>();
+            long bufferedBytes = 0L;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                bufferedBytes += LINE_OVERHEAD_BYTES + 2L * line.length();
+                if (bufferedBytes >= memoryBudgetBytes) {
+                    runs.add(spillRun(lines));
+                    lines.clear();
+                    bufferedBytes = 0L;
+                }
+            }
+            lines.sort(comparator);
+            if (runs.isEmpty()) {
+                writeLines(lines, writer);
+                return;
+            }
+            if (!lines.isEmpty()) {
+                runs.add(spillRun(lines));
+                lines.clear();
+            }
+            log.debug("merging " + runs.size() + " sorted runs");
+            while (runs.size() > maxMergeFanIn) {
+                runs = mergePass(runs);
+            }
+            merge(runs, writer);
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private Path spillRun(List<String> lines) throws IOException {
+        lines.sort(comparator);
+        Path run = createTempFile(tempDirectory);
+        try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            writeLines(lines, writer);
+        }
+        return run;
+    }
+
+    /* merges consecutive groups of runs so that run order (and so stability) is preserved */
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        List<Path> mergedRuns = new ArrayList<>();
+        for (int start = 0; start < runs.size(); start += maxMergeFanIn) {
+            List<Path> group = runs.subList(start, Math.min(start + maxMergeFanIn, runs.size()));
+            Path mergedRun = createTempFile(tempDirectory);
+            mergedRuns.add(mergedRun);
+            try (BufferedWriter writer = Files.newBufferedWriter(mergedRun, StandardCharsets.UTF_8)) {
+                merge(group, writer);
+            }
+            for (Path run : group) {
+                Files.deleteIfExists(run);
+            }
+        }
+        return mergedRuns;
+    }
+
+    private void merge(List<Path> runs, BufferedWriter writer) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                readers.add(Files.newBufferedReader(run, StandardCharsets.UTF_8));
+            }
+            mergeReaders(readers, writer);
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /* k-way merge of sorted readers, ties are broken by reader order */
+    private void mergeReaders(List<BufferedReader> readers, BufferedWriter writer) throws IOException {
+        PriorityQueue<RunHead> heads = new PriorityQueue<>(Math.max(1, readers.size()));
+        for (int i = 0; i < readers.size(); i++) {
+            String line = readers.get(i).readLine();
+            if (line != null) {
+                heads.add(new RunHead(line, i));
+            }
+        }
+        while (!heads.isEmpty()) {
+            RunHead head = heads.poll();
+            writer.write(head.line);
+            writer.newLine();
+            String next = readers.get(head.runIndex).readLine();
+            if (next != null) {
+                head.line = next;
+                heads.add(head);
+            }
+        }
+    }
+
+    private void writeLines(List<String> lines, BufferedWriter writer) throws IOException {
+        for (String line : lines) {
+            writer.write(line);
+            writer.newLine();
+        }
+    }
+
+    private Path createTempFile(Path directory) throws IOException {
+        if (directory == null) {
+            return Files.createTempFile("sort-run-", ".txt");
+        }
+        return Files.createTempFile(directory, "sort-run-", ".txt");
+    }
+
+    private class RunHead implements Comparable<RunHead> {
+        private String line;
+        private final int runIndex;
+
+        RunHead(String line, int runIndex) {
+            this.line = line;
+            this.runIndex = runIndex;
+        }
+
+        @Override
+        public int compareTo(RunHead other) {
+            int result = comparator.compare(line, other.line);
+            return (result != 0) ? result : Integer.compare(runIndex, other.runIndex);
+        }
+    }
+}
@@ -33,11 +33,16 @@
 package org.cbioportal.cmo.pipelines.common.util;
 
 import java.net.SocketTimeoutException;
+import java.net.URI;
 import java.util.*;
 import java.util.Properties;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.jfr.HttpRequestEvent;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.HttpEntity;
@@ -59,6 +64,11 @@ public class HttpClientWithTimeoutAndRetry {
     private boolean reachedDropDeadInstant;
     private RestClientException lastRestClientException;
     private String lastResponseBodyStringAfterException;
+    private String endpointName;
+    private String subjectId;
+    private HttpRetryScheduler retryScheduler;
+    private boolean rejectedByRetryScheduler;
+    private Predicate<HttpClientWithTimeoutAndRetry> finalResponseCondition;
     private Logger log = Logger.getLogger(HttpClientWithTimeoutAndRetry.class);
 
     public HttpClientWithTimeoutAndRetry() {
@@ -87,6 +97,37 @@ public class HttpClientWithTimeoutAndRetry {
         this.lastRestClientException = null;
     }
 
+    /**
+     * @param endpointName name requests are reported under in PipelineMetrics (e.g. "get_seg_data") - urls
+     * hold session and sample ids, so they are not used as the endpoint name
+     */
+    public void setEndpointName(String endpointName) {
+        this.endpointName = endpointName;
+    }
+
+    /**
+     * @param subjectId sample id the requests are about, attached to the flight recorder events of each attempt
+     */
+    public void setSubjectId(String subjectId) {
+        this.subjectId = subjectId;
+    }
+
+    /**
+     * @param retryScheduler scheduler used for every exchange of this client, in place of the shared scheduler of the url host
+     */
+    public void setRetryScheduler(HttpRetryScheduler retryScheduler) {
+        this.retryScheduler = retryScheduler;
+    }
+
+    /**
+     * @param finalResponseCondition checked after each erroneous server response, once the response has been captured
+     * (see getLastRestClientException and getLastResponseBodyStringAfterException) : when it holds, the exchange ends with
+     * a null response at once, even when retryOnErroneousServerResponse is set
+     */
+    public void setFinalResponseCondition(Predicate<HttpClientWithTimeoutAndRetry> finalResponseCondition) {
+        this.finalResponseCondition = finalResponseCondition;
+    }
+
     public int getNumberOfRequestsAttempted() {
         return numberOfRequestsAttempted;
     }
@@ -99,6 +140,13 @@ public class HttpClientWithTimeoutAndRetry {
         return reachedDropDeadInstant;
     }
 
+    /**
+     * @return true when the last exchange ended because the circuit of the host was open or its retry budget was spent
+     */
+    public boolean getRejectedByRetryScheduler() {
+        return rejectedByRetryScheduler;
+    }
+
     public RestClientException getLastRestClientException() {
         return lastRestClientException;
     }
@@ -114,65 +162,295 @@ public class HttpClientWithTimeoutAndRetry {
      * if the timeout is reached (either for forming a connection or waiting to receive a response) a RestClientException is raised. If
      * the exception is due to timeout, the timeout is adjusted according to the HttpRequestTimeoutProgression object, and the request
      * is reattempted. A final DropDeadInstant is also monitored and if it arrives a null response is returned.
+     * When the http.retry.scheduler system property is "adaptive" (or a scheduler was set), the attempts follow the HttpRetryScheduler
+     * of the url host as in exchangeAsync. exchange still runs every attempt on the calling thread and sleeps through the backoffs : only
+     * callers of exchangeAsync avoid holding a thread while waiting.
     */
     public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity requestEntity, Map<String,?> uriVariables, Class<T> returnType) {
+        if (retryScheduler != null || HttpRetryScheduler.isEnabled()) {
+            return exchangeScheduled(url, method, requestEntity, uriVariables, returnType);
+        }
         HttpRequestTimeoutProgression timeoutProgression = new HttpRequestTimeoutProgression(initialTimeout, maximumTimeout, dropDeadInstant);
         SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setRequestFactory(requestFactory);
+        RestTemplate restTemplate = createRestTemplate(requestFactory);
         if (uriVariables == null) {
             uriVariables = new HashMap<String, String>();
         }
-        numberOfRequestsAttempted = 0;
-        lastTimeoutUsed = 0;
-        reachedDropDeadInstant = false;
-        lastRestClientException = null;
-        lastResponseBodyStringAfterException = null;
+        resetExchangeState();
+        String metricsClient = getMetricsClient(url);
+        String retryReason = null;
         while (Instant.now().isBefore(dropDeadInstant)) {
-            try {
-                lastRestClientException = null; // reset before each request
-                lastResponseBodyStringAfterException = null; // reset before each request
-                numberOfRequestsAttempted = numberOfRequestsAttempted + 1;
-                lastTimeoutUsed = timeoutProgression.getNextTimeoutForRequest();
-                requestFactory.setConnectTimeout(lastTimeoutUsed);
-                requestFactory.setReadTimeout(lastTimeoutUsed);
-                ResponseEntity<T> response = restTemplate.exchange(url, method, requestEntity, returnType, uriVariables);
-                if (response.getStatusCode().is5xxServerError()) {
-                    pauseForMilliseconds(lastTimeoutUsed);
-                    continue;
-                }
-                return response;
-            } catch (RestClientResponseException e) {
-                log.error("RestClientResponseException: " + e.getMessage());
-                // these exceptions typically occur when the response from the server is not properly deserialized/objectMapped.
-                // Perhaps the server has responded with a general message about server problems, or about an invalid request (as html when json was expected)
-                lastRestClientException = e;
-                lastResponseBodyStringAfterException = e.getResponseBodyAsString();
+            if (retryReason != null) {
+                PipelineMetrics.recordHttpRetry(metricsClient, endpointName, retryReason);
+            }
+            Attempt<T> attempt = attempt(restTemplate, requestFactory, timeoutProgression, url, method, requestEntity, uriVariables, returnType, metricsClient);
+            if (attempt.retryReason == null) {
+                return attempt.response;
+            }
+            retryReason = attempt.retryReason;
+            pauseForMilliseconds(lastTimeoutUsed);
+        }
+        reachedDropDeadInstant = true;
+        return null;
+    }
+
+    /* exchangeAsync sends the request through the HttpRetryScheduler shared by all clients of the url host (or the scheduler set with
+     * setRetryScheduler). Timeouts follow the HttpRequestTimeoutProgression and the DropDeadInstant as in exchange, but retries wait out
+     * a jittered backoff on a delayed executor rather than in Thread.sleep, and the exchange completes with a null response without
+     * sending anything when the circuit of the host is open or its retry budget is spent (getRejectedByRetryScheduler() is then true).
+     * A client holds the state of one exchange, so a client must not start an exchange before the previous one has completed.
+    */
+    public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(String url, HttpMethod method, HttpEntity requestEntity, Map<String,?> uriVariables, Class<T> returnType) {
+        ScheduledExchange<T> exchange = new ScheduledExchange<>(url, method, requestEntity, uriVariables, returnType);
+        CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<>();
+        exchange.scheduler.delayedExecutor(0L).execute(() -> attemptAsync(exchange, null, 0L, result));
+        return result;
+    }
+
+    private <T> void attemptAsync(ScheduledExchange<T> exchange, String retryReason, long previousDelayMillis, CompletableFuture<ResponseEntity<T>> result) {
+        try {
+            ScheduledAttempt<T> scheduledAttempt = attemptScheduled(exchange, retryReason, previousDelayMillis);
+            if (scheduledAttempt.retryReason == null) {
+                result.complete(scheduledAttempt.response);
+                return;
+            }
+            exchange.scheduler.delayedExecutor(scheduledAttempt.delayMillis).execute(() -> attemptAsync(exchange, scheduledAttempt.retryReason,
+                    scheduledAttempt.delayMillis, result));
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+    }
+
+    /* the synchronous counterpart of exchangeAsync : the same scheduled attempts, run on the calling thread */
+    private <T> ResponseEntity<T> exchangeScheduled(String url, HttpMethod method, HttpEntity requestEntity, Map<String,?> uriVariables, Class<T> returnType) {
+        ScheduledExchange<T> exchange = new ScheduledExchange<>(url, method, requestEntity, uriVariables, returnType);
+        String retryReason = null;
+        long delayMillis = 0L;
+        while (true) {
+            ScheduledAttempt<T> scheduledAttempt = attemptScheduled(exchange, retryReason, delayMillis);
+            if (scheduledAttempt.retryReason == null) {
+                return scheduledAttempt.response;
+            }
+            retryReason = scheduledAttempt.retryReason;
+            delayMillis = scheduledAttempt.delayMillis;
+            pauseForMilliseconds((int) delayMillis);
+        }
+    }
+
+    /* sends one attempt of a scheduled exchange if the scheduler permits it. The returned ScheduledAttempt holds the response to
+     * return, or the reason to retry and the backoff to wait out first. */
+    private <T> ScheduledAttempt<T> attemptScheduled(ScheduledExchange<T> exchange, String retryReason, long previousDelayMillis) {
+        HttpRetryScheduler scheduler = exchange.scheduler;
+        ScheduledAttempt<T> scheduledAttempt = new ScheduledAttempt<>();
+        if (!Instant.now().isBefore(dropDeadInstant)) {
+            reachedDropDeadInstant = true;
+            return scheduledAttempt;
+        }
+        if (!scheduler.tryAcquirePermit()) {
+            rejectRequest(exchange.metricsClient, "circuit_open");
+            return scheduledAttempt;
+        }
+        Attempt<T> attempt;
+        try {
+            if (retryReason != null) {
+                PipelineMetrics.recordHttpRetry(exchange.metricsClient, endpointName, retryReason);
+            } else {
+                scheduler.recordRequest();
+            }
+            attempt = attempt(exchange.restTemplate, exchange.requestFactory, exchange.timeoutProgression, exchange.url, exchange.method,
+                    exchange.requestEntity, exchange.uriVariables, exchange.returnType, exchange.metricsClient);
+        } catch (Throwable t) {
+            // the permit may be the single probe of a half-open circuit : it must be released for the circuit to close or reopen
+            scheduler.recordFailure();
+            throw t;
+        }
+        if (attempt.upstreamFailure) {
+            scheduler.recordFailure();
+        } else {
+            scheduler.recordSuccess();
+        }
+        if (attempt.retryReason == null) {
+            scheduledAttempt.response = attempt.response;
+            return scheduledAttempt;
+        }
+        long delayMillis = scheduler.nextDelayMillis(previousDelayMillis);
+        if (!Instant.now().plusMillis(delayMillis).isBefore(dropDeadInstant)) {
+            reachedDropDeadInstant = true;
+            return scheduledAttempt;
+        }
+        if (!scheduler.tryWithdrawRetry()) {
+            rejectRequest(exchange.metricsClient, "retry_budget");
+            return scheduledAttempt;
+        }
+        scheduledAttempt.retryReason = attempt.retryReason;
+        scheduledAttempt.delayMillis = delayMillis;
+        return scheduledAttempt;
+    }
+
+    private void rejectRequest(String metricsClient, String reason) {
+        rejectedByRetryScheduler = true;
+        PipelineMetrics.recordHttpRejection(metricsClient, endpointName, reason);
+        log.warn(String.format("Request to %s (%s) not sent : %s", metricsClient, endpointName, reason.replace('_', ' ')));
+    }
+
+    /* the request and the per exchange state of an exchange going through a HttpRetryScheduler */
+    private class ScheduledExchange<T> {
+        final String url;
+        final HttpMethod method;
+        final HttpEntity requestEntity;
+        final Map<String,?> uriVariables;
+        final Class<T> returnType;
+        final String metricsClient;
+        final HttpRetryScheduler scheduler;
+        final HttpRequestTimeoutProgression timeoutProgression;
+        final SimpleClientHttpRequestFactory requestFactory;
+        final RestTemplate restTemplate;
+
+        ScheduledExchange(String url, HttpMethod method, HttpEntity requestEntity, Map<String,?> uriVariables, Class<T> returnType) {
+            this.url = url;
+            this.method = method;
+            this.requestEntity = requestEntity;
+            this.uriVariables = (uriVariables == null) ? new HashMap<String, String>() : uriVariables;
+            this.returnType = returnType;
+            this.metricsClient = getMetricsClient(url);
+            this.scheduler = (retryScheduler != null) ? retryScheduler : HttpRetryScheduler.forHost(metricsClient);
+            this.timeoutProgression = new HttpRequestTimeoutProgression(initialTimeout, maximumTimeout, dropDeadInstant);
+            this.requestFactory = new SimpleClientHttpRequestFactory();
+            this.restTemplate = createRestTemplate(requestFactory);
+            resetExchangeState();
+        }
+    }
+
+    private static class ScheduledAttempt<T> {
+        ResponseEntity<T> response;
+        String retryReason; // null when the exchange is over
+        long delayMillis;
+    }
+
+    /* sends the request once. The returned Attempt holds the response to return, or the reason to retry the request. */
+    private <T> Attempt<T> attempt(RestTemplate restTemplate, SimpleClientHttpRequestFactory requestFactory, HttpRequestTimeoutProgression timeoutProgression,
+            String url, HttpMethod method, HttpEntity requestEntity, Map<String,?> uriVariables, Class<T> returnType, String metricsClient) {
+        Attempt<T> attempt = new Attempt<>();
+        long attemptStart = System.nanoTime();
+        String attemptStatus = "IO_ERROR";
+        long responseBytes = -1L;
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        try {
+            lastRestClientException = null; // reset before each request
+            lastResponseBodyStringAfterException = null; // reset before each request
+            numberOfRequestsAttempted = numberOfRequestsAttempted + 1;
+            lastTimeoutUsed = timeoutProgression.getNextTimeoutForRequest();
+            requestFactory.setConnectTimeout(lastTimeoutUsed);
+            requestFactory.setReadTimeout(lastTimeoutUsed);
+            ResponseEntity<T> response = restTemplate.exchange(url, method, requestEntity, returnType, uriVariables);
+            attemptStatus = String.valueOf(response.getStatusCode().value());
+            responseBytes = response.getHeaders().getContentLength();
+            if (response.getStatusCode().is5xxServerError()) {
+                attempt.retryReason = "server_error";
+                attempt.upstreamFailure = true;
+                return attempt;
+            }
+            attempt.response = response;
+            return attempt;
+        } catch (RestClientResponseException e) {
+            log.error("RestClientResponseException: " + e.getMessage());
+            attemptStatus = String.valueOf(e.getStatusCode().value());
+            responseBytes = e.getResponseBodyAsByteArray().length;
+            attempt.upstreamFailure = e.getStatusCode().is5xxServerError();
+            // these exceptions typically occur when the response from the server is not properly deserialized/objectMapped.
+            // Perhaps the server has responded with a general message about server problems, or about an invalid request (as html when json was expected)
+            lastRestClientException = e;
+            lastResponseBodyStringAfterException = e.getResponseBodyAsString();
+            if (!retryOnErroneousServerResponse || isFinalResponse()) {
+                return attempt; // fail now : the exception and response body have been captured in instance variables
+            }
+            attempt.retryReason = "erroneous_response";
+            return attempt;
+        } catch (RestClientException e) {
+            log.error("RestClientException: " + e.getMessage());
+            // if the server responds with something which does not match the expected model, consider that a "server error"
+            // this would happen if the server sends a 200 "OK" http status but contains a message such as this json:
+            // { "error": "Error occurred while processing your request. get_seg_data cant be processed..." }
+            // or if it sends an html page response when we expect a json object.
+            String errorMessage = e.getMessage();
+            if (errorMessage != null && errorMessage.contains("Could not extract response")) {
+                attemptStatus = "UNREADABLE_RESPONSE";
                 if (!retryOnErroneousServerResponse) {
-                    return null; // fail now : the exception and response body have been captured in instance variables
+                    return attempt; // fail now : the exception and response body have been captured in instance variables
                 }
-                pauseForMilliseconds(lastTimeoutUsed);
-            } catch (RestClientException e) {
-                log.error("RestClientException: " + e.getMessage());
-                // if the server responds with something which does not match the expected model, consider that a "server error"
-                // this would happen if the server sends a 200 "OK" http status but contains a message such as this json:
-                // { "error": "Error occurred while processing your request. get_seg_data cant be processed..." }
-                // or if it sends an html page response when we expect a json object.
-                String errorMessage = e.getMessage();
-                if (errorMessage != null && errorMessage.contains("Could not extract response") && !retryOnErroneousServerResponse) {
-                    return null; // fail now : the exception and response body have been captured in instance variables
-                }
-                // these exceptions are either timeouts or other low level exceptions. Continue to attempt the request.
-                lastRestClientException = e;
-                if (!exceptionCausedByTimeout(e)) {
-                    // some other low level issue (IOException usually - maybe NoRouteToHost if interface is down?)
-                    log.debug(String.format("RestClientException ocurred during retry loop : %s", e.toString()));
+            }
+            // these exceptions are either timeouts or other low level exceptions. Continue to attempt the request.
+            lastRestClientException = e;
+            if (exceptionCausedByTimeout(e)) {
+                attemptStatus = "TIMEOUT";
+                attempt.retryReason = "timeout";
+                attempt.upstreamFailure = true;
+            } else if (attemptStatus.equals("UNREADABLE_RESPONSE")) {
+                if (isFinalResponse()) {
+                    return attempt;
                 }
-                pauseForMilliseconds(lastTimeoutUsed);
+                attempt.retryReason = "erroneous_response";
+            } else {
+                // some other low level issue (IOException usually - maybe NoRouteToHost if interface is down?)
+                log.debug(String.format("RestClientException ocurred during retry loop : %s", e.toString()));
+                attempt.retryReason = "io_error";
+                attempt.upstreamFailure = true;
             }
+            return attempt;
+        } finally {
+            PipelineMetrics.recordHttpRequest(metricsClient, endpointName, method.name(), attemptStatus, System.nanoTime() - attemptStart,
+                    -1L, responseBytes);
+            commitRequestEvent(event, metricsClient, method.name(), attemptStatus, responseBytes);
+        }
+    }
+
+    private boolean isFinalResponse() {
+        return finalResponseCondition != null && finalResponseCondition.test(this);
+    }
+
+    private static class Attempt<T> {
+        ResponseEntity<T> response;
+        String retryReason; // null when the exchange is over
+        boolean upstreamFailure; // server error, timeout or io error
+    }
+
+    private RestTemplate createRestTemplate(SimpleClientHttpRequestFactory requestFactory) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setRequestFactory(requestFactory);
+        HttpTrafficCapture.getInstance().instrument(restTemplate);
+        return restTemplate;
+    }
+
+    private void resetExchangeState() {
+        numberOfRequestsAttempted = 0;
+        lastTimeoutUsed = 0;
+        reachedDropDeadInstant = false;
+        rejectedByRetryScheduler = false;
+        lastRestClientException = null;
+        lastResponseBodyStringAfterException = null;
+    }
+
+    private void commitRequestEvent(HttpRequestEvent event, String client, String method, String status, long responseBytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.client = client;
+            event.endpoint = endpointName;
+            event.method = method;
+            event.status = status;
+            event.subjectId = subjectId;
+            event.attempt = numberOfRequestsAttempted;
+            event.responseBytes = responseBytes;
+            event.commit();
+        }
+    }
+
+    private String getMetricsClient(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        reachedDropDeadInstant = true;
-        return null;
     }
 
     private void pauseForMilliseconds(int period) {
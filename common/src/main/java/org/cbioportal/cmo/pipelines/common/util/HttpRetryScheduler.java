@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.apache.log4j.Logger;
+
+/* Retry policy shared by every HttpClientWithTimeoutAndRetry talking to one upstream host.
+ *
+ * Clients retrying on their own turn an upstream outage into a retry storm : each of them keeps a thread
+ * sleeping and retrying until its drop-dead instant. The scheduler of a host combines :
+ *
+ *   - decorrelated jitter : each backoff is drawn from [baseDelay, 3 * previous backoff], capped at maxDelay,
+ *     so that clients which failed together do not retry together
+ *   - a circuit breaker : after failureThreshold consecutive upstream failures (5xx, timeout, io error) the
+ *     circuit opens and requests fail fast. Once openInterval has passed a single probe request is let
+ *     through (half-open) - its success closes the circuit, its failure opens it again
+ *   - a retry budget : every first attempt deposits budgetRatio tokens, the budget also refills by
+ *     budgetMinPerSecond tokens each second, and every retry withdraws one token. An empty budget ends
+ *     the exchange instead of retrying, which bounds retries to a fraction of the traffic
+ *
+ * HttpClientWithTimeoutAndRetry.exchangeAsync waits out backoffs with CompletableFuture.delayedExecutor, so no thread
+ * is held while waiting. The synchronous exchange() follows the same policy but sleeps the calling thread.
+ *
+ * Schedulers are configured from system properties :
+ *
+ *   -Dhttp.retry.scheduler=adaptive|legacy        (default legacy) route HttpClientWithTimeoutAndRetry.exchange()
+ *                                                 through the scheduler of the host
+ *   -Dhttp.retry.base_delay=MILLIS                (default 100)
+ *   -Dhttp.retry.max_delay=MILLIS                 (default 30000)
+ *   -Dhttp.retry.failure_threshold=N              (default 5)
+ *   -Dhttp.retry.open_interval=MILLIS             (default 30000)
+ *   -Dhttp.retry.budget_ratio=R                   (default 0.2)
+ *   -Dhttp.retry.budget_min_per_second=R          (default 1)
+ *   -Dhttp.retry.budget_capacity=N                (default 10)
+ */
+public class HttpRetryScheduler {
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    public static final String SCHEDULER_PROPERTY = "http.retry.scheduler";
+    public static final String BASE_DELAY_PROPERTY = "http.retry.base_delay";
+    public static final String MAX_DELAY_PROPERTY = "http.retry.max_delay";
+    public static final String FAILURE_THRESHOLD_PROPERTY = "http.retry.failure_threshold";
+    public static final String OPEN_INTERVAL_PROPERTY = "http.retry.open_interval";
+    public static final String BUDGET_RATIO_PROPERTY = "http.retry.budget_ratio";
+    public static final String BUDGET_MIN_PER_SECOND_PROPERTY = "http.retry.budget_min_per_second";
+    public static final String BUDGET_CAPACITY_PROPERTY = "http.retry.budget_capacity";
+
+    private static final ConcurrentMap<String, HttpRetryScheduler> schedulers = new ConcurrentHashMap<>();
+    private static final ExecutorService attemptExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "http-retry-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final String host;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int failureThreshold;
+    private final long openIntervalNanos;
+    private final double budgetRatio;
+    private final double budgetMinPerSecond;
+    private final double budgetCapacity;
+    private final LongSupplier nanoClock;
+
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+    private double budgetTokens;
+    private long lastRefillNanos;
+    private static final Logger log = Logger.getLogger(HttpRetryScheduler.class);
+
+    public HttpRetryScheduler(String host, long baseDelayMillis, long maxDelayMillis, int failureThreshold, long openIntervalMillis,
+            double budgetRatio, double budgetMinPerSecond, double budgetCapacity) {
+        this(host, baseDelayMillis, maxDelayMillis, failureThreshold, openIntervalMillis, budgetRatio, budgetMinPerSecond, budgetCapacity,
+                System::nanoTime);
+    }
+
+    HttpRetryScheduler(String host, long baseDelayMillis, long maxDelayMillis, int failureThreshold, long openIntervalMillis,
+            double budgetRatio, double budgetMinPerSecond, double budgetCapacity, LongSupplier nanoClock) {
+        if (baseDelayMillis < 0L || maxDelayMillis < baseDelayMillis || failureThreshold < 1 || openIntervalMillis < 0L) {
+            throw new IllegalArgumentException("Invalid retry scheduler settings for host " + host);
+        }
+        this.host = host;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.failureThreshold = failureThreshold;
+        this.openIntervalNanos = TimeUnit.MILLISECONDS.toNanos(openIntervalMillis);
+        this.budgetRatio = budgetRatio;
+        this.budgetMinPerSecond = budgetMinPerSecond;
+        this.budgetCapacity = budgetCapacity;
+        this.nanoClock = nanoClock;
+        this.budgetTokens = budgetCapacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return true when the http.retry.scheduler system property routes synchronous exchanges through the schedulers
+     */
+    public static boolean isEnabled() {
+        return "adaptive".equalsIgnoreCase(System.getProperty(SCHEDULER_PROPERTY, "legacy").trim());
+    }
+
+    /**
+     * @return the scheduler shared by all clients of the host, configured by the http.retry.* system properties on first use
+     */
+    public static HttpRetryScheduler forHost(String host) {
+        String key = (host == null) ? "" : host.toLowerCase();
+        return schedulers.computeIfAbsent(key, k -> fromProperties(k, System.getProperties()));
+    }
+
+    public static HttpRetryScheduler fromProperties(String host, Properties properties) {
+        return new HttpRetryScheduler(host,
+                Long.parseLong(properties.getProperty(BASE_DELAY_PROPERTY, "100").trim()),
+                Long.parseLong(properties.getProperty(MAX_DELAY_PROPERTY, "30000").trim()),
+                Integer.parseInt(properties.getProperty(FAILURE_THRESHOLD_PROPERTY, "5").trim()),
+                Long.parseLong(properties.getProperty(OPEN_INTERVAL_PROPERTY, "30000").trim()),
+                Double.parseDouble(properties.getProperty(BUDGET_RATIO_PROPERTY, "0.2").trim()),
+                Double.parseDouble(properties.getProperty(BUDGET_MIN_PER_SECOND_PROPERTY, "1").trim()),
+                Double.parseDouble(properties.getProperty(BUDGET_CAPACITY_PROPERTY, "10").trim()));
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Asks the circuit breaker whether a request may be sent. While the circuit is open this fails fast ;
+     * once the open interval has passed the first caller is let through as the half-open probe.
+     * A caller given a permit must report the outcome with recordSuccess() or recordFailure().
+     */
+    public synchronized boolean tryAcquirePermit() {
+        switch (circuitState) {
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAtNanos < openIntervalNanos) {
+                    return false;
+                }
+                circuitState = CircuitState.HALF_OPEN;
+                probeInFlight = true;
+                log.info("Circuit for " + host + " is half-open : sending a probe request");
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Records that the host answered (any response other than a server error).
+     */
+    public synchronized void recordSuccess() {
+        if (circuitState != CircuitState.CLOSED) {
+            log.info("Circuit for " + host + " is closed again");
+        }
+        circuitState = CircuitState.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Records a server error, timeout or io error from the host.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures = consecutiveFailures + 1;
+        probeInFlight = false;
+        if (circuitState == CircuitState.HALF_OPEN || (circuitState == CircuitState.CLOSED && consecutiveFailures >= failureThreshold)) {
+            if (circuitState == CircuitState.CLOSED) {
+                log.warn("Circuit for " + host + " opened after " + consecutiveFailures + " consecutive failures");
+            }
+            circuitState = CircuitState.OPEN;
+            openedAtNanos = nanoClock.getAsLong();
+        }
+    }
+
+    public synchronized CircuitState getCircuitState() {
+        return circuitState;
+    }
+
+    /**
+     * Deposits into the retry budget for a first attempt.
+     */
+    public synchronized void recordRequest() {
+        refillBudget();
+        budgetTokens = Math.min(budgetCapacity, budgetTokens + budgetRatio);
+    }
+
+    /**
+     * @return true if the retry budget held a token for one more retry (the token is withdrawn)
+     */
+    public synchronized boolean tryWithdrawRetry() {
+        refillBudget();
+        if (budgetTokens < 1d) {
+            return false;
+        }
+        budgetTokens = budgetTokens - 1d;
+        return true;
+    }
+
+    synchronized double getBudgetTokens() {
+        refillBudget();
+        return budgetTokens;
+    }
+
+    private void refillBudget() {
+        long now = nanoClock.getAsLong();
+        double elapsedSeconds = (now - lastRefillNanos) / 1e9;
+        lastRefillNanos = now;
+        if (elapsedSeconds > 0d) {
+            budgetTokens = Math.min(budgetCapacity, budgetTokens + elapsedSeconds * budgetMinPerSecond);
+        }
+    }
+
+    /**
+     * @param previousDelayMillis backoff before the previous attempt, 0 before the first retry
+     * @return backoff before the next attempt : random in [baseDelay, 3 * previousDelay], capped at maxDelay
+     */
+    public long nextDelayMillis(long previousDelayMillis) {
+        long upperBound = Math.max(baseDelayMillis, previousDelayMillis) * 3L;
+        long delay = (upperBound <= baseDelayMillis) ? baseDelayMillis : ThreadLocalRandom.current().nextLong(baseDelayMillis, upperBound + 1L);
+        return Math.min(maxDelayMillis, delay);
+    }
+
+    /**
+     * @return an executor running attempts after the delay, without holding a thread during the delay
+     */
+    public Executor delayedExecutor(long delayMillis) {
+        if (delayMillis <= 0L) {
+            return attemptExecutor;
+        }
+        return CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, attemptExecutor);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.log4j.Logger;
+
+/* Reads and writes recorded HTTP traffic : a gzip compressed file holding one HttpTrafficRecord
+ * as JSON per line, in the order the records were written.
+ *
+ * An archive whose writer was not closed (e.g. the recording job was killed) lacks the gzip trailer;
+ * read() then returns every complete record before the cut.
+ */
+public class HttpTrafficArchive {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Logger log = Logger.getLogger(HttpTrafficArchive.class);
+
+    public static List<HttpTrafficRecord> read(Path archive) throws IOException {
+        List<HttpTrafficRecord> records = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(archive))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    records.add(mapper.readValue(line, HttpTrafficRecord.class));
+                }
+            }
+        } catch (EOFException e) {
+            // the last line may be partial : only complete lines were parsed
+            log.warn("HTTP traffic archive " + archive + " is truncated - read " + records.size() + " complete records");
+        }
+        return records;
+    }
+
+    public static Writer openWriter(Path archive) throws IOException {
+        return new Writer(archive);
+    }
+
+    /* Appends records to a new archive. Safe for use by several threads. */
+    public static class Writer implements Closeable {
+        private final BufferedWriter writer;
+        private long recordCount = 0L;
+
+        private Writer(Path archive) throws IOException {
+            Path parent = archive.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(archive), 64 * 1024), StandardCharsets.UTF_8));
+        }
+
+        public synchronized void write(HttpTrafficRecord record) throws IOException {
+            writer.write(mapper.writeValueAsString(record));
+            writer.write('\n');
+            recordCount = recordCount + 1;
+        }
+
+        public synchronized long getRecordCount() {
+            return recordCount;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+}
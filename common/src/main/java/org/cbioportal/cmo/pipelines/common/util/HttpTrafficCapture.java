@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.net.SocketTimeoutException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.log4j.Logger;
+import org.springframework.web.client.RestTemplate;
+
+/* Records the HTTP traffic of a pipeline run into an HttpTrafficArchive, or replays a recorded run
+ * without touching the network.
+ *
+ * The clients which talk to DMP, DDP, REDCap and CDD pass their exchanges through getInstance(), which
+ * is configured from system properties (so it also covers clients created outside Spring) :
+ *
+ *   -Dhttp.traffic.mode=record|replay|off   (default off)
+ *   -Dhttp.traffic.archive=PATH             archive to write or read (gzip, one JSON record per line)
+ *   -Dhttp.traffic.replay_timing=true       while replaying, wait the recorded duration of each exchange
+ *   -Dhttp.traffic.redactor=CLASS           HttpTrafficRedactor subclass applied before records are written
+ *
+ * Replay matches a request on method, redacted uri and redacted body. Requests with the same key are
+ * answered with the recorded responses in recorded order, so a run replays deterministically even when
+ * requests are issued concurrently. A request with no recorded response left fails with an
+ * IllegalStateException - a replayed run must send the requests the recorded run sent.
+ */
+public class HttpTrafficCapture {
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    public static final String MODE_PROPERTY = "http.traffic.mode";
+    public static final String ARCHIVE_PROPERTY = "http.traffic.archive";
+    public static final String REPLAY_TIMING_PROPERTY = "http.traffic.replay_timing";
+    public static final String REDACTOR_PROPERTY = "http.traffic.redactor";
+
+    private static volatile HttpTrafficCapture instance;
+
+    private final Mode mode;
+    private final Path archive;
+    private final boolean replayTiming;
+    private final HttpTrafficRedactor redactor;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile HttpTrafficArchive.Writer writer;
+    private final Map<String, Deque<HttpTrafficRecord>> replayQueues = new HashMap<>();
+    private static final Logger log = Logger.getLogger(HttpTrafficCapture.class);
+
+    public HttpTrafficCapture(Mode mode, Path archive, boolean replayTiming, HttpTrafficRedactor redactor) {
+        this.mode = mode;
+        this.archive = archive;
+        this.replayTiming = replayTiming;
+        this.redactor = redactor;
+        if (mode != Mode.OFF && archive == null) {
+            throw new IllegalArgumentException("HTTP traffic " + mode.name().toLowerCase() + " needs an archive (" + ARCHIVE_PROPERTY + ")");
+        }
+        try {
+            if (mode == Mode.RECORD) {
+                writer = HttpTrafficArchive.openWriter(archive);
+                log.info("Recording HTTP traffic to " + archive);
+            } else if (mode == Mode.REPLAY) {
+                List<HttpTrafficRecord> records = HttpTrafficArchive.read(archive);
+                records.sort(Comparator.comparingLong(HttpTrafficRecord::getSequence));
+                for (HttpTrafficRecord record : records) {
+                    replayQueues.computeIfAbsent(makeKey(record.getMethod(), record.getUri(), record.getRequestBody()), k -> new ArrayDeque<>()).add(record);
+                }
+                log.info("Replaying " + records.size() + " recorded HTTP exchanges from " + archive + (replayTiming ? " with recorded timing" : ""));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open HTTP traffic archive " + archive, e);
+        }
+    }
+
+    public static HttpTrafficCapture off() {
+        return new HttpTrafficCapture(Mode.OFF, null, false, null);
+    }
+
+    /**
+     * @return the capture configured by the http.traffic.* system properties, created on first use
+     */
+    public static HttpTrafficCapture getInstance() {
+        HttpTrafficCapture capture = instance;
+        if (capture == null) {
+            synchronized (HttpTrafficCapture.class) {
+                if (instance == null) {
+                    instance = fromProperties(System.getProperties());
+                    if (instance.isRecording()) {
+                        HttpTrafficCapture recordingCapture = instance;
+                        Runtime.getRuntime().addShutdownHook(new Thread(recordingCapture::close, "http-traffic-archive"));
+                    }
+                }
+                capture = instance;
+            }
+        }
+        return capture;
+    }
+
+    /**
+     * Replaces the shared capture (closing the previous one) - for tests and embedding applications.
+     */
+    public static synchronized void setInstance(HttpTrafficCapture capture) {
+        if (instance != null && instance != capture) {
+            instance.close();
+        }
+        instance = capture;
+    }
+
+    public static HttpTrafficCapture fromProperties(Properties properties) {
+        String modeName = properties.getProperty(MODE_PROPERTY, "off").trim();
+        Mode mode = Mode.valueOf(modeName.toUpperCase());
+        if (mode == Mode.OFF) {
+            return off();
+        }
+        String archiveName = properties.getProperty(ARCHIVE_PROPERTY);
+        Path archive = (archiveName == null || archiveName.trim().isEmpty()) ? null : Paths.get(archiveName.trim());
+        boolean replayTiming = Boolean.parseBoolean(properties.getProperty(REPLAY_TIMING_PROPERTY, "false").trim());
+        return new HttpTrafficCapture(mode, archive, replayTiming, makeRedactor(properties.getProperty(REDACTOR_PROPERTY)));
+    }
+
+    private static HttpTrafficRedactor makeRedactor(String redactorClassName) {
+        if (redactorClassName == null || redactorClassName.trim().isEmpty()) {
+            return new HttpTrafficRedactor();
+        }
+        try {
+            Constructor<?> constructor = Class.forName(redactorClassName.trim()).getConstructor();
+            return (HttpTrafficRedactor) constructor.newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Could not create HTTP traffic redactor " + redactorClassName, e);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isRecording() {
+        return mode == Mode.RECORD;
+    }
+
+    public boolean isReplaying() {
+        return mode == Mode.REPLAY;
+    }
+
+    public boolean isReplayTiming() {
+        return replayTiming;
+    }
+
+    /**
+     * Adds the recording / replaying interceptor to the template. Nothing is added when capture is off.
+     * @return restTemplate
+     */
+    public RestTemplate instrument(RestTemplate restTemplate) {
+        if (mode != Mode.OFF) {
+            restTemplate.getInterceptors().add(new HttpTrafficInterceptor(this));
+        }
+        return restTemplate;
+    }
+
+    /**
+     * Writes a completed exchange (redacted) to the archive. Does nothing unless recording, or once closed.
+     * @param record the exchange as it happened - its sequence number is assigned here
+     */
+    public void record(HttpTrafficRecord record) {
+        HttpTrafficArchive.Writer currentWriter = writer;
+        if (currentWriter == null) {
+            return;
+        }
+        record.setSequence(sequence.incrementAndGet());
+        try {
+            currentWriter.write(redactor.redact(record));
+        } catch (IOException e) {
+            // a recording problem must not fail the run being recorded
+            log.error("Could not record HTTP exchange " + record.getMethod() + " " + redactor.redactUri(record.getUri()) + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the next recorded exchange for the request
+     * @throws IllegalStateException if the archive holds no further exchange for it
+     */
+    public HttpTrafficRecord replay(String method, String uri, String requestBody) {
+        String key = makeKey(method, redactor.redactUri(uri), redactor.redactBody(requestBody));
+        HttpTrafficRecord record;
+        synchronized (replayQueues) {
+            Deque<HttpTrafficRecord> queue = replayQueues.get(key);
+            record = (queue == null) ? null : queue.poll();
+        }
+        if (record == null) {
+            throw new IllegalStateException("No recorded HTTP exchange left for " + method + " " + redactor.redactUri(uri) + " in " + archive);
+        }
+        return record;
+    }
+
+    /**
+     * Waits for the recorded duration of the exchange, if replay timing is on.
+     */
+    public void pauseForRecordedDuration(HttpTrafficRecord record) {
+        if (replayTiming && record.getDurationMillis() > 0) {
+            try {
+                Thread.sleep(record.getDurationMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the exception a replayed failure stands for - a SocketTimeoutException for recorded timeouts,
+     * so that timeout handling (see HttpClientWithTimeoutAndRetry.exceptionCausedByTimeout) behaves as it did
+     */
+    public static IOException makeReplayedFailure(HttpTrafficRecord record) {
+        String message = (record.getErrorMessage() == null) ? "replayed failure" : record.getErrorMessage();
+        if (SocketTimeoutException.class.getName().equals(record.getErrorClass())) {
+            return new SocketTimeoutException(message);
+        }
+        return new IOException(message);
+    }
+
+    /**
+     * @return the number of recorded exchanges not yet replayed
+     */
+    public int getUnreplayedCount() {
+        synchronized (replayQueues) {
+            int count = 0;
+            for (Deque<HttpTrafficRecord> queue : replayQueues.values()) {
+                count = count + queue.size();
+            }
+            return count;
+        }
+    }
+
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+                log.info("Recorded " + writer.getRecordCount() + " HTTP exchanges to " + archive);
+            } catch (IOException e) {
+                log.error("Could not close HTTP traffic archive " + archive + " : " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    private static String makeKey(String method, String uri, String requestBody) {
+        return method.toUpperCase() + " " + uri + "\n" + ((requestBody == null) ? "" : requestBody);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/* RestTemplate interceptor of an HttpTrafficCapture.
+ * While recording, the exchange is executed, its response buffered and recorded, and the buffered copy
+ * returned to the RestTemplate. While replaying, the recorded response is returned and nothing is sent.
+ */
+public class HttpTrafficInterceptor implements ClientHttpRequestInterceptor {
+
+    // describe the original encoding of the body, which no longer holds once it has been buffered as text
+    private static final List<String> UNREPLAYABLE_HEADERS = Arrays.asList(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_ENCODING);
+
+    private final HttpTrafficCapture capture;
+
+    public HttpTrafficInterceptor(HttpTrafficCapture capture) {
+        this.capture = capture;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String requestBody = new String(body, StandardCharsets.UTF_8);
+        if (capture.isReplaying()) {
+            HttpTrafficRecord record = capture.replay(request.getMethod().name(), request.getURI().toString(), requestBody);
+            capture.pauseForRecordedDuration(record);
+            if (record.isFailure()) {
+                throw HttpTrafficCapture.makeReplayedFailure(record);
+            }
+            return new RecordedClientHttpResponse(record.getStatus(), record.getResponseHeaders(), record.getResponseBody());
+        }
+        if (!capture.isRecording()) {
+            return execution.execute(request, body);
+        }
+        HttpTrafficRecord record = new HttpTrafficRecord();
+        record.setStartedAt(System.currentTimeMillis());
+        record.setMethod(request.getMethod().name());
+        record.setUri(request.getURI().toString());
+        record.setRequestHeaders(new LinkedHashMap<>(request.getHeaders()));
+        record.setRequestBody(requestBody);
+        long start = System.nanoTime();
+        try (ClientHttpResponse response = execution.execute(request, body)) {
+            int status = response.getStatusCode().value();
+            Map<String, List<String>> responseHeaders = new LinkedHashMap<>(response.getHeaders());
+            responseHeaders.keySet().removeIf(name -> UNREPLAYABLE_HEADERS.stream().anyMatch(name::equalsIgnoreCase));
+            String responseBody = readBody(response);
+            record.setDurationMillis((System.nanoTime() - start) / 1_000_000L);
+            record.setStatus(status);
+            record.setResponseHeaders(responseHeaders);
+            record.setResponseBody(responseBody);
+            capture.record(record);
+            return new RecordedClientHttpResponse(status, responseHeaders, responseBody);
+        } catch (IOException e) {
+            record.setDurationMillis((System.nanoTime() - start) / 1_000_000L);
+            record.setErrorClass(e.getClass().getName());
+            record.setErrorMessage(e.getMessage());
+            capture.record(record);
+            throw e;
+        }
+    }
+
+    private String readBody(ClientHttpResponse response) throws IOException {
+        InputStream body;
+        try {
+            body = response.getBody();
+        } catch (IOException e) {
+            // error statuses may come without a body
+            return "";
+        }
+        try (InputStream in = body) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /* A response whose body is held in memory. */
+    public static class RecordedClientHttpResponse implements ClientHttpResponse {
+        private final int status;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final byte[] body;
+
+        public RecordedClientHttpResponse(int status, Map<String, List<String>> headers, String body) {
+            this.status = status;
+            this.body = (body == null) ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            if (headers != null) {
+                for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                    if (entry.getKey() != null) {
+                        this.headers.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+                    }
+                }
+            }
+            this.headers.setContentLength(this.body.length);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(status);
+        }
+
+        @Override
+        @Deprecated
+        public int getRawStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus httpStatus = HttpStatus.resolve(status);
+            return (httpStatus == null) ? "" : httpStatus.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
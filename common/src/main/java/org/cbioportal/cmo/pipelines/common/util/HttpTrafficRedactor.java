@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/* Removes credentials from HTTP traffic before it is written to an HttpTrafficArchive.
+ *
+ * Secret values in uris and bodies are not blanked but replaced by a pseudonym derived from the value
+ * ("REDACTED-" + a digest prefix), so the same secret always gets the same pseudonym. This keeps replay
+ * working : a token handed out in one response (e.g. the REDCap token mapping) and sent back in later
+ * requests is pseudonymized the same way in both, and the replaying side redacts the live request before
+ * looking it up. Sensitive headers are blanked, since headers are not used to match requests.
+ *
+ * By default these are redacted :
+ *  - the Authorization, Proxy-Authorization, Cookie and Set-Cookie headers
+ *  - form parameters and JSON string fields named password, username, token or api_token
+ *  - the user name and password path segments of CVR create_session uris
+ * Subclasses can override the redact* methods to change this (see HttpTrafficCapture.REDACTOR_PROPERTY).
+ */
+public class HttpTrafficRedactor {
+
+    public static final String REDACTED = "REDACTED";
+    public static final List<String> DEFAULT_SENSITIVE_HEADERS = Arrays.asList("Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie");
+    public static final List<String> DEFAULT_SENSITIVE_FIELDS = Arrays.asList("password", "username", "token", "api_token");
+    // every capturing group of a uri pattern is pseudonymized
+    public static final List<String> DEFAULT_URI_PATTERNS = Arrays.asList("create_session/([^/]+)/([^/]+)/");
+
+    private final Set<String> sensitiveHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final List<Pattern> bodyPatterns = new ArrayList<>();
+    private final List<Pattern> uriPatterns = new ArrayList<>();
+
+    public HttpTrafficRedactor() {
+        this(DEFAULT_SENSITIVE_HEADERS, DEFAULT_SENSITIVE_FIELDS, DEFAULT_URI_PATTERNS);
+    }
+
+    /**
+     * @param sensitiveHeaders header names whose values are blanked
+     * @param sensitiveFields form parameter / JSON field names whose values are pseudonymized
+     * @param uriPatterns regular expressions whose capturing groups are pseudonymized in uris
+     */
+    public HttpTrafficRedactor(Collection<String> sensitiveHeaders, Collection<String> sensitiveFields, Collection<String> uriPatterns) {
+        this.sensitiveHeaders.addAll(sensitiveHeaders);
+        for (String field : sensitiveFields) {
+            String quotedField = Pattern.quote(field);
+            // form encoded : name=value
+            bodyPatterns.add(Pattern.compile("(?:^|&)" + quotedField + "=([^&]*)"));
+            // json : "name" : "value"
+            bodyPatterns.add(Pattern.compile("\"" + quotedField + "\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\""));
+        }
+        for (String uriPattern : uriPatterns) {
+            this.uriPatterns.add(Pattern.compile(uriPattern));
+        }
+    }
+
+    public String redactUri(String uri) {
+        return pseudonymizeGroups(uri, uriPatterns);
+    }
+
+    public String redactBody(String body) {
+        return pseudonymizeGroups(body, bodyPatterns);
+    }
+
+    public Map<String, List<String>> redactHeaders(Map<String, List<String>> headers) {
+        if (headers == null) {
+            return null;
+        }
+        Map<String, List<String>> redactedHeaders = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (entry.getKey() != null && sensitiveHeaders.contains(entry.getKey())) {
+                redactedHeaders.put(entry.getKey(), Collections.singletonList(REDACTED));
+            } else {
+                redactedHeaders.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+        }
+        return redactedHeaders;
+    }
+
+    /**
+     * @return a copy of the record with uri, headers and bodies redacted
+     */
+    public HttpTrafficRecord redact(HttpTrafficRecord record) {
+        HttpTrafficRecord redactedRecord = new HttpTrafficRecord();
+        redactedRecord.setSequence(record.getSequence());
+        redactedRecord.setStartedAt(record.getStartedAt());
+        redactedRecord.setDurationMillis(record.getDurationMillis());
+        redactedRecord.setMethod(record.getMethod());
+        redactedRecord.setUri(redactUri(record.getUri()));
+        redactedRecord.setRequestHeaders(redactHeaders(record.getRequestHeaders()));
+        redactedRecord.setRequestBody(redactBody(record.getRequestBody()));
+        redactedRecord.setStatus(record.getStatus());
+        redactedRecord.setResponseHeaders(redactHeaders(record.getResponseHeaders()));
+        redactedRecord.setResponseBody(redactBody(record.getResponseBody()));
+        redactedRecord.setErrorClass(record.getErrorClass());
+        redactedRecord.setErrorMessage(record.getErrorMessage());
+        return redactedRecord;
+    }
+
+    protected String pseudonymize(String value) {
+        if (value.isEmpty() || value.startsWith(REDACTED)) {
+            return value;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(REDACTED).append("-");
+            for (int i = 0; i < 6; i++) {
+                builder.append(String.format("%02x", digest[i]));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String pseudonymizeGroups(String text, List<Pattern> patterns) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(text);
+            if (!matcher.find()) {
+                continue;
+            }
+            StringBuilder builder = new StringBuilder(text.length());
+            int copiedUpTo = 0;
+            do {
+                for (int group = 1; group <= matcher.groupCount(); group++) {
+                    if (matcher.start(group) < 0) {
+                        continue;
+                    }
+                    builder.append(text, copiedUpTo, matcher.start(group));
+                    builder.append(pseudonymize(matcher.group(group)));
+                    copiedUpTo = matcher.end(group);
+                }
+            } while (matcher.find());
+            builder.append(text, copiedUpTo, text.length());
+            text = builder.toString();
+        }
+        return text;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Serializes record objects to tab delimited lines through their "get" + FIELD_NAME getters.
+ * The getters are resolved once per class (and field) into MethodHandles and cached, so that
+ * writing a record does not repeat a reflective method lookup for every field of every record.
+ * Instances are safe to use from multiple threads.
+ */
+public final class RecordFieldAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final ClassValue<RecordFieldAccessor> ACCESSORS = new ClassValue<RecordFieldAccessor>() {
+        @Override
+        protected RecordFieldAccessor computeValue(Class<?> recordClass) {
+            return new RecordFieldAccessor(recordClass);
+        }
+    };
+    private static final ThreadLocal<StringBuilder> LINE_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private final Class<?> recordClass;
+    private final Map<String, MethodHandle> getters = new ConcurrentHashMap<>();
+    private final Map<List<Class<?>>, MethodHandle> fieldNameMethods = new ConcurrentHashMap<>();
+
+    private RecordFieldAccessor(Class<?> recordClass) {
+        this.recordClass = recordClass;
+    }
+
+    public static RecordFieldAccessor forClass(Class<?> recordClass) {
+        return ACCESSORS.get(recordClass);
+    }
+
+    /**
+     * Serializes the given fields of a record as a tab delimited line.
+     * @param record
+     * @param fieldNames fields to write, in order
+     * @param valueFormatter applied to each value after conversion to a String
+     * @throws NoSuchMethodException if the record has no getter for one of the fields
+     * @throws NullPointerException if one of the values is null
+     */
+    public static String toLine(Object record, List<String> fieldNames, UnaryOperator<String> valueFormatter) throws NoSuchMethodException {
+        StringBuilder line = LINE_BUFFER.get();
+        line.setLength(0);
+        forClass(record.getClass()).appendLine(line, record, fieldNames, valueFormatter);
+        return line.toString();
+    }
+
+    public StringBuilder appendLine(StringBuilder line, Object record, List<String> fieldNames, UnaryOperator<String> valueFormatter) throws NoSuchMethodException {
+        for (int i = 0; i < fieldNames.size(); i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            line.append(valueFormatter.apply(getValue(record, fieldNames.get(i)).toString()));
+        }
+        return line;
+    }
+
+    public Object getValue(Object record, String fieldName) throws NoSuchMethodException {
+        MethodHandle getter = getters.get(fieldName);
+        if (getter == null) {
+            getter = unreflect(recordClass.getMethod("get" + fieldName)).asType(GETTER_TYPE);
+            getters.putIfAbsent(fieldName, getter);
+        }
+        try {
+            return (Object) getter.invokeExact(record);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Error getting value of field " + fieldName + " from " + recordClass.getName(), t);
+        }
+    }
+
+    /**
+     * Invokes the record class's static getFieldNames() method.
+     * @throws NoSuchMethodException if there is no getFieldNames method
+     */
+    public List<String> getFieldNames() throws NoSuchMethodException {
+        return getFieldNames(new Class<?>[0], new Object[0]);
+    }
+
+    /**
+     * Invokes the record class's static getFieldNames method with the given arguments.
+     * @throws NoSuchMethodException if there is no getFieldNames method with those parameter types
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getFieldNames(Class<?>[] parameterTypes, Object[] args) throws NoSuchMethodException {
+        List<Class<?>> key = Arrays.asList(parameterTypes);
+        MethodHandle fieldNameMethod = fieldNameMethods.get(key);
+        if (fieldNameMethod == null) {
+            fieldNameMethod = unreflect(recordClass.getMethod("getFieldNames", parameterTypes));
+            fieldNameMethods.putIfAbsent(key, fieldNameMethod);
+        }
+        try {
+            return (List<String>) fieldNameMethod.invokeWithArguments(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Error getting field names from " + recordClass.getName(), t);
+        }
+    }
+
+    private MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Method " + method + " is not accessible", e);
+        }
+    }
+}
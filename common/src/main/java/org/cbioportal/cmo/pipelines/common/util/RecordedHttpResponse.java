@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import javax.net.ssl.SSLSession;
+
+/* A java.net.http response answered from an HttpTrafficRecord, for clients built on java.net.http.HttpClient
+ * replaying through an HttpTrafficCapture.
+ */
+public class RecordedHttpResponse implements HttpResponse<String> {
+
+    private final HttpRequest request;
+    private final HttpTrafficRecord record;
+    private final HttpHeaders headers;
+
+    public RecordedHttpResponse(HttpRequest request, HttpTrafficRecord record) {
+        this.request = request;
+        this.record = record;
+        Map<String, List<String>> recordedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (record.getResponseHeaders() != null) {
+            for (Map.Entry<String, List<String>> entry : record.getResponseHeaders().entrySet()) {
+                if (entry.getKey() != null) {
+                    recordedHeaders.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        this.headers = HttpHeaders.of(recordedHeaders, (name, value) -> true);
+    }
+
+    /**
+     * Makes the record describing a completed java.net.http exchange.
+     * @param response the response, or null if the exchange failed with error
+     * @param error the exception the exchange failed with, or null
+     */
+    public static HttpTrafficRecord makeRecord(HttpRequest request, String requestBody, HttpResponse<String> response, Throwable error,
+            long startedAt, long durationMillis) {
+        HttpTrafficRecord record = new HttpTrafficRecord();
+        record.setStartedAt(startedAt);
+        record.setDurationMillis(durationMillis);
+        record.setMethod(request.method());
+        record.setUri(request.uri().toString());
+        record.setRequestHeaders(request.headers().map());
+        record.setRequestBody(requestBody);
+        if (response == null) {
+            record.setErrorClass((error == null) ? null : error.getClass().getName());
+            record.setErrorMessage((error == null) ? null : error.getMessage());
+            return record;
+        }
+        record.setStatus(response.statusCode());
+        Map<String, List<String>> responseHeaders = new LinkedHashMap<>(response.headers().map());
+        responseHeaders.keySet().removeIf(name -> name.equalsIgnoreCase("content-length") || name.equalsIgnoreCase("content-encoding")
+                || name.equalsIgnoreCase("transfer-encoding"));
+        record.setResponseHeaders(responseHeaders);
+        record.setResponseBody(response.body());
+        return record;
+    }
+
+    @Override
+    public int statusCode() {
+        return record.getStatus();
+    }
+
+    @Override
+    public HttpRequest request() {
+        return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<String>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    @Override
+    public String body() {
+        return record.getResponseBody();
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.jfr;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import org.cbioportal.cmo.pipelines.common.util.ExternalLineSorter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.core.*;
+
+public class FlightRecorderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* a job run with jfr.recording_file set leaves a recording whose pipeline events the analyzer summarizes */
+    @Test
+    public void testJobRecordingAndAnalyzer() throws Exception {
+        Path directory = temporaryFolder.newFolder("recordings").toPath();
+        FlightRecorderJobListener jobListener = new FlightRecorderJobListener(directory.toString(), FlightRecorderJobListener.DEFAULT_SETTINGS);
+        FlightRecorderStepListener stepListener = new FlightRecorderStepListener();
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "recordedJob"), 1L, new JobParameters());
+        StepExecution stepExecution = jobExecution.createStepExecution("mergeStep");
+        stepExecution.setId(1L);
+
+        jobListener.beforeJob(jobExecution);
+        stepListener.beforeStep(stepExecution);
+        Path first = writeFile("first.txt", "HEADER\na\nc\n");
+        Path second = writeFile("second.txt", "HEADER\nb\nd\n");
+        Path merged = temporaryFolder.getRoot().toPath().resolve("merged.txt");
+        new ExternalLineSorter().mergeSortedFiles(Arrays.asList(first, second), merged, "HEADER");
+        stepExecution.setReadCount(4);
+        stepExecution.setWriteCount(4);
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        Assert.assertNull("the listener leaves the exit status alone", stepListener.afterStep(stepExecution));
+        jobListener.afterJob(jobExecution);
+
+        List<Path> recordings = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "recordedJob-*.jfr")) {
+            stream.forEach(recordings::add);
+        }
+        Assert.assertEquals(1, recordings.size());
+        Map<String, FlightRecordingAnalyzer.Summary> pipelineSummaries = new HashMap<>();
+        for (FlightRecordingAnalyzer.Summary summary : FlightRecordingAnalyzer.summarize(recordings.get(0))) {
+            if (summary.getEventType().startsWith("org.cbioportal.pipelines.")) {
+                pipelineSummaries.put(summary.getEventType() + " " + summary.getKey(), summary);
+            }
+        }
+        Assert.assertEquals(1L, pipelineSummaries.get(StepEvent.NAME + " recordedJob/mergeStep").getCount());
+        FlightRecordingAnalyzer.Summary mergeSummary = pipelineSummaries.get(FileMergeEvent.NAME + " merged.txt");
+        Assert.assertEquals(1L, mergeSummary.getCount());
+        Assert.assertEquals(Files.size(merged), mergeSummary.getBytes());
+    }
+
+    @Test
+    public void testResolveFile() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        LocalDateTime startTime = LocalDateTime.of(2026, 10, 19, 1, 2, 3);
+        Assert.assertEquals(directory.resolve("cvrJob-20261019-010203.jfr"),
+                new FlightRecorderJobListener(directory.toString(), null).resolveFile("cvrJob", startTime));
+        Path file = directory.resolve("nightly.jfr");
+        Assert.assertEquals(file, new FlightRecorderJobListener(file.toString(), null).resolveFile("cvrJob", startTime));
+    }
+
+    private Path writeFile(String name, String content) throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
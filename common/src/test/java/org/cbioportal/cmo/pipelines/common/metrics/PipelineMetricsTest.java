@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.job.SimpleJob;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+public class PipelineMetricsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* the listener records every step of the finished job and exports them to JOB_NAME.prom when given a directory */
+    @Test
+    public void testListenerWritesPrometheusFile() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        new PipelineMetricsListener(directory.toString()).afterJob(makeJobExecution());
+        String text = new String(Files.readAllBytes(directory.resolve("metricsTestJob.prom")), StandardCharsets.UTF_8);
+        Assert.assertTrue(text.contains("pipeline_step_items_total{job=\"metricsTestJob\",step=\"metricsTestStep\",type=\"read\",} 10.0\n"));
+        Assert.assertTrue(text.contains("pipeline_step_items_total{job=\"metricsTestJob\",step=\"metricsTestStep\",type=\"filter\",} 2.0\n"));
+        Assert.assertTrue(text.contains("# TYPE pipeline_step_items_total counter\n"));
+        Assert.assertTrue(text.contains("pipeline_step_throughput{job=\"metricsTestJob\",step=\"metricsTestStep\",} 4.0\n"));
+        Assert.assertTrue(text.contains("pipeline_job_duration_seconds_sum{job=\"metricsTestJob\",status=\"COMPLETED\",} 4.0\n"));
+    }
+
+    /* the post processor registers a listener exporting to metrics.prometheus_file on every job */
+    @Test
+    public void testBeanPostProcessorRegistersListener() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap("metrics.prometheus_file", directory.toString())));
+        PipelineMetricsBeanPostProcessor postProcessor = new PipelineMetricsBeanPostProcessor();
+        postProcessor.setEnvironment(environment);
+
+        List<JobExecutionListener> jobListeners = new ArrayList<>();
+        SimpleJob job = new SimpleJob("metricsTestJob") {
+            @Override
+            public void registerJobExecutionListener(JobExecutionListener jobListener) {
+                jobListeners.add(jobListener);
+            }
+        };
+        Assert.assertSame(job, postProcessor.postProcessAfterInitialization(job, "metricsTestJob"));
+        Assert.assertEquals(1, jobListeners.size());
+        jobListeners.get(0).afterJob(makeJobExecution());
+        Assert.assertTrue(Files.exists(directory.resolve("metricsTestJob.prom")));
+    }
+
+    private JobExecution makeJobExecution() {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "metricsTestJob"), 1L, new JobParameters());
+        LocalDateTime start = LocalDateTime.now();
+        jobExecution.setStartTime(start);
+        jobExecution.setEndTime(start.plusSeconds(4));
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        StepExecution stepExecution = jobExecution.createStepExecution("metricsTestStep");
+        stepExecution.setStartTime(start);
+        stepExecution.setEndTime(start.plusSeconds(2));
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        stepExecution.setReadCount(10);
+        stepExecution.setWriteCount(8);
+        stepExecution.setFilterCount(2);
+        return jobExecution;
+    }
+}
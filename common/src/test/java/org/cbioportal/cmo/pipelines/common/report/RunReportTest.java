@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.core.*;
+
+public class RunReportTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* the report covers the steps, the HTTP requests and cache lookups made during the job, and the files named by job parameters */
+    @Test
+    public void testListenerWritesReport() throws Exception {
+        Path outputDirectory = temporaryFolder.newFolder("output").toPath();
+        Files.write(outputDirectory.resolve("data_clinical.txt"), "HEADER\nrow\n".getBytes(StandardCharsets.UTF_8));
+        Path reportDirectory = temporaryFolder.newFolder("reports").toPath();
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("outputDirectory", outputDirectory.toString())
+                .addString("studyId", "mskimpact")
+                .toJobParameters();
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "reportTestJob"), 1L, jobParameters);
+        LocalDateTime start = LocalDateTime.of(2026, 10, 19, 1, 0, 0);
+        jobExecution.setStartTime(start);
+        // figures recorded before the job are left out
+        PipelineMetrics.recordHttpRequest("reportTest", "get_data", "GET", "200", 1_000_000L, -1L, 100L);
+        RunReportListener listener = new RunReportListener(reportDirectory.toString());
+        listener.beforeJob(jobExecution);
+
+        PipelineMetrics.recordHttpRequest("reportTest", "get_data", "GET", "200", 2_000_000_000L, 10L, 500L);
+        PipelineMetrics.recordHttpRequest("reportTest", "get_data", "GET", "TIMEOUT", 1_000_000_000L);
+        PipelineMetrics.recordCacheRequest("reportTestCache", true);
+        PipelineMetrics.recordCacheRequest("reportTestCache", false);
+        PipelineMetrics.recordCacheRequest("reportTestCache", true);
+        StepExecution stepExecution = jobExecution.createStepExecution("reportTestStep");
+        stepExecution.setStartTime(start);
+        stepExecution.setEndTime(start.plusSeconds(30));
+        stepExecution.setReadCount(100);
+        stepExecution.setWriteCount(90);
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        jobExecution.setEndTime(start.plusSeconds(60));
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        listener.afterJob(jobExecution);
+
+        Path reportFile = reportDirectory.resolve("reportTestJob-20261019-010000.json");
+        RunReport report = new ObjectMapper().readValue(reportFile.toFile(), RunReport.class);
+        Assert.assertEquals("COMPLETED", report.getStatus());
+        Assert.assertEquals(60d, report.getDurationSeconds(), 0.001d);
+        Assert.assertTrue(report.getPeakHeapBytes() > 0L);
+        Assert.assertEquals(1, report.getSteps().size());
+        Assert.assertEquals(90L, report.getSteps().get(0).getWriteCount());
+        Assert.assertEquals(30d, report.getSteps().get(0).getDurationSeconds(), 0.001d);
+        RunReport.HttpReport http = report.getHttp().stream().filter(h -> "reportTest".equals(h.getClient())).findFirst().get();
+        Assert.assertEquals(2L, http.getRequests());
+        Assert.assertEquals(1L, http.getErrors());
+        Assert.assertEquals(3d, http.getTotalSeconds(), 0.001d);
+        Assert.assertEquals(10L, http.getRequestBytes());
+        Assert.assertEquals(500L, http.getResponseBytes());
+        RunReport.CacheReport cache = report.getCaches().stream().filter(c -> "reportTestCache".equals(c.getName())).findFirst().get();
+        Assert.assertEquals(2d / 3d, cache.getHitRate(), 0.0001d);
+        Assert.assertEquals(1, report.getFiles().size());
+        Assert.assertEquals("outputDirectory", report.getFiles().get(0).getParameter());
+        Assert.assertEquals(1L, report.getFiles().get(0).getFileCount());
+        Assert.assertEquals(11L, report.getFiles().get(0).getBytes());
+    }
+
+    @Test
+    public void testComparator() {
+        RunReport baseline = makeReport(600d, 1000L, 0.9d);
+        RunReport candidate = makeReport(900d, 1050L, 0.5d);
+        Map<String, RunReportComparator.Comparison> comparisons = new HashMap<>();
+        for (RunReportComparator.Comparison comparison : RunReportComparator.compare(baseline, candidate, 20d)) {
+            comparisons.put(comparison.getKey(), comparison);
+        }
+        Assert.assertEquals("REGRESSION", comparisons.get("job duration (s)").getStatus());
+        Assert.assertEquals(50d, comparisons.get("job duration (s)").getChangePercent(), 0.001d);
+        Assert.assertEquals("", comparisons.get("step reportTestStep read").getStatus());
+        Assert.assertEquals("REGRESSION", comparisons.get("cache reportTestCache hit rate").getStatus());
+        Assert.assertEquals("improved", RunReportComparator.compare(candidate, baseline, 20d).get(0).getStatus());
+        candidate.getSteps().get(0).setReadCount(500L);
+        for (RunReportComparator.Comparison comparison : RunReportComparator.compare(baseline, candidate, 20d)) {
+            if (comparison.getKey().equals("step reportTestStep read")) {
+                Assert.assertEquals("DRIFT", comparison.getStatus());
+            }
+        }
+    }
+
+    private RunReport makeReport(double durationSeconds, long readCount, double hitRate) {
+        RunReport report = new RunReport();
+        report.setJob("reportTestJob");
+        report.setDurationSeconds(durationSeconds);
+        RunReport.StepReport step = new RunReport.StepReport();
+        step.setName("reportTestStep");
+        step.setReadCount(readCount);
+        report.getSteps().add(step);
+        RunReport.CacheReport cache = new RunReport.CacheReport();
+        cache.setName("reportTestCache");
+        cache.setHits(Math.round(hitRate * 100));
+        cache.setMisses(100 - Math.round(hitRate * 100));
+        report.getCaches().add(cache);
+        return report;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExternalLineSorterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* a budget far smaller than the input forces many spilled runs and several merge passes */
+    @Test
+    public void testSortWithSpilledRunsMatchesInMemorySort() throws Exception {
+        List<String> lines = makeRandomLines(5000);
+        Path tempDirectory = temporaryFolder.newFolder("runs").toPath();
+        ExternalLineSorter sorter = new ExternalLineSorter(4096L, Comparator.naturalOrder(), tempDirectory, 3);
+        List<String> sortedLines = sort(sorter, lines);
+        List<String> expectedLines = new ArrayList<>(lines);
+        Collections.sort(expectedLines);
+        Assert.assertEquals(expectedLines, sortedLines);
+        try (DirectoryStream<Path> runs = Files.newDirectoryStream(tempDirectory)) {
+            Assert.assertFalse("temporary run files were not removed", runs.iterator().hasNext());
+        }
+    }
+
+    /* lines with equal keys keep their input order, including across runs */
+    @Test
+    public void testSortByKeyIsStable() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lines.add("P-" + (i % 7) + "\t" + i);
+        }
+        ExternalLineSorter sorter = new ExternalLineSorter(2048L, ExternalLineSorter.comparingKey(line -> line.split("\t")[0]),
+                temporaryFolder.getRoot().toPath(), 4);
+        List<String> sortedLines = sort(sorter, lines);
+        List<String> expectedLines = new ArrayList<>(lines);
+        expectedLines.sort(Comparator.comparing(line -> line.split("\t")[0]));
+        Assert.assertEquals(expectedLines, sortedLines);
+    }
+
+    @Test
+    public void testSortFileReplacesHeader() throws Exception {
+        File file = temporaryFolder.newFile("data_timeline.txt");
+        Files.write(file.toPath(), Arrays.asList("OLD_HEADER", "P-3\tc", "P-1\ta", "P-2\tb"), StandardCharsets.UTF_8);
+        new ExternalLineSorter().sortFile(file.toPath(), "PATIENT_ID\tVALUE");
+        Assert.assertEquals(Arrays.asList("PATIENT_ID\tVALUE", "P-1\ta", "P-2\tb", "P-3\tc"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        Assert.assertEquals(1, temporaryFolder.getRoot().list().length);
+    }
+
+    /* merging separately sorted shards gives the same file as sorting their concatenation */
+    @Test
+    public void testMergeSortedFilesMatchesSortOfConcatenation() throws Exception {
+        List<String> lines = makeRandomLines(3000);
+        List<Path> shards = new ArrayList<>();
+        for (int shard = 0; shard < 4; shard++) {
+            Path shardFile = temporaryFolder.newFile("shard_" + shard + ".txt").toPath();
+            List<String> shardLines = new ArrayList<>();
+            shardLines.add("OLD_HEADER");
+            for (int i = shard; i < lines.size(); i += 4) {
+                shardLines.add(lines.get(i));
+            }
+            Files.write(shardFile, shardLines, StandardCharsets.UTF_8);
+            new ExternalLineSorter().sortFile(shardFile, "OLD_HEADER");
+            shards.add(shardFile);
+        }
+        // an empty shard has only a header
+        Path emptyShard = temporaryFolder.newFile("shard_empty.txt").toPath();
+        Files.write(emptyShard, Arrays.asList("OLD_HEADER"), StandardCharsets.UTF_8);
+        shards.add(emptyShard);
+
+        Path mergedFile = temporaryFolder.getRoot().toPath().resolve("merged.txt");
+        new ExternalLineSorter().mergeSortedFiles(shards, mergedFile, "PATIENT_ID\tVALUE");
+        List<String> expectedLines = new ArrayList<>(lines);
+        Collections.sort(expectedLines);
+        expectedLines.add(0, "PATIENT_ID\tVALUE");
+        Assert.assertEquals(expectedLines, Files.readAllLines(mergedFile, StandardCharsets.UTF_8));
+    }
+
+    private List<String> sort(ExternalLineSorter sorter, List<String> lines) throws IOException {
+        StringWriter output = new StringWriter();
+        try (BufferedReader reader = new BufferedReader(new StringReader(String.join("\n", lines)));
+                BufferedWriter writer = new BufferedWriter(output)) {
+            sorter.sort(reader, writer);
+        }
+        return Arrays.asList(output.toString().split(System.lineSeparator()));
+    }
+
+    private List<String> makeRandomLines(int count) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("P-" + random.nextInt(1000) + "\t" + random.nextInt(100000));
+        }
+        return lines;
+    }
+}
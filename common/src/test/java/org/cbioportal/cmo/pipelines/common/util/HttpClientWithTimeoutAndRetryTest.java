@@ -177,6 +177,26 @@ public class HttpClientWithTimeoutAndRetryTest {
         Assert.assertFalse("reached drop dead instant", client.getReachedDropDeadInstant());
     }
 
+    @Test
+    public void testFinalResponseConditionEndsRetries() throws Exception {
+        // Requests made to failing service, whose response is final
+        pausingHttpHandler.setPausePeriodMillis(1);
+        pausingHttpHandler.setExpectedResponseContentType("application/json");
+        pausingHttpHandler.setRequestCausesServerError(true);
+        HttpEntity request = getRequestEntity();
+        int initialTimeout = 56;
+        int maximumTimeout = 256;
+        boolean retryOnServerError = true;
+        HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(initialTimeout, maximumTimeout, Instant.now().plusMillis(5000), retryOnServerError);
+        client.setFinalResponseCondition(c -> c.getLastResponseBodyStringAfterException() != null
+                && c.getLastResponseBodyStringAfterException().contains("Response not configured"));
+        ResponseEntity<Object> response = client.exchange(baseUrl, HttpMethod.GET, request, null, Object.class);
+        pausingHttpHandler.setRequestCausesServerError(false);
+        Assert.assertNull("received null response", response);
+        Assert.assertTrue("multiple requests made", client.getNumberOfRequestsAttempted() == 1);
+        Assert.assertFalse("reached drop dead instant", client.getReachedDropDeadInstant());
+    }
+
     private static HttpEntity getRequestEntity() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+public class HttpRetrySchedulerTest {
+
+    private final long[] now = new long[1];
+
+    @Test
+    public void testCircuitOpensAfterConsecutiveFailures() throws Exception {
+        HttpRetryScheduler scheduler = makeScheduler(3, 1000L, 10d);
+        for (int failure = 0; failure < 2; failure++) {
+            Assert.assertTrue("closed circuit refused a request", scheduler.tryAcquirePermit());
+            scheduler.recordFailure();
+        }
+        Assert.assertEquals(HttpRetryScheduler.CircuitState.CLOSED, scheduler.getCircuitState());
+        scheduler.recordSuccess(); // a success resets the count of consecutive failures
+        for (int failure = 0; failure < 3; failure++) {
+            Assert.assertTrue("closed circuit refused a request", scheduler.tryAcquirePermit());
+            scheduler.recordFailure();
+        }
+        Assert.assertEquals(HttpRetryScheduler.CircuitState.OPEN, scheduler.getCircuitState());
+        Assert.assertFalse("open circuit let a request through", scheduler.tryAcquirePermit());
+    }
+
+    @Test
+    public void testHalfOpenCircuitSendsSingleProbe() throws Exception {
+        HttpRetryScheduler scheduler = makeScheduler(1, 1000L, 10d);
+        scheduler.recordFailure();
+        advanceMillis(999L);
+        Assert.assertFalse("circuit let a request through before the open interval", scheduler.tryAcquirePermit());
+        advanceMillis(1L);
+        Assert.assertTrue("circuit did not send a probe", scheduler.tryAcquirePermit());
+        Assert.assertEquals(HttpRetryScheduler.CircuitState.HALF_OPEN, scheduler.getCircuitState());
+        Assert.assertFalse("circuit sent a second probe", scheduler.tryAcquirePermit());
+        scheduler.recordFailure();
+        Assert.assertEquals("failed probe did not open the circuit", HttpRetryScheduler.CircuitState.OPEN, scheduler.getCircuitState());
+        Assert.assertFalse("reopened circuit let a request through", scheduler.tryAcquirePermit());
+        advanceMillis(1000L);
+        Assert.assertTrue("circuit did not send a probe", scheduler.tryAcquirePermit());
+        scheduler.recordSuccess();
+        Assert.assertEquals("successful probe did not close the circuit", HttpRetryScheduler.CircuitState.CLOSED, scheduler.getCircuitState());
+        Assert.assertTrue("closed circuit refused a request", scheduler.tryAcquirePermit());
+    }
+
+    @Test
+    public void testRetryBudget() throws Exception {
+        HttpRetryScheduler scheduler = makeScheduler(5, 1000L, 2d);
+        Assert.assertTrue(scheduler.tryWithdrawRetry());
+        Assert.assertTrue(scheduler.tryWithdrawRetry());
+        Assert.assertFalse("retried beyond the budget", scheduler.tryWithdrawRetry());
+        // each first attempt deposits 0.5 tokens
+        scheduler.recordRequest();
+        Assert.assertFalse("retried on a partial token", scheduler.tryWithdrawRetry());
+        scheduler.recordRequest();
+        Assert.assertTrue("deposits did not fund a retry", scheduler.tryWithdrawRetry());
+        // the budget refills by 1 token per second, up to its capacity
+        advanceMillis(60000L);
+        Assert.assertEquals(2d, scheduler.getBudgetTokens(), 1e-9);
+    }
+
+    @Test
+    public void testDecorrelatedJitterBounds() throws Exception {
+        HttpRetryScheduler scheduler = makeScheduler(5, 1000L, 10d);
+        long delay = 0L;
+        for (int retry = 0; retry < 200; retry++) {
+            long nextDelay = scheduler.nextDelayMillis(delay);
+            Assert.assertTrue("delay below base delay", nextDelay >= 100L);
+            Assert.assertTrue("delay above maximum delay", nextDelay <= 5000L);
+            Assert.assertTrue("delay above three times the previous delay", nextDelay <= Math.max(100L, delay) * 3L);
+            delay = nextDelay;
+        }
+    }
+
+    @Test
+    public void testOpenCircuitFailsFast() throws Exception {
+        HttpRetryScheduler scheduler = new HttpRetryScheduler("127.0.0.1", 10L, 20L, 2, 60000L, 0.2d, 1d, 10d);
+        HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(56, 256, Instant.now().plusMillis(5000), true);
+        client.setRetryScheduler(scheduler);
+        // nothing listens on port 1 : two io errors open the circuit and end the exchange
+        ResponseEntity<String> response = client.exchangeAsync("http://127.0.0.1:1/", HttpMethod.GET, getRequestEntity(), null, String.class)
+                .get(5, TimeUnit.SECONDS);
+        Assert.assertNull("received a response", response);
+        Assert.assertEquals("requests sent after the circuit opened", 2, client.getNumberOfRequestsAttempted());
+        Assert.assertTrue("exchange was not rejected", client.getRejectedByRetryScheduler());
+        Assert.assertFalse("reached drop dead instant", client.getReachedDropDeadInstant());
+        // another client of the host fails fast without sending a request
+        HttpClientWithTimeoutAndRetry otherClient = new HttpClientWithTimeoutAndRetry(56, 256, Instant.now().plusMillis(5000), true);
+        otherClient.setRetryScheduler(scheduler);
+        Assert.assertNull(otherClient.exchange("http://127.0.0.1:1/", HttpMethod.GET, getRequestEntity(), null, String.class));
+        Assert.assertEquals("request sent through an open circuit", 0, otherClient.getNumberOfRequestsAttempted());
+        Assert.assertTrue("exchange was not rejected", otherClient.getRejectedByRetryScheduler());
+    }
+
+    @Test
+    public void testProbeIsReleasedWhenRequestThrows() throws Exception {
+        HttpRetryScheduler scheduler = makeScheduler(1, 1000L, 10d);
+        scheduler.recordFailure();
+        advanceMillis(1000L);
+        HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(56, 256, Instant.now().plusMillis(5000), true);
+        client.setRetryScheduler(scheduler);
+        // the uri variable has no value : the probe fails before a request is sent, with an IllegalArgumentException
+        try {
+            client.exchange("http://127.0.0.1:1/{sessionId}", HttpMethod.GET, getRequestEntity(), null, String.class);
+            Assert.fail("exchange did not throw");
+        } catch (IllegalArgumentException e) {
+        }
+        Assert.assertEquals("failed probe did not open the circuit", HttpRetryScheduler.CircuitState.OPEN, scheduler.getCircuitState());
+        advanceMillis(1000L);
+        try {
+            client.exchangeAsync("http://127.0.0.1:1/{sessionId}", HttpMethod.GET, getRequestEntity(), null, String.class).get(5, TimeUnit.SECONDS);
+            Assert.fail("exchange did not complete exceptionally");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        advanceMillis(1000L);
+        Assert.assertTrue("circuit did not send another probe", scheduler.tryAcquirePermit());
+    }
+
+    private HttpRetryScheduler makeScheduler(int failureThreshold, long openIntervalMillis, double budgetCapacity) {
+        return new HttpRetryScheduler("upstream", 100L, 5000L, failureThreshold, openIntervalMillis, 0.5d, 1d, budgetCapacity, () -> now[0]);
+    }
+
+    private void advanceMillis(long millis) {
+        now[0] = now[0] + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static HttpEntity getRequestEntity() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        return new HttpEntity<Object>(headers);
+    }
+}
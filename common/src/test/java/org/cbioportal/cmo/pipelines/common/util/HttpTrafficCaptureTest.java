@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.*;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+public class HttpTrafficCaptureTest {
+
+    private static final String TOKEN_RESPONSE = "[{\"study_id\":\"study_a\",\"api_token\":\"SECRET-A\"},{\"study_id\":\"study_b\",\"api_token\":\"SECRET-B\"}]";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @After
+    public void resetCapture() {
+        HttpTrafficCapture.setInstance(null);
+    }
+
+    /* a recorded run replays without the server, with credentials pseudonymized consistently in requests and responses */
+    @Test
+    public void testRecordThenReplay() throws Exception {
+        Path archive = temporaryFolder.getRoot().toPath().resolve("traffic.jsonl.gz");
+        PausingHttpService service = new PausingHttpService();
+        service.getHandler().setExpectedResponseContentType("application/json");
+        service.getHandler().setExpectedResponseBody(TOKEN_RESPONSE);
+        service.start();
+        String url = "http://localhost:" + service.getPort() + "/api/";
+        HttpTrafficCapture recording = new HttpTrafficCapture(HttpTrafficCapture.Mode.RECORD, archive, false, new HttpTrafficRedactor());
+        try {
+            String recordedBody = postForm(recording, url, "MAPPING-TOKEN");
+            Assert.assertEquals(TOKEN_RESPONSE, recordedBody);
+        } finally {
+            recording.close();
+            service.stop();
+        }
+
+        String archiveText = new String(new GZIPInputStream(Files.newInputStream(archive)).readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertFalse(archiveText.contains("SECRET-A"));
+        Assert.assertFalse(archiveText.contains("MAPPING-TOKEN"));
+        List<HttpTrafficRecord> records = HttpTrafficArchive.read(archive);
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals(200, records.get(0).getStatus().intValue());
+
+        HttpTrafficCapture replaying = new HttpTrafficCapture(HttpTrafficCapture.Mode.REPLAY, archive, false, new HttpTrafficRedactor());
+        String replayedBody = postForm(replaying, url, "MAPPING-TOKEN");
+        HttpTrafficRedactor redactor = new HttpTrafficRedactor();
+        Assert.assertEquals(redactor.redactBody(TOKEN_RESPONSE), replayedBody);
+        Assert.assertNotEquals(redactor.redactBody("{\"api_token\":\"SECRET-A\"}"), redactor.redactBody("{\"api_token\":\"SECRET-B\"}"));
+        Assert.assertEquals(0, replaying.getUnreplayedCount());
+        try {
+            postForm(replaying, url, "MAPPING-TOKEN");
+            Assert.fail("a request with no recorded exchange left must fail");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains("No recorded HTTP exchange left"));
+        }
+    }
+
+    /* recorded timeouts are replayed as timeouts, so HttpClientWithTimeoutAndRetry retries them as it did live */
+    @Test
+    public void testReplayedTimeoutIsRetriedWithRecordedTiming() throws Exception {
+        Path archive = temporaryFolder.getRoot().toPath().resolve("timeouts.jsonl.gz");
+        String url = "http://localhost:1/cvr/get_seg_data/session/P-0000001-T01-IM6";
+        try (HttpTrafficArchive.Writer writer = HttpTrafficArchive.openWriter(archive)) {
+            HttpTrafficRecord timeout = makeRecord(1L, url, 150L);
+            timeout.setErrorClass(SocketTimeoutException.class.getName());
+            timeout.setErrorMessage("Read timed out");
+            writer.write(timeout);
+            HttpTrafficRecord success = makeRecord(2L, url, 150L);
+            success.setStatus(200);
+            success.setResponseHeaders(Collections.singletonMap("Content-Type", Collections.singletonList("text/plain")));
+            success.setResponseBody("segments");
+            writer.write(success);
+        }
+        HttpTrafficCapture.setInstance(new HttpTrafficCapture(HttpTrafficCapture.Mode.REPLAY, archive, true, new HttpTrafficRedactor()));
+        HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(50, 100, Instant.now().plusSeconds(10), false);
+        long start = System.nanoTime();
+        ResponseEntity<String> response = client.exchange(url, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), null, String.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        Assert.assertNotNull(response);
+        Assert.assertEquals("segments", response.getBody());
+        Assert.assertEquals(2, client.getNumberOfRequestsAttempted());
+        Assert.assertTrue("recorded durations are replayed", elapsedMillis >= 300L);
+    }
+
+    @Test
+    public void testRedactor() {
+        HttpTrafficRedactor redactor = new HttpTrafficRedactor();
+        String form = redactor.redactBody("token=ABC123&content=record&format=json");
+        Assert.assertFalse(form.contains("ABC123"));
+        Assert.assertTrue(form.contains("&content=record&format=json"));
+        Assert.assertEquals(form, redactor.redactBody("token=ABC123&content=record&format=json"));
+        String json = redactor.redactBody("{\"username\" : \"someone\", \"password\":\"p\\\"w\", \"id\":\"42\"}");
+        Assert.assertFalse(json.contains("someone"));
+        Assert.assertFalse(json.contains("p\\\"w"));
+        Assert.assertTrue(json.contains("\"id\":\"42\""));
+        String uri = redactor.redactUri("https://dmp/cbio_api/create_session/someone/secret/0");
+        Assert.assertTrue(uri.startsWith("https://dmp/cbio_api/create_session/REDACTED-"));
+        Assert.assertFalse(uri.contains("secret"));
+        Assert.assertTrue(uri.endsWith("/0"));
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        headers.put("cookie", Collections.singletonList("session=xyz"));
+        headers.put("Accept", Collections.singletonList("application/json"));
+        Map<String, List<String>> redactedHeaders = redactor.redactHeaders(headers);
+        Assert.assertEquals(Collections.singletonList(HttpTrafficRedactor.REDACTED), redactedHeaders.get("cookie"));
+        Assert.assertEquals(Collections.singletonList("application/json"), redactedHeaders.get("Accept"));
+    }
+
+    private String postForm(HttpTrafficCapture capture, String url, String token) {
+        RestTemplate restTemplate = capture.instrument(new RestTemplate());
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("token", token);
+        form.add("content", "record");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        return restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(form, headers), String.class).getBody();
+    }
+
+    private HttpTrafficRecord makeRecord(long sequence, String url, long durationMillis) {
+        HttpTrafficRecord record = new HttpTrafficRecord();
+        record.setSequence(sequence);
+        record.setMethod("GET");
+        record.setUri(url);
+        record.setRequestBody("");
+        record.setDurationMillis(durationMillis);
+        return record;
+    }
+}
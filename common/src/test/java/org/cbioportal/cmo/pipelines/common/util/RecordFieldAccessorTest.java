@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RecordFieldAccessorTest {
+
+    @Test
+    public void testToLineMatchesReflectiveSerialization() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            SampleRecord record = new SampleRecord(i);
+            Assert.assertEquals(reflectiveLine(record, SampleRecord.getFieldNames()),
+                    RecordFieldAccessor.toLine(record, SampleRecord.getFieldNames(), String::trim));
+        }
+    }
+
+    @Test
+    public void testGetFieldNamesWithParameters() throws Exception {
+        RecordFieldAccessor accessor = RecordFieldAccessor.forClass(SampleRecord.class);
+        Assert.assertEquals(8, accessor.getFieldNames().size());
+        List<String> fieldNames = accessor.getFieldNames(new Class<?>[]{Boolean.class}, new Object[]{Boolean.FALSE});
+        Assert.assertFalse(fieldNames.contains("NOTES"));
+        Assert.assertEquals("P-0000005\t5\t35\tTREATMENT\tChemo\tAGENT_5\t30",
+                RecordFieldAccessor.toLine(new SampleRecord(5), fieldNames, String::trim));
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testMissingGetFieldNames() throws Exception {
+        RecordFieldAccessor.forClass(Object.class).getFieldNames();
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testMissingGetter() throws Exception {
+        RecordFieldAccessor.toLine(new SampleRecord(1), Arrays.asList("PATIENT_ID", "NOT_A_FIELD"), String::trim);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() throws Exception {
+        RecordFieldAccessor.toLine(new SampleRecord(), SampleRecord.getFieldNames(), String::trim);
+    }
+
+    private String reflectiveLine(Object record, List<String> fieldNames) throws Exception {
+        List<String> values = new ArrayList<>();
+        for (String field : fieldNames) {
+            values.add(record.getClass().getMethod("get" + field).invoke(record).toString().trim());
+        }
+        return String.join("\t", values);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.cbioportal.cmo.pipelines.common.util;
+
+import java.util.*;
+
+/* record shaped like the pipeline output models : String getters named "get" + FIELD_NAME and a static getFieldNames() */
+public class SampleRecord {
+
+    private String PATIENT_ID;
+    private String START_DATE;
+    private String STOP_DATE;
+    private String EVENT_TYPE;
+    private String SUBTYPE;
+    private String AGENT;
+    private String NOTES;
+    private Integer DURATION;
+
+    public SampleRecord() {}
+
+    public SampleRecord(int index) {
+        this.PATIENT_ID = "P-" + String.format("%07d", index);
+        this.START_DATE = String.valueOf(index % 3650);
+        this.STOP_DATE = String.valueOf(index % 3650 + 30);
+        this.EVENT_TYPE = "TREATMENT";
+        this.SUBTYPE = "Chemo";
+        this.AGENT = " AGENT_" + (index % 17) + " ";
+        this.NOTES = "NA";
+        this.DURATION = 30;
+    }
+
+    public String getPATIENT_ID() {
+        return PATIENT_ID;
+    }
+
+    public String getSTART_DATE() {
+        return START_DATE;
+    }
+
+    public String getSTOP_DATE() {
+        return STOP_DATE;
+    }
+
+    public String getEVENT_TYPE() {
+        return EVENT_TYPE;
+    }
+
+    public String getSUBTYPE() {
+        return SUBTYPE;
+    }
+
+    public String getAGENT() {
+        return AGENT;
+    }
+
+    public String getNOTES() {
+        return NOTES;
+    }
+
+    public Integer getDURATION() {
+        return DURATION;
+    }
+
+    public static List<String> getFieldNames() {
+        return Arrays.asList("PATIENT_ID", "START_DATE", "STOP_DATE", "EVENT_TYPE", "SUBTYPE", "AGENT", "NOTES", "DURATION");
+    }
+
+    public static List<String> getFieldNames(Boolean includeNotes) {
+        List<String> fieldNames = new ArrayList<>(getFieldNames());
+        if (!includeNotes) {
+            fieldNames.remove("NOTES");
+        }
+        return fieldNames;
+    }
+}
@@ -34,6 +34,9 @@ package org.mskcc.cmo.ks.crdb.pipeline;
 
 import java.net.MalformedURLException;
 import javax.sql.DataSource;
+import org.cbioportal.cmo.pipelines.common.jfr.FlightRecorderBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetricsBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.report.RunReportBeanPostProcessor;
 import org.cbioportal.cmo.pipelines.common.util.EmailUtil;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBDataset;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXClinicalAnnotationMapping;
@@ -45,7 +48,10 @@ import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBSurvey;
 import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.configuration.annotation.*;
+import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.SimpleJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
@@ -61,7 +67,9 @@ import org.springframework.core.io.Resource;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.sqlite.SQLiteConfig;
 
 /**
  * Configuration for running the CRDB clinical data fetcher.
@@ -85,11 +93,45 @@ public class BatchConfiguration {
         return new EmailUtil();
     }
 
+    @Value("${crdb.parallel_extraction:false}")
+    private boolean parallelExtraction;
+
+    @Value("${crdb.max_connections:4}")
+    private Integer maxConnections;
+
+    @Bean
+    public CRDBStepTimingListener crdbStepTimingListener() {
+        return new CRDBStepTimingListener();
+    }
+
+    @Bean
+    public static PipelineMetricsBeanPostProcessor pipelineMetricsBeanPostProcessor() {
+        return new PipelineMetricsBeanPostProcessor();
+    }
+
+    @Bean
+    public static RunReportBeanPostProcessor runReportBeanPostProcessor() {
+        return new RunReportBeanPostProcessor();
+    }
+
+    @Bean
+    public static FlightRecorderBeanPostProcessor flightRecorderBeanPostProcessor() {
+        return new FlightRecorderBeanPostProcessor();
+    }
+
     @Bean
     public Job crdbImpactJob(JobRepository jobRepository,
                              @Qualifier("crdbSurveyStep") Step crdbSurveyStep,
                              @Qualifier("crdbDatasetStep") Step crdbDatasetStep) {
+        if (parallelExtraction) {
+            return new JobBuilder(CRDB_IMPACT_JOB, jobRepository)
+                .listener(crdbStepTimingListener())
+                .start(parallelExtractionFlow("crdbImpactParallelFlow", crdbSurveyStep, crdbDatasetStep))
+                .end()
+                .build();
+        }
         return new JobBuilder(CRDB_IMPACT_JOB, jobRepository)
+            .listener(crdbStepTimingListener())
             .start(crdbSurveyStep)
             .next(crdbDatasetStep)
             .build();
@@ -102,7 +144,16 @@ public class BatchConfiguration {
                           @Qualifier("crdbPDXTimelineStep") Step crdbPDXTimelineStep,
                           @Qualifier("crdbPDXSourceToDestinationMappingStep") Step crdbPDXSourceToDestinationMappingStep,
                           @Qualifier("crdbPDXClinicalAnnotationMappingStep") Step crdbPDXClinicalAnnotationMappingStep) {
+        if (parallelExtraction) {
+            return new JobBuilder(CRDB_PDX_JOB, jobRepository)
+                .listener(crdbStepTimingListener())
+                .start(parallelExtractionFlow("crdbPDXParallelFlow", crdbPDXClinicalSampleStep, crdbPDXClinicalPatientStep,
+                        crdbPDXTimelineStep, crdbPDXSourceToDestinationMappingStep, crdbPDXClinicalAnnotationMappingStep))
+                .end()
+                .build();
+        }
         return new JobBuilder(CRDB_PDX_JOB, jobRepository)
+            .listener(crdbStepTimingListener())
             .start(crdbPDXClinicalSampleStep)
             .next(crdbPDXClinicalPatientStep)
             .next(crdbPDXTimelineStep)
@@ -111,6 +162,33 @@ public class BatchConfiguration {
             .build();
     }
 
+    /**
+     * Each CRDB step queries a different view and writes a different file, so the steps
+     * can run concurrently. Each running step holds one connection to CRDB for its cursor,
+     * so the number of steps running at once is bounded by crdb.max_connections, which
+     * is also the maximum size of the CRDB connection pool (see CRDBConfiguration.crdbDataSource).
+     */
+    private Flow parallelExtractionFlow(String name, Step... steps) {
+        Flow[] stepFlows = new Flow[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            stepFlows[i] = new FlowBuilder<SimpleFlow>(steps[i].getName() + "Flow").start(steps[i]).build();
+        }
+        return new FlowBuilder<SimpleFlow>(name)
+            .split(crdbExtractionTaskExecutor())
+            .add(stepFlows)
+            .build();
+    }
+
+    @Bean(name = "crdbExtractionTaskExecutor")
+    public ThreadPoolTaskExecutor crdbExtractionTaskExecutor() {
+        ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+        threadPoolTaskExecutor.setCorePoolSize(maxConnections);
+        threadPoolTaskExecutor.setMaxPoolSize(maxConnections);
+        threadPoolTaskExecutor.setThreadNamePrefix("crdb-extraction-");
+        threadPoolTaskExecutor.initialize();
+        return threadPoolTaskExecutor;
+    }
+
     /**
      * Step 1 reads, processes, and writes the CRDB Survey query results
      */
@@ -325,15 +403,28 @@ public class BatchConfiguration {
     @Value("org/springframework/batch/core/schema-sqlite.sql")
     private Resource dataRepositorySchema;
 
+    @Value("${crdb.repository_busy_timeout:60000}")
+    private String repositoryBusyTimeout;
+
+    @Value("${crdb.repository_url:jdbc:sqlite:repository.sqlite}")
+    private String repositoryUrl;
+
     /**
      * Spring Batch datasource.
+     * Parallel extraction steps update the repository concurrently, so every connection
+     * waits on a locked database instead of failing, and begins its transactions with the
+     * write lock held so two readers never deadlock upgrading to writers.
      * @return DataSource
      */
     @Bean
     public DataSource dataSource() {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.setBusyTimeout(repositoryBusyTimeout);
+        sqliteConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
         DriverManagerDataSource dataSource = new DriverManagerDataSource();
         dataSource.setDriverClassName("org.sqlite.JDBC");
-        dataSource.setUrl("jdbc:sqlite:repository.sqlite");
+        dataSource.setUrl(repositoryUrl);
+        dataSource.setConnectionProperties(sqliteConfig.toProperties());
         return dataSource;
     }
 
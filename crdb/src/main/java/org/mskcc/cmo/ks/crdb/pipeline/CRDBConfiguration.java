@@ -37,6 +37,8 @@ import com.querydsl.sql.SQLQueryFactory;
 import com.querydsl.sql.SQLTemplates;
 import java.sql.SQLException;
 import oracle.jdbc.pool.OracleDataSource;
+import oracle.ucp.jdbc.PoolDataSource;
+import oracle.ucp.jdbc.PoolDataSourceFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -59,6 +61,12 @@ public class CRDBConfiguration {
     @Value("${crdb.connection_string}")
     private String connection_string;
 
+    @Value("${crdb.max_connections:4}")
+    private Integer maxConnections;
+
+    @Value("${crdb.connection_wait_timeout:600}")
+    private Integer connectionWaitTimeout;
+
     @Bean
     public SQLQueryFactory crdbQueryFactory() throws SQLException {
         SQLTemplates templates = new OracleTemplates();
@@ -66,11 +74,23 @@ public class CRDBConfiguration {
         return  new SQLQueryFactory(config, crdbDataSource());
     }
 
-    public OracleDataSource crdbDataSource() throws SQLException {
-        OracleDataSource crdbDataSource = new OracleDataSource();
+    /**
+     * Pooled CRDB data source. The pool holds at most crdb.max_connections connections,
+     * the same bound which sizes the executor running the extraction steps concurrently
+     * (see BatchConfiguration.crdbExtractionTaskExecutor), so every running step gets a
+     * connection. A step asking for a connection beyond the bound waits up to
+     * crdb.connection_wait_timeout seconds for one to be returned.
+     */
+    public PoolDataSource crdbDataSource() throws SQLException {
+        PoolDataSource crdbDataSource = PoolDataSourceFactory.getPoolDataSource();
+        crdbDataSource.setConnectionFactoryClassName(OracleDataSource.class.getName());
         crdbDataSource.setUser(username);
         crdbDataSource.setPassword(password);
         crdbDataSource.setURL(connection_string);
+        crdbDataSource.setInitialPoolSize(0);
+        crdbDataSource.setMinPoolSize(0);
+        crdbDataSource.setMaxPoolSize(maxConnections);
+        crdbDataSource.setConnectionWaitTimeout(connectionWaitTimeout);
         return crdbDataSource;
     }
 }
@@ -33,6 +33,7 @@
 package org.mskcc.cmo.ks.crdb.pipeline;
 
 import java.util.*;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBDataset;
 import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.item.ItemProcessor;
@@ -53,10 +54,6 @@ public class CRDBDatasetProcessor implements ItemProcessor<CRDBDataset, String>
 
     @Override
     public String process(final CRDBDataset crdbDataset) throws Exception {
-        List<String> record = new ArrayList<>();
-        for (String field : CRDB_DATASET_FIELD_ORDER) {
-            String value = crdbDataset.getClass().getMethod("get" + field).invoke(crdbDataset).toString();
-        }
-        return String.join("\t", record);
+        return RecordFieldAccessor.toLine(crdbDataset, CRDB_DATASET_FIELD_ORDER, crdbUtils::convertWhitespace);
     }
 }
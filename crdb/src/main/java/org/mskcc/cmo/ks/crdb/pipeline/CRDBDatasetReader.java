@@ -35,14 +35,9 @@ package org.mskcc.cmo.ks.crdb.pipeline;
 import static com.querydsl.core.alias.Alias.$;
 import static com.querydsl.core.alias.Alias.alias;
 import com.querydsl.core.types.Projections;
-import com.querydsl.sql.SQLQueryFactory;
-import java.util.*;
-import org.apache.log4j.Logger;
+import com.querydsl.sql.SQLQuery;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBDataset;
-import org.springframework.batch.item.*;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class for querying the CRDB Dataset view.
@@ -50,59 +45,30 @@ import org.springframework.transaction.annotation.Transactional;
  * @author ochoaa
  */
 
-public class CRDBDatasetReader implements ItemStreamReader<CRDBDataset> {
+public class CRDBDatasetReader extends CRDBViewReader<CRDBDataset> {
 
     @Value("${crdb.dataset_view}")
     private String crdbDatasetView;
 
-    @Autowired
-    SQLQueryFactory crdbQueryFactory;
-
-    private List<CRDBDataset> crdbDatasetResults;
-    private final Logger LOG = Logger.getLogger(CRDBDatasetReader.class);
-
-    @Override
-    public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.crdbDatasetResults = getCrdbDatasetResults();
-        if (crdbDatasetResults.isEmpty()) {
-            throw new ItemStreamException("Error fetching records from CRDB Dataset View");
-        }
-    }
-
     /**
      * Creates an alias for the CRDB Dataset view query type and projects query as
-     * a list of CRDBDataset objects
+     * CRDBDataset objects
      *
-     * @return List<CRDBDataset>
+     * @return SQLQuery<CRDBDataset>
      */
-    @Transactional
-    private List<CRDBDataset> getCrdbDatasetResults() {
-        LOG.info("Beginning CRDB Dataset View import...");
-
+    @Override
+    protected SQLQuery<CRDBDataset> createQuery() {
         CRDBDataset qCRDBD = alias(CRDBDataset.class, crdbDatasetView);
-        List<CRDBDataset> crdbDatasetResults = crdbQueryFactory.selectDistinct(
+        return crdbQueryFactory.selectDistinct(
                 Projections.constructor(CRDBDataset.class, $(qCRDBD.getDMP_ID()),
                     $(qCRDBD.getCONSENT_DATE_DAYS()), $(qCRDBD.getSURVIVAL_STATUS()),
                     $(qCRDBD.getTREATMENT_END_DAYS()), $(qCRDBD.getOFF_STUDY_DAYS()),
                     $(qCRDBD.getCOMMENTS())))
-                .from($(qCRDBD))
-                .fetch();
-
-        LOG.info("Imported " + crdbDatasetResults.size() + " records from CRDB Dataset View.");
-        return crdbDatasetResults;
+                .from($(qCRDBD));
     }
 
     @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {}
-
-    @Override
-    public void close() throws ItemStreamException {}
-
-    @Override
-    public CRDBDataset read() throws Exception {
-        if (!crdbDatasetResults.isEmpty()) {
-            return crdbDatasetResults.remove(0);
-        }
-        return null;
+    protected String getViewDescription() {
+        return "CRDB Dataset View";
     }
 }
@@ -33,6 +33,7 @@
 package org.mskcc.cmo.ks.crdb.pipeline;
 
 import java.util.*;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXClinicalAnnotationMapping;
 import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.item.ItemProcessor;
@@ -53,11 +54,6 @@ public class CRDBPDXClinicalAnnotationMappingProcessor implements ItemProcessor<
 
     @Override
     public String process(final CRDBPDXClinicalAnnotationMapping crdbPDXClinicalAnnotationMapping) throws Exception {
-        List<String> record = new ArrayList<>();
-        for (String field : CRDB_PDX_MAPPING_FIELD_ORDER) {
-            String value = crdbPDXClinicalAnnotationMapping.getClass().getMethod("get" + field).invoke(crdbPDXClinicalAnnotationMapping).toString();
-            record.add(crdbUtils.convertWhitespace(value));
-        }
-        return String.join("\t", record);
+        return RecordFieldAccessor.toLine(crdbPDXClinicalAnnotationMapping, CRDB_PDX_MAPPING_FIELD_ORDER, crdbUtils::convertWhitespace);
     }
 }
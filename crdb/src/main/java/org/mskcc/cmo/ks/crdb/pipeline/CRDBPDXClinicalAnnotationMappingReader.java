@@ -35,14 +35,9 @@ package org.mskcc.cmo.ks.crdb.pipeline;
 import static com.querydsl.core.alias.Alias.$;
 import static com.querydsl.core.alias.Alias.alias;
 import com.querydsl.core.types.Projections;
-import com.querydsl.sql.SQLQueryFactory;
-import java.util.*;
-import org.apache.log4j.Logger;
+import com.querydsl.sql.SQLQuery;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXClinicalAnnotationMapping;
-import org.springframework.batch.item.*;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class for querying the CRDB PDX Clinical Annotations Mapping view.
@@ -50,57 +45,28 @@ import org.springframework.transaction.annotation.Transactional;
  * @author Avery Wang
  */
 
-public class CRDBPDXClinicalAnnotationMappingReader implements ItemStreamReader<CRDBPDXClinicalAnnotationMapping> {
+public class CRDBPDXClinicalAnnotationMappingReader extends CRDBViewReader<CRDBPDXClinicalAnnotationMapping> {
 
     @Value("${crdb.pdx_clinical_annotation_mappings_view}")
     private String crdbPDXClinicalAnnotationMappingView;
 
-    @Autowired
-    SQLQueryFactory crdbQueryFactory;
-
-    private List<CRDBPDXClinicalAnnotationMapping> crdbPDXClinicalAnnotationMappingResults;
-    private final Logger LOG = Logger.getLogger(CRDBPDXClinicalAnnotationMappingReader.class);
-
-    @Override
-    public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.crdbPDXClinicalAnnotationMappingResults = getCrdbPDXClinicalAnnotationMappingResults();
-        if (crdbPDXClinicalAnnotationMappingResults.isEmpty()) {
-            throw new ItemStreamException("Error fetching records from CRDB PDX Clinical Annotations Mapping View");
-        }
-    }
-
     /**
      * Creates an alias for the CRDB PDX Clinical Annotations Mapping view query type and projects query as
-     * a list of CRDBPDXClinicalAnnotationMapping objects
+     * CRDBPDXClinicalAnnotationMapping objects
      *
-     * @return List<CRDBPDXClinicalAnnotationMapping>
+     * @return SQLQuery<CRDBPDXClinicalAnnotationMapping>
      */
-    @Transactional
-    private List<CRDBPDXClinicalAnnotationMapping> getCrdbPDXClinicalAnnotationMappingResults() {
-        LOG.info("Beginning CRDB PDX Clinical Annotations Mapping View import...");
-
+    @Override
+    protected SQLQuery<CRDBPDXClinicalAnnotationMapping> createQuery() {
         CRDBPDXClinicalAnnotationMapping qCRDBD = alias(CRDBPDXClinicalAnnotationMapping.class, crdbPDXClinicalAnnotationMappingView);
-        List<CRDBPDXClinicalAnnotationMapping> crdbPDXClinicalAnnotationMappingResults = crdbQueryFactory.selectDistinct(
+        return crdbQueryFactory.selectDistinct(
                 Projections.constructor(CRDBPDXClinicalAnnotationMapping.class, $(qCRDBD.getSOURCE_STUDY_ID()), 
                     $(qCRDBD.getCLINICAL_ATTRIBUTE()), $(qCRDBD.getDESTINATION_STUDY_ID())))
-                .from($(qCRDBD))
-                .fetch();
-
-        LOG.info("Imported " + crdbPDXClinicalAnnotationMappingResults.size() + " records from CRDB PDX Clinical Annotations Mapping View.");
-        return crdbPDXClinicalAnnotationMappingResults;
+                .from($(qCRDBD));
     }
 
     @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {}
-
-    @Override
-    public void close() throws ItemStreamException {}
-
-    @Override
-    public CRDBPDXClinicalAnnotationMapping read() throws Exception {
-        if (!crdbPDXClinicalAnnotationMappingResults.isEmpty()) {
-            return crdbPDXClinicalAnnotationMappingResults.remove(0);
-        }
-        return null;
+    protected String getViewDescription() {
+        return "CRDB PDX Clinical Annotations Mapping View";
     }
 }
@@ -33,6 +33,7 @@
 package org.mskcc.cmo.ks.crdb.pipeline;
 
 import java.util.*;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXClinicalPatientDataset;
 import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.item.ItemProcessor;
@@ -53,11 +54,6 @@ public class CRDBPDXClinicalPatientProcessor implements ItemProcessor<CRDBPDXCli
 
     @Override
     public String process(final CRDBPDXClinicalPatientDataset crdbPDXClinicalPatientDataset) throws Exception {
-        List<String> record = new ArrayList<>();
-        for (String field : CRDB_PDX_CLINICAL_PATIENT_FIELD_ORDER) {
-            String value = crdbPDXClinicalPatientDataset.getClass().getMethod("get" + field).invoke(crdbPDXClinicalPatientDataset).toString();
-            record.add(crdbUtils.convertWhitespace(value));
-        }
-        return String.join("\t", record);
+        return RecordFieldAccessor.toLine(crdbPDXClinicalPatientDataset, CRDB_PDX_CLINICAL_PATIENT_FIELD_ORDER, crdbUtils::convertWhitespace);
     }
 }
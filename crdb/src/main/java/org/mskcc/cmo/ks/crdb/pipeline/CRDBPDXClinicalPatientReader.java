@@ -35,14 +35,9 @@ package org.mskcc.cmo.ks.crdb.pipeline;
 import static com.querydsl.core.alias.Alias.$;
 import static com.querydsl.core.alias.Alias.alias;
 import com.querydsl.core.types.Projections;
-import com.querydsl.sql.SQLQueryFactory;
-import java.util.*;
-import org.apache.log4j.Logger;
+import com.querydsl.sql.SQLQuery;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXClinicalPatientDataset;
-import org.springframework.batch.item.*;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class for querying the CRDB Dataset view.
@@ -50,37 +45,21 @@ import org.springframework.transaction.annotation.Transactional;
  * @author ochoaa
  */
 
-public class CRDBPDXClinicalPatientReader implements ItemStreamReader<CRDBPDXClinicalPatientDataset> {
+public class CRDBPDXClinicalPatientReader extends CRDBViewReader<CRDBPDXClinicalPatientDataset> {
 
     @Value("${crdb.pdx_clinical_patient_dataset_view}")
     private String crdbPDXClinicalPatientDatasetView;
 
-    @Autowired
-    SQLQueryFactory crdbQueryFactory;
-
-    private List<CRDBPDXClinicalPatientDataset> crdbPDXClinicalPatientDatasetResults;
-    private final Logger LOG = Logger.getLogger(CRDBPDXClinicalPatientReader.class);
-
-    @Override
-    public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.crdbPDXClinicalPatientDatasetResults = getCrdbPDXClinicalPatientDatasetResults();
-        if (crdbPDXClinicalPatientDatasetResults.isEmpty()) {
-            throw new ItemStreamException("Error fetching records from CRDB PDX Clinical Patient Dataset View");
-        }
-    }
-
     /**
-     * Creates an alias for the CRDB Dataset view query type and projects query as
-     * a list of CRDBPDXClinicalPatientDataset objects
+     * Creates an alias for the CRDB PDX Clinical Patient Dataset view query type and projects query as
+     * CRDBPDXClinicalPatientDataset objects
      *
-     * @return List<CRDBPDXClinicalPatientDataset>
+     * @return SQLQuery<CRDBPDXClinicalPatientDataset>
      */
-    @Transactional
-    private List<CRDBPDXClinicalPatientDataset> getCrdbPDXClinicalPatientDatasetResults() {
-        LOG.info("Beginning CRDB PDX Clinical Patient Dataset View import...");
-
+    @Override
+    protected SQLQuery<CRDBPDXClinicalPatientDataset> createQuery() {
         CRDBPDXClinicalPatientDataset qCRDBD = alias(CRDBPDXClinicalPatientDataset.class, crdbPDXClinicalPatientDatasetView);
-        List<CRDBPDXClinicalPatientDataset> crdbPDXClinicalPatientDatasetResults = crdbQueryFactory.selectDistinct(
+        return crdbQueryFactory.selectDistinct(
                 Projections.constructor(CRDBPDXClinicalPatientDataset.class, $(qCRDBD.getPATIENT_ID()),
                                         $(qCRDBD.getSEX()), $(qCRDBD.getETHNICITY()), $(qCRDBD.getRACE()), $(qCRDBD.getSMOKING_HISTORY()),
                                         $(qCRDBD.getCROHN_DISEASE()), $(qCRDBD.getULCERATIVE_COLITIS()), $(qCRDBD.getBARRETTS_ESOPHAGUS()),
@@ -89,23 +68,11 @@ public class CRDBPDXClinicalPatientReader implements ItemStreamReader<CRDBPDXCli
                                         $(qCRDBD.getRETINOBLASTOMA()), $(qCRDBD.getGRADE_1()), $(qCRDBD.getGRADE_2()), $(qCRDBD.getGRADE_3()),
                                         $(qCRDBD.getPLATINUM_SENSITIVE()), $(qCRDBD.getPLATINUM_RESISTANT())))
                 .from($(qCRDBD))
-                .where($(qCRDBD.getPATIENT_ID()).ne("NA"))
-                .fetch();
-        LOG.info("Imported " + crdbPDXClinicalPatientDatasetResults.size() + " records from CRDB PDX Clinical Patient Dataset View.");
-        return crdbPDXClinicalPatientDatasetResults;
+                .where($(qCRDBD.getPATIENT_ID()).ne("NA"));
     }
 
     @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {}
-
-    @Override
-    public void close() throws ItemStreamException {}
-
-    @Override
-    public CRDBPDXClinicalPatientDataset read() throws Exception {
-        if (!crdbPDXClinicalPatientDatasetResults.isEmpty()) {
-            return crdbPDXClinicalPatientDatasetResults.remove(0);
-        }
-        return null;
+    protected String getViewDescription() {
+        return "CRDB PDX Clinical Patient Dataset View";
     }
 }
@@ -33,6 +33,7 @@
 package org.mskcc.cmo.ks.crdb.pipeline;
 
 import java.util.*;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXClinicalSampleDataset;
 import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.item.ItemProcessor;
@@ -53,11 +54,6 @@ public class CRDBPDXClinicalSampleProcessor implements ItemProcessor<CRDBPDXClin
 
     @Override
     public String process(final CRDBPDXClinicalSampleDataset crdbPDXClinicalSampleDataset) throws Exception {
-        List<String> record = new ArrayList<>();
-        for (String field : CRDB_PDX_CLINICAL_SAMPLE_FIELD_ORDER) {
-            String value = crdbPDXClinicalSampleDataset.getClass().getMethod("get" + field).invoke(crdbPDXClinicalSampleDataset).toString();
-            record.add(crdbUtils.convertWhitespace(value));
-        }
-        return String.join("\t", record);
+        return RecordFieldAccessor.toLine(crdbPDXClinicalSampleDataset, CRDB_PDX_CLINICAL_SAMPLE_FIELD_ORDER, crdbUtils::convertWhitespace);
     }
 }
@@ -35,14 +35,9 @@ package org.mskcc.cmo.ks.crdb.pipeline;
 import static com.querydsl.core.alias.Alias.$;
 import static com.querydsl.core.alias.Alias.alias;
 import com.querydsl.core.types.Projections;
-import com.querydsl.sql.SQLQueryFactory;
-import java.util.*;
-import org.apache.log4j.Logger;
+import com.querydsl.sql.SQLQuery;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXClinicalSampleDataset;
-import org.springframework.batch.item.*;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class for querying the CRDB PDX Clinical Sample Dataset view.
@@ -50,37 +45,21 @@ import org.springframework.transaction.annotation.Transactional;
  * @author ochoaa
  */
 
-public class CRDBPDXClinicalSampleReader implements ItemStreamReader<CRDBPDXClinicalSampleDataset> {
+public class CRDBPDXClinicalSampleReader extends CRDBViewReader<CRDBPDXClinicalSampleDataset> {
 
     @Value("${crdb.pdx_clinical_sample_dataset_view}")
     private String crdbPDXClinicalSampleDatasetView;
 
-    @Autowired
-    SQLQueryFactory crdbQueryFactory;
-
-    private List<CRDBPDXClinicalSampleDataset> crdbPDXClinicalSampleDatasetResults;
-    private final Logger LOG = Logger.getLogger(CRDBPDXClinicalSampleReader.class);
-
-    @Override
-    public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.crdbPDXClinicalSampleDatasetResults = getCrdbPDXClinicalSampleDatasetResults();
-        if (crdbPDXClinicalSampleDatasetResults.isEmpty()) {
-            throw new ItemStreamException("Error fetching records from CRDB PDX Clinical Sample Dataset View");
-        }
-    }
-
     /**
      * Creates an alias for the CRDB PDX Clinical Sample Dataset view query type and projects query as
-     * a list of CRDBPDXClinicalSampleDataset objects
+     * CRDBPDXClinicalSampleDataset objects
      *
-     * @return List<CRDBPDXClinicalSampleDataset>
+     * @return SQLQuery<CRDBPDXClinicalSampleDataset>
      */
-    @Transactional
-    private List<CRDBPDXClinicalSampleDataset> getCrdbPDXClinicalSampleDatasetResults() {
-        LOG.info("Beginning CRDB PDX Clinical Sample Dataset View import...");
-
+    @Override
+    protected SQLQuery<CRDBPDXClinicalSampleDataset> createQuery() {
         CRDBPDXClinicalSampleDataset qCRDBD = alias(CRDBPDXClinicalSampleDataset.class, crdbPDXClinicalSampleDatasetView);
-        List<CRDBPDXClinicalSampleDataset> crdbPDXClinicalSampleDatasetResults = crdbQueryFactory.selectDistinct(
+        return crdbQueryFactory.selectDistinct(
                 Projections.constructor(CRDBPDXClinicalSampleDataset.class, $(qCRDBD.getPATIENT_ID()), $(qCRDBD.getSAMPLE_ID()), $(qCRDBD.getPDX_ID()),
                                         $(qCRDBD.getCOLLAB_ID()), $(qCRDBD.getAGE_AT_INITIAL_DIAGNOSIS()), $(qCRDBD.getPASSAGE_ID()),
                                         $(qCRDBD.getONCOTREE_CODE()), $(qCRDBD.getSTAGE_CODE()), $(qCRDBD.getT_STAGE()), $(qCRDBD.getN_STAGE()),
@@ -94,23 +73,11 @@ public class CRDBPDXClinicalSampleReader implements ItemStreamReader<CRDBPDXClin
                                         $(qCRDBD.getBRCA2_POSITIVE()), $(qCRDBD.getBRCA2_NEGATIVE()), $(qCRDBD.getC_MYC_POSITIVE()), $(qCRDBD.getC_MYC_NEGATIVE()),
                                         $(qCRDBD.getAR_POSITIVE()), $(qCRDBD.getAR_NEGATIVE()), $(qCRDBD.getKRAS_POSITIVE()), $(qCRDBD.getKRAS_NEGATIVE())))
                 .from($(qCRDBD))
-                .where($(qCRDBD.getPATIENT_ID()).ne("NA"))
-                .fetch();
-        LOG.info("Imported " + crdbPDXClinicalSampleDatasetResults.size() + " records from CRDB PDX Clinical Sample Dataset View.");
-        return crdbPDXClinicalSampleDatasetResults;
+                .where($(qCRDBD.getPATIENT_ID()).ne("NA"));
     }
 
     @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {}
-
-    @Override
-    public void close() throws ItemStreamException {}
-
-    @Override
-    public CRDBPDXClinicalSampleDataset read() throws Exception {
-        if (!crdbPDXClinicalSampleDatasetResults.isEmpty()) {
-            return crdbPDXClinicalSampleDatasetResults.remove(0);
-        }
-        return null;
+    protected String getViewDescription() {
+        return "CRDB PDX Clinical Sample Dataset View";
     }
 }
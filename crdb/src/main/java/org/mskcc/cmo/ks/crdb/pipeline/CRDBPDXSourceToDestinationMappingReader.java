@@ -35,14 +35,9 @@ package org.mskcc.cmo.ks.crdb.pipeline;
 import static com.querydsl.core.alias.Alias.$;
 import static com.querydsl.core.alias.Alias.alias;
 import com.querydsl.core.types.Projections;
-import com.querydsl.sql.SQLQueryFactory;
-import java.util.*;
-import org.apache.log4j.Logger;
+import com.querydsl.sql.SQLQuery;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXSourceToDestinationMapping;
-import org.springframework.batch.item.*;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class for querying the CRDB PDX Source To Destination Mapping view.
@@ -50,59 +45,30 @@ import org.springframework.transaction.annotation.Transactional;
  * @author ochoaa
  */
 
-public class CRDBPDXSourceToDestinationMappingReader implements ItemStreamReader<CRDBPDXSourceToDestinationMapping> {
+public class CRDBPDXSourceToDestinationMappingReader extends CRDBViewReader<CRDBPDXSourceToDestinationMapping> {
 
     @Value("${crdb.source_to_destination_mappings_view}")
     private String crdbPDXSourceToDestinationMappingView;
 
-    @Autowired
-    SQLQueryFactory crdbQueryFactory;
-
-    private List<CRDBPDXSourceToDestinationMapping> crdbPDXSourceToDestinationMappingResults;
-    private final Logger LOG = Logger.getLogger(CRDBPDXSourceToDestinationMappingReader.class);
-
-    @Override
-    public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.crdbPDXSourceToDestinationMappingResults = getCrdbPDXSourceToDestinationMappingResults();
-        if (crdbPDXSourceToDestinationMappingResults.isEmpty()) {
-            throw new ItemStreamException("Error fetching records from CRDB PDX Source To Destination Mapping View");
-        }
-    }
-
     /**
      * Creates an alias for the CRDB PDX Source To Destination Mapping view query type and projects query as
-     * a list of CRDBPDXSourceToDestinationMapping objects
+     * CRDBPDXSourceToDestinationMapping objects
      *
-     * @return List<CRDBPDXSourceToDestinationMapping>
+     * @return SQLQuery<CRDBPDXSourceToDestinationMapping>
      */
-    @Transactional
-    private List<CRDBPDXSourceToDestinationMapping> getCrdbPDXSourceToDestinationMappingResults() {
-        LOG.info("Beginning CRDB PDX Source To Destination Mapping View import...");
-
+    @Override
+    protected SQLQuery<CRDBPDXSourceToDestinationMapping> createQuery() {
         CRDBPDXSourceToDestinationMapping qCRDBD = alias(CRDBPDXSourceToDestinationMapping.class, crdbPDXSourceToDestinationMappingView);
-        List<CRDBPDXSourceToDestinationMapping> crdbPDXSourceToDestinationMappingResults = crdbQueryFactory.selectDistinct(
+        return crdbQueryFactory.selectDistinct(
                 Projections.constructor(CRDBPDXSourceToDestinationMapping.class, $(qCRDBD.getPATIENT_ID()),
                     $(qCRDBD.getSOURCE_STUDY_ID()), $(qCRDBD.getDESTINATION_STUDY_ID()),
                     $(qCRDBD.getDESTINATION_PATIENT_ID())))
                 .from($(qCRDBD))
-                .where($(qCRDBD.getPATIENT_ID()).ne("NA"))
-                .fetch();
-
-        LOG.info("Imported " + crdbPDXSourceToDestinationMappingResults.size() + " records from CRDB PDX Source To Destination Mapping View.");
-        return crdbPDXSourceToDestinationMappingResults;
+                .where($(qCRDBD.getPATIENT_ID()).ne("NA"));
     }
 
     @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {}
-
-    @Override
-    public void close() throws ItemStreamException {}
-
-    @Override
-    public CRDBPDXSourceToDestinationMapping read() throws Exception {
-        if (!crdbPDXSourceToDestinationMappingResults.isEmpty()) {
-            return crdbPDXSourceToDestinationMappingResults.remove(0);
-        }
-        return null;
+    protected String getViewDescription() {
+        return "CRDB PDX Source To Destination Mapping View";
     }
 }
@@ -33,6 +33,7 @@
 package org.mskcc.cmo.ks.crdb.pipeline;
 
 import java.util.*;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXTimelineDataset;
 import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.item.ItemProcessor;
@@ -59,11 +60,6 @@ public class CRDBPDXTimelineProcessor implements ItemProcessor<CRDBPDXTimelineDa
     }
 
     public String getFormattedRecord(CRDBPDXTimelineDataset crdbPDXTimelineDataset) throws Exception {
-        List<String> record = new ArrayList<>();
-        for (String field : crdbPdxTimelineFieldOrder) {
-            String value = crdbPDXTimelineDataset.getClass().getMethod("get" + field).invoke(crdbPDXTimelineDataset).toString();
-            record.add(crdbUtils.convertWhitespace(value));
-        }
-        return String.join("\t", record);
+        return RecordFieldAccessor.toLine(crdbPDXTimelineDataset, crdbPdxTimelineFieldOrder, crdbUtils::convertWhitespace);
     }
 }
@@ -36,7 +36,7 @@ import com.google.common.base.Strings;
 import static com.querydsl.core.alias.Alias.$;
 import static com.querydsl.core.alias.Alias.alias;
 import com.querydsl.core.types.Projections;
-import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.SQLQuery;
 import java.util.*;
 import org.apache.log4j.Logger;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBPDXTimelineDataset;
@@ -44,7 +44,6 @@ import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.item.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class for querying the CRDB PDX Timeline Dataset view.
@@ -52,43 +51,34 @@ import org.springframework.transaction.annotation.Transactional;
  * @author ochoaa
  */
 
-public class CRDBPDXTimelineReader implements ItemStreamReader<CRDBPDXTimelineDataset> {
+public class CRDBPDXTimelineReader extends CRDBViewReader<CRDBPDXTimelineDataset> {
 
     @Value("${crdb.pdx_timeline_dataset_view}")
     private String crdbPDXTimelineDatasetView;
 
-    @Autowired
-    SQLQueryFactory crdbQueryFactory;
-
     @Autowired
     private CRDBUtils crdbUtils;
 
-    private List<CRDBPDXTimelineDataset> crdbTimelineDatasetResults;
     private List<CRDBPDXTimelineDataset> nullStartDateTimelinePatients = new ArrayList<>();
     private final Logger LOG = Logger.getLogger(CRDBPDXTimelineReader.class);
 
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.crdbTimelineDatasetResults = getCrdbTimelineDatsetResults();
-        if (crdbTimelineDatasetResults.isEmpty()) {
-            throw new ItemStreamException("Error fetching records from CRDB PDX Timeline Dataset View");
-        }
+        super.open(executionContext);
         executionContext.put("crdbPdxFieldOrder", crdbUtils.standardizeTimelineFieldOrder(CRDBPDXTimelineDataset.getFieldNames()));
         executionContext.put("nullStartDateTimelinePatients", nullStartDateTimelinePatients);
     }
 
     /**
      * Creates an alias for the CRDB PDX Timeline Dataset view query type and projects query as
-     * a list of CRDBPDXTimelineDataset objects
+     * CRDBPDXTimelineDataset objects
      *
-     * @return List<CRDBPDXTimelineDataset>
+     * @return SQLQuery<CRDBPDXTimelineDataset>
      */
-    @Transactional
-    private List<CRDBPDXTimelineDataset> getCrdbTimelineDatsetResults() {
-        LOG.info("Beginning CRDB PDX Timeline Dataset View import...");
-
+    @Override
+    protected SQLQuery<CRDBPDXTimelineDataset> createQuery() {
         CRDBPDXTimelineDataset qCRDBD = alias(CRDBPDXTimelineDataset.class, crdbPDXTimelineDatasetView);
-        List<CRDBPDXTimelineDataset> crdbTimelineDatasetResults = crdbQueryFactory.selectDistinct(
+        return crdbQueryFactory.selectDistinct(
                 Projections.constructor(CRDBPDXTimelineDataset.class, $(qCRDBD.getPATIENT_ID()), $(qCRDBD.getSAMPLE_ID()), $(qCRDBD.getPDX_ID()),
                                         $(qCRDBD.getSTART_DATE()), $(qCRDBD.getSTOP_DATE()), $(qCRDBD.getEVENT_TYPE()),
                                         $(qCRDBD.getPASSAGE_ID()), $(qCRDBD.getTREATMENT_TYPE()), $(qCRDBD.getSUBTYPE()), $(qCRDBD.getAGENT()),
@@ -99,36 +89,26 @@ public class CRDBPDXTimelineReader implements ItemStreamReader<CRDBPDXTimelineDa
                                         $(qCRDBD.getLATERALITY()), $(qCRDBD.getDISEASE_STATUS()), $(qCRDBD.getMETASTATIC_SITE()),
                                         $(qCRDBD.getSAMPLE_TYPE()), $(qCRDBD.getSITE_OF_RECURRENCE()), $(qCRDBD.getTREATMENT_NOTES())))
                 .from($(qCRDBD))
-                .where($(qCRDBD.getPATIENT_ID()).ne("NA"))
-                .fetch();
-        LOG.info("Fetched " + crdbTimelineDatasetResults.size() + " records from CRDB PDX Timeline Dataset View.");
+                .where($(qCRDBD.getPATIENT_ID()).ne("NA"));
+    }
 
-        List<CRDBPDXTimelineDataset> filteredCrdbTimelineDatasetResults = new ArrayList<>();
-        for (CRDBPDXTimelineDataset record : crdbTimelineDatasetResults) {
-            if (Strings.isNullOrEmpty(record.getSTART_DATE()) || record.getSTART_DATE().equals("NA")) {
-                nullStartDateTimelinePatients.add(record);
-            } else {
-                filteredCrdbTimelineDatasetResults.add(record);
+    /**
+     * Records with a null START_DATE are filtered from the results and reported by the CRDBPDXTimelineListener.
+     */
+    @Override
+    protected boolean accept(CRDBPDXTimelineDataset record) {
+        if (Strings.isNullOrEmpty(record.getSTART_DATE()) || record.getSTART_DATE().equals("NA")) {
+            if (nullStartDateTimelinePatients.isEmpty()) {
+                LOG.warn("Found CRDB PDX timeline records with null 'START_DATE' - these records will be filtered from results.");
             }
+            nullStartDateTimelinePatients.add(record);
+            return false;
         }
-        if (nullStartDateTimelinePatients.size() > 0) {
-            LOG.warn("Found " + String.valueOf(nullStartDateTimelinePatients.size()) + " CRDB PDX timeline records with null 'START_DATE' - these records will be filtered from restults.");
-        }
-
-        return filteredCrdbTimelineDatasetResults;
+        return true;
     }
 
     @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {}
-
-    @Override
-    public void close() throws ItemStreamException {}
-
-    @Override
-    public CRDBPDXTimelineDataset read() throws Exception {
-        if (!crdbTimelineDatasetResults.isEmpty()) {
-            return crdbTimelineDatasetResults.remove(0);
-        }
-        return null;
+    protected String getViewDescription() {
+        return "CRDB PDX Timeline Dataset View";
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.mskcc.cmo.ks.crdb.pipeline;
+
+import java.time.Duration;
+import java.util.*;
+import org.apache.log4j.Logger;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Reports the time spent in each CRDB step once the job has finished.
+ */
+
+public class CRDBStepTimingListener implements JobExecutionListener {
+
+    private final Logger LOG = Logger.getLogger(CRDBStepTimingListener.class);
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        LOG.info(getStepTimingReport(jobExecution));
+    }
+
+    public String getStepTimingReport(JobExecution jobExecution) {
+        List<StepExecution> stepExecutions = new ArrayList<>(jobExecution.getStepExecutions());
+        stepExecutions.sort(Comparator.comparing(StepExecution::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        StringBuilder report = new StringBuilder("CRDB step timing for job '")
+            .append(jobExecution.getJobInstance().getJobName())
+            .append("':");
+        for (StepExecution stepExecution : stepExecutions) {
+            report.append("\n\t")
+                .append(stepExecution.getStepName())
+                .append("\t")
+                .append(stepExecution.getExitStatus().getExitCode())
+                .append("\t")
+                .append(stepExecution.getReadCount())
+                .append(" records read\t")
+                .append(formatDuration(elapsedMillis(stepExecution)));
+        }
+        if (jobExecution.getStartTime() != null && jobExecution.getEndTime() != null) {
+            report.append("\n\ttotal\t")
+                .append(formatDuration(Duration.between(jobExecution.getStartTime(), jobExecution.getEndTime()).toMillis()));
+        }
+        return report.toString();
+    }
+
+    private long elapsedMillis(StepExecution stepExecution) {
+        if (stepExecution.getStartTime() == null || stepExecution.getEndTime() == null) {
+            return 0L;
+        }
+        return Duration.between(stepExecution.getStartTime(), stepExecution.getEndTime()).toMillis();
+    }
+
+    private String formatDuration(long millis) {
+        return String.format("%d.%03d s", millis / 1000, millis % 1000);
+    }
+}
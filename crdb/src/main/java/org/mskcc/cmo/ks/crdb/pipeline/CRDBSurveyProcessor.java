@@ -33,6 +33,7 @@
 package org.mskcc.cmo.ks.crdb.pipeline;
 
 import java.util.*;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBSurvey;
 import org.mskcc.cmo.ks.crdb.pipeline.util.CRDBUtils;
 import org.springframework.batch.item.ItemProcessor;
@@ -49,17 +50,21 @@ public class CRDBSurveyProcessor implements ItemProcessor<CRDBSurvey, String> {
     @Autowired
     private CRDBUtils crdbUtils;
 
-    private List<String> CRDB_SURVEY_FIELD_ORDER = CRDBSurvey.getFieldNames();
+    // QS_DATE is only used to select the most recent survey and is not written
+    private List<String> CRDB_SURVEY_OUTPUT_FIELDS = getOutputFields(CRDBSurvey.getFieldNames());
 
     @Override
     public String process(final CRDBSurvey crdbSurvey) throws Exception {
-        List<String> record = new ArrayList<>();
-        for (String field : CRDB_SURVEY_FIELD_ORDER) {
+        return RecordFieldAccessor.toLine(crdbSurvey, CRDB_SURVEY_OUTPUT_FIELDS, crdbUtils::convertWhitespace);
+    }
+
+    private static List<String> getOutputFields(List<String> fieldNames) {
+        List<String> outputFields = new ArrayList<>();
+        for (String field : fieldNames) {
             if (!field.startsWith("QS_DATE")) {
-                String value = crdbSurvey.getClass().getMethod("get" + field).invoke(crdbSurvey).toString();
-                record.add(crdbUtils.convertWhitespace(value));
+                outputFields.add(field);
             }
         }
-        return String.join("\t", record);
+        return outputFields;
     }
 }
@@ -35,14 +35,10 @@ package org.mskcc.cmo.ks.crdb.pipeline;
 import static com.querydsl.core.alias.Alias.$;
 import static com.querydsl.core.alias.Alias.alias;
 import com.querydsl.core.types.Projections;
-import com.querydsl.sql.SQLQueryFactory;
-import java.util.*;
-import org.apache.log4j.Logger;
+import com.querydsl.sql.SQLQuery;
+import java.util.Objects;
 import org.mskcc.cmo.ks.crdb.pipeline.model.CRDBSurvey;
-import org.springframework.batch.item.*;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class for querying the CRDB Survey view.
@@ -50,65 +46,51 @@ import org.springframework.transaction.annotation.Transactional;
  * @author ochoaa
  */
 
-public class CRDBSurveyReader implements ItemStreamReader<CRDBSurvey> {
+public class CRDBSurveyReader extends CRDBViewReader<CRDBSurvey> {
 
     @Value("${crdb.survey_view}")
     private String crdbSurveyView;
 
-    @Autowired
-    SQLQueryFactory crdbQueryFactory;
-
-    private List<CRDBSurvey> crdbSurveyResults;
-    private final Logger LOG = Logger.getLogger(CRDBSurveyReader.class);
-
-    @Override
-    public void open(ExecutionContext executionContext) throws ItemStreamException {
-        this.crdbSurveyResults = getCrdbSurveyResults();
-        if (crdbSurveyResults.isEmpty()) {
-            throw new ItemStreamException("Error fetching records from CRDB Survey View");
-        }
-    }
+    private String previousDmpId;
+    private boolean firstRecord = true;
 
     /**
      * Creates an alias for the CRDB Survey view query type and projects query as
-     * a list of CRDBSurvey objects
+     * CRDBSurvey objects. Records are ordered by DMP_ID and then by most recent QS_DATE
+     * so that only the first record seen for each DMP_ID needs to be kept.
      *
-     * @return List<CRDBSurvey>
+     * @return SQLQuery<CRDBSurvey>
      */
-    @Transactional
-    private List<CRDBSurvey> getCrdbSurveyResults() {
-        LOG.info("Beginning CRDB Survey View import...");
+    @Override
+    protected SQLQuery<CRDBSurvey> createQuery() {
         CRDBSurvey qCRDBS = alias(CRDBSurvey.class, crdbSurveyView);
-        List<CRDBSurvey> crdbSurveyResults = new ArrayList<>();
-        List<String> dmpIdList = crdbQueryFactory.selectDistinct($(qCRDBS.getDMP_ID())).from($(qCRDBS)).fetch();
-        for (String dmpId : dmpIdList) {
-            CRDBSurvey record = crdbQueryFactory.select(
-                Projections.constructor(CRDBSurvey.class, $(qCRDBS.getDMP_ID()),
-                        $(qCRDBS.getQS_DATE()), $(qCRDBS.getADJ_TXT()),
-                        $(qCRDBS.getNOSYSTXT()), $(qCRDBS.getPRIOR_RX()),
-                        $(qCRDBS.getBRAINMET()), $(qCRDBS.getECOG()),
-                        $(qCRDBS.getCOMMENTS())))
-                    .from($(qCRDBS))
-                    .where($(qCRDBS.getDMP_ID()).eq(dmpId))
-                    .orderBy($(qCRDBS.getQS_DATE()).desc())
-                    .fetchFirst();
-            crdbSurveyResults.add(record);
-        }
-        LOG.info("Imported " + crdbSurveyResults.size() + " records from CRDB Survey View.");
-        return crdbSurveyResults;
+        previousDmpId = null;
+        firstRecord = true;
+        return crdbQueryFactory.select(
+            Projections.constructor(CRDBSurvey.class, $(qCRDBS.getDMP_ID()),
+                    $(qCRDBS.getQS_DATE()), $(qCRDBS.getADJ_TXT()),
+                    $(qCRDBS.getNOSYSTXT()), $(qCRDBS.getPRIOR_RX()),
+                    $(qCRDBS.getBRAINMET()), $(qCRDBS.getECOG()),
+                    $(qCRDBS.getCOMMENTS())))
+                .from($(qCRDBS))
+                .orderBy($(qCRDBS.getDMP_ID()).asc(), $(qCRDBS.getQS_DATE()).desc());
     }
 
+    /**
+     * Keeps only the most recent survey for each DMP_ID.
+     */
     @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {}
-
-    @Override
-    public void close() throws ItemStreamException {}
+    protected boolean accept(CRDBSurvey record) {
+        if (!firstRecord && Objects.equals(previousDmpId, record.getDMP_ID())) {
+            return false;
+        }
+        firstRecord = false;
+        previousDmpId = record.getDMP_ID();
+        return true;
+    }
 
     @Override
-    public CRDBSurvey read() throws Exception {
-        if (!crdbSurveyResults.isEmpty()) {
-            return crdbSurveyResults.remove(0);
-        }
-        return null;
+    protected String getViewDescription() {
+        return "CRDB Survey View";
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.mskcc.cmo.ks.crdb.pipeline;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.StatementOptions;
+import org.apache.log4j.Logger;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Base class for the CRDB view readers.
+ *
+ * Records are streamed from an open cursor over the view instead of being fetched
+ * into memory up front. The number of records read is saved to the step execution
+ * context so that a restarted step skips the records which were already written.
+ *
+ * @param <T> the record type the view query is projected to
+ */
+
+public abstract class CRDBViewReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    @Value("${crdb.fetch_size:1000}")
+    private Integer fetchSize;
+
+    @Autowired
+    protected SQLQueryFactory crdbQueryFactory;
+
+    private CloseableIterator<T> crdbViewResults;
+    private T nextRecord;
+    private final Logger LOG = Logger.getLogger(CRDBViewReader.class);
+
+    public CRDBViewReader() {
+        setName(ClassUtils.getShortName(getClass()));
+    }
+
+    /**
+     * @return the query projecting the view records - only executed when the reader is opened
+     */
+    protected abstract SQLQuery<T> createQuery();
+
+    /**
+     * @return description of the view used in log and error messages, e.g. "CRDB Dataset View"
+     */
+    protected abstract String getViewDescription();
+
+    /**
+     * Records which are not accepted are skipped and not counted as read.
+     * @param record
+     * @return true if the record should be passed on to the processor
+     */
+    protected boolean accept(T record) {
+        return true;
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        LOG.info("Beginning " + getViewDescription() + " import...");
+        SQLQuery<T> query = createQuery();
+        query.setStatementOptions(StatementOptions.builder().setFetchSize(fetchSize).build());
+        this.crdbViewResults = query.iterate();
+        this.nextRecord = fetchNextRecord();
+        if (nextRecord == null) {
+            doClose();
+            throw new ItemStreamException("Error fetching records from " + getViewDescription());
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        T record = nextRecord;
+        if (record != null) {
+            nextRecord = fetchNextRecord();
+            if (nextRecord == null) {
+                LOG.info("Imported " + getCurrentItemCount() + " records from " + getViewDescription() + ".");
+            }
+        }
+        return record;
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (crdbViewResults != null) {
+            crdbViewResults.close();
+            crdbViewResults = null;
+        }
+        nextRecord = null;
+    }
+
+    private T fetchNextRecord() {
+        while (crdbViewResults.hasNext()) {
+            T record = crdbViewResults.next();
+            if (accept(record)) {
+                return record;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.mskcc.cmo.ks.crdb.pipeline;
+
+import com.querydsl.sql.OracleTemplates;
+import com.querydsl.sql.SQLQueryFactory;
+import javax.sql.DataSource;
+import org.apache.log4j.Logger;
+import org.mskcc.cmo.ks.crdb.pipeline.model.*;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Replaces the Oracle connection from CRDBConfiguration with an embedded H2 database
+ * (in Oracle compatibility mode) holding synthetic CRDB views. Tests that should not
+ * use the SQLite Spring Batch repository from BatchConfiguration also import
+ * CRDBInMemoryJobRepositoryTestConfiguration.
+ *
+ * The number of synthetic records per view is set with the crdb.load.rows property.
+ */
+
+@Configuration
+@EnableBatchProcessing
+public class CRDBEmbeddedDatabaseTestConfiguration {
+
+    @Value("${crdb.load.rows:200}")
+    private int rowCount;
+
+    @Value("${crdb.survey_view}")
+    private String crdbSurveyView;
+
+    @Value("${crdb.dataset_view}")
+    private String crdbDatasetView;
+
+    @Value("${crdb.pdx_clinical_sample_dataset_view}")
+    private String crdbPDXClinicalSampleDatasetView;
+
+    @Value("${crdb.pdx_clinical_patient_dataset_view}")
+    private String crdbPDXClinicalPatientDatasetView;
+
+    @Value("${crdb.pdx_timeline_dataset_view}")
+    private String crdbPDXTimelineDatasetView;
+
+    @Value("${crdb.source_to_destination_mappings_view}")
+    private String crdbPDXSourceToDestinationMappingView;
+
+    @Value("${crdb.pdx_clinical_annotation_mappings_view}")
+    private String crdbPDXClinicalAnnotationMappingView;
+
+    private final Logger LOG = Logger.getLogger(CRDBEmbeddedDatabaseTestConfiguration.class);
+
+    @Bean
+    public SQLQueryFactory crdbQueryFactory() {
+        DataSource crdbDataSource = new DriverManagerDataSource("jdbc:h2:mem:crdb;MODE=Oracle;DB_CLOSE_DELAY=-1");
+        long start = System.currentTimeMillis();
+        CRDBSyntheticDataLoader loader = new CRDBSyntheticDataLoader(crdbDataSource);
+        // two surveys per patient - the reader keeps only the most recent one
+        loader.createView(crdbSurveyView, CRDBSurvey.getFieldNames(), rowCount * 2,
+                (fieldName, row) -> fieldName.equals("DMP_ID") ? CRDBSyntheticDataLoader.patientId(row / 2) : CRDBSyntheticDataLoader.defaultValue(fieldName, row));
+        loader.createView(crdbDatasetView, CRDBDataset.getFieldNames(), rowCount, CRDBSyntheticDataLoader::defaultValue);
+        loader.createView(crdbPDXClinicalSampleDatasetView, CRDBPDXClinicalSampleDataset.getFieldNames(), rowCount, CRDBSyntheticDataLoader::defaultValue);
+        loader.createView(crdbPDXClinicalPatientDatasetView, CRDBPDXClinicalPatientDataset.getFieldNames(), rowCount, CRDBSyntheticDataLoader::defaultValue);
+        loader.createView(crdbPDXTimelineDatasetView, CRDBPDXTimelineDataset.getFieldNames(), rowCount, CRDBSyntheticDataLoader::defaultValue);
+        loader.createView(crdbPDXSourceToDestinationMappingView, CRDBPDXSourceToDestinationMapping.getFieldNames(), rowCount, CRDBSyntheticDataLoader::defaultValue);
+        loader.createView(crdbPDXClinicalAnnotationMappingView, CRDBPDXClinicalAnnotationMapping.getFieldNames(), rowCount, CRDBSyntheticDataLoader::defaultValue);
+        LOG.info("Loaded " + rowCount + " synthetic records per CRDB view in " + (System.currentTimeMillis() - start) + " ms");
+        com.querydsl.sql.Configuration config = new com.querydsl.sql.Configuration(new OracleTemplates());
+        return new SQLQueryFactory(config, crdbDataSource);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+}
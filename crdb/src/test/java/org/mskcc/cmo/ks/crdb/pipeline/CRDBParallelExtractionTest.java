@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.mskcc.cmo.ks.crdb.pipeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.AfterClass;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the CRDB jobs with every extraction step of a job running concurrently against
+ * the SQLite Spring Batch repository from BatchConfiguration, which all of the steps
+ * update at the same time. The repository is kept in a temporary file.
+ */
+@TestPropertySource(
+    properties = {
+        "crdb.parallel_extraction=true",
+        "crdb.max_connections=5"
+    }
+)
+@ContextConfiguration(classes={BatchConfiguration.class, CRDBEmbeddedDatabaseTestConfiguration.class}, inheritLocations=false)
+public class CRDBParallelExtractionTest extends CRDBPipelineLoadTest {
+
+    private static final Path JOB_REPOSITORY_FILE = createJobRepositoryFile();
+
+    private static Path createJobRepositoryFile() {
+        try {
+            return Files.createTempFile("crdb-repository", ".sqlite");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void jobRepositoryProperties(DynamicPropertyRegistry registry) {
+        registry.add("crdb.repository_url", () -> "jdbc:sqlite:" + JOB_REPOSITORY_FILE);
+    }
+
+    @AfterClass
+    public static void removeJobRepositoryFile() throws IOException {
+        Files.deleteIfExists(JOB_REPOSITORY_FILE);
+    }
+}
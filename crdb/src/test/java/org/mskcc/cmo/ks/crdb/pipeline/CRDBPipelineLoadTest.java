@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.mskcc.cmo.ks.crdb.pipeline;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Runs the CRDB jobs end to end against synthetic views in an embedded database
+ * and reports the time spent in each step. The default dataset is small enough for
+ * the regular build; the crdb-load-test maven profile runs with a larger one.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(
+    properties = {
+        "crdb.survey_view=CRDB_SURVEY_V",
+        "crdb.survey_filename=data_clinical_survey.txt",
+        "crdb.dataset_view=CRDB_DATASET_V",
+        "crdb.dataset_filename=data_clinical_dataset.txt",
+        "crdb.pdx_clinical_sample_dataset_view=CRDB_PDX_CLINICAL_SAMPLE_V",
+        "crdb.pdx_clinical_sample_dataset_filename=data_clinical_sample.txt",
+        "crdb.pdx_clinical_patient_dataset_view=CRDB_PDX_CLINICAL_PATIENT_V",
+        "crdb.pdx_clinical_patient_dataset_filename=data_clinical_patient.txt",
+        "crdb.pdx_timeline_dataset_view=CRDB_PDX_TIMELINE_V",
+        "crdb.pdx_timeline_dataset_filename=data_timeline.txt",
+        "crdb.source_to_destination_mappings_view=CRDB_PDX_SOURCE_TO_DESTINATION_V",
+        "crdb.source_to_destination_mappings_filename=source_to_destination_mappings.txt",
+        "crdb.pdx_clinical_annotation_mappings_view=CRDB_PDX_CLINICAL_ANNOTATION_V",
+        "crdb.pdx_clinical_annotation_mappings_filename=clinical_annotations_mappings.txt",
+        "email.server=localhost",
+        "email.sender=",
+        "email.recipient=",
+        "email.subject=",
+        "pdx.email.recipient="
+    }
+)
+@ContextConfiguration(classes={BatchConfiguration.class, CRDBEmbeddedDatabaseTestConfiguration.class, CRDBInMemoryJobRepositoryTestConfiguration.class})
+public class CRDBPipelineLoadTest {
+
+    @Rule
+    public TemporaryFolder stagingDirectory = new TemporaryFolder();
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier(BatchConfiguration.CRDB_IMPACT_JOB)
+    private Job crdbImpactJob;
+
+    @Autowired
+    @Qualifier(BatchConfiguration.CRDB_PDX_JOB)
+    private Job crdbPDXJob;
+
+    @Value("${crdb.load.rows:200}")
+    private int rowCount;
+
+    @Test
+    public void testCrdbImpactJob() throws Exception {
+        JobExecution jobExecution = launchJob(crdbImpactJob, false);
+        Assert.assertEquals(ExitStatus.COMPLETED, jobExecution.getExitStatus());
+        assertRecordCount("data_clinical_survey.txt", rowCount);
+        assertRecordCount("data_clinical_dataset.txt", rowCount);
+    }
+
+    @Test
+    public void testCrdbPDXJob() throws Exception {
+        JobExecution jobExecution = launchJob(crdbPDXJob, true);
+        Assert.assertEquals(ExitStatus.COMPLETED, jobExecution.getExitStatus());
+        assertRecordCount("data_clinical_sample.txt", rowCount);
+        assertRecordCount("data_clinical_patient.txt", rowCount);
+        assertRecordCount("data_timeline.txt", rowCount);
+        assertRecordCount("source_to_destination_mappings.txt", rowCount);
+        assertRecordCount("clinical_annotations_mappings.txt", rowCount);
+    }
+
+    private JobExecution launchJob(Job job, boolean pdx) throws Exception {
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("stagingDirectory", stagingDirectory.getRoot().getAbsolutePath())
+                .addString("pdxMode", String.valueOf(pdx))
+                .toJobParameters();
+        return jobLauncher.run(job, jobParameters);
+    }
+
+    private void assertRecordCount(String filename, int expectedRecordCount) throws Exception {
+        File stagingFile = new File(stagingDirectory.getRoot(), filename);
+        try (Stream<String> lines = Files.lines(stagingFile.toPath())) {
+            // header line + one line per record
+            Assert.assertEquals(filename, expectedRecordCount + 1, lines.count());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package org.mskcc.cmo.ks.crdb.pipeline;
+
+import java.sql.Date;
+import java.util.*;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Creates stand-ins for the CRDB views in an embedded database and fills them
+ * with synthetic records. Each view is backed by a table of the same name with
+ * a "_DATA" suffix so that the readers query a view, as they do against CRDB.
+ */
+
+public class CRDBSyntheticDataLoader {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CRDBSyntheticDataLoader(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Creates the view with one column per field name and inserts rowCount records.
+     * @param viewName name of the view queried by the reader
+     * @param fieldNames columns of the view, in the order returned by the model getFieldNames()
+     * @param rowCount number of records to insert
+     * @param valueGenerator returns the value for a field of the given (zero-based) row
+     */
+    public void createView(String viewName, List<String> fieldNames, int rowCount, ValueGenerator valueGenerator) {
+        String tableName = viewName + "_DATA";
+        List<String> columnDefinitions = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            columnDefinitions.add(fieldName + (fieldName.equals("QS_DATE") ? " DATE" : " VARCHAR(255)"));
+        }
+        jdbcTemplate.execute("DROP VIEW IF EXISTS " + viewName);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tableName);
+        jdbcTemplate.execute("CREATE TABLE " + tableName + " (" + String.join(", ", columnDefinitions) + ")");
+        jdbcTemplate.execute("CREATE VIEW " + viewName + " AS SELECT * FROM " + tableName);
+
+        String insert = "INSERT INTO " + tableName + " (" + String.join(", ", fieldNames) + ") VALUES (" +
+                String.join(", ", Collections.nCopies(fieldNames.size(), "?")) + ")";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int row = 0; row < rowCount; row++) {
+            Object[] values = new Object[fieldNames.size()];
+            for (int i = 0; i < fieldNames.size(); i++) {
+                values[i] = valueGenerator.getValue(fieldNames.get(i), row);
+            }
+            batch.add(values);
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(insert, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert, batch);
+        }
+    }
+
+    /**
+     * Default values - unique per row so that the "select distinct" queries keep every record.
+     */
+    public static Object defaultValue(String fieldName, int row) {
+        switch (fieldName) {
+            case "DMP_ID":
+            case "PATIENT_ID":
+                return patientId(row);
+            case "SAMPLE_ID":
+                return patientId(row) + "-T01";
+            case "START_DATE":
+            case "STOP_DATE":
+            case "CONSENT_DATE_DAYS":
+            case "TREATMENT_END_DAYS":
+            case "OFF_STUDY_DAYS":
+                return String.valueOf(row % 3650);
+            case "QS_DATE":
+                return new Date(1500000000000L + row * 86400000L);
+            default:
+                return fieldName + "_" + row;
+        }
+    }
+
+    public static String patientId(int row) {
+        return String.format("P-%07d", row);
+    }
+
+    public interface ValueGenerator {
+        Object getValue(String fieldName, int row);
+    }
+}
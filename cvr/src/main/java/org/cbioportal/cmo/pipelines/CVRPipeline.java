@@ -40,8 +40,8 @@ import org.cbioportal.cmo.pipelines.common.util.EmailUtil;
 import org.cbioportal.cmo.pipelines.common.util.InstantStringUtil;
 import org.cbioportal.cmo.pipelines.cvr.BatchConfiguration;
 import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
+import org.cbioportal.cmo.pipelines.cvr.CvrSessionManager;
 import org.cbioportal.cmo.pipelines.cvr.SessionConfiguration;
-import org.cbioportal.cmo.pipelines.cvr.SessionFactory;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -124,15 +124,17 @@ public class CVRPipeline {
                 jobName = BatchConfiguration.JSON_JOB;
             }
         } else if (gml) {
-            SessionFactory sessionFactory = ctx.getBean(SessionFactory.class);
-            String sessionIdValue = sessionFactory.createGmlSessionAndGetId(dropDeadInstantString);
-            String gmlMasterListSessionIdValue = sessionFactory.createCvrSessionAndGetId(dropDeadInstantString);
+            CvrSessionManager sessionManager = ctx.getBean(CvrSessionManager.class);
+            sessionManager.setDropDeadInstantString(dropDeadInstantString);
+            String sessionIdValue = sessionManager.getSessionId(CvrSessionManager.SessionType.GML);
+            String gmlMasterListSessionIdValue = sessionManager.getSessionId(CvrSessionManager.SessionType.CVR);
             builder.addString("sessionId", sessionIdValue);
             builder.addString("gmlMasterListSessionId", gmlMasterListSessionIdValue);
             jobName = BatchConfiguration.GML_JOB;
         } else {
-            SessionFactory sessionFactory = ctx.getBean(SessionFactory.class);
-            String sessionIdValue = sessionFactory.createCvrSessionAndGetId(dropDeadInstantString);
+            CvrSessionManager sessionManager = ctx.getBean(CvrSessionManager.class);
+            sessionManager.setDropDeadInstantString(dropDeadInstantString);
+            String sessionIdValue = sessionManager.getSessionId(CvrSessionManager.SessionType.CVR);
             builder.addString("sessionId", sessionIdValue);
             builder.addString("skipSeg", String.valueOf(skipSeg));
             jobName = BatchConfiguration.CVR_JOB;
@@ -168,12 +170,13 @@ public class CVRPipeline {
                 .addString("testingMode", String.valueOf(testingMode))
                 .addString("dropDeadInstantString", dropDeadInstantString)
                 .addString("gmlMode", String.valueOf(gml));
-        SessionFactory sessionFactory = ctx.getBean(SessionFactory.class);
+        CvrSessionManager sessionManager = ctx.getBean(CvrSessionManager.class);
+        sessionManager.setDropDeadInstantString(dropDeadInstantString);
         if (jsonFilename.contains(CVRUtilities.CVR_FILE)) {
-            String sessionIdValue = sessionFactory.createCvrSessionAndGetId(dropDeadInstantString);
+            String sessionIdValue = sessionManager.getSessionId(CvrSessionManager.SessionType.CVR);
             builder.addString("sessionId", sessionIdValue);
         } else {
-            String gmlMasterListSessionIdValue = sessionFactory.createGmlSessionAndGetId(dropDeadInstantString);
+            String gmlMasterListSessionIdValue = sessionManager.getSessionId(CvrSessionManager.SessionType.GML);
             builder.addString("sessionId", gmlMasterListSessionIdValue);
         }
         JobParameters jobParameters = builder.toJobParameters();
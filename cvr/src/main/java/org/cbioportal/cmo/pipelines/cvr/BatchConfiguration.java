@@ -36,6 +36,9 @@ import java.net.MalformedURLException;
 import java.util.*;
 import javax.sql.DataSource;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.jfr.FlightRecorderBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetricsBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.report.RunReportBeanPostProcessor;
 import org.cbioportal.cmo.pipelines.cvr.clinical.*;
 import org.cbioportal.cmo.pipelines.cvr.cna.*;
 import org.cbioportal.cmo.pipelines.cvr.consume.*;
@@ -124,6 +127,21 @@ public class BatchConfiguration {
         return new SvUtilities();
     }
 
+    @Bean
+    public static PipelineMetricsBeanPostProcessor pipelineMetricsBeanPostProcessor() {
+        return new PipelineMetricsBeanPostProcessor();
+    }
+
+    @Bean
+    public static RunReportBeanPostProcessor runReportBeanPostProcessor() {
+        return new RunReportBeanPostProcessor();
+    }
+
+    @Bean
+    public static FlightRecorderBeanPostProcessor flightRecorderBeanPostProcessor() {
+        return new FlightRecorderBeanPostProcessor();
+    }
+
     @Bean
     public Job gmlJob(JobRepository jobRepository,
                       @Qualifier("cvrSampleListsStep") Step cvrSampleListsStep,
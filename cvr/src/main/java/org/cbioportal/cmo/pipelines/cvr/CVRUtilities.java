@@ -65,6 +65,7 @@ public class CVRUtilities {
     public static final String SV_FILE = "data_sv.txt";
     public static final String GENE_PANEL_FILE = "data_gene_matrix.txt";
     public static final String GML_FILE = "cvr_gml_data.json";
+    public static final String REQUEUE_REPORT_FILE = "cvr_requeue_report.json";
     public static final String GENE_PANEL = "gene_panels/impact468_gene_panel.txt";
     public static final String ZERO_VARIANT_WHITELIST_FILE = "cvr/zero_variant_whitelist.txt";
     public static final List<String> SUPPORTED_SEQ_DATE_STUDY_IDS = Arrays.asList("mskimpact", "mskimpact_heme", "mskaccess");
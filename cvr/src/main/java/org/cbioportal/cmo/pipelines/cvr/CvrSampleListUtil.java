@@ -34,6 +34,7 @@ package org.cbioportal.cmo.pipelines.cvr;
 
 import java.util.*;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.cvr.model.CVRMetaData;
 import org.cbioportal.cmo.pipelines.cvr.model.CvrResponse;
 import org.springframework.context.annotation.*;
 
@@ -64,6 +65,9 @@ public class CvrSampleListUtil {
     // list of samples that were successfully consumed and whose metadata should
     // be published to the smile server (https://github.com/mskcc/smile-server)
     private Set<String> smileSamplesToPublishList = new HashSet<>();
+    // metadata of the samples in the cvr json, kept by the consume step so that
+    // the metadata published to smile does not have to be parsed again
+    private Map<String, CVRMetaData> cvrSampleMetadata = new HashMap<>();
 
     private Logger log = Logger.getLogger(CvrSampleListUtil.class);
 
@@ -395,6 +399,20 @@ public class CvrSampleListUtil {
         this.smileSamplesToPublishList = smileSamplesToPublishList;
     }
 
+    /**
+     * @return metadata of the samples loaded from the cvr json, by sample id
+     */
+    public Map<String, CVRMetaData> getCvrSampleMetadata() {
+        return cvrSampleMetadata;
+    }
+
+    /**
+     * @param cvrSampleMetadata the metadata of the samples loaded from the cvr json to set
+     */
+    public void setCvrSampleMetadata(Map<String, CVRMetaData> cvrSampleMetadata) {
+        this.cvrSampleMetadata = cvrSampleMetadata;
+    }
+
     /**
      * Updates list of samples consumed successfully. This list is used to determine which samples metadata
      * should be published to SMILE.
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.cvr;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+/* Hands out CVR and GML session ids to the steps talking to the DMP servers.
+ *
+ * Sessions expire (after 3 hours by default), so a session id frozen at job start does not last through a long
+ * backfill. The manager tracks the age of each session and creates a replacement once a session is within the
+ * renewal margin of its expiry. A request answered with an expired / invalid session response is sent once more
+ * with a renewed session (see exchange()).
+ *
+ * With a pool size above 1 the manager keeps that many sessions of each type and hands them out in turn, spreading
+ * concurrent fetch / consume / requeue traffic across sessions. Sessions are created on first use.
+ */
+public class CvrSessionManager {
+
+    public enum SessionType { CVR, GML }
+
+    private static final Pattern DEFAULT_EXPIRED_SESSION_PATTERN = Pattern.compile("(?i)session[^\\n]*(expired|invalid|not found|timed out)");
+
+    private final SessionFactory sessionFactory;
+    private final int poolSize;
+    private final Duration sessionLifetime;
+    private final Duration renewalMargin;
+    private final Pattern expiredSessionPattern;
+    private final Clock clock;
+    private final Map<SessionType, ManagedSession[]> pools = new EnumMap<>(SessionType.class);
+    private final Map<SessionType, AtomicInteger> nextSlot = new EnumMap<>(SessionType.class);
+    // sessions being created, by pool slot (guarded by the pool of the session type)
+    private final Map<SessionType, Map<Integer, CompletableFuture<ManagedSession>>> creations = new EnumMap<>(SessionType.class);
+    private volatile String dropDeadInstantString;
+
+    private Logger log = Logger.getLogger(CvrSessionManager.class);
+
+    private static class ManagedSession {
+        final String sessionId;
+        final Instant createdAt;
+        final Instant expiresAt;
+
+        ManagedSession(String sessionId, Instant createdAt, Instant expiresAt) {
+            this.sessionId = sessionId;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public CvrSessionManager(SessionFactory sessionFactory, int poolSize, Duration sessionLifetime, Duration renewalMargin, String expiredSessionPattern) {
+        this(sessionFactory, poolSize, sessionLifetime, renewalMargin, expiredSessionPattern, Clock.systemUTC());
+    }
+
+    CvrSessionManager(SessionFactory sessionFactory, int poolSize, Duration sessionLifetime, Duration renewalMargin, String expiredSessionPattern, Clock clock) {
+        if (poolSize < 1 || renewalMargin.compareTo(sessionLifetime) >= 0) {
+            throw new IllegalArgumentException(String.format("Invalid CVR session settings : pool size %d, lifetime %s, renewal margin %s",
+                    poolSize, sessionLifetime, renewalMargin));
+        }
+        this.sessionFactory = sessionFactory;
+        this.poolSize = poolSize;
+        this.sessionLifetime = sessionLifetime;
+        this.renewalMargin = renewalMargin;
+        this.expiredSessionPattern = (expiredSessionPattern == null || expiredSessionPattern.trim().isEmpty()) ?
+                DEFAULT_EXPIRED_SESSION_PATTERN : Pattern.compile(expiredSessionPattern.trim());
+        this.clock = clock;
+        for (SessionType type : SessionType.values()) {
+            pools.put(type, new ManagedSession[poolSize]);
+            nextSlot.put(type, new AtomicInteger());
+            creations.put(type, new HashMap<>());
+        }
+    }
+
+    /**
+     * @param dropDeadInstantString drop dead instant of the run, which also bounds the requests creating sessions
+     */
+    public void setDropDeadInstantString(String dropDeadInstantString) {
+        this.dropDeadInstantString = dropDeadInstantString;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return the id of the next session of the pool, creating or renewing that session if needed
+     */
+    public String getSessionId(SessionType type) {
+        int slot = Math.floorMod(nextSlot.get(type).getAndIncrement(), poolSize);
+        return getSession(type, slot, null).sessionId;
+    }
+
+    /**
+     * Replaces the session after the server rejected it as expired. If another caller already replaced it,
+     * the replacement is returned and no new session is created.
+     * @return id of the session to use instead of staleSessionId
+     */
+    public String renewSession(SessionType type, String staleSessionId) {
+        ManagedSession[] pool = pools.get(type);
+        int staleSlot = -1;
+        synchronized (pool) {
+            for (int slot = 0; slot < poolSize && staleSlot < 0; slot++) {
+                if (pool[slot] != null && pool[slot].sessionId.equals(staleSessionId)) {
+                    staleSlot = slot;
+                }
+            }
+        }
+        if (staleSlot >= 0) {
+            return getSession(type, staleSlot, staleSessionId).sessionId;
+        }
+        // the stale session has already been replaced (or never came from this manager)
+        return getSessionId(type);
+    }
+
+    /**
+     * Sends the request with a session of the given type. When the exchange fails with an expired session response,
+     * the session is renewed and the request is sent once more. An expired session response ends the retries of the
+     * client at once (see HttpClientWithTimeoutAndRetry.setFinalResponseCondition), also for a client which retries
+     * erroneous server responses. The client holds the state of the last exchange.
+     * @param urlForSessionId builds the request url for a session id
+     */
+    public <T> ResponseEntity<T> exchange(SessionType type, HttpClientWithTimeoutAndRetry client, Function<String, String> urlForSessionId,
+            HttpMethod method, HttpEntity requestEntity, Class<T> returnType) {
+        client.setFinalResponseCondition(this::isExpiredSessionResponse);
+        String sessionId = getSessionId(type);
+        ResponseEntity<T> responseEntity = client.exchange(urlForSessionId.apply(sessionId), method, requestEntity, null, returnType);
+        if (responseEntity == null && isExpiredSessionResponse(client)) {
+            log.warn(String.format("%s session was rejected as expired after %s : renewing the session and sending the request again",
+                    type, describeAge(type, sessionId)));
+            String renewedSessionId = renewSession(type, sessionId);
+            responseEntity = client.exchange(urlForSessionId.apply(renewedSessionId), method, requestEntity, null, returnType);
+        }
+        return responseEntity;
+    }
+
+    /**
+     * @return true if the last exchange of the client failed with a response saying the session expired or is invalid
+     */
+    public boolean isExpiredSessionResponse(HttpClientWithTimeoutAndRetry client) {
+        if (client.getLastResponseBodyStringAfterException() != null
+                && expiredSessionPattern.matcher(client.getLastResponseBodyStringAfterException()).find()) {
+            return true;
+        }
+        return client.getLastRestClientException() != null && client.getLastRestClientException().getMessage() != null
+                && expiredSessionPattern.matcher(client.getLastRestClientException().getMessage()).find();
+    }
+
+    /* returns the session in the slot, (re)creating it when the slot is empty, holds replacedSessionId, or is due for renewal.
+     * The session is created outside the pool monitor, so that a slow login does not hold up the callers of the other
+     * slots. Only one caller creates the replacement of a slot : the others keep the current session while it is valid,
+     * or wait for the replacement.
+     */
+    private ManagedSession getSession(SessionType type, int slot, String replacedSessionId) {
+        ManagedSession[] pool = pools.get(type);
+        Map<Integer, CompletableFuture<ManagedSession>> slotCreations = creations.get(type);
+        ManagedSession session;
+        Instant now;
+        boolean usable;
+        CompletableFuture<ManagedSession> creation;
+        boolean creating;
+        synchronized (pool) {
+            session = pool[slot];
+            now = clock.instant();
+            usable = session != null && !session.sessionId.equals(replacedSessionId) && now.isBefore(session.expiresAt);
+            if (usable && now.isBefore(session.expiresAt.minus(renewalMargin))) {
+                return session;
+            }
+            creation = slotCreations.get(slot);
+            creating = (creation == null);
+            if (!creating && usable) {
+                return session;
+            }
+            if (creating) {
+                creation = new CompletableFuture<>();
+                slotCreations.put(slot, creation);
+            }
+        }
+        if (!creating) {
+            return awaitCreation(creation);
+        }
+        try {
+            ManagedSession newSession = createSession(type);
+            synchronized (pool) {
+                pool[slot] = newSession;
+                slotCreations.remove(slot);
+            }
+            if (session != null) {
+                log.info(String.format("Renewed %s session (pool slot %d) after %s", type, slot,
+                        Duration.between(session.createdAt, now).withNanos(0)));
+            }
+            creation.complete(newSession);
+            return newSession;
+        } catch (Throwable t) {
+            // release the slot on any failure, so that waiting callers get the error and the next caller tries again
+            synchronized (pool) {
+                slotCreations.remove(slot);
+            }
+            creation.completeExceptionally(t);
+            // renewing ahead of expiry failed : keep the current session while it is still valid
+            if (usable && t instanceof RuntimeException) {
+                log.warn(String.format("Could not renew %s session (pool slot %d), continuing with the current session until it expires : %s",
+                        type, slot, t.getMessage()));
+                return session;
+            }
+            throw t;
+        }
+    }
+
+    private ManagedSession awaitCreation(CompletableFuture<ManagedSession> creation) {
+        try {
+            return creation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private ManagedSession createSession(SessionType type) {
+        Instant createdAt = clock.instant();
+        String sessionId = (type == SessionType.GML) ?
+                sessionFactory.createGmlSessionAndGetId(dropDeadInstantString) :
+                sessionFactory.createCvrSessionAndGetId(dropDeadInstantString);
+        return new ManagedSession(sessionId, createdAt, createdAt.plus(sessionLifetime));
+    }
+
+    private String describeAge(SessionType type, String sessionId) {
+        ManagedSession[] pool = pools.get(type);
+        synchronized (pool) {
+            for (ManagedSession session : pool) {
+                if (session != null && session.sessionId.equals(sessionId)) {
+                    return Duration.between(session.createdAt, clock.instant()).withNanos(0).toString();
+                }
+            }
+        }
+        return "an unknown time";
+    }
+}
@@ -32,6 +32,7 @@
 
 package org.cbioportal.cmo.pipelines.cvr;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import org.apache.log4j.Logger;
@@ -87,6 +88,18 @@ public class SessionConfiguration {
     @Value("${dmp.tokens.retrieve_master_list.access}")
     private String dmpMasterListAccess;
 
+    @Value("${dmp.session.pool_size:1}")
+    private Integer sessionPoolSize;
+
+    @Value("${dmp.session.lifetime_minutes:180}")
+    private Integer sessionLifetimeMinutes;
+
+    @Value("${dmp.session.renewal_margin_minutes:15}")
+    private Integer sessionRenewalMarginMinutes;
+
+    @Value("${dmp.session.expired_response_pattern:}")
+    private String expiredSessionResponsePattern;
+
     private Logger log = Logger.getLogger(SessionConfiguration.class);
 
     @Bean
@@ -94,6 +107,12 @@ public class SessionConfiguration {
         return new SessionFactory();
     }
 
+    @Bean
+    public CvrSessionManager cvrSessionManager() {
+        return new CvrSessionManager(sessionFactory(), sessionPoolSize, Duration.ofMinutes(sessionLifetimeMinutes),
+                Duration.ofMinutes(sessionRenewalMarginMinutes), expiredSessionResponsePattern);
+    }
+
     /**
      * Maps a study id to it's dmp retrieve variants token.
      * @return
@@ -88,11 +88,7 @@ public class SessionFactory {
     */
 
     /* Gets the sessionId from CVR
-     * TODO: this approach creates the session during the Bean Initialization phase (before actual application startup). It also
-     *       constrains each run of the cvr pipeline to having only a single session. Sessions expire after 3 hours, and this
-     *       does not allow for the possibility of beginning subsequent sessions for later exchanges with the cvr servers if the
-     *       first session expires. We should consider encapsulating the management of sessions into a session manager class, so
-     *       that sessions are automatiacally renewed when expiration is approaching.
+     * Sessions expire after 3 hours : steps get their session ids from CvrSessionManager, which renews sessions before they expire.
     */
     private String createSession(String requestedServerName, String createSessionEndpoint, String username, String password, String dropDeadInstantString) {
         HttpEntity<LinkedMultiValueMap<String, Object>> requestEntity = getRequestEntity();
@@ -102,6 +98,7 @@ public class SessionFactory {
                 dmpCreateSessionMaximumResponseTimeout,
                 InstantStringUtil.createInstant(dropDeadInstantString),
                 true); // on a server error response, keep trying. If we cannot create a session, the overall fetch fails.
+        client.setEndpointName("create_session");
         ResponseEntity<CVRSession> responseEntity = client.exchange(dmpUrl, HttpMethod.POST, requestEntity, null, CVRSession.class);
         if (responseEntity == null) {
             String message = "";
@@ -34,12 +34,16 @@ package org.cbioportal.cmo.pipelines.cvr.consume;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Deque;
+import java.util.Map;
 import org.apache.log4j.Logger;
 import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
+import org.cbioportal.cmo.pipelines.cvr.CvrSampleListUtil;
 import org.cbioportal.cmo.pipelines.cvr.model.CVRData;
 import org.cbioportal.cmo.pipelines.cvr.model.CVRMergedResult;
+import org.cbioportal.cmo.pipelines.cvr.model.CVRMetaData;
 import org.cbioportal.cmo.pipelines.cvr.model.GMLData;
 import org.cbioportal.cmo.pipelines.cvr.model.GMLResult;
 import org.springframework.batch.item.ExecutionContext;
@@ -66,6 +70,9 @@ public class ConsumeSampleReader implements ItemStreamReader<String> {
     @Autowired
     public CVRUtilities cvrUtilities;
 
+    @Autowired
+    private CvrSampleListUtil cvrSampleListUtil;
+
     private Deque<String> cvrSampleList = new LinkedList<>();
 
     Logger log = Logger.getLogger(ConsumeSampleReader.class);
@@ -91,11 +98,14 @@ public class ConsumeSampleReader implements ItemStreamReader<String> {
             log.error("Error reading file: " + cvrFile.getName());
             throw new ItemStreamException(e);
         }
-        // add samples to list
+        // add samples to list and keep their metadata for the smile publisher step
         Deque<String> sampleList = new LinkedList<>();
+        Map<String, CVRMetaData> sampleMetadata = new HashMap<>();
         for (CVRMergedResult result : cvrData.getResults()) {
             sampleList.add(result.getMetaData().getDmpSampleId());
+            sampleMetadata.put(result.getMetaData().getDmpSampleId(), result.getMetaData());
         }
+        cvrSampleListUtil.setCvrSampleMetadata(sampleMetadata);
         return sampleList;
     }
 
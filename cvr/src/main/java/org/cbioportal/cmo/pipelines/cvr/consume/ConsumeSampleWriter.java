@@ -37,6 +37,7 @@ import org.apache.log4j.Logger;
 import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
 import org.cbioportal.cmo.pipelines.common.util.InstantStringUtil;
 import org.cbioportal.cmo.pipelines.cvr.CvrSampleListUtil;
+import org.cbioportal.cmo.pipelines.cvr.CvrSessionManager;
 import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
 import org.cbioportal.cmo.pipelines.cvr.model.CVRConsumeSample;
 import org.springframework.batch.item.Chunk;
@@ -79,8 +80,6 @@ public class ConsumeSampleWriter implements ItemStreamWriter<String> {
     @Value("#{jobParameters[dropDeadInstantString]}")
     private String dropDeadInstantString;
 
-    @Value("#{jobParameters[sessionId]}")
-    private String sessionId;
 
     @Value("#{jobParameters[testingMode]}")
     private boolean testingMode;
@@ -94,18 +93,21 @@ public class ConsumeSampleWriter implements ItemStreamWriter<String> {
     @Autowired
     public CvrSampleListUtil cvrSampleListUtil;
 
-    private String dmpConsumeUrl;
+    @Autowired
+    private CvrSessionManager cvrSessionManager;
+
+    private String dmpConsumeRoute;
 
     private Logger log = Logger.getLogger(ConsumeSampleWriter.class);
 
     @Override
     public void open(ExecutionContext ec) throws ItemStreamException {
-        // determine which dmp server url to use based on the file basename
+        // determine which dmp server url to use based on the file basename (the session id is filled in for each request)
         if (gmlMode) {
-            this.dmpConsumeUrl = dmpGmlServerName + dmpConsumeGmlSample + "/" + sessionId + "/";
+            this.dmpConsumeRoute = dmpGmlServerName + dmpConsumeGmlSample + "/";
         }
         else {
-            this.dmpConsumeUrl = dmpServerName + dmpConsumeSample + "/" + sessionId + "/";
+            this.dmpConsumeRoute = dmpServerName + dmpConsumeSample + "/";
         }
     }
 
@@ -138,7 +140,12 @@ public class ConsumeSampleWriter implements ItemStreamWriter<String> {
                 dmpConsumeMaximumResponseTimeout,
                 InstantStringUtil.createInstant(dropDeadInstantString),
                 false); // on a server error response, stop trying and fail/log (but continue on to other samples)
-        ResponseEntity<CVRConsumeSample> responseEntity = client.exchange(dmpConsumeUrl + sampleId, HttpMethod.GET, requestEntity, null, CVRConsumeSample.class);
+        client.setEndpointName("consume_sample");
+        client.setSubjectId(sampleId);
+        CvrSessionManager.SessionType sessionType = gmlMode ? CvrSessionManager.SessionType.GML : CvrSessionManager.SessionType.CVR;
+        ResponseEntity<CVRConsumeSample> responseEntity = cvrSessionManager.exchange(sessionType, client,
+                sessionId -> dmpConsumeRoute + sessionId + "/" + sampleId,
+                HttpMethod.GET, requestEntity, CVRConsumeSample.class);
         if (responseEntity == null) {
             String message = "";
             if (client.getLastResponseBodyStringAfterException() != null) {
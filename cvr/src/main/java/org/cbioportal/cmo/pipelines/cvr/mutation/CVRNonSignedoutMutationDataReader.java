@@ -34,6 +34,8 @@ package org.cbioportal.cmo.pipelines.cvr.mutation;
 
 import org.cbioportal.annotator.*;
 import org.cbioportal.annotator.internal.AnnotationSummaryStatistics;
+import org.cbioportal.cmo.pipelines.common.jfr.AnnotationBatchEvent;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
 import org.cbioportal.cmo.pipelines.cvr.*;
 import org.cbioportal.cmo.pipelines.cvr.model.*;
 import org.cbioportal.models.*;
@@ -181,11 +183,21 @@ public class CVRNonSignedoutMutationDataReader implements ItemStreamReader<Annot
         // annotate with GenomeNexusImpl annotator from genome nexus annotation pipeline
         // records will be partitioned inside annotator client
         // records which do not get a response back will automatically be defaulted to an AnnotatedRecord(record)
+        AnnotationBatchEvent event = new AnnotationBatchEvent();
+        event.begin();
         List<AnnotatedRecord> annotatedRecords = annotator.getAnnotatedRecordsUsingPOST(summaryStatistics, records, "mskcc", true, postIntervalSize, reannotate, "StripEntireSharedPrefix", Boolean.TRUE, Boolean.FALSE, Boolean.FALSE);
         mutationRecords.addAll(annotatedRecords);
         for (AnnotatedRecord ar : annotatedRecords) {
             logAnnotationProgress(++annotatedVariantsCount, totalVariantsToAnnotateCount, postIntervalSize);
             header.addAll(ar.getHeaderWithAdditionalFields());
+            PipelineMetrics.recordAnnotation("cvr_nonsignedout", ar.getANNOTATION_STATUS());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = "cvr_nonsignedout";
+            event.recordCount = annotatedRecords.size();
+            event.annotatedCount = (int) annotatedRecords.stream().filter(ar -> "SUCCESS".equalsIgnoreCase(ar.getANNOTATION_STATUS())).count();
+            event.commit();
         }
     }
 
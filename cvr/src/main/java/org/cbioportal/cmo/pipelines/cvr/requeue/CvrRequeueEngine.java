@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.cvr.requeue;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.cvr.model.CVRRequeueRecord;
+
+/* Requeues samples with at most `concurrency` requeue calls in flight.
+ *
+ * Every sample is sent once, then the samples which failed (no response, or a result other than 1) are sent again,
+ * up to retryRounds more times with retryDelayMillis between rounds. Samples requeued in a round are not sent again.
+ * The outcome of every sample is kept in the returned CvrRequeueReport.
+ */
+public class CvrRequeueEngine {
+
+    private final Function<String, CVRRequeueRecord> requeueFunction;
+    private final int concurrency;
+    private final int retryRounds;
+    private final long retryDelayMillis;
+
+    private Logger log = Logger.getLogger(CvrRequeueEngine.class);
+
+    /**
+     * @param requeueFunction sends the requeue call for a sample id, returning the response record (null or an exception when it failed)
+     */
+    public CvrRequeueEngine(Function<String, CVRRequeueRecord> requeueFunction, int concurrency, int retryRounds, long retryDelayMillis) {
+        this.requeueFunction = requeueFunction;
+        this.concurrency = Math.max(1, concurrency);
+        this.retryRounds = Math.max(0, retryRounds);
+        this.retryDelayMillis = Math.max(0L, retryDelayMillis);
+    }
+
+    public CvrRequeueReport requeue(String studyId, Collection<String> sampleIds) throws InterruptedException {
+        CvrRequeueReport report = new CvrRequeueReport();
+        report.setStudyId(studyId);
+        report.setStartTime(Instant.now().toString());
+        report.setConcurrency(concurrency);
+        Map<String, CvrRequeueReport.SampleOutcome> outcomes = new LinkedHashMap<>();
+        for (String sampleId : sampleIds) {
+            outcomes.put(sampleId, new CvrRequeueReport.SampleOutcome(sampleId));
+        }
+        List<String> pending = new ArrayList<>(outcomes.keySet());
+        int round = 0;
+        ExecutorService requeueExecutor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(1, pending.size())));
+        try {
+            while (!pending.isEmpty() && round <= retryRounds) {
+                if (round > 0) {
+                    log.info(String.format("Requeue round %d : sending %d failed samples again in %d ms", round + 1, pending.size(), retryDelayMillis));
+                    Thread.sleep(retryDelayMillis);
+                }
+                round = round + 1;
+                pending = runRound(pending, outcomes, requeueExecutor);
+            }
+        } finally {
+            requeueExecutor.shutdownNow();
+        }
+        report.setRoundsRun(round);
+        report.setRequested(outcomes.size());
+        report.setFailed(pending.size());
+        report.setRequeued(outcomes.size() - pending.size());
+        report.setSamples(new ArrayList<>(outcomes.values()));
+        report.setEndTime(Instant.now().toString());
+        return report;
+    }
+
+    /* sends the requeue calls of one round, returning the samples which failed */
+    private List<String> runRound(List<String> sampleIds, Map<String, CvrRequeueReport.SampleOutcome> outcomes, ExecutorService requeueExecutor)
+            throws InterruptedException {
+        Map<String, Future<CVRRequeueRecord>> requests = new LinkedHashMap<>();
+        for (String sampleId : sampleIds) {
+            CvrRequeueReport.SampleOutcome outcome = outcomes.get(sampleId);
+            requests.put(sampleId, requeueExecutor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return requeueFunction.apply(sampleId);
+                } finally {
+                    // each outcome is only written by the request of its own sample
+                    synchronized (outcome) {
+                        outcome.setAttempts(outcome.getAttempts() + 1);
+                        outcome.setDurationMillis(outcome.getDurationMillis() + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                }
+            }));
+        }
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Future<CVRRequeueRecord>> request : requests.entrySet()) {
+            CvrRequeueReport.SampleOutcome outcome = outcomes.get(request.getKey());
+            CVRRequeueRecord record = null;
+            String information = null;
+            try {
+                record = request.getValue().get();
+            } catch (ExecutionException e) {
+                information = "Requeue request failed : " + e.getCause();
+            }
+            synchronized (outcome) {
+                outcome.setResult((record == null) ? null : record.getResult());
+                if (record != null) {
+                    information = record.getInformation();
+                }
+                outcome.setInformation(information);
+                outcome.setRequeued(record != null && record.getResult() != null && record.getResult() == 1);
+                if (!outcome.isRequeued()) {
+                    failed.add(request.getKey());
+                }
+            }
+        }
+        return failed;
+    }
+}
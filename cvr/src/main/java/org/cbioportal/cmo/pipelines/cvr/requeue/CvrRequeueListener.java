@@ -109,6 +109,10 @@ public class CvrRequeueListener implements StepExecutionListener {
         else {
             log.info("No samples failed to requeue");
         }
+        String requeueReportFile = stepExecution.getJobExecution().getExecutionContext().getString("requeueReportFile", null);
+        if (requeueReportFile != null && failedToRequeueSamples != null && failedToRequeueSamples.size() > 0) {
+            body.append("\nRequeue outcome of every sample: " + requeueReportFile + "\n");
+        }
 
         // build email body text for samples that were not in dmp master list
         if (portalSamplesNotInDmp != null && portalSamplesNotInDmp.size() > 0) {
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.cvr.requeue;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.*;
+
+/* Outcome of the requeue calls of one run, written as json next to the master list email. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CvrRequeueReport {
+
+    private String studyId;
+    private String startTime;
+    private String endTime;
+    private int concurrency;
+    private int roundsRun;
+    private int requested;
+    private int requeued;
+    private int failed;
+    private List<SampleOutcome> samples = new ArrayList<>();
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class SampleOutcome {
+        private String sampleId;
+        private boolean requeued;
+        private int attempts;
+        private Integer result;
+        private String information;
+        private long durationMillis;
+
+        public SampleOutcome() {
+        }
+
+        public SampleOutcome(String sampleId) {
+            this.sampleId = sampleId;
+        }
+
+        public String getSampleId() {
+            return sampleId;
+        }
+
+        public void setSampleId(String sampleId) {
+            this.sampleId = sampleId;
+        }
+
+        public boolean isRequeued() {
+            return requeued;
+        }
+
+        public void setRequeued(boolean requeued) {
+            this.requeued = requeued;
+        }
+
+        /**
+         * @return number of requeue rounds the sample was sent in
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public void setAttempts(int attempts) {
+            this.attempts = attempts;
+        }
+
+        /**
+         * @return result field of the last requeue response (1 when requeued), null if no response was received
+         */
+        public Integer getResult() {
+            return result;
+        }
+
+        public void setResult(Integer result) {
+            this.result = result;
+        }
+
+        public String getInformation() {
+            return information;
+        }
+
+        public void setInformation(String information) {
+            this.information = information;
+        }
+
+        /**
+         * @return time spent on the requeue calls of the sample, over all rounds
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public void setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public void setStudyId(String studyId) {
+        this.studyId = studyId;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getRoundsRun() {
+        return roundsRun;
+    }
+
+    public void setRoundsRun(int roundsRun) {
+        this.roundsRun = roundsRun;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getRequeued() {
+        return requeued;
+    }
+
+    public void setRequeued(int requeued) {
+        this.requeued = requeued;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<SampleOutcome> getSamples() {
+        return samples;
+    }
+
+    public void setSamples(List<SampleOutcome> samples) {
+        this.samples = samples;
+    }
+}
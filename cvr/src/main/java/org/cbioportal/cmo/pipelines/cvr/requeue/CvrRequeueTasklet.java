@@ -32,12 +32,18 @@
 
 package org.cbioportal.cmo.pipelines.cvr.requeue;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.*;
 import java.time.Instant;
 import java.util.*;
 import org.apache.log4j.Logger;
 import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
 import org.cbioportal.cmo.pipelines.common.util.InstantStringUtil;
 import org.cbioportal.cmo.pipelines.cvr.CvrSampleListUtil;
+import org.cbioportal.cmo.pipelines.cvr.CvrSessionManager;
+import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
 import org.cbioportal.cmo.pipelines.cvr.model.CVRRequeueRecord;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.StepContribution;
@@ -59,8 +65,8 @@ public class CvrRequeueTasklet implements Tasklet {
     @Value("${dmp.tokens.requeue.impact}")
     private String dmpRequeue;
 
-    @Value("#{jobParameters[sessionId]}")
-    private String sessionId;
+    @Autowired
+    private CvrSessionManager cvrSessionManager;
 
     @Value("#{jobParameters[studyId]}")
     private String studyId;
@@ -77,6 +83,21 @@ public class CvrRequeueTasklet implements Tasklet {
     @Value("#{jobParameters[dropDeadInstantString]}")
     private String dropDeadInstantString;
 
+    @Value("#{jobParameters[privateDirectory]}")
+    private String privateDirectory;
+
+    @Value("${dmp.requeue.concurrency:4}")
+    private Integer requeueConcurrency;
+
+    @Value("${dmp.requeue.retry_rounds:1}")
+    private Integer requeueRetryRounds;
+
+    @Value("${dmp.requeue.retry_delay_millis:10000}")
+    private Long requeueRetryDelayMillis;
+
+    @Value("${dmp.requeue.report_file:}")
+    private String requeueReportFile;
+
     @Autowired
     private CvrSampleListUtil cvrSampleListUtil;
 
@@ -95,7 +116,12 @@ public class CvrRequeueTasklet implements Tasklet {
             if (testingMode) {
                 log.info(String.format("[TESTING MODE]: samples will not be requeued (%d samples)", cvrSampleListUtil.getDmpSamplesNotInPortal().size()));
             } else {
-                failedRequeue = requeueSamples();
+                CvrRequeueReport report = requeueSamples();
+                failedRequeue = getFailedRequeueRecords(report);
+                Path reportFile = writeRequeueReport(report);
+                if (reportFile != null) {
+                    cc.getStepContext().getStepExecution().getJobExecution().getExecutionContext().putString("requeueReportFile", reportFile.toString());
+                }
             }
         }
         // add failed requeue samples to execution context for listener
@@ -103,18 +129,56 @@ public class CvrRequeueTasklet implements Tasklet {
         return RepeatStatus.FINISHED;
     }
 
-    private List<CVRRequeueRecord> requeueSamples() {
+    private CvrRequeueReport requeueSamples() throws InterruptedException {
+        Set<String> sampleIds = cvrSampleListUtil.getDmpSamplesNotInPortal();
+        log.info(String.format("Requeueing %d samples (%d at a time)", sampleIds.size(), requeueConcurrency));
+        CvrRequeueEngine requeueEngine = new CvrRequeueEngine(this::requeueSample, requeueConcurrency, requeueRetryRounds, requeueRetryDelayMillis);
+        CvrRequeueReport report = requeueEngine.requeue(studyId, sampleIds);
+        log.info(String.format("Requeued %d of %d samples in %d rounds", report.getRequeued(), report.getRequested(), report.getRoundsRun()));
+        return report;
+    }
+
+    private List<CVRRequeueRecord> getFailedRequeueRecords(CvrRequeueReport report) {
         List<CVRRequeueRecord> failedRequeueList = new ArrayList();
-        // if sample fails to requeue then add to list
-        for (String sampleId : cvrSampleListUtil.getDmpSamplesNotInPortal()) {
-            CVRRequeueRecord requeuedSample = requeueSample(sampleId);
-            if (requeuedSample.getResult() != 1) {
-                failedRequeueList.add(requeuedSample);
+        for (CvrRequeueReport.SampleOutcome outcome : report.getSamples()) {
+            if (!outcome.isRequeued()) {
+                failedRequeueList.add(new CVRRequeueRecord("This record was generated by " + CvrRequeueTasklet.class,
+                        (outcome.getInformation() == null) ? "Error requeuing sample (request failed to return result)" : outcome.getInformation(),
+                        (outcome.getResult() == null) ? 0 : outcome.getResult(),
+                        outcome.getSampleId()));
             }
         }
         return failedRequeueList;
     }
 
+    private Path writeRequeueReport(CvrRequeueReport report) {
+        Path file;
+        if (requeueReportFile != null && !requeueReportFile.trim().isEmpty()) {
+            file = Paths.get(requeueReportFile.trim());
+        } else if (privateDirectory != null && !privateDirectory.trim().isEmpty()) {
+            file = Paths.get(privateDirectory.trim(), CVRUtilities.REQUEUE_REPORT_FILE);
+        } else {
+            return null;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporaryFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(temporaryFile.toFile(), report);
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            log.info("Wrote requeue report to " + file);
+            return file;
+        } catch (IOException e) {
+            // the report must not fail the step
+            log.error("Failed to write requeue report to " + file + " : " + e.getMessage());
+            return null;
+        }
+    }
+
     private void logRequeueSampleFailure(String sampleId, int numberOfRequestsAttempted, String message) {
         log.error(String.format("Error requeueing sample %s (after %d attempts) %s", sampleId, numberOfRequestsAttempted, message));
     }
@@ -134,8 +198,11 @@ public class CvrRequeueTasklet implements Tasklet {
                 dmpRequeueSampleMaximumResponseTimeout,
                 InstantStringUtil.createInstant(dropDeadInstantString),
                 false); // on a server error response, stop trying and fail/log (but continue on to other samples)
-        String dmpRequeueUrl = String.format("%s%s/%s/%s", dmpServerName, dmpRequeue, sessionId, sampleId);
-        ResponseEntity<CVRRequeueRecord> responseEntity = client.exchange(dmpRequeueUrl, HttpMethod.GET, requestEntity, null, CVRRequeueRecord.class);
+        client.setEndpointName("requeue_sample");
+        client.setSubjectId(sampleId);
+        ResponseEntity<CVRRequeueRecord> responseEntity = cvrSessionManager.exchange(CvrSessionManager.SessionType.CVR, client,
+                sessionId -> String.format("%s%s/%s/%s", dmpServerName, dmpRequeue, sessionId, sampleId),
+                HttpMethod.GET, requestEntity, CVRRequeueRecord.class);
         if (responseEntity == null) {
             String message = "";
             if (client.getLastResponseBodyStringAfterException() != null) {
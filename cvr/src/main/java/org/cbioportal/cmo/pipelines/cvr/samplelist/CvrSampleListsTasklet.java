@@ -41,6 +41,7 @@ import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
 import org.cbioportal.cmo.pipelines.common.util.InstantStringUtil;
 import org.cbioportal.cmo.pipelines.cvr.CvrSampleListUtil;
 import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
+import org.cbioportal.cmo.pipelines.cvr.CvrSessionManager;
 import org.cbioportal.cmo.pipelines.cvr.model.CVRData;
 import org.cbioportal.cmo.pipelines.cvr.model.CVRMasterList;
 import org.cbioportal.cmo.pipelines.cvr.model.CVRMergedResult;
@@ -64,8 +65,8 @@ public class CvrSampleListsTasklet implements Tasklet {
     @Autowired
     public CvrSampleListUtil cvrSampleListUtil;
 
-    @Value("#{jobParameters[sessionId]}")
-    private String sessionId;
+    @Autowired
+    private CvrSessionManager cvrSessionManager;
 
     @Value("${dmp.server_name}")
     private String dmpServerName;
@@ -100,9 +101,6 @@ public class CvrSampleListsTasklet implements Tasklet {
     @Value("#{jobParameters[gmlMode]}")
     private Boolean gmlMode;
 
-    @Value("#{jobParameters[gmlMasterListSessionId]}")
-    private String gmlMasterListSessionId;
-
     @Autowired
     public CVRUtilities cvrUtilities;
 
@@ -213,21 +211,18 @@ public class CvrSampleListsTasklet implements Tasklet {
 
     private Set<String> generateDmpMasterList() {
         HttpEntity<LinkedMultiValueMap<String, Object>> requestEntity = getRequestEntity();
-        String activeSessionId;
-        if (gmlMode) {
-            activeSessionId = gmlMasterListSessionId;
-        } else {
-            activeSessionId = sessionId;
-        }
+        // the master list is served by the cvr server, so a cvr session is used in gml mode as well
         String studyRetrieveMasterListEndpoint = masterListTokensMap.get(studyId);
-        String dmpUrl = String.format("%s%s/%s/%s", dmpServerName, dmpRetrieveMasterListRoute, activeSessionId, studyRetrieveMasterListEndpoint);
         HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(
                 dmpMasterListInitialResponseTimeout,
                 dmpMasterListMaximumResponseTimeout,
                 InstantStringUtil.createInstant(dropDeadInstantString),
                 false); // on a server error response, stop trying and move on. We continue processing even when there is no retrieved master list
         Set<String> dmpSamples = new HashSet<String>();
-        ResponseEntity<CVRMasterList> responseEntity = client.exchange(dmpUrl, HttpMethod.GET, requestEntity, null, CVRMasterList.class);
+        client.setEndpointName("get_master_list");
+        ResponseEntity<CVRMasterList> responseEntity = cvrSessionManager.exchange(CvrSessionManager.SessionType.CVR, client,
+                sessionId -> String.format("%s%s/%s/%s", dmpServerName, dmpRetrieveMasterListRoute, sessionId, studyRetrieveMasterListEndpoint),
+                HttpMethod.GET, requestEntity, CVRMasterList.class);
         if (responseEntity == null) {
             String message = "";
             if (client.getLastResponseBodyStringAfterException() != null) {
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.cvr.smile;
+
+
+import java.util.*;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+
+/* Hands messages to the messaging Gateway one at a time.
+ *
+ * Gateway.publish returns once the gateway has taken the message for publishing : the broker acknowledges it
+ * afterwards, and messages the broker rejects are written by the gateway to its publishing failures file
+ * (smile.publishing_failures_filepath). So what is measured here is the handoff - how long publish took and whether
+ * it threw - not the broker ack. A message whose handoff threw is handed off again, up to maxRetries times with
+ * retryDelayMillis between attempts.
+ *
+ * Every handoff is timed into PipelineMetrics (pipeline.messages.handoff) and the returned Statistics hold the
+ * throughput, handoff times and rejected messages of the whole run.
+ */
+public class SmileMessagePublisher {
+
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+
+    /* hands one message to the messaging gateway, or throws */
+    @FunctionalInterface
+    public interface MessageSender {
+        void send(String topic, String message) throws Exception;
+    }
+
+    public static class Statistics {
+        private int handedOff;
+        private int rejected;
+        private int retried;
+        private long elapsedNanos;
+        private long totalHandoffNanos;
+        private long maximumHandoffNanos;
+        private final List<String> rejectedMessageIds = new ArrayList<>();
+
+        /**
+         * @return number of messages the gateway took for publishing
+         */
+        public int getHandedOff() {
+            return handedOff;
+        }
+
+        /**
+         * @return number of messages the gateway refused on every attempt
+         */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return number of handoffs attempted again after the gateway refused a message
+         */
+        public int getRetried() {
+            return retried;
+        }
+
+        public List<String> getRejectedMessageIds() {
+            return rejectedMessageIds;
+        }
+
+        public double getMessagesPerSecond() {
+            return (elapsedNanos <= 0L) ? 0d : handedOff * 1e9d / elapsedNanos;
+        }
+
+        public double getMeanHandoffMillis() {
+            return (handedOff == 0) ? 0d : totalHandoffNanos / 1e6d / handedOff;
+        }
+
+        public double getMaximumHandoffMillis() {
+            return maximumHandoffNanos / 1e6d;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d handed off, %d rejected, %d retried in %.1f s (%.1f messages/s, handoff time mean %.1f ms, max %.1f ms)",
+                    handedOff, rejected, retried, elapsedNanos / 1e9d, getMessagesPerSecond(), getMeanHandoffMillis(), getMaximumHandoffMillis());
+        }
+    }
+
+    private final MessageSender sender;
+    private final String topic;
+    private final int maxRetries;
+    private final long retryDelayMillis;
+
+    private final Logger log = Logger.getLogger(SmileMessagePublisher.class);
+
+    public SmileMessagePublisher(MessageSender sender, String topic, int maxRetries, long retryDelayMillis) {
+        this.sender = sender;
+        this.topic = topic;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryDelayMillis = Math.max(0L, retryDelayMillis);
+    }
+
+    /**
+     * @param messages id (used in logs) and serialized message of every message to publish
+     */
+    public Statistics publish(Iterator<Map.Entry<String, String>> messages) throws InterruptedException {
+        Statistics statistics = new Statistics();
+        long start = System.nanoTime();
+        while (messages.hasNext()) {
+            Map.Entry<String, String> message = messages.next();
+            publish(message.getKey(), message.getValue(), statistics);
+            if ((statistics.handedOff + statistics.rejected) % PROGRESS_LOG_INTERVAL == 0) {
+                log.info(String.format("Handed %d messages for %s to the gateway so far (%d rejected)", statistics.handedOff, topic, statistics.rejected));
+            }
+        }
+        statistics.elapsedNanos = System.nanoTime() - start;
+        return statistics;
+    }
+
+    private void publish(String id, String message, Statistics statistics) throws InterruptedException {
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                statistics.retried = statistics.retried + 1;
+                Thread.sleep(retryDelayMillis);
+            }
+            long handoffStart = System.nanoTime();
+            try {
+                sender.send(topic, message);
+            } catch (Exception e) {
+                PipelineMetrics.recordMessageHandoff(topic, "rejected", System.nanoTime() - handoffStart);
+                log.warn(String.format("Gateway did not take message %s for %s (attempt %d of %d) : %s", id, topic, attempt + 1, maxRetries + 1, e));
+                continue;
+            }
+            long handoffNanos = System.nanoTime() - handoffStart;
+            PipelineMetrics.recordMessageHandoff(topic, "accepted", handoffNanos);
+            statistics.handedOff = statistics.handedOff + 1;
+            statistics.totalHandoffNanos = statistics.totalHandoffNanos + handoffNanos;
+            statistics.maximumHandoffNanos = Math.max(statistics.maximumHandoffNanos, handoffNanos);
+            return;
+        }
+        log.error(String.format("Failed to hand message %s for %s to the gateway after %d attempts", id, topic, maxRetries + 1));
+        statistics.rejected = statistics.rejected + 1;
+        statistics.rejectedMessageIds.add(id);
+    }
+}
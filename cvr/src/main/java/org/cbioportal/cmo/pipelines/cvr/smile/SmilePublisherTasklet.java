@@ -1,5 +1,6 @@
 package org.cbioportal.cmo.pipelines.cvr.smile;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.*;
 import java.util.*;
@@ -32,6 +33,12 @@ public class SmilePublisherTasklet implements Tasklet {
     @Value("${smile.dmp_new_sample_topic}")
     private String smileDmpNewSampleTopic;
 
+    @Value("${smile.publish_max_retries:3}")
+    private int publishMaxRetries;
+
+    @Value("${smile.publish_retry_delay_millis:1000}")
+    private long publishRetryDelayMillis;
+
     @Autowired
     private CvrSampleListUtil cvrSampleListUtil;
 
@@ -60,18 +67,51 @@ public class SmilePublisherTasklet implements Tasklet {
             log.info("No samples to publish to SMILE");
             return RepeatStatus.FINISHED;
         }
-        // iterate through json file and if sample id is in list of samples that were
-        // consumed successfully then publish its metadata to smile
-        List<CVRMetaData> sampleMetadataList = loadSampleMetadataFromJson();
-        for (CVRMetaData sample : sampleMetadataList) {
-            log.info("Publishing sample metadata to SMILE: " + sample.getDmpSampleId());
-            messagingGateway.publish(smileDmpNewSampleTopic, mapper.writeValueAsString(sample));
+        // publish the metadata of the samples that were consumed successfully, using the metadata
+        // kept by the consume step and only falling back to the json file when it is missing
+        Map<String, CVRMetaData> sampleMetadata = cvrSampleListUtil.getCvrSampleMetadata();
+        if (!sampleMetadata.keySet().containsAll(cvrSampleListUtil.getSmileSamplesToPublishList())) {
+            sampleMetadata = loadSampleMetadataFromJson();
         }
-
+        // the gateway publishes the messages it took and logs those the broker rejects to smile.publishing_failures_filepath
+        SmileMessagePublisher publisher = new SmileMessagePublisher(messagingGateway::publish, smileDmpNewSampleTopic,
+                publishMaxRetries, publishRetryDelayMillis);
+        SmileMessagePublisher.Statistics statistics = publisher.publish(new SampleMessageIterator(sampleMetadata));
+        log.info("Handed sample metadata to the SMILE messaging gateway: " + statistics);
+        if (statistics.getRejected() > 0) {
+            log.error("Messaging gateway refused the metadata of samples: " + String.join(", ", statistics.getRejectedMessageIds()));
+        }
+        sc.incrementWriteCount(statistics.getHandedOff());
         return RepeatStatus.FINISHED;
     }
 
-    private List<CVRMetaData> loadSampleMetadataFromJson() {
+    /* serializes the metadata of the samples to publish as the publisher takes them */
+    private class SampleMessageIterator implements Iterator<Map.Entry<String, String>> {
+        private final Map<String, CVRMetaData> sampleMetadata;
+        private final Iterator<String> sampleIds;
+
+        SampleMessageIterator(Map<String, CVRMetaData> sampleMetadata) {
+            this.sampleMetadata = sampleMetadata;
+            this.sampleIds = cvrSampleListUtil.getSmileSamplesToPublishList().stream().filter(sampleMetadata::containsKey).iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return sampleIds.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            String sampleId = sampleIds.next();
+            try {
+                return new AbstractMap.SimpleImmutableEntry<>(sampleId, mapper.writeValueAsString(sampleMetadata.get(sampleId)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Error serializing metadata of sample " + sampleId, e);
+            }
+        }
+    }
+
+    private Map<String, CVRMetaData> loadSampleMetadataFromJson() {
         File cvrFile = new File(jsonFilename);
         CVRData cvrData = new CVRData();
         try {
@@ -81,15 +121,15 @@ public class SmilePublisherTasklet implements Tasklet {
             throw new ItemStreamException(e);
         }
 
-        // add sample metadata to list that should be published to smile
+        // add metadata of the samples that should be published to smile
         Set<String> samplesToPublish = cvrSampleListUtil.getSmileSamplesToPublishList();
-        List<CVRMetaData> sampleMetadataList = new ArrayList();
+        Map<String, CVRMetaData> sampleMetadata = new HashMap<>();
         for (CVRMergedResult result : cvrData.getResults()) {
             if (samplesToPublish.contains(result.getMetaData().getDmpSampleId())) {
-                sampleMetadataList.add(result.getMetaData());
+                sampleMetadata.put(result.getMetaData().getDmpSampleId(), result.getMetaData());
             }
         }
-        return sampleMetadataList;
+        return sampleMetadata;
     }
 
 }
@@ -41,6 +41,7 @@ import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
 import org.cbioportal.cmo.pipelines.common.util.InstantStringUtil;
 import org.cbioportal.cmo.pipelines.cvr.CvrSampleListUtil;
 import org.cbioportal.cmo.pipelines.cvr.CVRUtilities;
+import org.cbioportal.cmo.pipelines.cvr.CvrSessionManager;
 import org.cbioportal.cmo.pipelines.cvr.model.*;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.beans.factory.annotation.*;
@@ -59,8 +60,8 @@ public class CVRVariantsProcessor implements ItemProcessor<CvrResponse, String>
     @Value("${dmp.tokens.retrieve_segment_data}")
     private String dmpRetrieveSegmentData;
 
-    @Value("#{jobParameters[sessionId]}")
-    private String sessionId;
+    @Autowired
+    private CvrSessionManager cvrSessionManager;
 
     @Value("#{jobParameters[skipSeg]}")
     private boolean skipSeg;
@@ -116,13 +117,16 @@ public class CVRVariantsProcessor implements ItemProcessor<CvrResponse, String>
 
     private CVRSegData getSegmentData(String sampleId) {
         HttpEntity<LinkedMultiValueMap<String, Object>> requestEntity = getRequestEntity();
-        String dmpSegmentUrl = String.format("%s%s/%s/%s", dmpServerName, dmpRetrieveSegmentData, sessionId, sampleId);
         HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(
                 dmpGetSegmentsInitialResponseTimeout,
                 dmpGetSegmentsMaximumResponseTimeout,
                 InstantStringUtil.createInstant(dropDeadInstantString),
                 false); // on a server error response, stop trying and move on. We accept samples even if they are missing their seg data
-        ResponseEntity<CVRSegData> responseEntity = client.exchange(dmpSegmentUrl, HttpMethod.GET, requestEntity, null, CVRSegData.class);
+        client.setEndpointName("get_seg_data");
+        client.setSubjectId(sampleId);
+        ResponseEntity<CVRSegData> responseEntity = cvrSessionManager.exchange(CvrSessionManager.SessionType.CVR, client,
+                sessionId -> String.format("%s%s/%s/%s", dmpServerName, dmpRetrieveSegmentData, sessionId, sampleId),
+                HttpMethod.GET, requestEntity, CVRSegData.class);
         if (responseEntity == null) {
             String message = "";
             if (client.getLastResponseBodyStringAfterException() != null) {
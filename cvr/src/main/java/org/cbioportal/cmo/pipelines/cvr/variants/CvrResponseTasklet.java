@@ -39,6 +39,7 @@ import org.apache.log4j.Logger;
 import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
 import org.cbioportal.cmo.pipelines.common.util.InstantStringUtil;
 import org.cbioportal.cmo.pipelines.cvr.CvrSampleListUtil;
+import org.cbioportal.cmo.pipelines.cvr.CvrSessionManager;
 import org.cbioportal.cmo.pipelines.cvr.model.CvrResponse;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.StepContribution;
@@ -55,8 +56,8 @@ import org.springframework.util.LinkedMultiValueMap;
  */
 public class CvrResponseTasklet implements Tasklet {
 
-    @Value("#{jobParameters[sessionId]}")
-    private String sessionId;
+    @Autowired
+    private CvrSessionManager cvrSessionManager;
 
     @Value("#{jobParameters[studyId]}")
     private String studyId;
@@ -89,13 +90,16 @@ public class CvrResponseTasklet implements Tasklet {
     public RepeatStatus execute(StepContribution sc, ChunkContext cc) throws Exception {
         HttpEntity<LinkedMultiValueMap<String, Object>> requestEntity = getRequestEntity();
         String studyRetrieveVariantsEndpoint = retrieveVariantTokensMap.get(studyId);
-        String dmpUrl = String.format("%s%s/%s/0", dmpServerName, studyRetrieveVariantsEndpoint, sessionId);
         HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(
                 dmpRetrieveVariantsInitialResponseTimeout,
                 dmpRetrieveVariantsMaximumResponseTimeout,
                 InstantStringUtil.createInstant(dropDeadInstantString),
                 true); // on a server error response, keep trying. If we cannot get the variants list, the overall fetch fails.
-        ResponseEntity<CvrResponse> responseEntity = client.exchange(dmpUrl, HttpMethod.GET, requestEntity, null, CvrResponse.class);
+        // an expired session response is not retried : cvrSessionManager.exchange renews the session and sends the request again
+        client.setEndpointName("cvr_retrieve_variants");
+        ResponseEntity<CvrResponse> responseEntity = cvrSessionManager.exchange(CvrSessionManager.SessionType.CVR, client,
+                sessionId -> String.format("%s%s/%s/0", dmpServerName, studyRetrieveVariantsEndpoint, sessionId),
+                HttpMethod.GET, requestEntity, CvrResponse.class);
         if (responseEntity == null) {
             String message = "";
             if (client.getLastResponseBodyStringAfterException() != null) {
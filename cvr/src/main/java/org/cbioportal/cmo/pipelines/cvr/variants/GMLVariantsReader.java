@@ -37,8 +37,10 @@ import java.util.*;
 import org.apache.log4j.Logger;
 import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
 import org.cbioportal.cmo.pipelines.common.util.InstantStringUtil;
+import org.cbioportal.cmo.pipelines.cvr.CvrSessionManager;
 import org.cbioportal.cmo.pipelines.cvr.model.*;
 import org.springframework.batch.item.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.util.LinkedMultiValueMap;
@@ -49,8 +51,8 @@ import org.springframework.util.LinkedMultiValueMap;
  */
 public class GMLVariantsReader implements ItemStreamReader<GMLVariant> {
 
-    @Value("#{jobParameters[sessionId]}")
-    private String sessionId;
+    @Autowired
+    private CvrSessionManager cvrSessionManager;
 
     @Value("${dmp.gml_server_name}")
     private String dmpServerName;
@@ -78,13 +80,15 @@ public class GMLVariantsReader implements ItemStreamReader<GMLVariant> {
     @Override
     public void open(ExecutionContext ec) throws ItemStreamException {
         HttpEntity<LinkedMultiValueMap<String, Object>> requestEntity = getRequestEntity();
-        String dmpUrl = String.format("%s%s/%s/0", dmpServerName, dmpRetreiveVariants, sessionId);
         HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(
                 dmpRetrieveVariantsInitialResponseTimeout,
                 dmpRetrieveVariantsMaximumResponseTimeout,
                 InstantStringUtil.createInstant(dropDeadInstantString),
                 false); // on a server error response, do not keep trying. If we cannot get the variants list, the overall fetch fails.
-        ResponseEntity<GMLVariant> responseEntity = client.exchange(dmpUrl, HttpMethod.GET, requestEntity, null, GMLVariant.class);
+        client.setEndpointName("gml_retrieve_variants");
+        ResponseEntity<GMLVariant> responseEntity = cvrSessionManager.exchange(CvrSessionManager.SessionType.GML, client,
+                sessionId -> String.format("%s%s/%s/0", dmpServerName, dmpRetreiveVariants, sessionId),
+                HttpMethod.GET, requestEntity, GMLVariant.class);
         if (responseEntity == null) {
             String message = "";
             if (client.getLastResponseBodyStringAfterException() != null) {
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.cvr;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cbioportal.cmo.pipelines.common.util.HttpClientWithTimeoutAndRetry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+public class CvrSessionManagerTest {
+
+    private static class CountingSessionFactory extends SessionFactory {
+        int cvrSessionsCreated = 0;
+        int gmlSessionsCreated = 0;
+        boolean failing = false;
+
+        @Override
+        public String createCvrSessionAndGetId(String dropDeadInstantString) {
+            if (failing) {
+                throw new RuntimeException("Error creating CVR session");
+            }
+            cvrSessionsCreated = cvrSessionsCreated + 1;
+            return "cvr-" + cvrSessionsCreated;
+        }
+
+        @Override
+        public String createGmlSessionAndGetId(String dropDeadInstantString) {
+            gmlSessionsCreated = gmlSessionsCreated + 1;
+            return "gml-" + gmlSessionsCreated;
+        }
+    }
+
+    /* blocks the creation of the given CVR session until released */
+    private static class BlockingSessionFactory extends SessionFactory {
+        final AtomicInteger cvrSessionsCreated = new AtomicInteger();
+        final CountDownLatch creating = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int blockedSession;
+
+        BlockingSessionFactory(int blockedSession) {
+            this.blockedSession = blockedSession;
+        }
+
+        @Override
+        public String createCvrSessionAndGetId(String dropDeadInstantString) {
+            int session = cvrSessionsCreated.incrementAndGet();
+            if (session == blockedSession) {
+                creating.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return "cvr-" + session;
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final CountingSessionFactory sessionFactory = new CountingSessionFactory();
+    private final MutableClock clock = new MutableClock();
+
+    private CvrSessionManager makeSessionManager(int poolSize) {
+        return new CvrSessionManager(sessionFactory, poolSize, Duration.ofMinutes(180), Duration.ofMinutes(15), null, clock);
+    }
+
+    @Test
+    public void testSessionReusedUntilRenewalMargin() throws Exception {
+        CvrSessionManager sessionManager = makeSessionManager(1);
+        Assert.assertEquals("cvr-1", sessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        clock.now = clock.now.plus(Duration.ofMinutes(164));
+        Assert.assertEquals("session renewed too early", "cvr-1", sessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        clock.now = clock.now.plus(Duration.ofMinutes(1));
+        Assert.assertEquals("session not renewed before expiry", "cvr-2", sessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        Assert.assertEquals("gml-1", sessionManager.getSessionId(CvrSessionManager.SessionType.GML));
+        Assert.assertEquals(2, sessionFactory.cvrSessionsCreated);
+    }
+
+    @Test
+    public void testFailedRenewalKeepsValidSession() throws Exception {
+        CvrSessionManager sessionManager = makeSessionManager(1);
+        sessionManager.getSessionId(CvrSessionManager.SessionType.CVR);
+        clock.now = clock.now.plus(Duration.ofMinutes(170));
+        sessionFactory.failing = true;
+        Assert.assertEquals("valid session dropped", "cvr-1", sessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        clock.now = clock.now.plus(Duration.ofMinutes(10));
+        try {
+            sessionManager.getSessionId(CvrSessionManager.SessionType.CVR);
+            Assert.fail("expired session handed out");
+        } catch (RuntimeException e) {
+            // expected : the session expired and no replacement could be created
+        }
+    }
+
+    @Test
+    public void testRenewExpiredSession() throws Exception {
+        CvrSessionManager sessionManager = makeSessionManager(1);
+        String staleSessionId = sessionManager.getSessionId(CvrSessionManager.SessionType.CVR);
+        Assert.assertEquals("cvr-2", sessionManager.renewSession(CvrSessionManager.SessionType.CVR, staleSessionId));
+        // a second caller holding the same stale session gets the replacement
+        Assert.assertEquals("cvr-2", sessionManager.renewSession(CvrSessionManager.SessionType.CVR, staleSessionId));
+        Assert.assertEquals(2, sessionFactory.cvrSessionsCreated);
+    }
+
+    /* an expired session response is not retried by a client which retries erroneous server responses :
+     * the session is renewed and the request sent again long before the drop dead instant
+     */
+    @Test(timeout = 10000)
+    public void testExchangeRenewsExpiredSessionWithoutRetrying() throws Exception {
+        List<String> requestedPaths = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requestedPaths.add(exchange.getRequestURI().getPath());
+            boolean expired = exchange.getRequestURI().getPath().endsWith("/cvr-1");
+            byte[] body = (expired ? "{\"error\": \"session expired\"}" : "{\"samples\": []}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("content-type", "application/json");
+            exchange.sendResponseHeaders(expired ? 500 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/retrieve_variants/";
+            CvrSessionManager sessionManager = makeSessionManager(1);
+            HttpClientWithTimeoutAndRetry client = new HttpClientWithTimeoutAndRetry(5000, 5000, Instant.now().plus(Duration.ofMinutes(5)), true);
+            ResponseEntity<String> response = sessionManager.exchange(CvrSessionManager.SessionType.CVR, client, sessionId -> baseUrl + sessionId,
+                    HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+            Assert.assertNotNull(response);
+            Assert.assertEquals(Arrays.asList("/retrieve_variants/cvr-1", "/retrieve_variants/cvr-2"), requestedPaths);
+            Assert.assertEquals(2, sessionFactory.cvrSessionsCreated);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testPoolSpreadsRequests() throws Exception {
+        CvrSessionManager sessionManager = makeSessionManager(3);
+        Set<String> sessionIds = new HashSet<>();
+        for (int request = 0; request < 9; request++) {
+            sessionIds.add(sessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList("cvr-1", "cvr-2", "cvr-3")), sessionIds);
+        Assert.assertEquals(3, sessionFactory.cvrSessionsCreated);
+    }
+
+    /* a slow session login holds up neither the callers of the other slots nor the callers of a slot with a valid session */
+    @Test(timeout = 10000)
+    public void testSessionCreatedOutsidePoolLock() throws Exception {
+        BlockingSessionFactory blockingSessionFactory = new BlockingSessionFactory(1);
+        CvrSessionManager sessionManager = new CvrSessionManager(blockingSessionFactory, 2, Duration.ofMinutes(180), Duration.ofMinutes(15), null, clock);
+        CompletableFuture<String> slowSession = CompletableFuture.supplyAsync(() -> sessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        blockingSessionFactory.creating.await();
+        Assert.assertEquals("cvr-2", sessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        blockingSessionFactory.release.countDown();
+        Assert.assertEquals("cvr-1", slowSession.get());
+
+        blockingSessionFactory = new BlockingSessionFactory(2);
+        CvrSessionManager singleSessionManager = new CvrSessionManager(blockingSessionFactory, 1, Duration.ofMinutes(180), Duration.ofMinutes(15), null, clock);
+        Assert.assertEquals("cvr-1", singleSessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        clock.now = clock.now.plus(Duration.ofMinutes(170));
+        CompletableFuture<String> renewedSession = CompletableFuture.supplyAsync(() -> singleSessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        blockingSessionFactory.creating.await();
+        Assert.assertEquals("cvr-1", singleSessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        blockingSessionFactory.release.countDown();
+        Assert.assertEquals("cvr-2", renewedSession.get());
+        Assert.assertEquals("cvr-2", singleSessionManager.getSessionId(CvrSessionManager.SessionType.CVR));
+        Assert.assertEquals(2, blockingSessionFactory.cvrSessionsCreated.get());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.cvr.requeue;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cbioportal.cmo.pipelines.cvr.model.CVRRequeueRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CvrRequeueEngineTest {
+
+    private static CVRRequeueRecord makeRecord(String sampleId, int result) {
+        return new CVRRequeueRecord("", (result == 1) ? "requeued" : "not requeued", result, sampleId);
+    }
+
+    @Test
+    public void testOnlyFailedSamplesAreRetried() throws Exception {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        CvrRequeueEngine requeueEngine = new CvrRequeueEngine(sampleId -> {
+            int call = calls.computeIfAbsent(sampleId, k -> new AtomicInteger()).incrementAndGet();
+            switch (sampleId) {
+                case "P-0000001-T01-IM6":
+                    return makeRecord(sampleId, 1);
+                case "P-0000002-T01-IM6":
+                    // fails the first round only
+                    return makeRecord(sampleId, (call == 1) ? 0 : 1);
+                case "P-0000003-T01-IM6":
+                    throw new IllegalStateException("connection reset");
+                default:
+                    return null;
+            }
+        }, 2, 2, 0L);
+        CvrRequeueReport report = requeueEngine.requeue("mskimpact",
+                Arrays.asList("P-0000001-T01-IM6", "P-0000002-T01-IM6", "P-0000003-T01-IM6", "P-0000004-T01-IM6"));
+        Assert.assertEquals(4, report.getRequested());
+        Assert.assertEquals(2, report.getRequeued());
+        Assert.assertEquals(2, report.getFailed());
+        Assert.assertEquals(3, report.getRoundsRun());
+        Assert.assertEquals("requeued sample sent again", 1, calls.get("P-0000001-T01-IM6").get());
+        Assert.assertEquals("sample requeued in round 2 sent again", 2, calls.get("P-0000002-T01-IM6").get());
+        Assert.assertEquals("failing sample not sent in every round", 3, calls.get("P-0000003-T01-IM6").get());
+        CvrRequeueReport.SampleOutcome failedOutcome = report.getSamples().get(2);
+        Assert.assertEquals("P-0000003-T01-IM6", failedOutcome.getSampleId());
+        Assert.assertFalse(failedOutcome.isRequeued());
+        Assert.assertEquals(3, failedOutcome.getAttempts());
+        Assert.assertTrue(failedOutcome.getInformation().contains("connection reset"));
+        Assert.assertNull(report.getSamples().get(3).getResult());
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maximumInFlight = new AtomicInteger();
+        CvrRequeueEngine requeueEngine = new CvrRequeueEngine(sampleId -> {
+            int current = inFlight.incrementAndGet();
+            maximumInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return makeRecord(sampleId, 1);
+        }, 3, 0, 0L);
+        List<String> sampleIds = new ArrayList<>();
+        for (int sample = 0; sample < 12; sample++) {
+            sampleIds.add(String.format("P-%07d-T01-IM6", sample));
+        }
+        CvrRequeueReport report = requeueEngine.requeue("mskimpact", sampleIds);
+        Assert.assertEquals(12, report.getRequeued());
+        Assert.assertTrue("more requeue calls in flight than allowed", maximumInFlight.get() <= 3);
+        Assert.assertTrue("requeue calls were not sent concurrently", maximumInFlight.get() > 1);
+    }
+}
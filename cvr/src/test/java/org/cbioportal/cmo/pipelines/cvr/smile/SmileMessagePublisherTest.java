@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.cbioportal.cmo.pipelines.cvr.smile;
+
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmileMessagePublisherTest {
+
+    private static Iterator<Map.Entry<String, String>> makeMessages(int count) {
+        List<Map.Entry<String, String>> messages = new ArrayList<>();
+        for (int message = 0; message < count; message++) {
+            String sampleId = String.format("P-%07d-T01-IM6", message);
+            messages.add(new AbstractMap.SimpleImmutableEntry<>(sampleId, "{\"dmpSampleId\":\"" + sampleId + "\"}"));
+        }
+        return messages.iterator();
+    }
+
+    @Test
+    public void testMessagesAreHandedOffInOrder() throws Exception {
+        List<String> sent = new ArrayList<>();
+        SmileMessagePublisher publisher = new SmileMessagePublisher((topic, message) -> sent.add(message), "NEW_SAMPLE", 0, 0L);
+        SmileMessagePublisher.Statistics statistics = publisher.publish(makeMessages(25));
+        Assert.assertEquals(25, statistics.getHandedOff());
+        Assert.assertEquals(0, statistics.getRejected());
+        Assert.assertEquals(0, statistics.getRetried());
+        Assert.assertEquals(25, sent.size());
+        Assert.assertTrue(sent.get(0).contains("P-0000000") && sent.get(24).contains("P-0000024"));
+    }
+
+    @Test
+    public void testOnlyRejectedMessagesAreRetried() throws Exception {
+        Map<String, AtomicInteger> sends = new HashMap<>();
+        SmileMessagePublisher publisher = new SmileMessagePublisher((topic, message) -> {
+            int send = sends.computeIfAbsent(message, k -> new AtomicInteger()).incrementAndGet();
+            if (message.contains("P-0000001") && send == 1) {
+                throw new TimeoutException("publisher queue full");
+            }
+            if (message.contains("P-0000003")) {
+                throw new IllegalStateException("not connected");
+            }
+        }, "NEW_SAMPLE", 2, 0L);
+        SmileMessagePublisher.Statistics statistics = publisher.publish(makeMessages(5));
+        Assert.assertEquals(4, statistics.getHandedOff());
+        Assert.assertEquals(1, statistics.getRejected());
+        Assert.assertEquals(Arrays.asList("P-0000003-T01-IM6"), statistics.getRejectedMessageIds());
+        Assert.assertEquals("retries of the refused message and of the message taken on retry", 3, statistics.getRetried());
+        int totalSends = 0;
+        for (Map.Entry<String, AtomicInteger> send : sends.entrySet()) {
+            if (send.getKey().contains("P-0000000") || send.getKey().contains("P-0000002") || send.getKey().contains("P-0000004")) {
+                Assert.assertEquals("message taken by the gateway handed off again", 1, send.getValue().get());
+            }
+            totalSends = totalSends + send.getValue().get();
+        }
+        Assert.assertEquals(8, totalSends);
+    }
+}
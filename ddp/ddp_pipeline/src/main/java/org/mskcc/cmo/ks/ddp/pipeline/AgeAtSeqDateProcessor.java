@@ -34,12 +34,15 @@ package org.mskcc.cmo.ks.ddp.pipeline;
 
 import org.mskcc.cmo.ks.ddp.source.composite.DDPCompositeRecord;
 import org.mskcc.cmo.ks.ddp.pipeline.model.AgeAtSeqDateRecord;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPJobData;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
 
 import java.util.*;
 import java.text.ParseException;
 import org.apache.log4j.Logger;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 /**
@@ -50,11 +53,15 @@ public class AgeAtSeqDateProcessor implements ItemProcessor<DDPCompositeRecord,
 
     @Value("#{jobParameters[includeSurvival]}")
     private Boolean includeSurvival;
+    @Autowired
+    private DDPJobData ddpJobData;
+    @Autowired
+    private DDPPatientListUtil ddpPatientListUtil;
     private final Logger LOG = Logger.getLogger(AgeAtSeqDateProcessor.class);
 
     @Override
     public List<String> process(DDPCompositeRecord compositeRecord) throws Exception {
-        String osMonths = includeSurvival ? DDPUtils.resolveOsMonths(DDPUtils.resolveOsStatus(compositeRecord), compositeRecord) : "NA";
+        String osMonths = includeSurvival ? DDPUtils.resolveOsMonths(DDPUtils.resolveOsStatus(compositeRecord), compositeRecord, ddpJobData.getSeqDateIndex(), ddpPatientListUtil) : "NA";
         List<AgeAtSeqDateRecord> ageAtSeqDateRecords = convertAgeAtSeqDateRecord(compositeRecord.getDmpPatientId(), compositeRecord.getDmpSampleIds(), compositeRecord.getPatientBirthDate(), osMonths);
         // construct records into strings for writing to output file
         List<String> records = new ArrayList<>();
@@ -79,7 +86,7 @@ public class AgeAtSeqDateProcessor implements ItemProcessor<DDPCompositeRecord,
         List<AgeAtSeqDateRecord> ageAtSeqDateRecords = new ArrayList<>();
         for (String sampleId : sampleIds) {
             try {
-                ageAtSeqDateRecords.add(new AgeAtSeqDateRecord(patientId, sampleId, patientBirthDate, osMonths));
+                ageAtSeqDateRecords.add(new AgeAtSeqDateRecord(patientId, sampleId, patientBirthDate, osMonths, ddpJobData.getSeqDateIndex()));
             }
             catch (ParseException e) {
                 continue;
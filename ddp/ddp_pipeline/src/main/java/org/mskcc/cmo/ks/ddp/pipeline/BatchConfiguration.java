@@ -33,9 +33,20 @@
 package org.mskcc.cmo.ks.ddp.pipeline;
 
 import java.net.MalformedURLException;
+import org.cbioportal.cmo.pipelines.common.jfr.FlightRecorderBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetricsBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.report.RunReportBeanPostProcessor;
 import org.mskcc.cmo.ks.ddp.source.composite.DDPCompositeRecord;
+import org.mskcc.cmo.ks.ddp.source.internal.DDPAsyncClient;
+import org.mskcc.cmo.ks.ddp.source.internal.DDPResponseCache;
 import org.mskcc.cmo.ks.ddp.pipeline.model.CompositeResult;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPBufferPool;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPJobData;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPartitionUtil;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
@@ -44,23 +55,25 @@ import org.apache.log4j.Logger;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.configuration.annotation.*;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.integration.async.*;
 import org.springframework.batch.item.*;
-import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.boot.context.TypeExcludeFilter;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.context.annotation.*;
 import org.springframework.core.io.Resource;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
-import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 /**
@@ -68,32 +81,16 @@ import org.springframework.transaction.PlatformTransactionManager;
  * @author ochoaa
  */
 @Configuration
-@ComponentScan(basePackages = "org.mskcc.cmo.ks.ddp.source")
-@EnableAsync
+@ComponentScan(basePackages = "org.mskcc.cmo.ks.ddp.source",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class))
 public class BatchConfiguration {
 
-    @Value("${async.DDP.thread.pool.size}")
-    private String asyncDDPThreadPoolSize;
-
-    @Value("${async.DDP.thread.pool.max}")
-    private String asyncDDPThreadPoolMax;
-
     @Value("${processor.thread.pool.size}")
     private String processorThreadPoolSize;
 
     @Value("${processor.thread.pool.max}")
     private String processorThreadPoolMax;
 
-    @Bean(name = "asyncDDPRequestsThreadPoolTaskExecutor")
-    @StepScope
-    public ThreadPoolTaskExecutor asyncDDPRequestsThreadPoolTaskExecutor() {
-        ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
-        threadPoolTaskExecutor.setCorePoolSize(Integer.parseInt(asyncDDPThreadPoolSize));
-        threadPoolTaskExecutor.setMaxPoolSize(Integer.parseInt(asyncDDPThreadPoolMax));
-        threadPoolTaskExecutor.initialize();
-        return threadPoolTaskExecutor;
-    }
-
     @Bean(name = "processorThreadPoolTaskExecutor")
     @StepScope
     public ThreadPoolTaskExecutor processorThreadPoolTaskExecutor() {
@@ -116,7 +113,7 @@ public class BatchConfiguration {
     @Bean
     ItemWriter<Future<CompositeResult>> asyncItemWriter() {
         AsyncItemWriter<CompositeResult> asyncItemWriter = new AsyncItemWriter<>();
-        asyncItemWriter.setDelegate(ddpCompositeWriter());
+        asyncItemWriter.setDelegate(ddpFanOutWriter());
         return asyncItemWriter;
     }
 
@@ -125,124 +122,224 @@ public class BatchConfiguration {
     @Value("${chunk}")
     private Integer chunkInterval;
 
+    @Value("${ddp.partition.count:1}")
+    private Integer partitionCount;
+
+    @Autowired
+    private DDPAsyncClient ddpAsyncClient;
+
+    @Autowired
+    private DDPResponseCache ddpResponseCache;
+
     private final Logger LOG = Logger.getLogger(BatchConfiguration.class);
 
+    @Bean
+    public static PipelineMetricsBeanPostProcessor pipelineMetricsBeanPostProcessor() {
+        return new PipelineMetricsBeanPostProcessor();
+    }
+
+    @Bean
+    public static RunReportBeanPostProcessor runReportBeanPostProcessor() {
+        return new RunReportBeanPostProcessor();
+    }
+
+    @Bean
+    public static FlightRecorderBeanPostProcessor flightRecorderBeanPostProcessor() {
+        return new FlightRecorderBeanPostProcessor();
+    }
+
+    @Bean
+    public DDPJobStartListener ddpJobStartListener() {
+        return new DDPJobStartListener();
+    }
+
+    @Bean
+    @StepScope
+    public DDPJobData ddpJobData(@Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        return ddpJobStartListener().getJobData(jobExecutionId);
+    }
+
+    @Bean
+    @StepScope
+    public DDPPatientListUtil ddpPatientListUtil(@Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        return ddpJobStartListener().getJobData(jobExecutionId).getPatientListUtil();
+    }
+
     @Bean
     public Job ddpCohortJob(JobRepository jobRepository,
                             @Qualifier("ddpSeqDateStep") Step ddpSeqDateStep,
                             @Qualifier("ddpStep") Step ddpStep,
+                            @Qualifier("ddpPartitionedStep") Step ddpPartitionedStep,
+                            @Qualifier("ddpPartitionMergeStep") Step ddpPartitionMergeStep,
                             @Qualifier("ddpSortStep") Step ddpSortStep,
                             @Qualifier("ddpEmailStep") Step ddpEmailStep) {
-        return new JobBuilder(DDP_COHORT_JOB, jobRepository)
-                .start(ddpSeqDateStep)
-                .next(ddpStep)
-                .next(ddpSortStep)
+        SimpleJobBuilder jobBuilder = new JobBuilder(DDP_COHORT_JOB, jobRepository)
+                .listener(ddpJobStartListener())
+                .start(ddpSeqDateStep);
+        if (isPartitioned()) {
+            jobBuilder.next(ddpPartitionedStep)
+                    .next(ddpPartitionMergeStep);
+        }
+        else {
+            jobBuilder.next(ddpStep);
+        }
+        return jobBuilder.next(ddpSortStep)
                 .next(ddpEmailStep)
                 .build();
     }
 
     @Bean(name = "ddpStep")
     public Step ddpStep(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
-        return new StepBuilder("ddpStep", jobRepository)
+        SimpleStepBuilder<DDPCompositeRecord, Future<CompositeResult>> stepBuilder = new StepBuilder("ddpStep", jobRepository)
                 .<DDPCompositeRecord, Future<CompositeResult>> chunk(chunkInterval, transactionManager)
                 .reader(ddpReader())
                 .processor(asyncItemProcessor())
-                .writer(asyncItemWriter())
+                .writer(asyncItemWriter());
+        if (isPartitioned()) {
+            stepBuilder.listener(ddpPartitionCompletionListener());
+        }
+        else {
+            stepBuilder.listener(ddpClientStatisticsListener());
+        }
+        return stepBuilder.build();
+    }
+
+    /**
+     * Runs ddpStep once per partition of the cohort (see DDPPartitioner).
+     * Partitions share the DDP client, so its rate and concurrency limits still apply to the whole run.
+     */
+    @Bean(name = "ddpPartitionedStep")
+    public Step ddpPartitionedStep(JobRepository jobRepository, @Qualifier("ddpStep") Step ddpStep) {
+        return new StepBuilder("ddpPartitionedStep", jobRepository)
+                .partitioner("ddpStep", ddpPartitioner())
+                .step(ddpStep)
+                .gridSize(partitionCount)
+                .taskExecutor(partitionThreadPoolTaskExecutor())
+                .listener(ddpClientStatisticsListener())
                 .build();
     }
 
     @Bean
     @StepScope
-    public ItemStreamReader<DDPCompositeRecord> ddpReader() {
-        return new DDPReader();
+    public Partitioner ddpPartitioner() {
+        return new DDPPartitioner();
     }
 
-    @Bean
-    @StepScope
-    public DDPCompositeProcessor ddpCompositeProcessor() {
-        return new DDPCompositeProcessor();
+    @Bean(name = "partitionThreadPoolTaskExecutor")
+    public ThreadPoolTaskExecutor partitionThreadPoolTaskExecutor() {
+        ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+        threadPoolTaskExecutor.setCorePoolSize(Math.max(1, partitionCount));
+        threadPoolTaskExecutor.setMaxPoolSize(Math.max(1, partitionCount));
+        threadPoolTaskExecutor.setThreadNamePrefix("ddp-partition-");
+        threadPoolTaskExecutor.initialize();
+        return threadPoolTaskExecutor;
     }
 
+    /**
+     * Marks a partition complete so that a rerun of a failed job skips it.
+     * @return StepExecutionListener
+     */
     @Bean
-    @StepScope
-    public ClinicalProcessor clinicalProcessor() {
-        return new ClinicalProcessor();
+    public StepExecutionListener ddpPartitionCompletionListener() {
+        return new StepExecutionListener() {
+            @Override
+            public ExitStatus afterStep(StepExecution stepExecution) {
+                ExecutionContext context = stepExecution.getExecutionContext();
+                if (stepExecution.getStatus() != BatchStatus.COMPLETED || !context.containsKey(DDPPartitionUtil.PARTITION_INDEX_KEY)) {
+                    return null;
+                }
+                String runSignature = DDPPartitionUtil.getRunSignature(stepExecution.getJobParameters(), partitionCount);
+                try {
+                    DDPPartitionUtil.markPartitionComplete(Paths.get(context.getString(DDPPartitionUtil.PARTITION_OUTPUT_DIRECTORY_KEY)), runSignature);
+                } catch (IOException e) {
+                    // the partition is rerun next time and the merge step fails on the missing marker
+                    LOG.error("Failed to mark DDP partition " + context.getInt(DDPPartitionUtil.PARTITION_INDEX_KEY) + " complete", e);
+                }
+                return null;
+            }
+        };
     }
 
-    @Bean
-    @StepScope
-    public AgeAtSeqDateProcessor ageAtSeqDateProcessor() {
-        return new AgeAtSeqDateProcessor();
+    @Bean(name = "ddpPartitionMergeStep")
+    public Step ddpPartitionMergeStep(JobRepository jobRepository,
+                                      @Qualifier("ddpPartitionMergeTasklet") Tasklet ddpPartitionMergeTasklet,
+                                      PlatformTransactionManager transactionManager) {
+        return new StepBuilder("ddpPartitionMergeStep", jobRepository)
+        .tasklet(ddpPartitionMergeTasklet, transactionManager)
+        .build();
     }
 
-    @Bean
+    @Bean(name = "ddpPartitionMergeTasklet")
     @StepScope
-    public SuppVitalStatusProcessor suppVitalStatusProcessor() {
-        return new SuppVitalStatusProcessor();
+    public Tasklet ddpPartitionMergeTasklet() {
+        return new DDPPartitionMergeTasklet();
+    }
+
+    private boolean isPartitioned() {
+        return partitionCount != null && partitionCount > 1;
     }
 
     @Bean
-    @StepScope
-    public SuppNaaccrMappingsProcessor suppNaaccrMappingsProcessor() {
-        return new SuppNaaccrMappingsProcessor();
+    public StepExecutionListener ddpClientStatisticsListener() {
+        return new StepExecutionListener() {
+            @Override
+            public ExitStatus afterStep(StepExecution stepExecution) {
+                ddpAsyncClient.logStatistics();
+                ddpResponseCache.logStatistics();
+                return null;
+            }
+        };
     }
 
     @Bean
     @StepScope
-    public ItemStreamWriter<CompositeResult> clinicalWriter() {
-        return new ClinicalWriter();
+    public ItemStreamReader<DDPCompositeRecord> ddpReader() {
+        return new DDPReader();
     }
 
     @Bean
     @StepScope
-    public ItemStreamWriter<CompositeResult> timelineRadiationWriter() {
-        return new TimelineRadiationWriter();
+    public DDPCompositeProcessor ddpCompositeProcessor() {
+        return new DDPCompositeProcessor();
     }
 
     @Bean
     @StepScope
-    public ItemStreamWriter<CompositeResult> ageAtSeqDateWriter() {
-        return new AgeAtSeqDateWriter();
+    public ClinicalProcessor clinicalProcessor() {
+        return new ClinicalProcessor();
     }
 
     @Bean
     @StepScope
-    public ItemStreamWriter<CompositeResult> timelineChemoWriter() {
-        return new TimelineChemoWriter();
+    public AgeAtSeqDateProcessor ageAtSeqDateProcessor() {
+        return new AgeAtSeqDateProcessor();
     }
 
     @Bean
     @StepScope
-    public ItemStreamWriter<CompositeResult> timelineSurgeryWriter() {
-        return new TimelineSurgeryWriter();
+    public SuppVitalStatusProcessor suppVitalStatusProcessor() {
+        return new SuppVitalStatusProcessor();
     }
 
     @Bean
     @StepScope
-    public ItemStreamWriter<CompositeResult> suppVitalStatusWriter() {
-        return new SuppVitalStatusWriter();
+    public SuppNaaccrMappingsProcessor suppNaaccrMappingsProcessor() {
+        return new SuppNaaccrMappingsProcessor();
     }
 
     @Bean
     @StepScope
-    public ItemStreamWriter<CompositeResult> suppNaaccrMappingsWriter() {
-        return new SuppNaaccrMappingsWriter();
+    public ItemStreamWriter<CompositeResult> ddpFanOutWriter() {
+        return new DDPFanOutWriter();
     }
 
+    /**
+     * Output buffers shared by the fan-out writers of every (partition) step.
+     * @return DDPBufferPool
+     */
     @Bean
-    @StepScope
-    public CompositeItemWriter<CompositeResult> ddpCompositeWriter() {
-        CompositeItemWriter<CompositeResult> writer = new CompositeItemWriter<>();
-        List<ItemWriter<? super CompositeResult>> delegates = new ArrayList<>();
-        delegates.add(clinicalWriter());
-        delegates.add(ageAtSeqDateWriter());
-        delegates.add(timelineRadiationWriter());
-        delegates.add(timelineChemoWriter());
-        delegates.add(timelineSurgeryWriter());
-        delegates.add(suppVitalStatusWriter());
-        delegates.add(suppNaaccrMappingsWriter());
-        writer.setDelegates(delegates);
-        return writer;
+    public DDPBufferPool ddpBufferPool() {
+        return new DDPBufferPool();
     }
 
     @Bean(name = "ddpSeqDateStep")
@@ -33,11 +33,14 @@
 package org.mskcc.cmo.ks.ddp.pipeline;
 
 import org.mskcc.cmo.ks.ddp.pipeline.model.ClinicalRecord;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPJobData;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
 import org.mskcc.cmo.ks.ddp.source.composite.DDPCompositeRecord;
 
 import org.apache.log4j.Logger;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 /**
@@ -56,12 +59,16 @@ public class ClinicalProcessor implements ItemProcessor<DDPCompositeRecord, Stri
     private Boolean includeSurgery;
     @Value("#{jobParameters[includeSurvival]}")
     private Boolean includeSurvival;
+    @Autowired
+    private DDPJobData ddpJobData;
+    @Autowired
+    private DDPPatientListUtil ddpPatientListUtil;
     private final Logger LOG = Logger.getLogger(ClinicalProcessor.class);
 
     @Override
     public String process(DDPCompositeRecord compositeRecord) throws Exception {
         String record = null;
-        ClinicalRecord clinicalRecord = new ClinicalRecord(compositeRecord, includeSurvival);
+        ClinicalRecord clinicalRecord = new ClinicalRecord(compositeRecord, includeSurvival, ddpJobData.getSeqDateIndex(), ddpPatientListUtil);
         try {
             record = DDPUtils.constructRecord(clinicalRecord, includeDiagnosis, includeRadiation, includeChemotherapy, includeSurgery);
         }
@@ -33,6 +33,7 @@
 package org.mskcc.cmo.ks.ddp.pipeline;
 
 import org.mskcc.cmo.ks.ddp.pipeline.model.CompositeResult;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPJobData;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
 import org.mskcc.cmo.ks.ddp.source.DDPDataSource;
@@ -41,6 +42,7 @@ import org.mskcc.cmo.ks.ddp.source.model.*;
 import org.mskcc.cmo.ks.ddp.source.exception.InvalidAuthenticationException;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.*;
 import com.google.common.base.Strings;
 import org.apache.log4j.Logger;
@@ -72,8 +74,8 @@ public class DDPCompositeProcessor implements ItemProcessor<DDPCompositeRecord,
     @Value("#{jobParameters[cohortName]}")
     private String cohortName;
 
-    @Value("#{stepExecutionContext['pediatricCohortPatientIdsSet']}")
-    private Set<Integer> pediatricCohortPatientIdsSet;
+    @Autowired
+    private DDPJobData ddpJobData;
 
     @Autowired
     private DDPDataSource ddpDataSource;
@@ -121,11 +123,17 @@ public class DDPCompositeProcessor implements ItemProcessor<DDPCompositeRecord,
         // are null because an exception will be thrown in that case too (by the repository)
         try {
             compositeRecord.setPatientDemographics(futurePatientDemographics.get());
-            if (!pediatricCohortPatientIdsSet.isEmpty()) {
-                compositeRecord.setPediatricPatientStatus(pediatricCohortPatientIdsSet.contains(compositeRecord.getPatientDemographics().getDeidentPT()));
+            Set<Integer> pediatricCohortPatientIds = ddpJobData.getPediatricCohortPatientIds();
+            if (!pediatricCohortPatientIds.isEmpty()) {
+                compositeRecord.setPediatricPatientStatus(pediatricCohortPatientIds.contains(compositeRecord.getPatientDemographics().getDeidentPT()));
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InvalidAuthenticationException) {
+                // no session means no patient can be fetched - fail instead of skipping every patient
+                throw new RuntimeException(e.getCause().getMessage());
             }
-        } catch (InvalidAuthenticationException e) {
-            throw new RuntimeException(e.getMessage());
+            ddpPatientListUtil.addPatientsMissingDemographics(compositeRecord.getDmpPatientId());
+            return null;
         } catch (Exception e) {
             // demographics is necessary to calculate/resolve clinical fields so save
             // dmp patient id and return null so that writer skips this record
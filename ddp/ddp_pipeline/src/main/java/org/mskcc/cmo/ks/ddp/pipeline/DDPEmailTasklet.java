@@ -36,14 +36,15 @@ import java.util.*;
 import org.apache.log4j.Logger;
 import org.cbioportal.cmo.pipelines.common.util.EmailUtil;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
-import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.TypeExcludeFilter;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.stereotype.Service;
 
 /**
@@ -51,7 +52,8 @@ import org.springframework.stereotype.Service;
  * @author Manda Wilson
  */
 @Service
-@ComponentScan(basePackages = {"org.mskcc.cmo.ks.ddp.pipeline", "org.cbioportal.cmo.pipelines.common"})
+@ComponentScan(basePackages = {"org.mskcc.cmo.ks.ddp.pipeline", "org.cbioportal.cmo.pipelines.common"},
+        excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class))
 public class DDPEmailTasklet implements Tasklet {
 
     @Value("${email.subject}")
@@ -80,11 +82,11 @@ public class DDPEmailTasklet implements Tasklet {
         if (patientsMissingDiagnoses.size() > 0) {
             body.append(constructMissingPatientsText(patientsMissingDiagnoses, "patients that were included are missing diagnoses"));
         }
-        Set<String> patientsMissingSurvival = DDPUtils.getPatientsMissingSurvival();
+        Set<String> patientsMissingSurvival = ddpPatientListUtil.getPatientsMissingSurvival();
         if (patientsMissingSurvival.size() > 0) { // size will be zero if we either did not include survival information or if every patient has it
             body.append(constructMissingPatientsText(patientsMissingSurvival, "patients that were included are missing survival information"));
         }
-        Set<String> patientsWithNegativeOsMOnths = DDPUtils.getPatientsWithNegativeOsMonths();
+        Set<String> patientsWithNegativeOsMOnths = ddpPatientListUtil.getPatientsWithNegativeOsMonths();
         if (patientsWithNegativeOsMOnths.size() > 0) { // size will be zero if we either did not include survival information or if every patient has it
             body.append("Found ")
                     .append(patientsWithNegativeOsMOnths.size())
@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import org.mskcc.cmo.ks.ddp.pipeline.model.*;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPBufferPool;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
+
+import com.google.common.base.Strings;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import org.apache.log4j.Logger;
+import org.springframework.batch.item.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes every DDP output file in a single pass over each chunk.
+ *
+ * Each composite result is visited once and its pre-serialized lines are
+ * routed to the channel of the file they belong to. A channel encodes lines
+ * into buffers borrowed from the shared DDPBufferPool. The buffers of a chunk
+ * are written to the file when the chunk's transaction commits, or dropped if
+ * it rolls back, and are then returned to the pool. The file position of each
+ * channel is saved in the step execution context, so a restarted step truncates
+ * the file to the last committed chunk and appends from there. Bytes written
+ * and time spent writing are tracked per file and logged when the writer is closed.
+ */
+public class DDPFanOutWriter implements ItemStreamWriter<CompositeResult> {
+
+    @Value("#{stepExecutionContext[partitionOutputDirectory] ?: jobParameters[outputDirectory]}")
+    private String outputDirectory;
+    @Value("${ddp.clinical_filename}")
+    private String clinicalFilename;
+    @Value("${ddp.age_at_seq_date_filename}")
+    private String ageAtSeqDateFilename;
+    @Value("${ddp.timeline_radiation_filename}")
+    private String timelineRadiationFilename;
+    @Value("${ddp.timeline_chemotherapy_filename}")
+    private String timelineChemotherapyFilename;
+    @Value("${ddp.timeline_surgery_filename}")
+    private String timelineSurgeryFilename;
+    @Value("${ddp.supp.dirname}")
+    private String ddpSuppDirname;
+    @Value("${ddp.supp.vital_status_filename}")
+    private String ddpSuppVitalStatusFilename;
+    @Value("${ddp.supp.naaccr_filename}")
+    private String ddpSuppNaaccrMappingsFilename;
+    @Value("#{jobParameters[cohortName]}")
+    private String cohortName;
+    @Value("#{jobParameters[includeDiagnosis]}")
+    private Boolean includeDiagnosis;
+    @Value("#{jobParameters[includeAgeAtSeqDate]}")
+    private Boolean includeAgeAtSeqDate;
+    @Value("#{jobParameters[includeRadiation]}")
+    private Boolean includeRadiation;
+    @Value("#{jobParameters[includeChemotherapy]}")
+    private Boolean includeChemotherapy;
+    @Value("#{jobParameters[includeSurgery]}")
+    private Boolean includeSurgery;
+
+    @Autowired
+    private DDPBufferPool ddpBufferPool;
+
+    private final List<OutputChannel> channels = new ArrayList<>();
+    private boolean synchronizationRegistered = false;
+    private long routingNanos = 0L;
+    private long resultCount = 0L;
+    private long pendingResultCount = 0L;
+
+    private final Logger LOG = Logger.getLogger(DDPFanOutWriter.class);
+
+    @Override
+    public void open(ExecutionContext ec) throws ItemStreamException {
+        channels.clear();
+        channels.add(new OutputChannel(clinicalFilename,
+                ClinicalRecord.getFieldNames(includeDiagnosis, includeRadiation, includeChemotherapy, includeSurgery),
+                this::clinicalLine));
+        if (includeAgeAtSeqDate) {
+            channels.add(new OutputChannel(ageAtSeqDateFilename, AgeAtSeqDateRecord.getFieldNames(), CompositeResult::getAgeAtSeqDateResults));
+        }
+        if (includeRadiation) {
+            channels.add(new OutputChannel(timelineRadiationFilename, TimelineRadiationRecord.getFieldNames(), CompositeResult::getTimelineRadiationResults));
+        }
+        if (includeChemotherapy) {
+            channels.add(new OutputChannel(timelineChemotherapyFilename, TimelineChemoRecord.getFieldNames(), CompositeResult::getTimelineChemoResults));
+        }
+        if (includeSurgery) {
+            channels.add(new OutputChannel(timelineSurgeryFilename, TimelineSurgeryRecord.getFieldNames(), CompositeResult::getTimelineSurgeryResults));
+        }
+        if (DDPUtils.isMskimpactCohort(cohortName) || DDPUtils.isHemepactCohort(cohortName) || DDPUtils.isMskaccessCohort(cohortName)) {
+            channels.add(new OutputChannel(ddpSuppDirname + File.separator + ddpSuppVitalStatusFilename, SuppVitalStatusRecord.getFieldNames(),
+                    result -> singleLine(result.getSuppVitalStatusResult())));
+            channels.add(new OutputChannel(ddpSuppDirname + File.separator + ddpSuppNaaccrMappingsFilename, SuppNaaccrMappingsRecord.getFieldNames(),
+                    result -> singleLine(result.getSuppNaccrMappingsResult())));
+        }
+        try {
+            for (OutputChannel channel : channels) {
+                channel.open(ec);
+            }
+        } catch (IOException e) {
+            close();
+            throw new ItemStreamException("Error opening DDP output files in: " + outputDirectory, e);
+        }
+    }
+
+    /**
+     * Saves the position of each file, including the chunk which is about to be committed.
+     */
+    @Override
+    public void update(ExecutionContext ec) throws ItemStreamException {
+        try {
+            for (OutputChannel channel : channels) {
+                ec.putLong(channel.getPositionKey(), channel.position());
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Error getting the position of DDP output files in: " + outputDirectory, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends CompositeResult> compositeResults) throws Exception {
+        long start = System.nanoTime();
+        boolean transactional = registerSynchronization();
+        try {
+            for (CompositeResult result : compositeResults) {
+                for (OutputChannel channel : channels) {
+                    Collection<String> lines = channel.lineSource.apply(result);
+                    if (lines == null) {
+                        continue;
+                    }
+                    for (String line : lines) {
+                        channel.appendLine(line);
+                    }
+                }
+                pendingResultCount++;
+            }
+        } catch (Exception e) {
+            if (!transactional) {
+                discardPending();
+            }
+            throw e;
+        }
+        routingNanos += System.nanoTime() - start;
+        if (!transactional) {
+            writePending();
+        }
+    }
+
+    /**
+     * Registers the writes of the current transaction to be made when it commits.
+     * @return false if there is no transaction, and the chunk should be written at once
+     */
+    private boolean registerSynchronization() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        if (!synchronizationRegistered) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    try {
+                        writePending();
+                    } catch (IOException e) {
+                        throw new WriteFailedException("Error writing DDP output files in: " + outputDirectory, e);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // nothing is pending after a commit, a rolled back chunk is dropped
+                    discardPending();
+                    synchronizationRegistered = false;
+                }
+            });
+            synchronizationRegistered = true;
+        }
+        return true;
+    }
+
+    private void writePending() throws IOException {
+        long start = System.nanoTime();
+        try {
+            for (OutputChannel channel : channels) {
+                channel.writePending();
+            }
+        } finally {
+            discardPending();
+        }
+        resultCount += pendingResultCount;
+        pendingResultCount = 0L;
+        routingNanos += System.nanoTime() - start;
+    }
+
+    private void discardPending() {
+        for (OutputChannel channel : channels) {
+            channel.discardPending();
+        }
+        pendingResultCount = 0L;
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        IOException closeException = null;
+        for (OutputChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                closeException = (closeException == null) ? e : closeException;
+            }
+        }
+        if (!channels.isEmpty()) {
+            LOG.info(getThroughputReport());
+        }
+        channels.clear();
+        if (closeException != null) {
+            throw new ItemStreamException("Error closing DDP output files in: " + outputDirectory, closeException);
+        }
+    }
+
+    /**
+     * @return lines, bytes and write throughput for each output file
+     */
+    public String getThroughputReport() {
+        StringBuilder builder = new StringBuilder("DDP output - ")
+                .append(resultCount).append(" records written in ").append(routingNanos / 1_000_000L).append(" ms");
+        for (OutputChannel channel : channels) {
+            builder.append("\n\t").append(channel);
+        }
+        return builder.toString();
+    }
+
+    private Collection<String> clinicalLine(CompositeResult result) {
+        if (Strings.isNullOrEmpty(result.getClinicalResult())) {
+            throw new IllegalStateException("Composite result is missing its clinical record - every patient written must have one");
+        }
+        return Collections.singletonList(result.getClinicalResult());
+    }
+
+    /* supplemental records are only made for some patients, as with the former supplemental file writers */
+    private static Collection<String> singleLine(String line) {
+        return Strings.isNullOrEmpty(line) ? null : Collections.singletonList(line);
+    }
+
+    private class OutputChannel {
+        private final String filename;
+        private final String header;
+        private final Function<CompositeResult, Collection<String>> lineSource;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        // filled buffers of the chunk not yet written, flipped for reading
+        private final List<ByteBuffer> pendingBuffers = new ArrayList<>();
+        private FileChannel fileChannel;
+        private ByteBuffer buffer;
+        private long pendingBytes = 0L;
+        private long pendingLineCount = 0L;
+        private long lineCount = 0L;
+        private long byteCount = 0L;
+        private long writeNanos = 0L;
+
+        private OutputChannel(String filename, List<String> fieldNames, Function<CompositeResult, Collection<String>> lineSource) {
+            this.filename = filename;
+            this.header = String.join("\t", fieldNames);
+            this.lineSource = lineSource;
+        }
+
+        private String getPositionKey() {
+            return DDPFanOutWriter.class.getSimpleName() + "." + filename + ".position";
+        }
+
+        private void open(ExecutionContext ec) throws IOException {
+            Path path = Paths.get(outputDirectory, filename);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            if (ec.containsKey(getPositionKey())) {
+                // restart : drop whatever was written after the last committed chunk
+                long position = ec.getLong(getPositionKey());
+                fileChannel = FileChannel.open(path, StandardOpenOption.WRITE);
+                if (fileChannel.size() < position) {
+                    throw new IOException("Output file " + path + " is shorter than the " + position + " bytes committed before the restart");
+                }
+                fileChannel.truncate(position);
+                fileChannel.position(position);
+                return;
+            }
+            fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            appendText(header);
+            appendText(System.lineSeparator());
+            writePending();
+        }
+
+        private void appendLine(String line) throws IOException {
+            if (line == null) {
+                return;
+            }
+            appendText(line);
+            appendText(System.lineSeparator());
+            pendingLineCount++;
+        }
+
+        private void appendText(String text) throws IOException {
+            if (buffer == null) {
+                buffer = ddpBufferPool.borrow();
+            }
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (true) {
+                CoderResult coderResult = encoder.encode(chars, buffer, true);
+                if (coderResult.isOverflow()) {
+                    pendBuffer();
+                    buffer = ddpBufferPool.borrow();
+                    continue;
+                }
+                if (coderResult.isError()) {
+                    coderResult.throwException();
+                }
+                break;
+            }
+            encoder.reset();
+        }
+
+        private void pendBuffer() {
+            buffer.flip();
+            pendingBytes += buffer.remaining();
+            pendingBuffers.add(buffer);
+            buffer = null;
+        }
+
+        /**
+         * @return position of the file once the pending lines are written
+         */
+        private long position() throws IOException {
+            return fileChannel.position() + pendingBytes + ((buffer == null) ? 0 : buffer.position());
+        }
+
+        private void writePending() throws IOException {
+            if (buffer != null && buffer.position() > 0) {
+                pendBuffer();
+            }
+            long start = System.nanoTime();
+            for (ByteBuffer pendingBuffer : pendingBuffers) {
+                while (pendingBuffer.hasRemaining()) {
+                    byteCount += fileChannel.write(pendingBuffer);
+                }
+            }
+            writeNanos += System.nanoTime() - start;
+            lineCount += pendingLineCount;
+            discardPending();
+        }
+
+        /**
+         * Returns every buffer of the chunk to the pool.
+         */
+        private void discardPending() {
+            for (ByteBuffer pendingBuffer : pendingBuffers) {
+                ddpBufferPool.release(pendingBuffer);
+            }
+            pendingBuffers.clear();
+            if (buffer != null) {
+                ddpBufferPool.release(buffer);
+                buffer = null;
+            }
+            pendingBytes = 0L;
+            pendingLineCount = 0L;
+        }
+
+        private void close() throws IOException {
+            if (fileChannel == null) {
+                return;
+            }
+            try {
+                discardPending();
+            } finally {
+                fileChannel.close();
+                fileChannel = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            double megabytes = byteCount / (1024d * 1024d);
+            double seconds = writeNanos / 1e9d;
+            return String.format("%s: %d lines, %.1f MB, %.1f MB/s", filename, lineCount, megabytes, (seconds > 0) ? megabytes / seconds : 0d);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPJobData;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPSeqDateIndex;
+
+import org.mskcc.cmo.ks.ddp.source.DDPDataSource;
+import org.mskcc.cmo.ks.ddp.source.model.CohortPatient;
+
+import com.google.common.base.Strings;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import jakarta.annotation.Resource;
+import org.apache.log4j.Logger;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Loads the job's seq date file and the pediatric cohort into a DDPJobData before the
+ * first step runs, so that partitioned steps do not load them once per partition.
+ * The data is kept by job execution id until the job ends, and is resolved for the
+ * steps by the step scoped ddpJobData bean (see BatchConfiguration), so concurrent
+ * jobs in one JVM do not share it.
+ */
+public class DDPJobStartListener implements JobExecutionListener {
+
+    private final Map<Long, DDPJobData> jobDataByExecutionId = new ConcurrentHashMap<>();
+
+    @Autowired
+    private DDPDataSource ddpDataSource;
+
+    @Resource(name = "ddpCohortMap")
+    private Map<String, Integer> ddpCohortMap;
+
+    private final String MSKIMPACT_PED_COHORT_NAME = "mskimpact_ped";
+    private final Logger LOG = Logger.getLogger(DDPJobStartListener.class);
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        DDPJobData ddpJobData = new DDPJobData(getSeqDateIndex(jobExecution), getPediatricCohortPatientIds());
+        jobDataByExecutionId.put(jobExecution.getId(), ddpJobData);
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        jobDataByExecutionId.remove(jobExecution.getId());
+    }
+
+    /**
+     * @param jobExecutionId
+     * @return data of the running job execution
+     */
+    public DDPJobData getJobData(Long jobExecutionId) {
+        DDPJobData ddpJobData = jobDataByExecutionId.get(jobExecutionId);
+        if (ddpJobData == null) {
+            throw new IllegalStateException("No DDP job data for job execution " + jobExecutionId + " - is the job running?");
+        }
+        return ddpJobData;
+    }
+
+    private DDPSeqDateIndex getSeqDateIndex(JobExecution jobExecution) {
+        String seqDateFilename = jobExecution.getJobParameters().getString("seqDateFilename");
+        if (Strings.isNullOrEmpty(seqDateFilename)) {
+            return DDPSeqDateIndex.NO_SEQ_DATE_FILE;
+        }
+        LOG.debug("Seq date file is: " + seqDateFilename);
+        try {
+            return DDPSeqDateIndex.readSeqDateFile(seqDateFilename, new BufferedReader(new FileReader(seqDateFilename)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading seq date file: " + seqDateFilename, e);
+        }
+    }
+
+    /**
+     * Fetches the pediatric cohort patient list from DDP.
+     * The set of DDP IDs will be used to update the pediatric cohort status
+     * of a composite patient record during the processing step.
+     *
+     * @return
+     */
+    private Set<Integer> getPediatricCohortPatientIds() {
+        Set<Integer> pediatricCohortPatientIds = new HashSet<>();
+        try {
+            List<CohortPatient> mskimpactPedPatients = ddpDataSource.getPatientRecordsByCohortId(ddpCohortMap.get(MSKIMPACT_PED_COHORT_NAME));
+            for (CohortPatient patient : mskimpactPedPatients) {
+                pediatricCohortPatientIds.add(patient.getPID());
+            }
+            LOG.info("Successfully fetched " + String.valueOf(mskimpactPedPatients.size()) + " DDP patient IDs belonging to " + MSKIMPACT_PED_COHORT_NAME + " cohort");
+        } catch (Exception e) {
+            LOG.error("Error fetching DDP pediatric cohort patient list - will not be able to update PED_IND status for clinical data");
+        }
+        return pediatricCohortPatientIds;
+    }
+}
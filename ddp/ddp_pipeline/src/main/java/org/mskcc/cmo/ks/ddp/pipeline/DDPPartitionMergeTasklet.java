@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPartitionUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.util.ExternalLineSorter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Combines the files written by each DDP partition into the output directory.
+ *
+ * Each partition's copy of a file is sorted (concurrently across partitions)
+ * and the copies are combined with a k-way merge, so the merged files are in
+ * the same order the sort step produces. The partition directories are
+ * removed once every file has been merged.
+ */
+public class DDPPartitionMergeTasklet implements Tasklet {
+
+    @Value("#{jobParameters[outputDirectory]}")
+    private String outputDirectory;
+
+    @Value("#{stepExecution.jobExecution.jobParameters}")
+    private JobParameters jobParameters;
+
+    @Value("${ddp.partition.count:1}")
+    private Integer partitionCount;
+
+    @Value("${ddp.sort.memory_budget_mb:64}")
+    private Long sortMemoryBudgetMb;
+
+    private final Logger LOG = Logger.getLogger(DDPPartitionMergeTasklet.class);
+
+    @Override
+    public RepeatStatus execute(StepContribution stepContribution, ChunkContext chunkContext) throws Exception {
+        String runSignature = DDPPartitionUtil.getRunSignature(jobParameters, partitionCount);
+        List<Path> partitionDirectories = new ArrayList<>();
+        Set<Path> partitionFiles = new TreeSet<>();
+        for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++) {
+            Path partitionDirectory = DDPPartitionUtil.getPartitionDirectory(outputDirectory, partitionIndex);
+            if (!DDPPartitionUtil.isPartitionComplete(partitionDirectory, runSignature, Long.MAX_VALUE)) {
+                throw new RuntimeException("DDP partition " + partitionIndex + " did not complete - cannot merge partition output");
+            }
+            partitionDirectories.add(partitionDirectory);
+            partitionFiles.addAll(DDPPartitionUtil.listPartitionFiles(partitionDirectory));
+        }
+        // every partition sorts its own copy of a file, so split the budget between them
+        ExternalLineSorter sorter = new ExternalLineSorter(Math.max(1L, sortMemoryBudgetMb * 1024L * 1024L / partitionCount));
+        ExecutorService sortExecutor = Executors.newFixedThreadPool(Math.min(partitionCount, Runtime.getRuntime().availableProcessors()));
+        try {
+            for (Path partitionFile : partitionFiles) {
+                mergePartitionFile(partitionFile, partitionDirectories, sorter, sortExecutor);
+            }
+        } finally {
+            sortExecutor.shutdownNow();
+        }
+        DDPPartitionUtil.deleteRecursively(DDPPartitionUtil.getPartitionsDirectory(outputDirectory));
+        return RepeatStatus.FINISHED;
+    }
+
+    private void mergePartitionFile(Path partitionFile, List<Path> partitionDirectories, ExternalLineSorter sorter, ExecutorService sortExecutor) throws Exception {
+        List<Path> copies = new ArrayList<>();
+        for (Path partitionDirectory : partitionDirectories) {
+            Path copy = partitionDirectory.resolve(partitionFile);
+            if (Files.exists(copy)) {
+                copies.add(copy);
+            }
+        }
+        String header = readHeader(copies.get(0));
+        List<Future<Void>> sorts = new ArrayList<>();
+        for (Path copy : copies) {
+            sorts.add(sortExecutor.submit(() -> {
+                sorter.sortFile(copy, header);
+                return null;
+            }));
+        }
+        for (Future<Void> sort : sorts) {
+            try {
+                sort.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Error sorting partition file", e.getCause());
+            }
+        }
+        Path mergedFile = Paths.get(outputDirectory).resolve(partitionFile);
+        Files.createDirectories(mergedFile.toAbsolutePath().getParent());
+        LOG.info("Merging " + copies.size() + " partition copies of " + partitionFile + " into " + mergedFile);
+        sorter.mergeSortedFiles(copies, mergedFile, header);
+    }
+
+    private String readHeader(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            return (header == null) ? "" : header;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPartitionUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import org.apache.log4j.Logger;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Splits the cohort into partitions by a stable hash of the patient id.
+ *
+ * Partitions left complete by an earlier failed run with the same job
+ * parameters are not handed out again; the output of every other partition
+ * is cleared before it runs.
+ */
+public class DDPPartitioner implements Partitioner {
+
+    @Value("#{jobParameters[outputDirectory]}")
+    private String outputDirectory;
+
+    @Value("#{stepExecution.jobExecution.jobParameters}")
+    private JobParameters jobParameters;
+
+    @Value("${ddp.partition.count:1}")
+    private Integer partitionCount;
+
+    @Value("${ddp.partition.restart_max_age_hours:24}")
+    private Long restartMaxAgeHours;
+
+    private final Logger LOG = Logger.getLogger(DDPPartitioner.class);
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        String runSignature = DDPPartitionUtil.getRunSignature(jobParameters, partitionCount);
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++) {
+            Path partitionDirectory = DDPPartitionUtil.getPartitionDirectory(outputDirectory, partitionIndex);
+            try {
+                if (DDPPartitionUtil.isPartitionComplete(partitionDirectory, runSignature, restartMaxAgeHours)) {
+                    LOG.info("Partition " + partitionIndex + " of " + partitionCount + " completed in a previous run - skipping");
+                    continue;
+                }
+                DDPPartitionUtil.deleteRecursively(partitionDirectory);
+            } catch (IOException e) {
+                throw new RuntimeException("Error preparing partition directory: " + partitionDirectory, e);
+            }
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(DDPPartitionUtil.PARTITION_INDEX_KEY, partitionIndex);
+            context.putInt(DDPPartitionUtil.PARTITION_COUNT_KEY, partitionCount);
+            context.putString(DDPPartitionUtil.PARTITION_OUTPUT_DIRECTORY_KEY, partitionDirectory.toString());
+            partitions.put("partition" + partitionIndex, context);
+        }
+        LOG.info("Running " + partitions.size() + " of " + partitionCount + " DDP partitions");
+        return partitions;
+    }
+}
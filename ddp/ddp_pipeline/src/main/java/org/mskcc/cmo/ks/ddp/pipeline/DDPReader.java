@@ -34,20 +34,34 @@ package org.mskcc.cmo.ks.ddp.pipeline;
 
 import org.mskcc.cmo.ks.ddp.source.DDPDataSource;
 import org.mskcc.cmo.ks.ddp.source.composite.DDPCompositeRecord;
+import org.mskcc.cmo.ks.ddp.source.internal.DDPResponseCache;
 import org.mskcc.cmo.ks.ddp.source.model.CohortPatient;
 import org.mskcc.cmo.ks.ddp.source.model.PatientIdentifiers;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPartitionUtil;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
 
 import com.google.common.base.Strings;
 import jakarta.annotation.Resource;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
 import org.apache.log4j.Logger;
 import org.springframework.batch.item.*;
 import org.springframework.beans.factory.annotation.*;
 
-import java.util.concurrent.CompletableFuture;
 /**
+ * Streams composite records for a cohort or a subset of patients.
+ *
+ * Patient identifier lookups are pipelined: at most identifierLookahead
+ * patients are outstanding (requested but not yet read) at any time, and a
+ * record is handed to the processor as soon as its identifiers resolve, in
+ * completion order. Memory held by the reader is bounded by the lookahead
+ * rather than the cohort size, apart from the patient id listing itself.
+ *
+ * In a partitioned step the reader only streams the patients whose id hashes
+ * to its partition (see DDPPartitionUtil.partitionFor()).
  *
  * @author ochoaa
  */
@@ -65,6 +79,15 @@ public class DDPReader implements ItemStreamReader<DDPCompositeRecord> {
     @Value("#{jobParameters[testMode]}")
     private Boolean testMode;
 
+    @Value("#{stepExecutionContext[partitionIndex]}")
+    private Integer partitionIndex;
+
+    @Value("#{stepExecutionContext[partitionCount]}")
+    private Integer partitionCount;
+
+    @Value("${ddp.reader.identifier_lookahead:256}")
+    private Integer identifierLookahead;
+
     @Resource(name = "ddpCohortMap")
     private Map<String, Integer> ddpCohortMap;
 
@@ -74,9 +97,18 @@ public class DDPReader implements ItemStreamReader<DDPCompositeRecord> {
     @Autowired
     private DDPPatientListUtil ddpPatientListUtil;
 
-    private List<DDPCompositeRecord> ddpCompositeRecordList;
+    @Autowired
+    private DDPResponseCache ddpResponseCache;
+
+    // patient id -> cohort record (null for subset ids), entries are removed as lookups are started
+    private Map<String, CohortPatient> pendingPatients;
+    private Iterator<Map.Entry<String, CohortPatient>> pendingPatientIterator;
+    private final BlockingQueue<ResolvedPatient> resolvedPatients = new LinkedBlockingQueue<>();
+    private int outstandingLookups = 0;
+    private int requestedCount = 0;
+    private int readCount = 0;
+    private int excludedCount = 0;
     private Set<String> excludedPatientIds = new HashSet<>();
-    private final String MSKIMPACT_PED_COHORT_NAME = "mskimpact_ped";
     private final Integer TEST_MODE_PATIENT_THRESHOLD = 500;
 
     private final Logger LOG = Logger.getLogger(DDPReader.class);
@@ -94,186 +126,135 @@ public class DDPReader implements ItemStreamReader<DDPCompositeRecord> {
                 throw new ItemStreamException("Error loading excluded patient ids from: " + excludedPatientsFilename, e);
             }
         }
-        // get composite records patient ids from subsetFilename, otherwise fetch records by cohort id
+        // get patient ids from subsetFilename, otherwise fetch patient ids by cohort id
         if (!Strings.isNullOrEmpty(subsetFilename)) {
             try {
-                this.ddpCompositeRecordList = getCompositeRecordsByPatientIds();
+                this.pendingPatients = getPendingPatientsBySubsetIds();
             } catch (Exception e) {
                 throw new ItemStreamException("Error fetching DDP records by subset ids: " + subsetFilename, e);
             }
         }
         else {
             try {
-                this.ddpCompositeRecordList = getCompositeRecordsByCohortId();
+                this.pendingPatients = getPendingPatientsByCohortId();
             }
             catch (Exception e) {
                 throw new ItemStreamException("Error fetching DDP records by cohort name: " + cohortName, e);
             }
         }
-        // add pediatric cohort patient ids to execution context for processor
-        ec.put("pediatricCohortPatientIdsSet", getPediatricCohortPatientIdsSet());
-        LOG.info("Fetched " + ddpCompositeRecordList.size() +  " DDP records");
-    }
-
-    /**
-     * Fetches the pediatric cohort patient list from DDP.
-     * The set of DDP IDs will be used to update the pediatric cohort status
-     * of a composite patient record during the processing step.
-     *
-     * @return
-     */
-    private Set<Integer> getPediatricCohortPatientIdsSet() {
-        Set<Integer> pediatricCohortPatientIdsSet = new HashSet<>();
-        try {
-            List<CohortPatient> mskimpactPedPatients = ddpDataSource.getPatientRecordsByCohortId(ddpCohortMap.get(MSKIMPACT_PED_COHORT_NAME));
-            for (CohortPatient patient : mskimpactPedPatients) {
-                pediatricCohortPatientIdsSet.add(patient.getPID());
-            }
-            LOG.info("Successfully fetched " + String.valueOf(mskimpactPedPatients.size()) + " DDP patient IDs belonging to " + MSKIMPACT_PED_COHORT_NAME + " cohort");
-        } catch (Exception e) {
-            LOG.error("Error fetching DDP pediatric cohort patient list - will not be able to update PED_IND status for clinical data");
-        }
-        return pediatricCohortPatientIdsSet;
+        this.pendingPatientIterator = pendingPatients.entrySet().iterator();
+        String partitionDescription = (partitionCount == null) ? "" : " in partition " + partitionIndex + " of " + partitionCount;
+        LOG.info("Streaming DDP records for " + pendingPatients.size() + " patients" + partitionDescription + " (identifier lookahead: " + identifierLookahead + ")");
     }
 
     /**
-     * Returns a unique set of composite records for given cohort id..
+     * Returns the cohort patients for the cohort id, keyed by P_ID.
      *
      * @return
      */
-    private List<DDPCompositeRecord> getCompositeRecordsByCohortId() throws Exception {
+    private Map<String, CohortPatient> getPendingPatientsByCohortId() throws Exception {
         Integer cohortId = ddpCohortMap.get(cohortName);
         if (cohortId == null) {
             throw new ItemStreamException("Cohort not known by name: " + cohortName);
         }
-        // get composite records from DDP by cohort id
-        List<DDPCompositeRecord> records = getDDPCompositeRecordsByCohortId(cohortId);
-        return records;
-    }
-
-    /**
-     * Helper function to return a unique set of composite records for a list of patient ids.
-     * Patient ids can either be P_IDs from the cohort endpoint or DMP ids.
-     *
-     * Removes records matching ids in 'excludedPatientIds' if necessary.
-     *
-     * @param cohortId
-     * @return
-     */
-    private Map<String, DDPCompositeRecord> getDDPCompositeRecords(Set<String> patientIds) throws Exception {
-        Map<String, DDPCompositeRecord> compositeRecords = new HashMap<String, DDPCompositeRecord>();
-        Map<String, CompletableFuture<PatientIdentifiers>> futurePatientIdentifiers = new HashMap<String, CompletableFuture<PatientIdentifiers>>();
-
-        int count = 0;
-        for (String patientId : patientIds) {
-            try {
-                // getPatientIdentifiers() is an Async function meaning the loop does not depend on request being completed
-                futurePatientIdentifiers.put(patientId, ddpDataSource.getPatientIdentifiers(patientId));
-            } catch (Exception e) {
-                LOG.error("Failed to resolve dmp id's for record'" + patientId + "' -- skipping (" + e.getMessage() + ")");
-                ddpPatientListUtil.addPatientsMissingDMPId(patientId);
-            }
-            count++;
-            if (testMode && count >= TEST_MODE_PATIENT_THRESHOLD) {
-                break;
-            }
-        }
-
-        // ensures composite records will not be created until all requests for Patient Identifiers are completed
-        for (String patientIdentifier : futurePatientIdentifiers.keySet()) {
-            getCompletableFuturePatientIdentifiers(patientIdentifier, futurePatientIdentifiers);
-        }
+        List<CohortPatient> records = ddpDataSource.getPatientRecordsByCohortId(cohortId);
+        LOG.info("Fetched " + records.size()+  " active patients for cohort: " + cohortName);
 
-        LOG.info("creating composite Records");
-        for(String patientIdentifier : futurePatientIdentifiers.keySet()) {
-            PatientIdentifiers pids = getCompletableFuturePatientIdentifiers(patientIdentifier, futurePatientIdentifiers);
-            if (pids != null && !Strings.isNullOrEmpty(pids.getDmpPatientId())) {
-                if (pids.getDmpPatientId().equals("P-0000000")) {
-                    LOG.error("Patient ID " + patientIdentifier + " resolved to DMP ID: P-0000000");
-                    continue;
-                }
-                compositeRecords.put(patientIdentifier, new DDPCompositeRecord(pids.getDmpPatientId(), pids.getDmpSampleIds()));
-            } else {
-                LOG.error("Failed to resolve dmp id's for record '" + patientIdentifier + "' -- skipping");
-                ddpPatientListUtil.addPatientsMissingDMPId(patientIdentifier);
+        Map<String, CohortPatient> cohortPatientRecords = new LinkedHashMap<String, CohortPatient>();
+        for (CohortPatient record : records) {
+            if (!isInPartition(record.getPID().toString())) {
                 continue;
             }
+            cohortPatientRecords.put(record.getPID().toString(), record);
+            ddpResponseCache.applyChangeSignal(record.getPID().toString(), DDPResponseCache.cohortChangeSignal(record));
         }
-        // filter composite records to return if excluded patient id list is not empty
-        if (!excludedPatientIds.isEmpty()) {
-            return filterCompositeRecords(compositeRecords);
-        }
-        return compositeRecords;
+        return cohortPatientRecords;
     }
 
     /**
-     * Helper function to return a unique set of composite records for cohort ids.
-     *
-     * Removes records matching ids in 'excludedPatientIds' if necessary.
+     * Returns the patient ids stored in subsetFilename, without cohort records.
      *
-     * @param cohortId
      * @return
      */
-    private List<DDPCompositeRecord> getDDPCompositeRecordsByCohortId(Integer cohortId) throws Exception {
-        List<CohortPatient> records = ddpDataSource.getPatientRecordsByCohortId(cohortId);
-        LOG.info("Fetched " + records.size()+  " active patients for cohort: " + cohortName);
-
-        Map<String, CohortPatient> cohortPatientRecords = new HashMap<String, CohortPatient>();
-        for (CohortPatient record : records) {
-            cohortPatientRecords.put(record.getPID().toString(), record);
+    private Map<String, CohortPatient> getPendingPatientsBySubsetIds() throws Exception {
+        Set<String> patientIds = new HashSet<>();
+        try {
+            patientIds = loadPatientIdsFromFile(subsetFilename);
+        } catch (FileNotFoundException e) {
+            throw new ItemStreamException("Error loading patient ids from: " + subsetFilename, e);
         }
-
-        Map<String, DDPCompositeRecord> compositeRecords = getDDPCompositeRecords(cohortPatientRecords.keySet());
-        for (Map.Entry<String, DDPCompositeRecord> entry: compositeRecords.entrySet()) {
-            entry.getValue().setCohortPatient(cohortPatientRecords.get(entry.getKey()));
+        Map<String, CohortPatient> subsetPatients = new LinkedHashMap<String, CohortPatient>();
+        for (String patientId : patientIds) {
+            if (isInPartition(patientId)) {
+                subsetPatients.put(patientId, null);
+            }
         }
-        return new ArrayList<>(compositeRecords.values());
+        return subsetPatients;
     }
 
-    /**
-     * Returns null if exception thrown while calling future patient identifiers.
-     *
-     * This can happen if we get a 403 Forbidden for high profile patients, which we do not have access to.
-     * There are also 401 unauthorized errors. These are thrown when we are not authorized yet to
-     * fetch data for these patients.
-     * @param pid
-     * @param futurePatientIdentifiers
-     * @return
-     */
-    private PatientIdentifiers getCompletableFuturePatientIdentifiers(String pid, Map<String, CompletableFuture<PatientIdentifiers>> futurePatientIdentifiers) {
-        try {
-            return futurePatientIdentifiers.get(pid).get();
-        } catch (Exception e) {}
-        return null;
+    private boolean isInPartition(String patientId) {
+        if (partitionCount == null || partitionCount <= 1) {
+            return true;
+        }
+        return DDPPartitionUtil.partitionFor(patientId, partitionCount) == partitionIndex;
     }
 
     /**
-     * Returns a unique set of composite records for patient ids stored in subsetFilename.
-     *
-     * @return
+     * Starts identifier lookups until the lookahead is full or every patient has been requested.
+     * Patients are removed from 'pendingPatients' as their lookups start.
      */
-    private List<DDPCompositeRecord> getCompositeRecordsByPatientIds() throws Exception {
-        Set<String> patientIds = new HashSet<>();
-        try {
-            patientIds = loadPatientIdsFromFile(subsetFilename);
-        } catch (FileNotFoundException e) {
-            throw new ItemStreamException("Error loading patient ids from: " + subsetFilename, e);
+    private void requestPatientIdentifiers() {
+        while (outstandingLookups < identifierLookahead && pendingPatientIterator.hasNext()) {
+            if (testMode && requestedCount >= TEST_MODE_PATIENT_THRESHOLD) {
+                return;
+            }
+            Map.Entry<String, CohortPatient> entry = pendingPatientIterator.next();
+            pendingPatientIterator.remove();
+            requestedCount++;
+            String patientId = entry.getKey();
+            CohortPatient cohortPatient = entry.getValue();
+            CompletableFuture<PatientIdentifiers> futurePatientIdentifiers;
+            try {
+                futurePatientIdentifiers = ddpDataSource.getPatientIdentifiers(patientId);
+            } catch (Exception e) {
+                LOG.error("Failed to resolve dmp id's for record'" + patientId + "' -- skipping (" + e.getMessage() + ")");
+                ddpPatientListUtil.addPatientsMissingDMPId(patientId);
+                continue;
+            }
+            outstandingLookups++;
+            // a failed lookup can happen if we get a 403 Forbidden for high profile patients, which we do not have access to.
+            // There are also 401 unauthorized errors. These are thrown when we are not authorized yet to fetch data for these patients.
+            futurePatientIdentifiers.whenComplete((pids, e) -> resolvedPatients.add(new ResolvedPatient(patientId, cohortPatient, (e == null) ? pids : null)));
         }
-        List<DDPCompositeRecord> records = getDDPCompositeRecordsByPatientIds(patientIds);
-        return records;
     }
 
     /**
-     * Helper function to return a unique set of composite records for given patient ids.
-     *
-     * Removes records matching patient ids in 'excludedPatientIds' if necessary.
+     * Builds the composite record for a resolved patient, or returns null if the patient is skipped.
      *
-     * @param patientIds
+     * @param resolvedPatient
      * @return
      */
-    private List<DDPCompositeRecord> getDDPCompositeRecordsByPatientIds(Set<String> patientIds) throws Exception {
-        Map<String, DDPCompositeRecord> compositeRecords = getDDPCompositeRecords(patientIds);
-        return new ArrayList<>(compositeRecords.values());
+    private DDPCompositeRecord makeCompositeRecord(ResolvedPatient resolvedPatient) {
+        PatientIdentifiers pids = resolvedPatient.patientIdentifiers;
+        if (pids == null || Strings.isNullOrEmpty(pids.getDmpPatientId())) {
+            LOG.error("Failed to resolve dmp id's for record '" + resolvedPatient.patientId + "' -- skipping");
+            ddpPatientListUtil.addPatientsMissingDMPId(resolvedPatient.patientId);
+            return null;
+        }
+        if (pids.getDmpPatientId().equals("P-0000000")) {
+            LOG.error("Patient ID " + resolvedPatient.patientId + " resolved to DMP ID: P-0000000");
+            return null;
+        }
+        // remove records matching ids in 'excludedPatientIds'
+        if (excludedPatientIds.contains(pids.getDmpPatientId())) {
+            excludedCount++;
+            return null;
+        }
+        // the processor fetches the patient's data by dmp id, cached under that id
+        ddpResponseCache.applyChangeSignal(pids.getDmpPatientId(), DDPResponseCache.cohortChangeSignal(resolvedPatient.cohortPatient));
+        DDPCompositeRecord compositeRecord = new DDPCompositeRecord(pids.getDmpPatientId(), pids.getDmpSampleIds());
+        compositeRecord.setCohortPatient(resolvedPatient.cohortPatient);
+        return compositeRecord;
     }
 
     /**
@@ -299,24 +280,6 @@ public class DDPReader implements ItemStreamReader<DDPCompositeRecord> {
         return patientIds;
     }
 
-    /**
-     * Removes records from the given composite record list if found in the excluded patient ids list.
-     *
-     * @return
-     */
-    private Map<String, DDPCompositeRecord> filterCompositeRecords(Map<String, DDPCompositeRecord> compositeRecords) {
-        LOG.info("Removing composite records matching ids in 'excludedPatientIds'...");
-        Map<String, DDPCompositeRecord> filteredCompositeRecords = new HashMap<>();
-        for (Map.Entry<String, DDPCompositeRecord> entry: compositeRecords.entrySet()) {
-            if (excludedPatientIds.contains(entry.getValue().getDmpPatientId())) {
-                continue;
-            }
-            filteredCompositeRecords.put(entry.getKey(), entry.getValue());
-        }
-        LOG.info("Removed " + (compositeRecords.size() - filteredCompositeRecords.size()) + " from final composite record set");
-        return filteredCompositeRecords;
-    }
-
     @Override
     public void update(ExecutionContext ec) throws ItemStreamException {}
 
@@ -325,9 +288,31 @@ public class DDPReader implements ItemStreamReader<DDPCompositeRecord> {
 
     @Override
     public DDPCompositeRecord read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
-        if (!ddpCompositeRecordList.isEmpty()) {
-            return ddpCompositeRecordList.remove(0);
+        while (true) {
+            requestPatientIdentifiers();
+            if (outstandingLookups == 0) {
+                LOG.info("Read " + readCount + " DDP records" + (excludedPatientIds.isEmpty() ? "" : " (" + excludedCount + " removed as excluded patients)"));
+                return null;
+            }
+            ResolvedPatient resolvedPatient = resolvedPatients.take();
+            outstandingLookups--;
+            DDPCompositeRecord compositeRecord = makeCompositeRecord(resolvedPatient);
+            if (compositeRecord != null) {
+                readCount++;
+                return compositeRecord;
+            }
+        }
+    }
+
+    private static class ResolvedPatient {
+        private final String patientId;
+        private final CohortPatient cohortPatient;
+        private final PatientIdentifiers patientIdentifiers;
+
+        private ResolvedPatient(String patientId, CohortPatient cohortPatient, PatientIdentifiers patientIdentifiers) {
+            this.patientId = patientId;
+            this.cohortPatient = cohortPatient;
+            this.patientIdentifiers = patientIdentifiers;
         }
-        return null;
     }
 }
@@ -32,21 +32,19 @@
 
 package org.mskcc.cmo.ks.ddp.pipeline;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.*;
 import org.apache.log4j.Logger;
-import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPJobData;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPSeqDateIndex;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 /**
+ * Reports the seq dates loaded from the job's seq date file (see DDPJobStartListener)
+ * before any patients are processed.
  *
  * @author Manda Wilson
  */
@@ -54,81 +52,21 @@ public class DDPSeqDateTasklet implements Tasklet {
 
     @Value("#{jobParameters[seqDateFilename]}")
     private String seqDateFilename;
-    @Value("#{jobParameters[includeSurvival]}")
-    private Boolean includeSurvival;
 
-    private final Logger LOG = Logger.getLogger(DDPSeqDateTasklet.class);
+    @Autowired
+    private DDPJobData ddpJobData;
 
-    private static final String PATIENT_ID_COLUMN_LABEL = "PATIENT_ID";
-    private static final String SAMPLE_ID_COLUMN_LABEL = "SAMPLE_ID";
-    private static final String SEQ_DATE_COLUMN_LABEL = "SEQ_DATE";
-    private static final List<String> EXPECTED_SEQ_DATE_FILE_HEADER = Arrays.asList(SAMPLE_ID_COLUMN_LABEL, PATIENT_ID_COLUMN_LABEL, SEQ_DATE_COLUMN_LABEL);
-    private static final int MAX_ERRORS_TO_SHOW = 30;
+    private final Logger LOG = Logger.getLogger(DDPSeqDateTasklet.class);
 
     @Override
     public RepeatStatus execute(StepContribution stepContribution, ChunkContext chunkContext) throws Exception {
-        if (seqDateFilename != null && !seqDateFilename.isEmpty()) {
-            LOG.debug("Seq date file is: " + seqDateFilename);
-            BufferedReader reader = new BufferedReader(new FileReader(seqDateFilename));
-            // pass reader as parameter so we can mock it in tests
-            // setSeqDateMaps() calls DDPUtils.setSampleSeqDateMap() and DDPUtils.setPatientFirstSeqDateMap()
-            setSeqDateMaps(seqDateFilename, reader);
-            DDPUtils.setUseSeqDateOsMonthsMethod(Boolean.TRUE);
+        DDPSeqDateIndex ddpSeqDateIndex = ddpJobData.getSeqDateIndex();
+        if (ddpSeqDateIndex.isSeqDateFileProvided()) {
+            LOG.info("Loaded seq dates for " + ddpSeqDateIndex.getSampleCount() + " samples (" +
+                    ddpSeqDateIndex.getPatientCount() + " patients) from: " + seqDateFilename);
         } else {
             LOG.debug("No seq date file given.");
         }
         return RepeatStatus.FINISHED;
     }
-
-    public void setSeqDateMaps(String filename, BufferedReader reader) throws IOException {
-        // this method is public for unit testing
-        Map <String, Date> sampleSeqDateMap = new HashMap<String, Date>();
-        Map <String, Date> patientFirstSeqDateMap = new HashMap<String, Date>();
-        // skip first line (header)
-        List<String> header = Arrays.asList(reader.readLine().split("\t"));
-        int dmpSampleIdColumnIndex = header.indexOf(SAMPLE_ID_COLUMN_LABEL);
-        int dmpPatientIdColumnIndex = header.indexOf(PATIENT_ID_COLUMN_LABEL);
-        int seqDateColumnIndex = header.indexOf(SEQ_DATE_COLUMN_LABEL);
-        Collections.sort(EXPECTED_SEQ_DATE_FILE_HEADER);
-        Collections.sort(header);
-        if (dmpSampleIdColumnIndex == -1 || dmpPatientIdColumnIndex == -1 || seqDateColumnIndex == -1 || !EXPECTED_SEQ_DATE_FILE_HEADER.equals(header)) {
-            LOG.warn("Invalid header in '" + filename + "', expected '" + String.join(",", EXPECTED_SEQ_DATE_FILE_HEADER) + "', found '" + String.join(",", header)+ "'");
-            DDPUtils.setSampleSeqDateMap(sampleSeqDateMap); // empty map
-            DDPUtils.setPatientFirstSeqDateMap(patientFirstSeqDateMap); // empty map
-            return;
-        }
-        // e.g. Wed, 16 Mar 2016 18:09:02 GMT
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
-        String line;
-        List<String> warnings = new ArrayList<String>();
-        while ((line = reader.readLine()) != null) {
-            String[] record = line.split("\t", -1);
-            String dmpSampleId = record[dmpSampleIdColumnIndex];
-            String dmpPatientId = record[dmpPatientIdColumnIndex];
-            String seqDateString = record[seqDateColumnIndex];
-            if (seqDateString != null && !seqDateString.isEmpty()) {
-                try {
-                    Date parsedRecordSeqDate = simpleDateFormat.parse(seqDateString);
-                    sampleSeqDateMap.put(dmpSampleId, parsedRecordSeqDate);
-                    if (!patientFirstSeqDateMap.containsKey(dmpPatientId) || parsedRecordSeqDate.before(patientFirstSeqDateMap.get(dmpPatientId))) {
-                        patientFirstSeqDateMap.put(dmpPatientId, parsedRecordSeqDate);
-                    }
-                } catch (ParseException pe) {
-                    // do nothing, handle empty records later
-                    warnings.add("Invalid date format: '" + seqDateString + "' for sample '" + record[0] +"'");
-                }
-            } else {
-                warnings.add("Empty date: '" + seqDateString + "' for sample '" + record[0] +"'");
-            }
-        }
-        reader.close();
-        if (warnings.size() > 0) {
-            LOG.warn(warnings.size() + " sample(s) found with invalid records.  The first " + MAX_ERRORS_TO_SHOW + " are listed below:");
-            for (int w = 0; w < warnings.size() && w < MAX_ERRORS_TO_SHOW; w++) {
-                LOG.warn(warnings.get(w));
-            }
-        }
-        DDPUtils.setSampleSeqDateMap(sampleSeqDateMap);
-        DDPUtils.setPatientFirstSeqDateMap(patientFirstSeqDateMap);
-    }
 }
@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.util.ExternalLineSorter;
 import org.mskcc.cmo.ks.ddp.pipeline.model.AgeAtSeqDateRecord;
 import org.mskcc.cmo.ks.ddp.pipeline.model.ClinicalRecord;
 import org.mskcc.cmo.ks.ddp.pipeline.model.TimelineChemoRecord;
@@ -78,6 +79,8 @@ public class DDPSortTasklet implements Tasklet {
     private Boolean includeSurgery;
     @Value("#{jobParameters[currentDemographicsRecCount]}")
     private Integer currentDemographicsRecCount;
+    @Value("${ddp.sort.memory_budget_mb:64}")
+    private Long sortMemoryBudgetMb;
 
     private final double DEMOGRAPHIC_RECORD_DROP_THRESHOLD = 0.9;
 
@@ -101,7 +104,7 @@ public class DDPSortTasklet implements Tasklet {
             String timelineChemotherapyFilePath = Paths.get(outputDirectory, timelineChemotherapyFilename).toString();
             String timelineChemotherapyHeader = String.join("\t", TimelineChemoRecord.getFieldNames());
             LOG.info("Sorting and overwriting " + timelineChemotherapyFilePath);
-            DDPUtils.sortAndWrite(timelineChemotherapyFilePath, timelineChemotherapyHeader);
+            DDPUtils.sortAndWrite(timelineChemotherapyFilePath, timelineChemotherapyHeader, getSorter());
         }
 
         if (includeRadiation) {
@@ -118,9 +121,9 @@ public class DDPSortTasklet implements Tasklet {
     }
 
     private void validateDemographicsRecordCount(String demographicsFilePath) throws Exception {
-        List<String> demographicsRecords = DDPUtils.readRecordsFromFile(demographicsFilePath);
-        if (demographicsRecords.size() < (DEMOGRAPHIC_RECORD_DROP_THRESHOLD * currentDemographicsRecCount)) {
-            throw new RuntimeException("Number of records in latest demographics fetch (" + Integer.toString(demographicsRecords.size()) +
+        int demographicsRecordCount = DDPUtils.countRecordsInFile(demographicsFilePath);
+        if (demographicsRecordCount < (DEMOGRAPHIC_RECORD_DROP_THRESHOLD * currentDemographicsRecCount)) {
+            throw new RuntimeException("Number of records in latest demographics fetch (" + Integer.toString(demographicsRecordCount) +
                     ") dropped greater than 90% of current record count (" + currentDemographicsRecCount +
                     ") in backup demographics file - exiting...");
         }
@@ -128,6 +131,10 @@ public class DDPSortTasklet implements Tasklet {
 
     private void sortAndOverwriteFile(Path filePath, List<String> fieldNames) throws IOException {
         LOG.info("Sorting and overwriting file:" + filePath.toString());
-        DDPUtils.sortAndWrite(filePath.toString(), String.join("\t", fieldNames));
+        DDPUtils.sortAndWrite(filePath.toString(), String.join("\t", fieldNames), getSorter());
+    }
+
+    private ExternalLineSorter getSorter() {
+        return new ExternalLineSorter(sortMemoryBudgetMb * 1024L * 1024L);
     }
 }
@@ -32,6 +32,7 @@
 
 package org.mskcc.cmo.ks.ddp.pipeline.model;
 
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPSeqDateIndex;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
 
 import java.text.ParseException;
@@ -48,10 +49,10 @@ public class AgeAtSeqDateRecord {
 
     public AgeAtSeqDateRecord(){}
 
-    public AgeAtSeqDateRecord(String patientId, String sampleId, String patientBirthDate, String osMonths) throws ParseException {
+    public AgeAtSeqDateRecord(String patientId, String sampleId, String patientBirthDate, String osMonths, DDPSeqDateIndex seqDateIndex) throws ParseException {
         this.PATIENT_ID = patientId;
         this.SAMPLE_ID = sampleId;
-        this.AGE_AT_SEQ_REPORTED_YEARS = DDPUtils.resolveAgeAtSeqDate(sampleId, patientBirthDate, osMonths);
+        this.AGE_AT_SEQ_REPORTED_YEARS = DDPUtils.resolveAgeAtSeqDate(sampleId, patientBirthDate, osMonths, seqDateIndex);
     }
 
     /**
@@ -33,6 +33,8 @@
 package org.mskcc.cmo.ks.ddp.pipeline.model;
 
 import org.mskcc.cmo.ks.ddp.source.composite.DDPCompositeRecord;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPSeqDateIndex;
 import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
 
 import java.text.ParseException;
@@ -58,7 +60,7 @@ public class ClinicalRecord {
 
     public ClinicalRecord(){}
 
-    public ClinicalRecord(DDPCompositeRecord compositeRecord, Boolean includeSurvival) throws ParseException {
+    public ClinicalRecord(DDPCompositeRecord compositeRecord, Boolean includeSurvival, DDPSeqDateIndex seqDateIndex, DDPPatientListUtil ddpPatientListUtil) throws ParseException {
         this.PATIENT_ID = compositeRecord.getDmpPatientId();
         this.AGE_CURRENT = DDPUtils.resolvePatientCurrentAge(compositeRecord);
         this.RACE = compositeRecord.getPatientRace() == null ? "NA" : compositeRecord.getPatientRace();
@@ -67,7 +69,7 @@ public class ClinicalRecord {
         this.ETHNICITY = compositeRecord.getPatientEthnicity() == null ? "NA" : compositeRecord.getPatientEthnicity();;
         this.OS_STATUS = DDPUtils.resolveOsStatus(compositeRecord);
         this.PED_IND = DDPUtils.resolvePediatricCohortPatientStatus(compositeRecord.getPediatricPatientStatus());
-        this.OS_MONTHS = includeSurvival ? DDPUtils.resolveOsMonths(OS_STATUS, compositeRecord) : "NA";
+        this.OS_MONTHS = includeSurvival ? DDPUtils.resolveOsMonths(OS_STATUS, compositeRecord, seqDateIndex, ddpPatientListUtil) : "NA";
         this.RADIATION_THERAPY = compositeRecord.hasReceivedRadiation() ? "Yes" : "No";
         this.CHEMOTHERAPY = compositeRecord.hasReceivedChemo() ? "Yes" : "No";
         this.SURGERY = compositeRecord.hasReceivedSurgery() ? "Yes" : "No";
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of fixed-size direct byte buffers shared by the DDP output channels.
+ *
+ * A channel borrows a buffer while it has unwritten bytes and returns it
+ * once the buffer has been written, so the number of buffers in use follows
+ * the number of channels with pending output rather than the number of
+ * output files. At most maxRetained idle buffers are kept.
+ */
+public class DDPBufferPool {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_RETAINED = 32;
+
+    private final int bufferSize;
+    private final int maxRetained;
+    private final ConcurrentLinkedDeque<ByteBuffer> idleBuffers = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder allocatedCount = new LongAdder();
+
+    public DDPBufferPool() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_RETAINED);
+    }
+
+    public DDPBufferPool(int bufferSize, int maxRetained) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be positive : " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.maxRetained = maxRetained;
+    }
+
+    /**
+     * @return a cleared buffer, allocated if the pool is empty
+     */
+    public ByteBuffer borrow() {
+        ByteBuffer buffer = idleBuffers.pollFirst();
+        if (buffer == null) {
+            allocatedCount.increment();
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        idleCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxRetained) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idleBuffers.offerFirst(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return number of buffers allocated since the pool was created
+     */
+    public long getAllocatedCount() {
+        return allocatedCount.sum();
+    }
+}
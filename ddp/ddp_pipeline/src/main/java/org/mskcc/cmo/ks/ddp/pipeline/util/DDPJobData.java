@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline.util;
+
+import java.util.*;
+
+/**
+ * Data of one DDP job execution, built once when the job starts (see DDPJobStartListener)
+ * and shared by the step, partition and processor threads of that execution. The seq date
+ * index and the pediatric cohort are immutable. The patient lists are added to concurrently
+ * and reported by DDPEmailTasklet.
+ */
+public class DDPJobData {
+
+    private final DDPSeqDateIndex seqDateIndex;
+    private final Set<Integer> pediatricCohortPatientIds;
+    private final DDPPatientListUtil patientListUtil = new DDPPatientListUtil();
+
+    public DDPJobData(DDPSeqDateIndex seqDateIndex, Set<Integer> pediatricCohortPatientIds) {
+        this.seqDateIndex = seqDateIndex;
+        this.pediatricCohortPatientIds = Collections.unmodifiableSet(new HashSet<>(pediatricCohortPatientIds));
+    }
+
+    /**
+     * @return seq dates of the job, NO_SEQ_DATE_FILE if the job was not given a seq date file
+     */
+    public DDPSeqDateIndex getSeqDateIndex() {
+        return seqDateIndex;
+    }
+
+    /**
+     * @return DDP ids of the patients in the pediatric cohort, empty if the cohort could not be fetched
+     */
+    public Set<Integer> getPediatricCohortPatientIds() {
+        return pediatricCohortPatientIds;
+    }
+
+    /**
+     * @return patients reported in the job summary email
+     */
+    public DDPPatientListUtil getPatientListUtil() {
+        return patientListUtil;
+    }
+}
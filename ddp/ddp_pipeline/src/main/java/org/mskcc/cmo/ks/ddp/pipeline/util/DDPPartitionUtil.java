@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.batch.core.JobParameters;
+
+/**
+ * Layout and bookkeeping shared by the steps of a partitioned DDP run.
+ *
+ * Partition i writes the usual output files under
+ * outputDirectory/ddp_partitions/partition_i. When a partition finishes, a
+ * completion marker holding the run signature (job parameters and partition
+ * count) is written; a rerun with the same signature skips that partition.
+ */
+public class DDPPartitionUtil {
+
+    public static final String PARTITIONS_DIRNAME = "ddp_partitions";
+    public static final String COMPLETION_MARKER_FILENAME = "_COMPLETE";
+    public static final String PARTITION_INDEX_KEY = "partitionIndex";
+    public static final String PARTITION_COUNT_KEY = "partitionCount";
+    public static final String PARTITION_OUTPUT_DIRECTORY_KEY = "partitionOutputDirectory";
+
+    /**
+     * Stable assignment of a patient to a partition (String.hashCode() is fixed by the language spec).
+     * @param patientId
+     * @param partitionCount
+     * @return partition index in [0, partitionCount)
+     */
+    public static int partitionFor(String patientId, int partitionCount) {
+        // spread the low bits, consecutive ids otherwise land in consecutive partitions
+        int hash = patientId.hashCode() * 0x9E3779B1;
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
+    }
+
+    public static Path getPartitionsDirectory(String outputDirectory) {
+        return Paths.get(outputDirectory, PARTITIONS_DIRNAME);
+    }
+
+    public static Path getPartitionDirectory(String outputDirectory, int partitionIndex) {
+        return getPartitionsDirectory(outputDirectory).resolve("partition_" + partitionIndex);
+    }
+
+    /**
+     * @param jobParameters
+     * @param partitionCount
+     * @return text identifying the inputs of a partitioned run
+     */
+    public static String getRunSignature(JobParameters jobParameters, int partitionCount) {
+        StringBuilder builder = new StringBuilder("partitionCount=").append(partitionCount);
+        for (Map.Entry<String, ?> entry : new TreeMap<>(jobParameters.getParameters()).entrySet()) {
+            builder.append("\n").append(entry.getKey()).append("=").append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param partitionDirectory
+     * @param runSignature
+     * @param maxAgeHours markers older than this are ignored
+     * @return true if the partition completed in a run with the same signature
+     */
+    public static boolean isPartitionComplete(Path partitionDirectory, String runSignature, long maxAgeHours) throws IOException {
+        Path marker = partitionDirectory.resolve(COMPLETION_MARKER_FILENAME);
+        if (!Files.exists(marker)) {
+            return false;
+        }
+        long ageMillis = System.currentTimeMillis() - Files.getLastModifiedTime(marker).toMillis();
+        if (ageMillis > TimeUnit.HOURS.toMillis(maxAgeHours)) {
+            return false;
+        }
+        return runSignature.equals(new String(Files.readAllBytes(marker), StandardCharsets.UTF_8));
+    }
+
+    public static void markPartitionComplete(Path partitionDirectory, String runSignature) throws IOException {
+        Files.createDirectories(partitionDirectory);
+        Files.write(partitionDirectory.resolve(COMPLETION_MARKER_FILENAME), runSignature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param partitionDirectory
+     * @return data files written by the partition, relative to the partition directory
+     */
+    public static List<Path> listPartitionFiles(Path partitionDirectory) throws IOException {
+        if (!Files.isDirectory(partitionDirectory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.walk(partitionDirectory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().equals(COMPLETION_MARKER_FILENAME))
+                    .map(partitionDirectory::relativize)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -33,18 +33,21 @@
 package org.mskcc.cmo.ks.ddp.pipeline.util;
 
 import java.util.*;
-import org.springframework.stereotype.Component;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Patients reported in the job summary email. The sets are added to concurrently by
+ * the reader and processor threads. Each job execution has its own instance (see DDPJobData).
  *
  * @author Manda Wilson
  */
-@Component
 public class DDPPatientListUtil {
 
-    private Set<String> patientsMissingDMPIds = new HashSet<>();
-    private Set<String> patientsMissingDemographics = new HashSet<>();
-    private Set<String> patientsMissingDiagnoses = new HashSet<>();
+    private Set<String> patientsMissingDMPIds = ConcurrentHashMap.newKeySet();
+    private Set<String> patientsMissingDemographics = ConcurrentHashMap.newKeySet();
+    private Set<String> patientsMissingDiagnoses = ConcurrentHashMap.newKeySet();
+    private Set<String> patientsMissingSurvival = ConcurrentHashMap.newKeySet();
+    private Set<String> patientsWithNegativeOsMonths = ConcurrentHashMap.newKeySet();
 
     /**
      * @return patientsMissingDMPIds
@@ -109,4 +112,31 @@ public class DDPPatientListUtil {
         this.patientsMissingDiagnoses.add(patientId);
     }
 
+    /**
+     * @return patientsMissingSurvival
+     */
+    public Set<String> getPatientsMissingSurvival() {
+        return patientsMissingSurvival;
+    }
+
+    /**
+     * @param patientId the patientId to add
+     */
+    public void addPatientsMissingSurvival(String patientId) {
+        this.patientsMissingSurvival.add(patientId);
+    }
+
+    /**
+     * @return patientsWithNegativeOsMonths
+     */
+    public Set<String> getPatientsWithNegativeOsMonths() {
+        return patientsWithNegativeOsMonths;
+    }
+
+    /**
+     * @param patientId the patientId to add
+     */
+    public void addPatientsWithNegativeOsMonths(String patientId) {
+        this.patientsWithNegativeOsMonths.add(patientId);
+    }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import org.apache.log4j.Logger;
+
+/**
+ * Immutable index of sequencing dates, in days since 1970-01-01, loaded once per job
+ * from the seq date file and shared by the processor threads.
+ *
+ * Sample seq dates are keyed by sample id, and every patient maps to the sorted
+ * array of seq dates of its samples so that the first seq date is a constant time lookup.
+ */
+public class DDPSeqDateIndex {
+
+    private static final String PATIENT_ID_COLUMN_LABEL = "PATIENT_ID";
+    private static final String SAMPLE_ID_COLUMN_LABEL = "SAMPLE_ID";
+    private static final String SEQ_DATE_COLUMN_LABEL = "SEQ_DATE";
+    private static final List<String> EXPECTED_SEQ_DATE_FILE_HEADER = Arrays.asList(PATIENT_ID_COLUMN_LABEL, SAMPLE_ID_COLUMN_LABEL, SEQ_DATE_COLUMN_LABEL);
+    private static final int MAX_ERRORS_TO_SHOW = 30;
+    // e.g. Wed, 16 Mar 2016 18:09:02 GMT
+    private static final DateTimeFormatter SEQ_DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE, d MMM yyyy HH:mm:ss z", Locale.US);
+
+    /** Index used when no seq date file was given to the job. */
+    public static final DDPSeqDateIndex NO_SEQ_DATE_FILE = new DDPSeqDateIndex(false, Collections.emptyMap(), Collections.emptyMap());
+
+    private static final Logger LOG = Logger.getLogger(DDPSeqDateIndex.class);
+
+    private final boolean seqDateFileProvided;
+    private final Map<String, Long> sampleSeqDateInDays;
+    private final Map<String, long[]> patientSeqDatesInDays;
+
+    protected DDPSeqDateIndex(boolean seqDateFileProvided, Map<String, Long> sampleSeqDateInDays, Map<String, long[]> patientSeqDatesInDays) {
+        this.seqDateFileProvided = seqDateFileProvided;
+        this.sampleSeqDateInDays = sampleSeqDateInDays;
+        this.patientSeqDatesInDays = patientSeqDatesInDays;
+    }
+
+    /**
+     * Returns whether OS_MONTHS should be calculated from the first seq date
+     * instead of the first tumor diagnosis date.
+     * @return
+     */
+    public boolean isSeqDateFileProvided() {
+        return seqDateFileProvided;
+    }
+
+    /**
+     * @param sampleId
+     * @return the seq date of the sample in days, or null if the sample has no seq date
+     */
+    public Long getSampleSeqDateInDays(String sampleId) {
+        return sampleSeqDateInDays.get(sampleId);
+    }
+
+    /**
+     * @param patientId
+     * @return the earliest seq date of the patient's samples in days, or null if the patient has no seq date
+     */
+    public Long getFirstSeqDateInDays(String patientId) {
+        long[] seqDatesInDays = patientSeqDatesInDays.get(patientId);
+        return (seqDatesInDays != null) ? seqDatesInDays[0] : null;
+    }
+
+    /**
+     * @param patientId
+     * @return the seq dates of the patient's samples in days, in ascending order
+     */
+    public long[] getSeqDatesInDays(String patientId) {
+        long[] seqDatesInDays = patientSeqDatesInDays.get(patientId);
+        return (seqDatesInDays != null) ? seqDatesInDays.clone() : new long[0];
+    }
+
+    public int getSampleCount() {
+        return sampleSeqDateInDays.size();
+    }
+
+    public int getPatientCount() {
+        return patientSeqDatesInDays.size();
+    }
+
+    /**
+     * Parses a seq date value, e.g. "Wed, 16 Mar 2016 18:09:02 GMT".
+     * @param seqDateValue
+     * @return
+     * @throws DateTimeParseException
+     */
+    public static Instant parseSeqDate(String seqDateValue) {
+        return ZonedDateTime.parse(seqDateValue, SEQ_DATE_FORMATTER).toInstant();
+    }
+
+    /**
+     * Reads the tab-delimited seq date file (SAMPLE_ID, PATIENT_ID, SEQ_DATE).
+     *
+     * Records with missing or unparseable seq dates are skipped and reported in the log.
+     * An invalid header results in an empty index.
+     *
+     * @param filename the file name, used for logging
+     * @param reader
+     * @return
+     * @throws IOException
+     */
+    public static DDPSeqDateIndex readSeqDateFile(String filename, BufferedReader reader) throws IOException {
+        Builder builder = new Builder();
+        String headerLine = reader.readLine();
+        List<String> header = (headerLine != null) ? Arrays.asList(headerLine.split("\t")) : new ArrayList<>();
+        int dmpSampleIdColumnIndex = header.indexOf(SAMPLE_ID_COLUMN_LABEL);
+        int dmpPatientIdColumnIndex = header.indexOf(PATIENT_ID_COLUMN_LABEL);
+        int seqDateColumnIndex = header.indexOf(SEQ_DATE_COLUMN_LABEL);
+        List<String> sortedHeader = new ArrayList<>(header);
+        Collections.sort(sortedHeader);
+        if (dmpSampleIdColumnIndex == -1 || dmpPatientIdColumnIndex == -1 || seqDateColumnIndex == -1 || !EXPECTED_SEQ_DATE_FILE_HEADER.equals(sortedHeader)) {
+            LOG.warn("Invalid header in '" + filename + "', expected '" + String.join(",", EXPECTED_SEQ_DATE_FILE_HEADER) + "', found '" + String.join(",", sortedHeader)+ "'");
+            reader.close();
+            return builder.build();
+        }
+        String line;
+        List<String> warnings = new ArrayList<String>();
+        while ((line = reader.readLine()) != null) {
+            String[] record = line.split("\t", -1);
+            String dmpSampleId = record[dmpSampleIdColumnIndex];
+            String dmpPatientId = record[dmpPatientIdColumnIndex];
+            String seqDateString = record[seqDateColumnIndex];
+            if (seqDateString != null && !seqDateString.isEmpty()) {
+                try {
+                    builder.addSeqDate(dmpSampleId, dmpPatientId, parseSeqDate(seqDateString));
+                } catch (DateTimeParseException e) {
+                    warnings.add("Invalid date format: '" + seqDateString + "' for sample '" + record[0] +"'");
+                }
+            } else {
+                warnings.add("Empty date: '" + seqDateString + "' for sample '" + record[0] +"'");
+            }
+        }
+        reader.close();
+        if (warnings.size() > 0) {
+            LOG.warn(warnings.size() + " sample(s) found with invalid records.  The first " + MAX_ERRORS_TO_SHOW + " are listed below:");
+            for (int w = 0; w < warnings.size() && w < MAX_ERRORS_TO_SHOW; w++) {
+                LOG.warn(warnings.get(w));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Collects seq dates and builds an index for a job that was given a seq date file.
+     * Not thread-safe, the built index is.
+     */
+    public static class Builder {
+
+        private final Map<String, Long> sampleSeqDateInDays = new HashMap<>();
+        private final Map<String, List<Long>> patientSeqDates = new HashMap<>();
+
+        /**
+         * Adds the seq date of a sample. The seq date is resolved to the local calendar date
+         * of the given instant. A sample listed more than once keeps its last seq date.
+         */
+        public Builder addSeqDate(String sampleId, String patientId, Instant seqDate) {
+            Long seqDateInDays = DDPUtils.getDateInDays(seqDate);
+            sampleSeqDateInDays.put(sampleId, seqDateInDays);
+            patientSeqDates.computeIfAbsent(patientId, k -> new ArrayList<>()).add(seqDateInDays);
+            return this;
+        }
+
+        public DDPSeqDateIndex build() {
+            Map<String, long[]> patientSeqDatesInDays = new HashMap<>();
+            for (Map.Entry<String, List<Long>> entry : patientSeqDates.entrySet()) {
+                long[] seqDatesInDays = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+                Arrays.sort(seqDatesInDays);
+                patientSeqDatesInDays.put(entry.getKey(), seqDatesInDays);
+            }
+            return new DDPSeqDateIndex(true, Collections.unmodifiableMap(new HashMap<>(sampleSeqDateInDays)), Collections.unmodifiableMap(patientSeqDatesInDays));
+        }
+    }
+}
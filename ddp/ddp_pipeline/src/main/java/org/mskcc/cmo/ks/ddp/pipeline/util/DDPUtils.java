@@ -34,11 +34,17 @@ package org.mskcc.cmo.ks.ddp.pipeline.util;
 
 import com.google.common.base.Strings;
 import java.io.*;
+import java.nio.file.Paths;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.ZonedDateTime;
+import java.text.ParsePosition;
+import java.time.*;
+import java.time.format.*;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.util.ExternalLineSorter;
+import org.cbioportal.cmo.pipelines.common.util.RecordFieldAccessor;
 import org.mskcc.cmo.ks.ddp.source.composite.DDPCompositeRecord;
 import org.mskcc.cmo.ks.ddp.source.model.PatientDiagnosis;
 
@@ -54,37 +60,28 @@ public class DDPUtils {
     public static final Double DAYS_TO_YEARS_CONVERSION = 365.2422;
     public static final Double DAYS_TO_MONTHS_CONVERSION = 30.4167;
     public static final List<String> NULL_EMPTY_VALUES = Arrays.asList(new String[]{"NA", "N/A"});
+    private static final Class<?>[] CLINICAL_FIELD_NAMES_PARAMETER_TYPES = {Boolean.class, Boolean.class, Boolean.class, Boolean.class};
 
     private static Map<String, String> naaccrEthnicityMap;
     private static Map<String, String> naaccrRaceMap;
     private static Map<String, String> naaccrSexMap;
-    private static Map<String, Date> sampleSeqDateMap = new HashMap<String, Date>();
-    private static Map<String, Date> patientFirstSeqDateMap = new HashMap<String, Date>();
-    private static Set<String> patientsMissingSurvival = new HashSet<>();
-    private static Boolean useSeqDateOsMonthsMethod = Boolean.FALSE;
-    private static Set<String> patientsWithNegativeOsMonths = new HashSet<>();
 
-    private static Long offsetMilliSecondsForCurrentTimeZone = null; // this is to convert an UTC based Date instance to the current local timezone
-    private static Integer offsetMinutesForSavingsTimeChange = null; // this is used to adjust a parsed (midnight) Date object from the constructed local timezone (maybe EDT) to the current local timezone (maybe EST)
-    private static Long millisecondsPerDay = 1000L * 60L * 60L * 24L;
+    /* Lenient yyyy-MM-dd parser:
+     * month and day values out of range roll over (e.g. "1991-01-00" is 1990-12-31) and trailing
+     * text after the day is ignored. DateTimeFormatter is immutable so a single instance is shared
+     * by all processor threads.
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = new DateTimeFormatterBuilder()
+            .appendValue(ChronoField.YEAR, 1, 9, SignStyle.NORMAL)
+            .appendLiteral('-')
+            .appendValue(ChronoField.MONTH_OF_YEAR)
+            .appendLiteral('-')
+            .appendValue(ChronoField.DAY_OF_MONTH)
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.LENIENT);
 
     private static final Logger LOG = Logger.getLogger(DDPUtils.class);
 
-    private static Long getOffsetMilliSecondsForCurrentTimeZone() {
-        if (offsetMilliSecondsForCurrentTimeZone == null) {
-            offsetMilliSecondsForCurrentTimeZone = ZonedDateTime.now().getOffset().getTotalSeconds() * 1000L;
-        }
-        return offsetMilliSecondsForCurrentTimeZone;
-    }
-
-    private static Integer getOffsetMinutesForSavingsTimeChange() {
-        if (offsetMinutesForSavingsTimeChange == null) {
-            Date now = new Date();
-            offsetMinutesForSavingsTimeChange = now.getTimezoneOffset();
-        }
-        return offsetMinutesForSavingsTimeChange;
-    }
-
     public static void setNaaccrEthnicityMap(Map<String, String> naaccrEthnicityMap) {
         DDPUtils.naaccrEthnicityMap = naaccrEthnicityMap;
     }
@@ -109,38 +106,6 @@ public class DDPUtils {
         return DDPUtils.naaccrSexMap;
     }
 
-    public static void setSampleSeqDateMap(Map<String, Date> sampleSeqDateMap) {
-        DDPUtils.sampleSeqDateMap = sampleSeqDateMap;
-    }
-
-    public static Map<String, Date> getSampleSeqDateMap() {
-        return DDPUtils.sampleSeqDateMap;
-    }
-
-    public static void setPatientFirstSeqDateMap(Map<String, Date> patientFirstSeqDateMap) {
-        DDPUtils.patientFirstSeqDateMap = patientFirstSeqDateMap;
-    }
-
-    public static Map<String, Date> getPatientFirstSeqDateMap() {
-        return DDPUtils.patientFirstSeqDateMap;
-    }
-
-    public static Set<String> getPatientsMissingSurvival() {
-        return DDPUtils.patientsMissingSurvival;
-    }
-
-    public static void setUseSeqDateOsMonthsMethod(Boolean useSeqDateOsMonthsMethod) {
-        DDPUtils.useSeqDateOsMonthsMethod = useSeqDateOsMonthsMethod;
-    }
-
-    public static Boolean getUseSeqDateOsMonthsMethod() {
-        return DDPUtils.useSeqDateOsMonthsMethod;
-    }
-
-    public static Set<String> getPatientsWithNegativeOsMonths() {
-        return DDPUtils.patientsWithNegativeOsMonths;
-    }
-
     public static Boolean isMskimpactCohort(String cohortName) {
         return (!Strings.isNullOrEmpty(cohortName) && DDPUtils.MSKIMPACT_STUDY_ID.equalsIgnoreCase(cohortName));
     }
@@ -176,7 +141,7 @@ public class DDPUtils {
             referenceDateInDays = getDateInDays(compositeRecord.getPatientDeathDate());
         }
         else {
-            referenceDateInDays = getDateInDays(new Date());
+            referenceDateInDays = LocalDate.now().toEpochDay();
         }
         Double age = (referenceDateInDays - birthDateInDays) / (DAYS_TO_YEARS_CONVERSION);
         return anonymizePatientAge(age.intValue());
@@ -189,10 +154,11 @@ public class DDPUtils {
      * @param sampleId
      * @param patientBirthDate String date of birth
      * @param osMonths String osMonths
+     * @param seqDateIndex
      * @return age in years at sequencing, null if we don't know patient date of birth or sequencing date
      * @throws ParseException
      */
-    public static String resolveAgeAtSeqDate(String sampleId, String patientBirthDate, String osMonths) throws ParseException {
+    public static String resolveAgeAtSeqDate(String sampleId, String patientBirthDate, String osMonths, DDPSeqDateIndex seqDateIndex) throws ParseException {
         int osYears = 0;
         if (!osMonths.equals("NA")) {
             try {
@@ -206,7 +172,7 @@ public class DDPUtils {
         }
 
         Long birthDateInDays = getDateInDays(patientBirthDate);
-        Long sampleSeqDateInDays = getDateInDays(sampleSeqDateMap.get(sampleId));
+        Long sampleSeqDateInDays = seqDateIndex.getSampleSeqDateInDays(sampleId);
         // if either date is null do not calculate age at sequencing date
         Double age = (sampleSeqDateInDays == null || birthDateInDays == null) ? null : (sampleSeqDateInDays - birthDateInDays) / (DAYS_TO_YEARS_CONVERSION);
         if (age == null || age < 0) {
@@ -371,12 +337,17 @@ public class DDPUtils {
      *
      * Note: In some cases, patients may not have any sequence date or tumor diagnoses in the system yet. These are NA.
      *
+     * Patients with missing survival information or a negative OS_MONTHS are
+     * reported to the given patient list util, which is shared by the processor threads.
+     *
      * @param osStatus
      * @param compositeRecord
+     * @param seqDateIndex
+     * @param ddpPatientListUtil
      * @return
      * @throws ParseException
      */
-    public static String resolveOsMonths(String osStatus, DDPCompositeRecord compositeRecord) throws ParseException {
+    public static String resolveOsMonths(String osStatus, DDPCompositeRecord compositeRecord, DDPSeqDateIndex seqDateIndex, DDPPatientListUtil ddpPatientListUtil) throws ParseException {
         String osMonths = "NA";
         Long referenceInDays = (osStatus.equals("LIVING")) ?
                 getDateInDays(compositeRecord.getPatientDemographics().getPLALASTACTVDTE()) :
@@ -385,8 +356,8 @@ public class DDPUtils {
         Long firstDateInDays = null;
         // if we were given a seq_date.txt file, use first tumor sequencing
         // date in days, otherwise use first tumor diagnosis date
-        if (DDPUtils.useSeqDateOsMonthsMethod) {
-            firstDateInDays = getFirstTumorSeqDateInDays(compositeRecord.getDmpPatientId());
+        if (seqDateIndex.isSeqDateFileProvided()) {
+            firstDateInDays = seqDateIndex.getFirstSeqDateInDays(compositeRecord.getDmpPatientId());
             // handle special cases when calculating OS_MONTHS from date of sequencing
             // return 0 if patient dies before sequencing date or NA if patient is living
             // and has a follow up date before sequencing date, otherwise proceed as normal
@@ -408,7 +379,7 @@ public class DDPUtils {
                 // log cases where OS_MONTHS is 'NA' because it calculates to negative
                 String osMonthsLogMessage = getOsMonthsLogging(compositeRecord.getDmpPatientId(), osStatus, osMonths, referenceInDays, firstDateInDays);
                 LOG.warn(osMonthsLogMessage);
-                patientsWithNegativeOsMonths.add(compositeRecord.getDmpPatientId());
+                ddpPatientListUtil.addPatientsWithNegativeOsMonths(compositeRecord.getDmpPatientId());
                 return "NA";
             } else {
                 osMonths = String.format("%.2f", osMonthsValue);
@@ -418,7 +389,7 @@ public class DDPUtils {
             // log cases where OS_MONTHS is 'NA' because required values are  null
             String osMonthsLogMessage = getOsMonthsLogging(compositeRecord.getDmpPatientId(), osStatus, osMonths, referenceInDays, firstDateInDays);
             LOG.debug(osMonthsLogMessage);
-            patientsMissingSurvival.add(compositeRecord.getDmpPatientId());
+            ddpPatientListUtil.addPatientsMissingSurvival(compositeRecord.getDmpPatientId());
         }
         return osMonths;
     }
@@ -447,19 +418,6 @@ public class DDPUtils {
         return (osStatus.equals("LIVING") && dateLastActive != null && firstTumorSequencingDate != null && dateLastActive < firstTumorSequencingDate);
     }
 
-    /**
-     * Return the earliest patient tumor sequence date in days.
-     *
-     * @param dmpPatientId
-     * @return
-     */
-    private static Long getFirstTumorSeqDateInDays(String dmpPatientId) {
-        if (DDPUtils.patientFirstSeqDateMap.containsKey(dmpPatientId)) {
-            return getDateInDays(DDPUtils.patientFirstSeqDateMap.get(dmpPatientId));
-        }
-        return null;
-    }
-
     /**
      * Find and return the earliest patient tumor diagnosis date in days.
      *
@@ -482,24 +440,17 @@ public class DDPUtils {
         if (patientDiagnosis == null || patientDiagnosis.isEmpty()) {
             return null;
         }
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
         String firstTumorDiagnosisDateValue = null;
-        Date firstTumorDiagnosisDate = null;
+        LocalDate firstTumorDiagnosisDate = null;
         for (PatientDiagnosis diagnosis : patientDiagnosis) {
             if (Strings.isNullOrEmpty(diagnosis.getTumorDiagnosisDate())) {
                 continue;
             }
-            if (firstTumorDiagnosisDate == null) {
-                firstTumorDiagnosisDate = sdf.parse(diagnosis.getTumorDiagnosisDate());
+            LocalDate currentTumorDiagnosisDate = parseDate(diagnosis.getTumorDiagnosisDate());
+            if (firstTumorDiagnosisDate == null || currentTumorDiagnosisDate.isBefore(firstTumorDiagnosisDate)) {
+                firstTumorDiagnosisDate = currentTumorDiagnosisDate;
                 firstTumorDiagnosisDateValue = diagnosis.getTumorDiagnosisDate();
             }
-            else {
-                Date currentTumorDiagnosisDate = sdf.parse(diagnosis.getTumorDiagnosisDate());
-                if (currentTumorDiagnosisDate.before(firstTumorDiagnosisDate)) {
-                    firstTumorDiagnosisDate = currentTumorDiagnosisDate;
-                    firstTumorDiagnosisDateValue = diagnosis.getTumorDiagnosisDate();
-                }
-            }
         }
         return firstTumorDiagnosisDateValue;
     }
@@ -512,66 +463,52 @@ public class DDPUtils {
      * @throws ParseException
      */
     public static String resolveTimelineEventDateInDays(String referenceDate, String eventDate) throws ParseException {
-        Long birthDateInDays = getDateInDays(referenceDate);
-        Long eventDateInDays = getDateInDays(eventDate);
-        Long timelineEventInDays = (eventDateInDays - birthDateInDays);
+        Long timelineEventInDays = ChronoUnit.DAYS.between(parseDate(referenceDate), parseDate(eventDate));
         return timelineEventInDays.toString();
     }
 
     /**
-     * Calculates the date in days using local midnight to increment day count.
+     * Parses a yyyy-MM-dd date value.
      *
-     * @param date
+     * @param dateValue
      * @return
+     * @throws ParseException
      */
-    private static Long computeDaysFromDateUsingLocalMidnight(Date date, Integer savingstimeOffsetMinuteDifference) {
-        Long millisecondsFromUtcEpoc = date.getTime();
-        Long millisecondsIfLocalZoneDefinedEpoc = millisecondsFromUtcEpoc + getOffsetMilliSecondsForCurrentTimeZone() + savingstimeOffsetMinuteDifference * 60000;
-        return millisecondsIfLocalZoneDefinedEpoc / millisecondsPerDay;
+    static LocalDate parseDate(String dateValue) throws ParseException {
+        try {
+            return LocalDate.from(DATE_FORMATTER.parse(dateValue, new ParsePosition(0)));
+        } catch (DateTimeException e) {
+            int errorOffset = (e instanceof DateTimeParseException) ? ((DateTimeParseException) e).getErrorIndex() : 0;
+            ParseException parseException = new ParseException("Unparseable date: \"" + dateValue + "\"", errorOffset);
+            parseException.initCause(e);
+            throw parseException;
+        }
     }
 
-    /* There are two versions of "getDateInDays":
-     *   getDateInDays(Date date) : this version take a "correct" java date instance,
-     *           which captures the number of milliseconds since the epoc (Jan 1, 1970 00:00 UTC). This will be interpreted in the current locale, on whatever day that instant falls in the locale's current timezone.
-     *           The function calls computeDaysFromDateUsingLocalMidnight(), which will compute the total number of days which have passed from the epoc start to the specified day **in the current timezone**.
-     *           The meaning of a day "passing" is that midnight of the next day has arrived in the locale's current time zone. (i.e. Days pass when midnight arrives in local time)
-     *   getDateInDays(String dateValue) : this version takes an abstract date string such as "2021-11-04",
-     *           which will be interpreted as a point in time corresponding to midnight on the specified day in the locale's current timezone. Note that the locale's current timezone will be affected by
-     *           daylight saving time shifts. So, when constructing a java date instance, the constructed Date may be based on a different timezone (such as when the current timezone is EST, and the constructed
-     *           date was during the time of the year when daylight savings time is in effect. If that is so, the constucted Date object may be midnight in a DST timezone (EDT), and a correction factor may be needed
-     *           to shift the underlying millisecond count since epoc so that the instant corresponds to midnight in EST on that date (even though on the actual date the locale was using EDT).
-     *           This adjustment factor is passed in as a second argument to computeDaysFromDateUsingLocalMidnight(), which will adjust the counting of passed days accordingly.
-     *   TODO: the adjustment factor could be removed if getDateInDays(String dateValue) were rewritten to use SimpleDateFormat("yyyy-MM-dd z"), which would take a time zone specifier. In that case, the parsed
-     *           date could be constructed as midnight in the locale's current timezone directly by the SimpleDateFormat class.
-     */
-
     /**
-     * Calculates the date in days.
+     * Calculates the date in days (days since 1970-01-01) of the calendar date
+     * on which the given instant falls in the local timezone.
      *
-     * @param date
+     * @param instant
      * @return
      */
-    private static Long getDateInDays(Date date) {
-        if (date != null) {
-            return computeDaysFromDateUsingLocalMidnight(date, 0);
+    static Long getDateInDays(Instant instant) {
+        if (instant != null) {
+            return LocalDate.ofInstant(instant, ZoneId.systemDefault()).toEpochDay();
         }
         return null;
     }
 
     /**
-     * Calculates the date in days.
+     * Calculates the date in days (days since 1970-01-01).
      *
      * @param dateValue
      * @return
      * @throws ParseException
      */
-    private static Long getDateInDays(String dateValue) throws ParseException {
+    static Long getDateInDays(String dateValue) throws ParseException {
         if (!Strings.isNullOrEmpty(dateValue) && !NULL_EMPTY_VALUES.contains(dateValue)) {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            Date date = sdf.parse(dateValue);
-            Integer savingstimeOffsetMinutesForParsedDate = date.getTimezoneOffset();
-            Integer localTimezoneOffsetMinuteDifference = getOffsetMinutesForSavingsTimeChange() - savingstimeOffsetMinutesForParsedDate;
-            return computeDaysFromDateUsingLocalMidnight(date, localTimezoneOffsetMinuteDifference);
+            return parseDate(dateValue).toEpochDay();
         }
         return null;
     }
@@ -602,9 +539,7 @@ public class DDPUtils {
      */
     public static Long parseYearFromDate(Date date) throws ParseException {
         if (date != null) {
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(date);
-            return Long.valueOf(calendar.get(Calendar.YEAR));
+            return Long.valueOf(LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).getYear());
         }
         return null;
     }
@@ -618,10 +553,7 @@ public class DDPUtils {
      */
     public static Long parseYearFromDate(String dateValue) throws ParseException {
         if (!Strings.isNullOrEmpty(dateValue) && !NULL_EMPTY_VALUES.contains(dateValue)) {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(sdf.parse(dateValue));
-            return Long.valueOf(calendar.get(Calendar.YEAR));
+            return Long.valueOf(parseDate(dateValue).getYear());
         }
         return null;
     }
@@ -652,7 +584,7 @@ public class DDPUtils {
      */
     public static String resolveYearsSinceBirth(String birthDate) throws ParseException {
         if (!Strings.isNullOrEmpty(birthDate) && !NULL_EMPTY_VALUES.contains(birthDate)) {
-            Long currentYear = parseYearFromDate(new Date());
+            Long currentYear = Long.valueOf(LocalDate.now().getYear());
             Long birthYear = parseYearFromDate(birthDate);
             if (currentYear != null && birthYear != null && birthYear > -1) {
                 return String.valueOf(currentYear - birthYear);
@@ -711,15 +643,9 @@ public class DDPUtils {
      * @return
      * @throws Exception
      */
-    @SuppressWarnings("unchecked")
     public static String constructRecord(Object object) throws Exception {
-        List<String> fields = (List<String>) object.getClass().getMethod("getFieldNames").invoke(object); // unchecked cast
-        List<String> record = new ArrayList<>();
-        for (String field : fields) {
-            String value = object.getClass().getMethod("get" + field).invoke(object).toString();
-            record.add(value.trim());
-        }
-        return String.join("\t", record);
+        RecordFieldAccessor accessor = RecordFieldAccessor.forClass(object.getClass());
+        return RecordFieldAccessor.toLine(object, accessor.getFieldNames(), String::trim);
     }
 
     /**
@@ -729,19 +655,12 @@ public class DDPUtils {
      * @return
      * @throws Exception
      */
-    @SuppressWarnings("unchecked")
     public static String constructRecord(Object object, Boolean firstInclude, Boolean secondInclude, Boolean thirdInclude, Boolean fourthInclude) throws Exception {
         // we probably should just call this method constructClinicalRecord, not sure keeping it general makes sense
-        List<String> fields = (List<String>) object
-                                    .getClass()
-                                    .getMethod("getFieldNames", Boolean.class, Boolean.class, Boolean.class, Boolean.class)
-                                    .invoke(object, firstInclude, secondInclude, thirdInclude, fourthInclude); // unchecked cast
-        List<String> record = new ArrayList<>();
-        for (String field : fields) {
-            String value = object.getClass().getMethod("get" + field).invoke(object).toString();
-            record.add(value.trim());
-        }
-        return String.join("\t", record);
+        RecordFieldAccessor accessor = RecordFieldAccessor.forClass(object.getClass());
+        List<String> fields = accessor.getFieldNames(CLINICAL_FIELD_NAMES_PARAMETER_TYPES,
+                new Object[]{firstInclude, secondInclude, thirdInclude, fourthInclude});
+        return RecordFieldAccessor.toLine(object, fields, String::trim);
     }
 
     /**
@@ -754,12 +673,35 @@ public class DDPUtils {
     }
 
     /**
-     * Reads a file into a list, sorts, and overwrites original file with sorted records
+     * Sorts the records of a file and overwrites original file with the header and sorted records
      */
     public static void sortAndWrite(String filename, String header) throws IOException {
-        List<String> recordsInFile = readRecordsFromFile(filename);
-        Collections.sort(recordsInFile);
-        writeRecordsToFile(filename, header, recordsInFile);
+        sortAndWrite(filename, header, new ExternalLineSorter());
+    }
+
+    /**
+     * Sorts the records of a file with the given sorter, which bounds the memory used
+     * by spilling sorted runs to temporary files for large files
+     */
+    public static void sortAndWrite(String filename, String header, ExternalLineSorter sorter) throws IOException {
+        sorter.sortFile(Paths.get(filename), header);
+    }
+
+    /**
+     * Returns the number of records in a given file
+     * first line is skipped under the assumption it is a header
+     * @param filename
+     */
+    public static int countRecordsInFile(String filename) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            // skip first line (header)
+            reader.readLine();
+            while (reader.readLine() != null) {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
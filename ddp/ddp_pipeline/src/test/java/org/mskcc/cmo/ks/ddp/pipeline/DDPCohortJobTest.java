@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import org.cbioportal.cmo.pipelines.common.util.EmailUtil;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/* Runs ddpCohortJob end to end : the reader, the AsyncItemProcessor on the processor thread pool,
+ * the fan-out writers, sort and email steps, with the job repository of the pipeline's configuration.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = DDPCohortJobTestConfiguration.class, initializers = DDPCohortJobTestConfiguration.Initializer.class)
+@TestPropertySource(
+    locations = "file:src/main/resources/application.properties.EXAMPLE",
+    properties = {
+        "processor.thread.pool.size=4",
+        "processor.thread.pool.max=4",
+        "chunk=10",
+        "ddp.reader.identifier_lookahead=16"
+    }
+)
+public class DDPCohortJobTest {
+
+    // the job repository of BatchConfiguration, relative to the working directory
+    private static final File JOB_REPOSITORY_FILE = new File("repository.sqlite");
+    private static boolean jobRepositoryFileExisted;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier(BatchConfiguration.DDP_COHORT_JOB)
+    private Job ddpCohortJob;
+
+    @Autowired
+    private DDPCohortJobTestConfiguration.CohortDDPDataSource cohortDdpDataSource;
+
+    @Autowired
+    private EmailUtil emailUtil;
+
+    @Value("${ddp.clinical_filename}")
+    private String clinicalFilename;
+
+    @Value("${ddp.age_at_seq_date_filename}")
+    private String ageAtSeqDateFilename;
+
+    @Value("${ddp.partition.count:1}")
+    private int partitionCount;
+
+    @BeforeClass
+    public static void recordJobRepositoryFile() {
+        jobRepositoryFileExisted = JOB_REPOSITORY_FILE.exists();
+    }
+
+    @AfterClass
+    public static void removeJobRepositoryFile() {
+        if (!jobRepositoryFileExisted) {
+            JOB_REPOSITORY_FILE.delete();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        cohortDdpDataSource.reset();
+        Mockito.reset(emailUtil);
+    }
+
+    @Test
+    public void testCohortJob() throws Exception {
+        File outputDirectory = temporaryFolder.newFolder("output");
+        JobExecution jobExecution = jobLauncher.run(ddpCohortJob, makeJobParameters(outputDirectory));
+        Assert.assertEquals(jobExecution.getAllFailureExceptions().toString(), ExitStatus.COMPLETED, jobExecution.getExitStatus());
+        if (partitionCount > 1) {
+            Assert.assertEquals(partitionCount, jobExecution.getStepExecutions().stream()
+                    .filter(stepExecution -> stepExecution.getStepName().startsWith("ddpStep:")).count());
+        }
+
+        Set<String> expectedPatientIds = new HashSet<>();
+        for (int pid = 1; pid <= DDPCohortJobTestConfiguration.COHORT_SIZE; pid++) {
+            expectedPatientIds.add(DDPCohortJobTestConfiguration.getDmpPatientId(pid));
+        }
+        expectedPatientIds.removeAll(DDPCohortJobTestConfiguration.PATIENTS_WITHOUT_DEMOGRAPHICS);
+        Map<String, Map<String, String>> clinicalRecords = readRecords(outputDirectory.toPath().resolve(clinicalFilename));
+        Assert.assertEquals(expectedPatientIds, clinicalRecords.keySet());
+        // seq dates from the job's seq date file are used by the processor threads
+        Assert.assertEquals("12.00", clinicalRecords.get("P-0000001").get("OS_MONTHS"));
+        Assert.assertEquals("NA", clinicalRecords.get(DDPCohortJobTestConfiguration.PATIENT_SEQUENCED_AFTER_LAST_CONTACT).get("OS_MONTHS"));
+        Assert.assertEquals("Yes", clinicalRecords.get("P-0000010").get("PED_IND"));
+        Assert.assertEquals("No", clinicalRecords.get("P-0000011").get("PED_IND"));
+        Assert.assertEquals(expectedPatientIds, readRecords(outputDirectory.toPath().resolve(ageAtSeqDateFilename)).keySet()
+                .stream().map(sampleId -> sampleId.substring(0, 9)).collect(Collectors.toSet()));
+
+        // the pediatric cohort is fetched once per job, every patient is looked up once
+        Assert.assertEquals(1, Collections.frequency(cohortDdpDataSource.getCohortRequests(), DDPCohortJobTestConfiguration.MSKIMPACT_PED_COHORT_ID));
+        Assert.assertEquals(DDPCohortJobTestConfiguration.COHORT_SIZE, cohortDdpDataSource.getPatientIdentifierRequests().size());
+        // patients are collected for the summary email by the processor threads
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(emailUtil).sendEmailToDefaultRecipient(Mockito.anyString(), body.capture());
+        Assert.assertTrue(body.getValue(), body.getValue().contains("2 patients that were included are missing demographics"));
+        for (String patientId : DDPCohortJobTestConfiguration.PATIENTS_WITHOUT_DEMOGRAPHICS) {
+            Assert.assertTrue(body.getValue(), body.getValue().contains(patientId));
+        }
+        Assert.assertFalse(body.getValue(), body.getValue().contains("missing survival information"));
+    }
+
+    protected JobParameters makeJobParameters(File outputDirectory) throws IOException {
+        return new JobParametersBuilder()
+                .addString("cohortName", "mskimpact")
+                .addString("subsetFilename", "")
+                .addString("seqDateFilename", writeSeqDateFile().getAbsolutePath())
+                .addString("excludedPatientsFilename", "")
+                .addString("outputDirectory", outputDirectory.getAbsolutePath())
+                .addString("currentDemographicsRecCount", "0")
+                .addString("testMode", "false")
+                .addString("includeDiagnosis", "false")
+                .addString("includeAgeAtSeqDate", "true")
+                .addString("includeRadiation", "false")
+                .addString("includeChemotherapy", "false")
+                .addString("includeSurgery", "false")
+                .addString("includeSurvival", "true")
+                .addLong("time", System.nanoTime())
+                .toJobParameters();
+    }
+
+    private File writeSeqDateFile() throws IOException {
+        File seqDateFile = temporaryFolder.newFile();
+        List<String> lines = new ArrayList<>();
+        lines.add("PATIENT_ID\tSAMPLE_ID\tSEQ_DATE");
+        for (int pid = 1; pid <= DDPCohortJobTestConfiguration.COHORT_SIZE; pid++) {
+            String dmpPatientId = DDPCohortJobTestConfiguration.getDmpPatientId(pid);
+            String seqDate = dmpPatientId.equals(DDPCohortJobTestConfiguration.PATIENT_SEQUENCED_AFTER_LAST_CONTACT) ?
+                    "Mon, 15 Jan 2018 12:00:00 GMT" : "Sat, 31 Dec 2016 12:00:00 GMT";
+            lines.add(dmpPatientId + "\t" + dmpPatientId + "-T01-IM6\t" + seqDate);
+        }
+        Files.write(seqDateFile.toPath(), lines);
+        return seqDateFile;
+    }
+
+    /* records of a tab-delimited output file by their first column */
+    protected Map<String, Map<String, String>> readRecords(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        String[] header = lines.get(0).split("\t", -1);
+        Map<String, Map<String, String>> records = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] values = line.split("\t", -1);
+            Map<String, String> record = new HashMap<>();
+            for (int column = 0; column < header.length; column++) {
+                record.put(header[column], values[column]);
+            }
+            Assert.assertNull("duplicate record: " + values[0], records.put(values[0], record));
+        }
+        return records;
+    }
+}
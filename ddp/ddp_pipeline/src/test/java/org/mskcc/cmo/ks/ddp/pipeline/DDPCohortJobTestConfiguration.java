@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import org.cbioportal.cmo.pipelines.common.util.EmailUtil;
+import org.mockito.Mockito;
+import org.mskcc.cmo.ks.ddp.DDPPipeline;
+import org.mskcc.cmo.ks.ddp.source.DDPDataSource;
+import org.mskcc.cmo.ks.ddp.source.model.*;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.*;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+/**
+ * Runs the DDP pipeline's own application configuration (DDPPipeline, the spring boot batch
+ * auto-configuration and BatchConfiguration's sqlite job repository) against an in-memory
+ * DDP cohort. The pipeline's component scans also cover the test classes, Initializer keeps
+ * the other test configurations of the module out of the context.
+ */
+@Configuration
+@Import(DDPPipeline.class)
+public class DDPCohortJobTestConfiguration {
+
+    public static final int MSKIMPACT_COHORT_ID = 2033;
+    public static final int MSKIMPACT_PED_COHORT_ID = 1852;
+    public static final int COHORT_SIZE = 60;
+    // patients whose demographics request fails
+    public static final Set<String> PATIENTS_WITHOUT_DEMOGRAPHICS = new HashSet<>(Arrays.asList("P-0000007", "P-0000033"));
+    // patient sequenced after its last contact date
+    public static final String PATIENT_SEQUENCED_AFTER_LAST_CONTACT = "P-0000012";
+    public static final String LAST_CONTACT_DATE = "2017-12-31";
+
+    public static String getDmpPatientId(int pid) {
+        return String.format("P-%07d", pid);
+    }
+
+    public static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+        @Override
+        public void initialize(ConfigurableApplicationContext applicationContext) {
+            applicationContext.getBeanFactory().registerSingleton("testClassesExcludeFilter", new TypeExcludeFilter() {
+                @Override
+                public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+                    try {
+                        return metadataReader.getResource().getURL().getPath().contains("/test-classes/");
+                    } catch (IOException e) {
+                        return false;
+                    }
+                }
+            });
+        }
+    }
+
+    @Bean
+    @Primary
+    public DDPDataSource cohortDdpDataSource() {
+        return new CohortDDPDataSource();
+    }
+
+    @Bean
+    @Primary
+    public EmailUtil mockEmailUtil() {
+        return Mockito.mock(EmailUtil.class);
+    }
+
+    public static class CohortDDPDataSource implements DDPDataSource {
+
+        private final Set<String> patientIdentifierRequests = Collections.synchronizedSet(new HashSet<>());
+        private final List<Integer> cohortRequests = Collections.synchronizedList(new ArrayList<>());
+
+        public Set<String> getPatientIdentifierRequests() {
+            return patientIdentifierRequests;
+        }
+
+        public List<Integer> getCohortRequests() {
+            return cohortRequests;
+        }
+
+        public void reset() {
+            patientIdentifierRequests.clear();
+            cohortRequests.clear();
+        }
+
+        @Override
+        public List<Cohort> getAuthorizedCohorts() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<CohortPatient> getPatientRecordsByCohortId(Integer cohortId) {
+            cohortRequests.add(cohortId);
+            List<CohortPatient> cohortPatients = new ArrayList<>();
+            for (int pid = 1; pid <= COHORT_SIZE; pid++) {
+                if (cohortId == MSKIMPACT_COHORT_ID || (cohortId == MSKIMPACT_PED_COHORT_ID && pid % 10 == 0)) {
+                    CohortPatient cohortPatient = new CohortPatient();
+                    cohortPatient.setPID(pid);
+                    cohortPatient.setCOHORTID(cohortId);
+                    cohortPatients.add(cohortPatient);
+                }
+            }
+            return cohortPatients;
+        }
+
+        @Override
+        public CompletableFuture<PatientIdentifiers> getPatientIdentifiers(String patientId) {
+            patientIdentifierRequests.add(patientId);
+            PatientIdentifiers patientIdentifiers = new PatientIdentifiers();
+            patientIdentifiers.setDmpPatientId(getDmpPatientId(Integer.parseInt(patientId)));
+            patientIdentifiers.setDmpSampleIds(Collections.singletonList(patientIdentifiers.getDmpPatientId() + "-T01-IM6"));
+            // complete from another thread, as the DDP client does
+            return CompletableFuture.supplyAsync(() -> patientIdentifiers);
+        }
+
+        @Override
+        public CompletableFuture<PatientDemographics> getPatientDemographics(String patientId) {
+            if (PATIENTS_WITHOUT_DEMOGRAPHICS.contains(patientId)) {
+                CompletableFuture<PatientDemographics> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new RuntimeException("500 Internal Server Error"));
+                return failed;
+            }
+            PatientDemographics demographics = new PatientDemographics();
+            demographics.setDeidentPT(Integer.valueOf(patientId.substring(2)));
+            demographics.setCurrentAge(58);
+            demographics.setDateOfBirth("1960-01-01");
+            demographics.setPTBIRTHDTE("1960-01-01");
+            demographics.setDeceasedDate("");
+            demographics.setPTDEATHDTE("");
+            demographics.setLastContactDate(LAST_CONTACT_DATE);
+            demographics.setPLALASTCONTACTDTE(LAST_CONTACT_DATE);
+            demographics.setPLALASTACTVDTE(LAST_CONTACT_DATE);
+            demographics.setGender("FEMALE");
+            demographics.setRace("WHITE");
+            demographics.setEthnicity("Non-Spanish; Non-Hispanic");
+            demographics.setReligion("NONE");
+            return CompletableFuture.supplyAsync(() -> demographics);
+        }
+
+        @Override
+        public CompletableFuture<List<PatientDiagnosis>> getPatientDiagnoses(String patientId) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        @Override
+        public CompletableFuture<List<Radiation>> getPatientRadiationProcedures(String patientId) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        @Override
+        public CompletableFuture<List<Chemotherapy>> getPatientChemoProcedures(String patientId) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        @Override
+        public CompletableFuture<List<Surgery>> getPatientSurgicalProcedures(String patientId) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+    }
+}
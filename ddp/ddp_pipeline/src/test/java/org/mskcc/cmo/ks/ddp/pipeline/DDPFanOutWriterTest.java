@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mskcc.cmo.ks.ddp.pipeline.model.*;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPBufferPool;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class DDPFanOutWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* every enabled file gets its header and the lines routed from each result, in chunk order
+    */
+    @Test
+    public void testResultsAreRoutedToEachFile() throws Exception {
+        File outputDirectory = temporaryFolder.newFolder("output");
+        // buffers smaller than a line force lines to be written across several buffers
+        DDPBufferPool bufferPool = new DDPBufferPool(16, 4);
+        DDPFanOutWriter writer = makeWriter(outputDirectory, bufferPool, "mskimpact", false);
+        writer.open(new ExecutionContext());
+        String longLine = "P-0000002\t" + String.join("", Collections.nCopies(100, "é"));
+        writer.write(new Chunk<>(Arrays.asList(
+                makeResult("P-0000001\tF", Arrays.asList("P-0000001\t10\tSTART", "P-0000001\t20\tSTART"), "P-0000001\tALIVE"),
+                makeResult(longLine, null, null))));
+        long allocatedBuffers = bufferPool.getAllocatedCount();
+        writer.write(new Chunk<>(Arrays.asList(makeResult("P-0000003\tM", new ArrayList<>(), "P-0000003\tDECEASED"))));
+        String report = writer.getThroughputReport();
+        writer.close();
+
+        Assert.assertEquals(Arrays.asList(String.join("\t", ClinicalRecord.getFieldNames(false, true, false, false)), "P-0000001\tF", longLine, "P-0000003\tM"),
+                readLines(outputDirectory, "data_clinical_ddp.txt"));
+        Assert.assertEquals(Arrays.asList(String.join("\t", TimelineRadiationRecord.getFieldNames()), "P-0000001\t10\tSTART", "P-0000001\t20\tSTART"),
+                readLines(outputDirectory, "data_timeline_ddp_radiation.txt"));
+        Assert.assertEquals(Arrays.asList(String.join("\t", SuppVitalStatusRecord.getFieldNames()), "P-0000001\tALIVE", "P-0000003\tDECEASED"),
+                readLines(outputDirectory, "ddp" + File.separator + "ddp_vital_status.txt"));
+        Assert.assertEquals(Arrays.asList(String.join("\t", SuppNaaccrMappingsRecord.getFieldNames())),
+                readLines(outputDirectory, "ddp" + File.separator + "ddp_naaccr.txt"));
+        Assert.assertFalse(Files.exists(outputDirectory.toPath().resolve("data_timeline_ddp_surgery.txt")));
+        Assert.assertTrue(report, report.contains("data_clinical_ddp.txt: 3 lines"));
+        Assert.assertTrue(report, report.contains("data_timeline_ddp_radiation.txt: 2 lines"));
+        // the buffers of the first chunk are returned once it is written and reused for the next chunk
+        Assert.assertEquals(allocatedBuffers, bufferPool.getAllocatedCount());
+    }
+
+    /* a chunk is only written when its transaction commits, a rolled back chunk is dropped */
+    @Test
+    public void testChunksAreWrittenOnCommit() throws Exception {
+        File outputDirectory = temporaryFolder.newFolder("output");
+        DDPFanOutWriter writer = makeWriter(outputDirectory, new DDPBufferPool(16, 4), "mskspectrum", false);
+        writer.open(new ExecutionContext());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+        transactionTemplate.executeWithoutResult(status -> {
+            writeUnchecked(writer, makeResult("P-0000001\tF", null, null));
+            Assert.assertEquals(1, readLinesUnchecked(outputDirectory, "data_clinical_ddp.txt").size());
+        });
+        Assert.assertEquals(2, readLines(outputDirectory, "data_clinical_ddp.txt").size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writeUnchecked(writer, makeResult("P-0000002\tM", null, null));
+                throw new IllegalStateException("chunk failed");
+            });
+            Assert.fail("transaction did not fail");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        transactionTemplate.executeWithoutResult(status -> writeUnchecked(writer, makeResult("P-0000003\tM", null, null)));
+        writer.close();
+        Assert.assertEquals(Arrays.asList("P-0000001\tF", "P-0000003\tM"), readLines(outputDirectory, "data_clinical_ddp.txt").subList(1, 3));
+    }
+
+    /* a restarted writer truncates each file to the position saved with the last committed chunk */
+    @Test
+    public void testRestartResumesFromSavedPosition() throws Exception {
+        File outputDirectory = temporaryFolder.newFolder("output");
+        ExecutionContext executionContext = new ExecutionContext();
+        DDPFanOutWriter writer = makeWriter(outputDirectory, new DDPBufferPool(), "mskimpact", false);
+        writer.open(executionContext);
+        writer.write(new Chunk<>(Arrays.asList(makeResult("P-0000001\tF", Arrays.asList("P-0000001\t10\tSTART"), "P-0000001\tALIVE"))));
+        writer.update(executionContext);
+        writer.close();
+        // bytes written after the last update, as by a chunk which failed before its step execution was saved
+        Files.write(outputDirectory.toPath().resolve("data_clinical_ddp.txt"), Arrays.asList("P-0000002\tM"), StandardOpenOption.APPEND);
+
+        DDPFanOutWriter restartedWriter = makeWriter(outputDirectory, new DDPBufferPool(), "mskimpact", false);
+        restartedWriter.open(executionContext);
+        restartedWriter.write(new Chunk<>(Arrays.asList(makeResult("P-0000002\tM", null, "P-0000002\tDECEASED"))));
+        restartedWriter.close();
+        Assert.assertEquals(Arrays.asList(String.join("\t", ClinicalRecord.getFieldNames(false, true, false, false)), "P-0000001\tF", "P-0000002\tM"),
+                readLines(outputDirectory, "data_clinical_ddp.txt"));
+        Assert.assertEquals(Arrays.asList(String.join("\t", TimelineRadiationRecord.getFieldNames()), "P-0000001\t10\tSTART"),
+                readLines(outputDirectory, "data_timeline_ddp_radiation.txt"));
+        Assert.assertEquals(Arrays.asList(String.join("\t", SuppVitalStatusRecord.getFieldNames()), "P-0000001\tALIVE", "P-0000002\tDECEASED"),
+                readLines(outputDirectory, "ddp" + File.separator + "ddp_vital_status.txt"));
+    }
+
+    @Test
+    public void testMissingClinicalRecordFailsChunk() throws Exception {
+        File outputDirectory = temporaryFolder.newFolder("output");
+        DDPFanOutWriter writer = makeWriter(outputDirectory, new DDPBufferPool(), "mskspectrum", false);
+        writer.open(new ExecutionContext());
+        try {
+            writer.write(new Chunk<>(Arrays.asList(makeResult("P-0000001\tF", null, null), makeResult(null, null, null))));
+            Assert.fail("result without a clinical record was written");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        writer.close();
+        Assert.assertEquals(1, readLines(outputDirectory, "data_clinical_ddp.txt").size());
+    }
+
+    @Test
+    public void testSupplementalFilesOnlyForImpactCohorts() throws Exception {
+        File outputDirectory = temporaryFolder.newFolder("output");
+        DDPFanOutWriter writer = makeWriter(outputDirectory, new DDPBufferPool(), "mskspectrum", false);
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(Arrays.asList(makeResult("P-0000001\tF", null, "P-0000001\tALIVE"))));
+        writer.close();
+        Assert.assertEquals(2, readLines(outputDirectory, "data_clinical_ddp.txt").size());
+        Assert.assertFalse(Files.exists(outputDirectory.toPath().resolve("ddp")));
+    }
+
+    private void writeUnchecked(DDPFanOutWriter writer, CompositeResult result) {
+        try {
+            writer.write(new Chunk<>(Arrays.asList(result)));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private DDPFanOutWriter makeWriter(File outputDirectory, DDPBufferPool bufferPool, String cohortName, Boolean includeSurgery) {
+        DDPFanOutWriter writer = new DDPFanOutWriter();
+        ReflectionTestUtils.setField(writer, "outputDirectory", outputDirectory.getAbsolutePath());
+        ReflectionTestUtils.setField(writer, "clinicalFilename", "data_clinical_ddp.txt");
+        ReflectionTestUtils.setField(writer, "ageAtSeqDateFilename", "data_clinical_ddp_age_at_seq.txt");
+        ReflectionTestUtils.setField(writer, "timelineRadiationFilename", "data_timeline_ddp_radiation.txt");
+        ReflectionTestUtils.setField(writer, "timelineChemotherapyFilename", "data_timeline_ddp_chemotherapy.txt");
+        ReflectionTestUtils.setField(writer, "timelineSurgeryFilename", "data_timeline_ddp_surgery.txt");
+        ReflectionTestUtils.setField(writer, "ddpSuppDirname", "ddp");
+        ReflectionTestUtils.setField(writer, "ddpSuppVitalStatusFilename", "ddp_vital_status.txt");
+        ReflectionTestUtils.setField(writer, "ddpSuppNaaccrMappingsFilename", "ddp_naaccr.txt");
+        ReflectionTestUtils.setField(writer, "cohortName", cohortName);
+        ReflectionTestUtils.setField(writer, "includeDiagnosis", Boolean.FALSE);
+        ReflectionTestUtils.setField(writer, "includeAgeAtSeqDate", Boolean.FALSE);
+        ReflectionTestUtils.setField(writer, "includeRadiation", Boolean.TRUE);
+        ReflectionTestUtils.setField(writer, "includeChemotherapy", Boolean.FALSE);
+        ReflectionTestUtils.setField(writer, "includeSurgery", includeSurgery);
+        ReflectionTestUtils.setField(writer, "ddpBufferPool", bufferPool);
+        return writer;
+    }
+
+    private CompositeResult makeResult(String clinicalResult, List<String> radiationResults, String vitalStatusResult) {
+        CompositeResult result = new CompositeResult();
+        result.setClinicalResult(clinicalResult);
+        result.setTimelineRadiationResults(radiationResults);
+        result.setSuppVitalStatusResult(vitalStatusResult);
+        return result;
+    }
+
+    private List<String> readLines(File outputDirectory, String filename) throws Exception {
+        return Files.readAllLines(outputDirectory.toPath().resolve(filename), StandardCharsets.UTF_8);
+    }
+
+    private List<String> readLinesUnchecked(File outputDirectory, String filename) {
+        try {
+            return readLines(outputDirectory, filename);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
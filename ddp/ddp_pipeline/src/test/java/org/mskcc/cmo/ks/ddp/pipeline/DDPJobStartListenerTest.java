@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPJobData;
+import org.mskcc.cmo.ks.ddp.source.DDPDataSource;
+import org.mskcc.cmo.ks.ddp.source.model.CohortPatient;
+import org.springframework.batch.core.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DDPJobStartListenerTest {
+
+    private final DDPDataSource ddpDataSource = Mockito.mock(DDPDataSource.class);
+    private final DDPJobStartListener listener = new DDPJobStartListener();
+
+    @Before
+    public void setUp() throws Exception {
+        CohortPatient cohortPatient = new CohortPatient();
+        cohortPatient.setPID(10);
+        Mockito.when(ddpDataSource.getPatientRecordsByCohortId(1852)).thenReturn(Collections.singletonList(cohortPatient));
+        ReflectionTestUtils.setField(listener, "ddpDataSource", ddpDataSource);
+        ReflectionTestUtils.setField(listener, "ddpCohortMap", Collections.singletonMap("mskimpact_ped", 1852));
+    }
+
+    /* two job executions running in one JVM each get their own data, which is dropped when the job ends */
+    @Test
+    public void testJobDataIsKeptPerJobExecution() {
+        JobExecution firstJobExecution = makeJobExecution(1L);
+        JobExecution secondJobExecution = makeJobExecution(2L);
+        listener.beforeJob(firstJobExecution);
+        DDPJobData firstJobData = listener.getJobData(1L);
+        firstJobData.getPatientListUtil().addPatientsMissingDemographics("P-0000001");
+        listener.beforeJob(secondJobExecution);
+        DDPJobData secondJobData = listener.getJobData(2L);
+
+        Assert.assertNotSame(firstJobData, secondJobData);
+        Assert.assertSame(firstJobData, listener.getJobData(1L));
+        Assert.assertEquals(Collections.singleton("P-0000001"), firstJobData.getPatientListUtil().getPatientsMissingDemographics());
+        Assert.assertTrue(secondJobData.getPatientListUtil().getPatientsMissingDemographics().isEmpty());
+        Assert.assertEquals(Collections.singleton(10), secondJobData.getPediatricCohortPatientIds());
+        Assert.assertFalse(secondJobData.getSeqDateIndex().isSeqDateFileProvided());
+
+        listener.afterJob(firstJobExecution);
+        Assert.assertSame(secondJobData, listener.getJobData(2L));
+        try {
+            listener.getJobData(1L);
+            Assert.fail("job data of a finished job execution was returned");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPediatricCohortIsImmutable() {
+        listener.beforeJob(makeJobExecution(3L));
+        listener.getJobData(3L).getPediatricCohortPatientIds().add(11);
+    }
+
+    private JobExecution makeJobExecution(Long id) {
+        JobParameters jobParameters = new JobParametersBuilder().addString("seqDateFilename", "").toJobParameters();
+        return new JobExecution(new JobInstance(id, "ddpCohortJob"), id, jobParameters);
+    }
+}
@@ -1,15 +1,15 @@
 /*
- * Copyright (c) 2019 Memorial Sloan-Kettering Cancer Center.
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
  *
  * This library is distributed in the hope that it will be useful, but WITHOUT
  * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
  * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
- * is on an "as is" basis, and Memorial Sloan-Kettering Cancer Center has no
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
  * obligations to provide maintenance, support, updates, enhancements or
- * modifications. In no event shall Memorial Sloan-Kettering Cancer Center be
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
  * liable to any party for direct, indirect, special, incidental or
  * consequential damages, including lost profits, arising out of the use of this
- * software and its documentation, even if Memorial Sloan-Kettering Cancer
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
  * Center has been advised of the possibility of such damage.
  */
 
@@ -32,9 +32,11 @@
 
 package org.mskcc.cmo.ks.ddp.pipeline;
 
-import org.springframework.context.annotation.*;
+import org.springframework.test.context.TestPropertySource;
 
-@Configuration
-public class DDPSeqDateTaskletTestConfiguration {
-    // TO-DO: Get rid of DDPSeqDateTaskletTestConfiguration if not going to be expanded
+/* Runs the DDPCohortJobTest job split into partitions : the partition steps run concurrently on the
+ * partition thread pool, each with its own AsyncItemProcessor, against the same sqlite job repository.
+ */
+@TestPropertySource(properties = "ddp.partition.count=3")
+public class DDPPartitionedCohortJobTest extends DDPCohortJobTest {
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mskcc.cmo.ks.ddp.pipeline.util.DDPPatientListUtil;
+import org.mskcc.cmo.ks.ddp.source.DDPDataSource;
+import org.mskcc.cmo.ks.ddp.source.composite.DDPCompositeRecord;
+import org.mskcc.cmo.ks.ddp.source.internal.DDPResponseCache;
+import org.mskcc.cmo.ks.ddp.source.model.CohortPatient;
+import org.mskcc.cmo.ks.ddp.source.model.PatientIdentifiers;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DDPReaderTest {
+
+    private static final int COHORT_SIZE = 1000;
+    private static final int LOOKAHEAD = 8;
+
+    private final DDPDataSource ddpDataSource = Mockito.mock(DDPDataSource.class);
+    private final DDPPatientListUtil ddpPatientListUtil = new DDPPatientListUtil();
+    private final Map<String, CompletableFuture<PatientIdentifiers>> lookups = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @Before
+    public void setUp() throws Exception {
+        List<CohortPatient> cohort = new ArrayList<>();
+        for (int pid = 1; pid <= COHORT_SIZE; pid++) {
+            CohortPatient cohortPatient = new CohortPatient();
+            cohortPatient.setPID(pid);
+            cohort.add(cohortPatient);
+        }
+        Mockito.when(ddpDataSource.getPatientRecordsByCohortId(2033)).thenReturn(cohort);
+        Mockito.when(ddpDataSource.getPatientRecordsByCohortId(1852)).thenReturn(new ArrayList<>());
+        Mockito.when(ddpDataSource.getPatientIdentifiers(Mockito.anyString())).thenAnswer(invocation -> {
+            String patientId = invocation.getArgument(0);
+            CompletableFuture<PatientIdentifiers> lookup = new CompletableFuture<>();
+            lookups.put(patientId, lookup);
+            switch (patientId) {
+                case "1":
+                    // first patient resolves late, after later patients have been read
+                    scheduler.schedule(() -> lookup.complete(makePatientIdentifiers("P-0000001")), 200, TimeUnit.MILLISECONDS);
+                    break;
+                case "2":
+                    lookup.completeExceptionally(new RuntimeException("403 Forbidden"));
+                    break;
+                case "3":
+                    lookup.complete(makePatientIdentifiers("P-0000000"));
+                    break;
+                default:
+                    lookup.complete(makePatientIdentifiers(String.format("P-%07d", Integer.valueOf(patientId))));
+            }
+            return lookup;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /* records are handed out as their identifiers resolve, with no more than the lookahead outstanding
+    */
+    @Test
+    public void testRecordsAreStreamedWithinLookahead() throws Exception {
+        DDPReader reader = makeReader();
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        Assert.assertTrue("no lookups should start before the first read", lookups.isEmpty());
+
+        DDPCompositeRecord first = reader.read();
+        Assert.assertEquals("P-0000004", first.getDmpPatientId());
+        Assert.assertEquals(Integer.valueOf(4), first.getCohortPatient().getPID());
+        Assert.assertTrue("lookups started: " + lookups.size(), lookups.size() <= LOOKAHEAD + 3);
+
+        Set<String> dmpPatientIds = new HashSet<>();
+        dmpPatientIds.add(first.getDmpPatientId());
+        int readCount = 1;
+        DDPCompositeRecord compositeRecord;
+        while ((compositeRecord = reader.read()) != null) {
+            dmpPatientIds.add(compositeRecord.getDmpPatientId());
+            readCount++;
+            // lookups started never run more than the lookahead ahead of what was read or skipped
+            Assert.assertTrue(lookups.size() <= readCount + 2 + LOOKAHEAD);
+        }
+        Assert.assertEquals(COHORT_SIZE - 2, readCount);
+        Assert.assertEquals(COHORT_SIZE - 2, dmpPatientIds.size());
+        Assert.assertTrue(dmpPatientIds.contains("P-0000001"));
+        Assert.assertEquals(Collections.singleton("2"), ddpPatientListUtil.getPatientsMissingDMPIds());
+        reader.close();
+    }
+
+    @Test
+    public void testTestModeLimitsRequestedPatients() throws Exception {
+        DDPReader reader = makeReader();
+        ReflectionTestUtils.setField(reader, "testMode", Boolean.TRUE);
+        reader.open(new ExecutionContext());
+        while (reader.read() != null) {}
+        Assert.assertEquals(500, lookups.size());
+    }
+
+    /* readers for each partition stream disjoint patients which together cover the cohort
+    */
+    @Test
+    public void testPartitionsCoverCohortOnce() throws Exception {
+        Set<String> dmpPatientIds = new HashSet<>();
+        int readCount = 0;
+        for (int partitionIndex = 0; partitionIndex < 3; partitionIndex++) {
+            DDPReader reader = makeReader();
+            ReflectionTestUtils.setField(reader, "partitionIndex", partitionIndex);
+            ReflectionTestUtils.setField(reader, "partitionCount", 3);
+            reader.open(new ExecutionContext());
+            DDPCompositeRecord compositeRecord;
+            while ((compositeRecord = reader.read()) != null) {
+                dmpPatientIds.add(compositeRecord.getDmpPatientId());
+                readCount++;
+            }
+        }
+        Assert.assertEquals(COHORT_SIZE - 2, readCount);
+        Assert.assertEquals(COHORT_SIZE - 2, dmpPatientIds.size());
+    }
+
+    private DDPReader makeReader() {
+        Map<String, Integer> ddpCohortMap = new HashMap<>();
+        ddpCohortMap.put("mskimpact", 2033);
+        ddpCohortMap.put("mskimpact_ped", 1852);
+        DDPReader reader = new DDPReader();
+        ReflectionTestUtils.setField(reader, "cohortName", "mskimpact");
+        ReflectionTestUtils.setField(reader, "testMode", Boolean.FALSE);
+        ReflectionTestUtils.setField(reader, "identifierLookahead", LOOKAHEAD);
+        ReflectionTestUtils.setField(reader, "ddpCohortMap", ddpCohortMap);
+        ReflectionTestUtils.setField(reader, "ddpDataSource", ddpDataSource);
+        ReflectionTestUtils.setField(reader, "ddpPatientListUtil", ddpPatientListUtil);
+        ReflectionTestUtils.setField(reader, "ddpResponseCache", new DDPResponseCache());
+        return reader;
+    }
+
+    private PatientIdentifiers makePatientIdentifiers(String dmpPatientId) {
+        PatientIdentifiers patientIdentifiers = new PatientIdentifiers();
+        patientIdentifiers.setDmpPatientId(dmpPatientId);
+        patientIdentifiers.setDmpSampleIds(Collections.singletonList(dmpPatientId + "-T01-IM6"));
+        return patientIdentifiers;
+    }
+}
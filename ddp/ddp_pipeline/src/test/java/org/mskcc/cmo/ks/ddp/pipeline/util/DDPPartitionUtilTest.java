@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline.util;
+
+import java.nio.file.*;
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+
+public class DDPPartitionUtilTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* consecutive ids are spread over every partition in roughly equal shares
+    */
+    @Test
+    public void testPartitionForSpreadsConsecutiveIds() {
+        int[] partitionSizes = new int[8];
+        for (int pid = 1; pid <= 8000; pid++) {
+            int partition = DDPPartitionUtil.partitionFor(String.valueOf(pid), 8);
+            Assert.assertEquals(partition, DDPPartitionUtil.partitionFor(String.valueOf(pid), 8));
+            partitionSizes[partition]++;
+        }
+        for (int partitionSize : partitionSizes) {
+            Assert.assertTrue(Arrays.toString(partitionSizes), partitionSize > 800 && partitionSize < 1200);
+        }
+    }
+
+    /* a completion marker only counts for a run with the same job parameters and partition count
+    */
+    @Test
+    public void testCompletionMarkerMatchesRunSignature() throws Exception {
+        Path partitionDirectory = DDPPartitionUtil.getPartitionDirectory(temporaryFolder.getRoot().toString(), 2);
+        JobParameters jobParameters = new JobParametersBuilder().addString("cohortName", "mskimpact").addString("testMode", "false").toJobParameters();
+        JobParameters otherJobParameters = new JobParametersBuilder().addString("cohortName", "mskimpact").addString("testMode", "true").toJobParameters();
+        Assert.assertFalse(DDPPartitionUtil.isPartitionComplete(partitionDirectory, DDPPartitionUtil.getRunSignature(jobParameters, 4), 24));
+
+        DDPPartitionUtil.markPartitionComplete(partitionDirectory, DDPPartitionUtil.getRunSignature(jobParameters, 4));
+        Assert.assertTrue(DDPPartitionUtil.isPartitionComplete(partitionDirectory, DDPPartitionUtil.getRunSignature(jobParameters, 4), 24));
+        Assert.assertFalse(DDPPartitionUtil.isPartitionComplete(partitionDirectory, DDPPartitionUtil.getRunSignature(jobParameters, 8), 24));
+        Assert.assertFalse(DDPPartitionUtil.isPartitionComplete(partitionDirectory, DDPPartitionUtil.getRunSignature(otherJobParameters, 4), 24));
+
+        // the marker is not a data file, and deleting the partitions directory removes everything
+        Files.write(partitionDirectory.resolve("data_clinical_ddp.txt"), Arrays.asList("PATIENT_ID"));
+        Assert.assertEquals(Arrays.asList(Paths.get("data_clinical_ddp.txt")), DDPPartitionUtil.listPartitionFiles(partitionDirectory));
+        DDPPartitionUtil.deleteRecursively(DDPPartitionUtil.getPartitionsDirectory(temporaryFolder.getRoot().toString()));
+        Assert.assertFalse(Files.exists(partitionDirectory));
+    }
+}
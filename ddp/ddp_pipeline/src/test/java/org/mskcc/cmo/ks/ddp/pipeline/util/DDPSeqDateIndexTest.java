@@ -30,34 +30,28 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
 */
 
-package org.mskcc.cmo.ks.ddp.pipeline;
+package org.mskcc.cmo.ks.ddp.pipeline.util;
 
 import java.io.BufferedReader;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import org.junit.Assert;
-import org.junit.runner.RunWith;
 import org.junit.Test;
-import org.mskcc.cmo.ks.ddp.pipeline.util.DDPUtils;
 import org.mockito.*;
-import org.springframework.test.context.ContextConfiguration;
-import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
 /**
  *
  * @author Manda Wilson
  */
-@RunWith(SpringJUnit4ClassRunner.class)
-@ContextConfiguration(classes={DDPSeqDateTaskletTestConfiguration.class})
-public class DDPSeqDateTaskletTest {
+public class DDPSeqDateIndexTest {
 
     @Test
     public void testGetFirstSeqDatePerPatientFromFileInvalidHeader() throws Exception {
         BufferedReader mockBufferedReader = Mockito.mock(BufferedReader.class);
         Mockito.when(mockBufferedReader.readLine()).thenReturn("BLAH").thenReturn("SAMPLE_1\tPATIENT_1\tMon, 01 Oct 2018 15:09:02 GMT").thenReturn(null);
-        DDPSeqDateTasklet tasklet = new DDPSeqDateTasklet();
-        tasklet.setSeqDateMaps("filename", mockBufferedReader);
-        Map<String, Date> actualPatientFirstSeqDateMap = DDPUtils.getPatientFirstSeqDateMap();
-        Assert.assertTrue("Expected an empty map because of an invalid header", actualPatientFirstSeqDateMap.size() == 0);
+        DDPSeqDateIndex seqDateIndex = DDPSeqDateIndex.readSeqDateFile("filename", mockBufferedReader);
+        Assert.assertTrue("Expected an empty index because of an invalid header", seqDateIndex.getPatientCount() == 0);
+        Assert.assertTrue(seqDateIndex.isSeqDateFileProvided());
     }
 
     @Test
@@ -73,19 +67,23 @@ public class DDPSeqDateTaskletTest {
             .thenReturn("SAMPLE_6\tPATIENT_3\tMon, 22 Oct 2018 15:33:15 GMT")
             .thenReturn("SAMPLE_7\tPATIENT_1\tFri, 23 Nov 2018 15:01:19 GMT")
             .thenReturn("SAMPLE_8\tPATIENT_2\tMon, 01 Oct 2018 15:09:02 GMT")
-            .thenReturn("SAMPLE_9\tPATIENT_4\tTes, 14 Feb 2014 17:21:03 GMT") // invalid date, this patient should not have a seq date in map
+            .thenReturn("SAMPLE_9\tPATIENT_4\tTes, 14 Feb 2014 17:21:03 GMT") // invalid date, this patient should not have a seq date in index
             .thenReturn("SAMPLE_9\tPATIENT_3\tFri, 14 Feb 2014 17:21:03 GMT")
-            .thenReturn("SAMPLE_10\tPATIENT_5\t") // no date provided, this patient should not have a seq date in map
+            .thenReturn("SAMPLE_10\tPATIENT_5\t") // no date provided, this patient should not have a seq date in index
             .thenReturn(null);
-        DDPSeqDateTasklet tasklet = new DDPSeqDateTasklet();
-        tasklet.setSeqDateMaps("filename", mockBufferedReader);
-        Map<String, Date> actualPatientFirstSeqDateMap = DDPUtils.getPatientFirstSeqDateMap();
-        Map<String, Date> expectedPatientFirstSeqDateMap = new HashMap<String, Date>();
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
-        expectedPatientFirstSeqDateMap.put("PATIENT_1", simpleDateFormat.parse("Mon, 01 Oct 2018 15:09:02 GMT")); 
-        expectedPatientFirstSeqDateMap.put("PATIENT_2", simpleDateFormat.parse("Mon, 30 Mar 2015 17:21:08 GMT"));
-        expectedPatientFirstSeqDateMap.put("PATIENT_3", simpleDateFormat.parse("Fri, 14 Feb 2014 17:21:03 GMT"));
-        Assert.assertEquals(expectedPatientFirstSeqDateMap, actualPatientFirstSeqDateMap);
+        DDPSeqDateIndex seqDateIndex = DDPSeqDateIndex.readSeqDateFile("filename", mockBufferedReader);
+        Assert.assertEquals(3, seqDateIndex.getPatientCount());
+        Assert.assertEquals(expectedDateInDays("Mon, 01 Oct 2018 15:09:02 GMT"), seqDateIndex.getFirstSeqDateInDays("PATIENT_1"));
+        Assert.assertEquals(expectedDateInDays("Mon, 30 Mar 2015 17:21:08 GMT"), seqDateIndex.getFirstSeqDateInDays("PATIENT_2"));
+        Assert.assertEquals(expectedDateInDays("Fri, 14 Feb 2014 17:21:03 GMT"), seqDateIndex.getFirstSeqDateInDays("PATIENT_3"));
+        Assert.assertNull(seqDateIndex.getFirstSeqDateInDays("PATIENT_4"));
+        Assert.assertNull(seqDateIndex.getFirstSeqDateInDays("PATIENT_5"));
+        long[] expectedPatient1SeqDates = {
+            expectedDateInDays("Mon, 01 Oct 2018 15:09:02 GMT"),
+            expectedDateInDays("Fri, 23 Nov 2018 15:01:19 GMT"),
+            expectedDateInDays("Sat, 20 Apr 2019 22:01:22 GMT")
+        };
+        Assert.assertArrayEquals(expectedPatient1SeqDates, seqDateIndex.getSeqDatesInDays("PATIENT_1"));
     }
 
     @Test
@@ -101,24 +99,37 @@ public class DDPSeqDateTaskletTest {
             .thenReturn("PATIENT_3-SAMPLE_6\tPATIENT_3\tMon, 22 Oct 2018 15:33:15 GMT")
             .thenReturn("PATIENT_1-SAMPLE_7\tPATIENT_1\tFri, 23 Nov 2018 15:01:19 GMT")
             .thenReturn("PATIENT_2-SAMPLE_8\tPATIENT_2\tMon, 01 Oct 2018 15:09:02 GMT")
-            .thenReturn("PATIENT_4-SAMPLE_9\tPATIENT_4\tTes, 14 Feb 2014 17:21:03 GMT") // invalid date, this patient should not have a seq date in map
+            .thenReturn("PATIENT_4-SAMPLE_9\tPATIENT_4\tTes, 14 Feb 2014 17:21:03 GMT") // invalid date, this sample should not have a seq date in index
             .thenReturn("PATIENT_3-SAMPLE_9\tPATIENT_3\tFri, 14 Feb 2014 17:21:03 GMT")
-            .thenReturn("PATIENT_5-SAMPLE_10\tPATIENT_5\t") // no date provided, this patient should not have a seq date in map
+            .thenReturn("PATIENT_5-SAMPLE_10\tPATIENT_5\t") // no date provided, this sample should not have a seq date in index
             .thenReturn(null);
-        DDPSeqDateTasklet tasklet = new DDPSeqDateTasklet();
-        tasklet.setSeqDateMaps("filename", mockBufferedReader);
-        Map<String, Date> actualSampleSeqDateMap = DDPUtils.getSampleSeqDateMap();
-        Map<String, Date> expectedSampleSeqDateMap = new HashMap<String, Date>();
+        DDPSeqDateIndex seqDateIndex = DDPSeqDateIndex.readSeqDateFile("filename", mockBufferedReader);
+        Map<String, String> expectedSampleSeqDates = new LinkedHashMap<>();
+        expectedSampleSeqDates.put("PATIENT_1-SAMPLE_1", "Mon, 01 Oct 2018 15:09:02 GMT");
+        expectedSampleSeqDates.put("PATIENT_2-SAMPLE_2", "Mon, 11 Jun 2018 15:20:33 GMT");
+        expectedSampleSeqDates.put("PATIENT_3-SAMPLE_3", "Fri, 23 Nov 2018 15:01:19 GMT");
+        expectedSampleSeqDates.put("PATIENT_1-SAMPLE_4", "Sat, 20 Apr 2019 22:01:22 GMT");
+        expectedSampleSeqDates.put("PATIENT_2-SAMPLE_5", "Mon, 30 Mar 2015 17:21:08 GMT");
+        expectedSampleSeqDates.put("PATIENT_3-SAMPLE_6", "Mon, 22 Oct 2018 15:33:15 GMT");
+        expectedSampleSeqDates.put("PATIENT_1-SAMPLE_7", "Fri, 23 Nov 2018 15:01:19 GMT");
+        expectedSampleSeqDates.put("PATIENT_2-SAMPLE_8", "Mon, 01 Oct 2018 15:09:02 GMT");
+        expectedSampleSeqDates.put("PATIENT_3-SAMPLE_9", "Fri, 14 Feb 2014 17:21:03 GMT");
+        Assert.assertEquals(expectedSampleSeqDates.size(), seqDateIndex.getSampleCount());
+        for (Map.Entry<String, String> entry : expectedSampleSeqDates.entrySet()) {
+            Assert.assertEquals(entry.getKey(), expectedDateInDays(entry.getValue()), seqDateIndex.getSampleSeqDateInDays(entry.getKey()));
+        }
+        Assert.assertNull(seqDateIndex.getSampleSeqDateInDays("PATIENT_5-SAMPLE_10"));
+    }
+
+    @Test
+    public void testNoSeqDateFile() {
+        Assert.assertFalse(DDPSeqDateIndex.NO_SEQ_DATE_FILE.isSeqDateFileProvided());
+        Assert.assertNull(DDPSeqDateIndex.NO_SEQ_DATE_FILE.getFirstSeqDateInDays("PATIENT_1"));
+        Assert.assertEquals(0, DDPSeqDateIndex.NO_SEQ_DATE_FILE.getSeqDatesInDays("PATIENT_1").length);
+    }
+
+    private Long expectedDateInDays(String seqDate) throws Exception {
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
-        expectedSampleSeqDateMap.put("PATIENT_1-SAMPLE_1", simpleDateFormat.parse("Mon, 01 Oct 2018 15:09:02 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_2-SAMPLE_2", simpleDateFormat.parse("Mon, 11 Jun 2018 15:20:33 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_3-SAMPLE_3", simpleDateFormat.parse("Fri, 23 Nov 2018 15:01:19 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_1-SAMPLE_4", simpleDateFormat.parse("Sat, 20 Apr 2019 22:01:22 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_2-SAMPLE_5", simpleDateFormat.parse("Mon, 30 Mar 2015 17:21:08 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_3-SAMPLE_6", simpleDateFormat.parse("Mon, 22 Oct 2018 15:33:15 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_1-SAMPLE_7", simpleDateFormat.parse("Fri, 23 Nov 2018 15:01:19 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_2-SAMPLE_8", simpleDateFormat.parse("Mon, 01 Oct 2018 15:09:02 GMT"));
-        expectedSampleSeqDateMap.put("PATIENT_3-SAMPLE_9", simpleDateFormat.parse("Fri, 14 Feb 2014 17:21:03 GMT"));
-        Assert.assertEquals(expectedSampleSeqDateMap, actualSampleSeqDateMap);
+        return DDPUtils.getDateInDays(simpleDateFormat.parse(seqDate).toInstant());
     }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.pipeline.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.*;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Property tests comparing the DDPUtils date arithmetic with the
+ * SimpleDateFormat / timezone offset arithmetic it replaced, in several
+ * timezones, around every daylight saving time transition and with the
+ * "current" time falling both inside and outside of daylight saving time.
+ */
+public class DDPUtilsDateParityTest {
+
+    private static final long MILLISECONDS_PER_DAY = 1000L * 60L * 60L * 24L;
+    private static final String[] ZONE_IDS = {"America/New_York", "America/Los_Angeles", "Europe/London", "Australia/Sydney", "America/Sao_Paulo", "UTC"};
+    private static final Instant[] CURRENT_TIMES = {Instant.parse("2026-01-15T12:00:00Z"), Instant.parse("2026-07-15T12:00:00Z")};
+    private static final int RANDOM_SAMPLES = 2000;
+
+    private TimeZone defaultTimeZone;
+
+    @Before
+    public void saveDefaultTimeZone() {
+        defaultTimeZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void restoreDefaultTimeZone() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    /* Every date within three days of a DST transition between 1950 and 2040,
+     * plus random dates between 1920 and 2100, resolve to the same day count.
+     * The one exception is a pre-1970 date whose local midnight was skipped by a DST
+     * transition: the legacy parse resolved to 01:00 and truncating the negative
+     * millisecond count towards zero landed on the following day.
+     */
+    @Test
+    public void testDateInDaysParity() throws Exception {
+        for (String zoneId : ZONE_IDS) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zoneId));
+            ZoneRules rules = ZoneId.of(zoneId).getRules();
+            for (Instant now : CURRENT_TIMES) {
+                for (LocalDate date : makeTestDates(ZoneId.of(zoneId), new Random(zoneId.hashCode()))) {
+                    long legacyCorrection = (date.toEpochDay() < 0 && rules.getValidOffsets(date.atStartOfDay()).isEmpty()) ? 1L : 0L;
+                    for (String dateValue : new String[]{date.toString(), date.getYear() + "-" + date.getMonthValue() + "-" + date.getDayOfMonth()}) {
+                        Assert.assertEquals(zoneId + " " + dateValue, Long.valueOf(legacyDateInDays(dateValue, now) - legacyCorrection), DDPUtils.getDateInDays(dateValue));
+                    }
+                }
+            }
+        }
+    }
+
+    /* Intervals and timeline offsets between random pairs of dates match the legacy day differences */
+    @Test
+    public void testIntervalParity() throws Exception {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        Random random = new Random(20261019L);
+        List<LocalDate> dates = makeTestDates(ZoneId.of("America/New_York"), random);
+        for (int i = 0; i < RANDOM_SAMPLES; i++) {
+            String first = dates.get(random.nextInt(dates.size())).toString();
+            String second = dates.get(random.nextInt(dates.size())).toString();
+            long legacyDifference = legacyDateInDays(second, CURRENT_TIMES[0]) - legacyDateInDays(first, CURRENT_TIMES[0]);
+            Assert.assertEquals(String.valueOf(legacyDifference), DDPUtils.resolveTimelineEventDateInDays(first, second));
+            Assert.assertEquals(String.valueOf(Math.abs(legacyDifference)), DDPUtils.resolveIntervalInDays(first, second));
+        }
+    }
+
+    /* Lenient rollover of out of range months and days is preserved */
+    @Test
+    public void testLenientDateParity() throws Exception {
+        for (String dateValue : new String[]{"1991-01-00", "1991-02-00", "2021-02-30", "2020-13-01", "2021-00-15", "2021-11-04T10:15:00"}) {
+            Assert.assertEquals(dateValue, Long.valueOf(legacyDateInDays(dateValue, CURRENT_TIMES[0])), DDPUtils.getDateInDays(dateValue));
+            Assert.assertEquals(dateValue, String.valueOf(legacyYear(dateValue)), DDPUtils.parseYearFromDateAsString(dateValue));
+        }
+    }
+
+    /* Instants (sequencing dates) resolve to the local calendar date. The legacy arithmetic applied the
+     * current UTC offset to every instant, so it disagreed by one day for instants within the DST shift
+     * of local midnight on the other side of a transition - those are the only permitted differences.
+     */
+    @Test
+    public void testInstantDateInDaysParity() {
+        for (String zoneId : ZONE_IDS) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zoneId));
+            ZoneRules rules = ZoneId.of(zoneId).getRules();
+            Random random = new Random(zoneId.hashCode());
+            for (Instant now : CURRENT_TIMES) {
+                ZoneOffset currentOffset = rules.getOffset(now);
+                for (int i = 0; i < RANDOM_SAMPLES; i++) {
+                    Instant instant = Instant.ofEpochSecond(946684800L + (long) (random.nextDouble() * 946080000L));
+                    long legacyDays = (instant.toEpochMilli() + currentOffset.getTotalSeconds() * 1000L) / MILLISECONDS_PER_DAY;
+                    long dateInDays = DDPUtils.getDateInDays(instant);
+                    if (legacyDays != dateInDays) {
+                        int shiftSeconds = Math.abs(currentOffset.getTotalSeconds() - rules.getOffset(instant).getTotalSeconds());
+                        int secondOfDay = LocalTime.ofInstant(instant, ZoneId.of(zoneId)).toSecondOfDay();
+                        Assert.assertEquals(1L, Math.abs(legacyDays - dateInDays));
+                        Assert.assertTrue(zoneId + " " + instant, secondOfDay < shiftSeconds || secondOfDay >= 86400 - shiftSeconds);
+                    }
+                }
+            }
+        }
+    }
+
+    /* The shared formatter gives the same results when used concurrently */
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        List<LocalDate> dates = makeTestDates(ZoneId.of("America/New_York"), new Random(7L));
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executorService.submit(() -> {
+                    for (LocalDate date : dates) {
+                        if (DDPUtils.getDateInDays(date.toString()) != date.toEpochDay()) {
+                            return Boolean.FALSE;
+                        }
+                    }
+                    return Boolean.TRUE;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private List<LocalDate> makeTestDates(ZoneId zoneId, Random random) {
+        List<LocalDate> dates = new ArrayList<>();
+        ZoneRules rules = zoneId.getRules();
+        Instant end = Instant.parse("2040-01-01T00:00:00Z");
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.parse("1950-01-01T00:00:00Z"));
+        while (transition != null && transition.getInstant().isBefore(end)) {
+            LocalDate transitionDate = transition.getDateTimeBefore().toLocalDate();
+            for (int offset = -3; offset <= 3; offset++) {
+                dates.add(transitionDate.plusDays(offset));
+            }
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        long firstDay = LocalDate.of(1920, 1, 1).toEpochDay();
+        long lastDay = LocalDate.of(2100, 12, 31).toEpochDay();
+        for (int i = 0; i < RANDOM_SAMPLES; i++) {
+            dates.add(LocalDate.ofEpochDay(firstDay + (long) (random.nextDouble() * (lastDay - firstDay))));
+        }
+        return dates;
+    }
+
+    /* The day count computed before java.time was adopted, with "now" pinned to the given instant */
+    private long legacyDateInDays(String dateValue, Instant now) throws ParseException {
+        Date date = new SimpleDateFormat("yyyy-MM-dd").parse(dateValue);
+        long offsetMilliSecondsForCurrentTimeZone = TimeZone.getDefault().getOffset(now.toEpochMilli());
+        int offsetMinutesForSavingsTimeChange = (int) (-offsetMilliSecondsForCurrentTimeZone / 60000L);
+        int localTimezoneOffsetMinuteDifference = offsetMinutesForSavingsTimeChange - date.getTimezoneOffset();
+        return (date.getTime() + offsetMilliSecondsForCurrentTimeZone + localTimezoneOffsetMinuteDifference * 60000L) / MILLISECONDS_PER_DAY;
+    }
+
+    private long legacyYear(String dateValue) throws ParseException {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(new SimpleDateFormat("yyyy-MM-dd").parse(dateValue));
+        return calendar.get(Calendar.YEAR);
+    }
+}
@@ -305,6 +305,40 @@ public class DDPUtilsTest {
         resolveOsMonthsAndAssert("LIVING", "2013-07-19", "ignore", "2016-06-08", "Fri, 20 Jan 2017 16:52:02 GMT", "NA");
     }
 
+    /* Patients missing survival information or with a negative OS_MONTHS are collected
+    * in the patient list util passed in, including when called from several threads
+    */
+    @Test
+    public void resolveOsMonthsCollectsPatientsTest() throws Exception {
+        DDPPatientListUtil ddpPatientListUtil = new DDPPatientListUtil();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int threadIndex = t;
+            threads.add(new Thread(() -> {
+                for (int p = 0; p < 250; p++) {
+                    String patientId = "P-" + threadIndex + "-" + p;
+                    try {
+                        // missing last active date
+                        DDPUtils.resolveOsMonths("LIVING", makeOsMonthsTestPatient(patientId + "-MISSING", null, "2016-01-02"), DDPSeqDateIndex.NO_SEQ_DATE_FILE, ddpPatientListUtil);
+                        // last active date before first diagnosis
+                        DDPUtils.resolveOsMonths("LIVING", makeOsMonthsTestPatient(patientId + "-NEGATIVE", "2015-01-02", "2016-01-02"), DDPSeqDateIndex.NO_SEQ_DATE_FILE, ddpPatientListUtil);
+                    } catch (ParseException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(1000, ddpPatientListUtil.getPatientsMissingSurvival().size());
+        Assert.assertEquals(1000, ddpPatientListUtil.getPatientsWithNegativeOsMonths().size());
+        Assert.assertTrue(ddpPatientListUtil.getPatientsWithNegativeOsMonths().contains("P-3-249-NEGATIVE"));
+    }
+
     /* Tests for getFirstTumorDiagnosisDate()
     * if patientDiagnosis is null, return null
     * otherwise if patientDiagnosis is empty, return null
@@ -490,7 +524,6 @@ public class DDPUtilsTest {
 
     @Test
     public void constructRecordOverloadedIncludeSurvival() throws Exception {
-        DDPUtils.setUseSeqDateOsMonthsMethod(Boolean.TRUE);
         String dmpPatientId = "MY_PT_ID";
         DDPCompositeRecord compositeRecord = new DDPCompositeRecord(dmpPatientId);
         CohortPatient cohortPatient = new CohortPatient();
@@ -498,14 +531,12 @@ public class DDPUtilsTest {
         PatientDemographics patientDemographics = new PatientDemographics();
         patientDemographics.setPLALASTACTVDTE("2019-04-12");
         patientDemographics.setCurrentAge(Integer.valueOf(75));
-        Map<String, Date> patientFirstSeqDateMap = new HashMap<String, Date>();
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
         Date seqDate = simpleDateFormat.parse("Fri, 13 Oct 2017 15:33:32 GMT");
-        patientFirstSeqDateMap.put(dmpPatientId, seqDate);
-        DDPUtils.setPatientFirstSeqDateMap(patientFirstSeqDateMap);
+        DDPSeqDateIndex seqDateIndex = new DDPSeqDateIndex.Builder().addSeqDate(dmpPatientId + "-T01-IM5", dmpPatientId, seqDate.toInstant()).build();
         compositeRecord.setPatientDemographics(patientDemographics);
         compositeRecord.setCohortPatient(cohortPatient);
-        ClinicalRecord clinicalRecord = new ClinicalRecord(compositeRecord, Boolean.TRUE);
+        ClinicalRecord clinicalRecord = new ClinicalRecord(compositeRecord, Boolean.TRUE, seqDateIndex, new DDPPatientListUtil());
         String expectedValue = "MY_PT_ID\t75\tNA\tNA\tNA\tNA\tLIVING\tNA\t17.95";
         String returnedValue = DDPUtils.constructRecord(clinicalRecord, Boolean.TRUE, Boolean.FALSE, Boolean.FALSE, Boolean.FALSE);
         Assert.assertEquals(expectedValue, returnedValue);
@@ -668,14 +699,13 @@ public class DDPUtilsTest {
 
     private void resolveAgeAtSeqDateAndAssert(String patientBirthDate, String sampleSeqDate, String osMonths, String expectedValue) throws ParseException {
         String dmpSampleId = "TEST_SAMPLE_ID";
-        Map<String, Date> sampleSeqDateMap = new HashMap<String, Date>();
+        DDPSeqDateIndex.Builder seqDateIndexBuilder = new DDPSeqDateIndex.Builder();
         if (sampleSeqDate != null) {
             SimpleDateFormat simpleDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
             Date seqDate = simpleDateFormat.parse(sampleSeqDate);
-            sampleSeqDateMap.put(dmpSampleId, seqDate);
+            seqDateIndexBuilder.addSeqDate(dmpSampleId, "TEST_PATIENT_ID", seqDate.toInstant());
         }
-        DDPUtils.setSampleSeqDateMap(sampleSeqDateMap);
-        String returnedValue = DDPUtils.resolveAgeAtSeqDate(dmpSampleId, patientBirthDate, osMonths);
+        String returnedValue = DDPUtils.resolveAgeAtSeqDate(dmpSampleId, patientBirthDate, osMonths, seqDateIndexBuilder.build());
         Assert.assertEquals(expectedValue, returnedValue);
     }
 
@@ -689,22 +719,30 @@ public class DDPUtilsTest {
         testPatient.setPatientDemographics(testDemographics);
         PatientDiagnosis patientDiagnosis = new PatientDiagnosis();
         // seq date will have priority over first diagnosis date if it exists
-        Map<String, Date> patientFirstSeqDateMap = new HashMap<String, Date>();
+        DDPSeqDateIndex seqDateIndex = DDPSeqDateIndex.NO_SEQ_DATE_FILE;
         if (firstSeqDate != null) {
-            DDPUtils.setUseSeqDateOsMonthsMethod(Boolean.TRUE);
             SimpleDateFormat simpleDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
             Date seqDate = simpleDateFormat.parse(firstSeqDate);
-            patientFirstSeqDateMap.put(dmpPatientId, seqDate);
-        } else {
-            DDPUtils.setUseSeqDateOsMonthsMethod(Boolean.FALSE);
+            seqDateIndex = new DDPSeqDateIndex.Builder().addSeqDate("TEST_SAMPLE_ID", dmpPatientId, seqDate.toInstant()).build();
         }
-        DDPUtils.setPatientFirstSeqDateMap(patientFirstSeqDateMap);
         patientDiagnosis.setTumorDiagnosisDate(firstDiagnosisDate);
         testPatient.setPatientDiagnosis(Collections.singletonList(patientDiagnosis));
-        String returnedValue = DDPUtils.resolveOsMonths(osStatus, testPatient);
+        String returnedValue = DDPUtils.resolveOsMonths(osStatus, testPatient, seqDateIndex, new DDPPatientListUtil());
         Assert.assertEquals(expectedValue, returnedValue);
     }
 
+    private DDPCompositeRecord makeOsMonthsTestPatient(String dmpPatientId, String plaLastActvDte, String firstDiagnosisDate) {
+        DDPCompositeRecord testPatient = new DDPCompositeRecord();
+        testPatient.setDmpPatientId(dmpPatientId);
+        PatientDemographics testDemographics = new PatientDemographics();
+        testDemographics.setPLALASTACTVDTE(plaLastActvDte);
+        testPatient.setPatientDemographics(testDemographics);
+        PatientDiagnosis patientDiagnosis = new PatientDiagnosis();
+        patientDiagnosis.setTumorDiagnosisDate(firstDiagnosisDate);
+        testPatient.setPatientDiagnosis(Collections.singletonList(patientDiagnosis));
+        return testPatient;
+    }
+
     private void getFirstTumorDiagnosisDateAndAssert(List<String> tumorDiagnosisDates, String expectedValue) throws ParseException {
         String returnedValue;
         if (tumorDiagnosisDates == null) {
@@ -112,6 +112,16 @@ public class DDPSourceTestConfiguration {
         return new AuthenticationUtil();
     }
 
+    @Bean
+    public DDPAsyncClient ddpAsyncClient() {
+        return Mockito.mock(DDPAsyncClient.class);
+    }
+
+    @Bean
+    public DDPResponseCache ddpResponseCache() {
+        return new DDPResponseCache();
+    }
+
     private DDPResponseUtil ddpResponseUtil;
     @Bean
     public DDPResponseUtil ddpResponseUtil() {
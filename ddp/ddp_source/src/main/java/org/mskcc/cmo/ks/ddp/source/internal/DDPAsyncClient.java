@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.internal;
+
+import org.mskcc.cmo.ks.ddp.source.util.AdaptiveConcurrencyLimiter;
+import org.mskcc.cmo.ks.ddp.source.util.AdaptiveConcurrencyLimiter.Outcome;
+import org.mskcc.cmo.ks.ddp.source.util.AuthenticationUtil;
+import org.mskcc.cmo.ks.ddp.source.util.LatencyHistogram;
+import org.mskcc.cmo.ks.ddp.source.util.TokenBucketRateLimiter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.jfr.HttpRequestEvent;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.cbioportal.cmo.pipelines.common.util.HttpTrafficCapture;
+import org.cbioportal.cmo.pipelines.common.util.HttpTrafficRecord;
+import org.cbioportal.cmo.pipelines.common.util.RecordedHttpResponse;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking transport for DDP patient requests.
+ *
+ * Every request first takes a slot from the adaptive concurrency limiter,
+ * then a permit from the shared token bucket, and is then sent with
+ * HttpClient.sendAsync - no thread waits on the network. 429, 5xx and
+ * timeouts shrink the concurrency limit and are retried with backoff
+ * (honoring Retry-After); latencies are recorded per endpoint.
+ */
+@Component
+public class DDPAsyncClient {
+
+    @Value("${ddp.client.max_requests_per_second:50}")
+    private double maxRequestsPerSecond;
+
+    @Value("${ddp.client.burst_size:10}")
+    private int burstSize;
+
+    @Value("${ddp.client.initial_concurrency:8}")
+    private int initialConcurrency;
+
+    @Value("${ddp.client.min_concurrency:1}")
+    private int minConcurrency;
+
+    @Value("${ddp.client.max_concurrency:64}")
+    private int maxConcurrency;
+
+    @Value("${ddp.client.latency_tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${ddp.client.request_timeout_seconds:120}")
+    private long requestTimeoutSeconds;
+
+    @Value("${ddp.client.max_retries:3}")
+    private int maxRetries;
+
+    @Value("${ddp.client.retry_backoff_millis:1000}")
+    private long retryBackoffMillis;
+
+    @Autowired
+    private AuthenticationUtil authenticationUtil;
+
+    private static final String METRICS_CLIENT = "ddp";
+
+    private HttpClient httpClient;
+    private ExecutorService executor;
+    private TokenBucketRateLimiter rateLimiter;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Map<String, EndpointStatistics> endpointStatistics = new ConcurrentHashMap<>();
+
+    private final Logger LOG = Logger.getLogger(DDPAsyncClient.class);
+
+    @PostConstruct
+    public void initialize() {
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ddp-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(executor)
+                .build();
+        rateLimiter = new TokenBucketRateLimiter(maxRequestsPerSecond, burstSize, executor);
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialConcurrency, minConcurrency, maxConcurrency, latencyTolerance);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * POSTs a JSON body to a DDP endpoint.
+     *
+     * @param endpointName name the request is reported under
+     * @param url
+     * @param jsonBody
+     * @return future holding the response body of a 2xx response - completes exceptionally
+     * for any other status once retries are exhausted
+     */
+    public CompletableFuture<String> post(String endpointName, String url, String jsonBody) {
+        return post(endpointName, null, url, jsonBody);
+    }
+
+    /**
+     * POSTs a JSON body to a DDP endpoint.
+     *
+     * @param endpointName name the request is reported under
+     * @param patientId patient the request is about, attached to the flight recorder events of each attempt
+     * @param url
+     * @param jsonBody
+     * @return future holding the response body of a 2xx response - completes exceptionally
+     * for any other status once retries are exhausted
+     */
+    public CompletableFuture<String> post(String endpointName, String patientId, String url, String jsonBody) {
+        EndpointStatistics statistics = endpointStatistics.computeIfAbsent(endpointName, EndpointStatistics::new);
+        return attempt(statistics, patientId, url, jsonBody, 0);
+    }
+
+    private CompletableFuture<String> attempt(EndpointStatistics statistics, String patientId, String url, String jsonBody, int attemptNumber) {
+        CompletableFuture<HttpResponse<String>> futureResponse = concurrencyLimiter.acquire()
+                .thenCompose(slot -> {
+                    // the slot is released once : with the outcome of the exchange, or unused if the attempt fails before it
+                    AtomicBoolean slotReleased = new AtomicBoolean(false);
+                    return rateLimiter.acquire()
+                            .thenCompose(permit -> send(statistics, patientId, url, jsonBody, attemptNumber, slotReleased))
+                            .whenComplete((response, error) -> {
+                                if (slotReleased.compareAndSet(false, true)) {
+                                    concurrencyLimiter.release(Outcome.IGNORED, 0L);
+                                }
+                            });
+                });
+        return futureResponse.handle((response, error) -> {
+            Throwable cause = unwrap(error);
+            if (cause == null && isSuccess(response.statusCode())) {
+                return CompletableFuture.completedFuture(response.body());
+            }
+            boolean retryable = (cause == null) ? isOverloaded(response.statusCode()) : (cause instanceof IOException);
+            if (retryable && attemptNumber < maxRetries) {
+                statistics.retries.increment();
+                PipelineMetrics.recordHttpRetry(METRICS_CLIENT, statistics.name,
+                        (cause == null) ? (response.statusCode() == 429 ? "throttled" : "server_error") : "io_error");
+                long delayMillis = resolveRetryDelayMillis(response, attemptNumber);
+                LOG.warn("Retrying DDP request to '" + url + "' in " + delayMillis + "ms (attempt " + (attemptNumber + 1) + " of " + maxRetries +
+                        ") - " + ((cause == null) ? "HTTP " + response.statusCode() : cause.getClass().getSimpleName()));
+                Executor delayed = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, executor);
+                return CompletableFuture.supplyAsync(() -> attempt(statistics, patientId, url, jsonBody, attemptNumber + 1), delayed)
+                        .thenCompose(retry -> retry);
+            }
+            statistics.failures.increment();
+            if (cause != null) {
+                return CompletableFuture.<String>failedFuture(cause);
+            }
+            return CompletableFuture.<String>failedFuture(new RuntimeException(response.statusCode() + " response from " + url));
+        }).thenCompose(result -> result);
+    }
+
+    /**
+     * Sends the request; the concurrency slot held by the caller is released
+     * with the latency and outcome of the exchange when it completes, unless
+     * slotReleased is already set. Waiting for a new session cookie does not
+     * hold a thread either.
+     */
+    private CompletableFuture<HttpResponse<String>> send(EndpointStatistics statistics, String patientId, String url, String jsonBody, int attemptNumber,
+            AtomicBoolean slotReleased) {
+        return authenticationUtil.getAuthenticationCookieAsync()
+                .thenApply(authenticationCookie -> HttpRequest.newBuilder(URI.create(url))
+                        .timeout(Duration.ofSeconds(requestTimeoutSeconds))
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "application/json")
+                        .header("Cookie", authenticationCookie.getName() + "=" + authenticationCookie.getValue())
+                        .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                        .build())
+                .thenCompose(request -> {
+                    HttpTrafficCapture capture = HttpTrafficCapture.getInstance();
+                    long startedAt = System.currentTimeMillis();
+                    long start = System.nanoTime();
+                    HttpRequestEvent event = new HttpRequestEvent();
+                    event.begin();
+                    CompletableFuture<HttpResponse<String>> exchange = capture.isReplaying() ?
+                            replay(capture, request, jsonBody) : httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+                    return exchange.whenComplete((response, error) -> {
+                                long latencyNanos = System.nanoTime() - start;
+                                if (slotReleased.compareAndSet(false, true)) {
+                                    concurrencyLimiter.release(classify(response, unwrap(error)), latencyNanos);
+                                }
+                                statistics.record(response, unwrap(error), latencyNanos, jsonBody.length());
+                                commitRequestEvent(event, statistics, patientId, jsonBody, attemptNumber, response, unwrap(error));
+                                if (capture.isRecording()) {
+                                    capture.record(RecordedHttpResponse.makeRecord(request, jsonBody, response, unwrap(error), startedAt,
+                                            TimeUnit.NANOSECONDS.toMillis(latencyNanos)));
+                                }
+                            });
+                });
+    }
+
+    private void commitRequestEvent(HttpRequestEvent event, EndpointStatistics statistics, String patientId, String jsonBody, int attemptNumber,
+            HttpResponse<String> response, Throwable error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.client = METRICS_CLIENT;
+            event.endpoint = statistics.name;
+            event.method = "POST";
+            event.status = getStatus(response, error);
+            event.subjectId = patientId;
+            event.attempt = attemptNumber + 1;
+            event.requestBytes = jsonBody.length();
+            event.responseBytes = getResponseBytes(response);
+            event.commit();
+        }
+    }
+
+    /**
+     * Answers the request from the recorded traffic, after the recorded duration if replay timing is on.
+     */
+    private CompletableFuture<HttpResponse<String>> replay(HttpTrafficCapture capture, HttpRequest request, String jsonBody) {
+        HttpTrafficRecord record;
+        try {
+            record = capture.replay(request.method(), request.uri().toString(), jsonBody);
+        }
+        catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Executor replayExecutor = capture.isReplayTiming() ?
+                CompletableFuture.delayedExecutor(record.getDurationMillis(), TimeUnit.MILLISECONDS, executor) : executor;
+        return CompletableFuture.supplyAsync(() -> record, replayExecutor)
+                .thenCompose(replayed -> replayed.isFailure() ?
+                        CompletableFuture.<HttpResponse<String>>failedFuture(HttpTrafficCapture.makeReplayedFailure(replayed)) :
+                        CompletableFuture.<HttpResponse<String>>completedFuture(new RecordedHttpResponse(request, replayed)));
+    }
+
+    private static long getResponseBytes(HttpResponse<String> response) {
+        return (response == null || response.body() == null) ? -1L : response.body().length();
+    }
+
+    private static String getStatus(HttpResponse<String> response, Throwable error) {
+        if (response != null) {
+            return String.valueOf(response.statusCode());
+        }
+        return (error instanceof HttpTimeoutException) ? "TIMEOUT" : "IO_ERROR";
+    }
+
+    private Outcome classify(HttpResponse<String> response, Throwable error) {
+        if (error != null) {
+            return (error instanceof IOException) ? Outcome.OVERLOADED : Outcome.IGNORED;
+        }
+        if (isSuccess(response.statusCode())) {
+            return Outcome.SUCCESS;
+        }
+        return isOverloaded(response.statusCode()) ? Outcome.OVERLOADED : Outcome.IGNORED;
+    }
+
+    private long resolveRetryDelayMillis(HttpResponse<String> response, int attemptNumber) {
+        if (response != null) {
+            Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+            if (retryAfter.isPresent()) {
+                try {
+                    return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.get().trim()));
+                }
+                catch (NumberFormatException e) {
+                    // HTTP-date form - fall back to exponential backoff
+                }
+            }
+        }
+        return retryBackoffMillis << Math.min(attemptNumber, 10);
+    }
+
+    private static boolean isSuccess(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    private static boolean isOverloaded(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * @return one line per endpoint with request counts and latency distribution
+     */
+    public String getStatisticsReport() {
+        StringBuilder builder = new StringBuilder("DDP client statistics - concurrency ")
+                .append(concurrencyLimiter)
+                .append(", rate limit ")
+                .append(rateLimiter.isUnlimited() ? "disabled" : maxRequestsPerSecond + "/s");
+        for (Map.Entry<String, EndpointStatistics> entry : new TreeMap<>(endpointStatistics).entrySet()) {
+            builder.append("\n\t").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        builder.append("\n\t").append(authenticationUtil.getStatisticsReport());
+        return builder.toString();
+    }
+
+    public void logStatistics() {
+        LOG.info(getStatisticsReport());
+    }
+
+    private static class EndpointStatistics {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder ioErrors = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private EndpointStatistics(String name) {
+            this.name = name;
+        }
+
+        private void record(HttpResponse<String> response, Throwable error, long latencyNanos, long requestBytes) {
+            latency.record(latencyNanos);
+            PipelineMetrics.recordHttpRequest(METRICS_CLIENT, name, "POST", getStatus(response, error), latencyNanos, requestBytes, getResponseBytes(response));
+            if (response == null) {
+                ioErrors.increment();
+            }
+            else if (response.statusCode() == 429) {
+                throttled.increment();
+            }
+            else if (response.statusCode() >= 500) {
+                serverErrors.increment();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return latency + ", 429=" + throttled.sum() + ", 5xx=" + serverErrors.sum() + ", io errors=" + ioErrors.sum() +
+                    ", retries=" + retries.sum() + ", failed=" + failures.sum();
+        }
+    }
+}
@@ -38,11 +38,8 @@ import org.mskcc.cmo.ks.ddp.source.model.*;
 import java.util.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.CompletableFuture;
 /**
  *
@@ -68,38 +65,32 @@ public class DDPDataSourceImpl implements DDPDataSource {
     public static void main(String[] args) throws Exception {}
 
     @Override
-    @Async("asyncDDPRequestsThreadPoolTaskExecutor")
     public CompletableFuture<PatientDemographics> getPatientDemographics(String patientId) throws Exception {
-        return CompletableFuture.completedFuture(ddpRepository.getPatientDemographics(patientId));
+        return ddpRepository.getPatientDemographicsAsync(patientId);
     }
 
     @Override
-    @Async("asyncDDPRequestsThreadPoolTaskExecutor")
     public CompletableFuture<List<PatientDiagnosis>> getPatientDiagnoses(String patientId) throws Exception {
-        return CompletableFuture.completedFuture(ddpRepository.getPatientDiagnoses(patientId));
+        return ddpRepository.getPatientDiagnosesAsync(patientId);
     }
 
     @Override
-    @Async("asyncDDPRequestsThreadPoolTaskExecutor")
     public CompletableFuture<PatientIdentifiers> getPatientIdentifiers(String patientId) throws Exception {
-        return CompletableFuture.completedFuture(ddpRepository.getPatientIdentifiers(patientId));
+        return ddpRepository.getPatientIdentifiersAsync(patientId);
     }
 
     @Override
-    @Async("asyncDDPRequestsThreadPoolTaskExecutor")
     public CompletableFuture<List<Radiation>> getPatientRadiationProcedures(String patientId) {
-        return CompletableFuture.completedFuture(ddpRepository.getPatientRadiationProcedures(patientId));
+        return ddpRepository.getPatientRadiationProceduresAsync(patientId);
     }
 
     @Override
-    @Async("asyncDDPRequestsThreadPoolTaskExecutor")
     public CompletableFuture<List<Chemotherapy>> getPatientChemoProcedures(String patientId) {
-        return CompletableFuture.completedFuture(ddpRepository.getPatientChemoProcedures(patientId));
+        return ddpRepository.getPatientChemoProceduresAsync(patientId);
     }
 
     @Override
-    @Async("asyncDDPRequestsThreadPoolTaskExecutor")
     public CompletableFuture<List<Surgery>> getPatientSurgicalProcedures(String patientId) {
-        return CompletableFuture.completedFuture(ddpRepository.getPatientSurgicalProcedures(patientId));
+        return ddpRepository.getPatientSurgicalProceduresAsync(patientId);
     }
 }
@@ -32,15 +32,20 @@
 
 package org.mskcc.cmo.ks.ddp.source.internal;
 
+import org.mskcc.cmo.ks.ddp.source.exception.InvalidAuthenticationException;
 import org.mskcc.cmo.ks.ddp.source.model.*;
 import org.mskcc.cmo.ks.ddp.source.util.DDPResponseUtil;
 import org.mskcc.cmo.ks.ddp.source.util.AuthenticationUtil;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Strings;
 import org.apache.http.cookie.Cookie;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.cbioportal.cmo.pipelines.common.util.HttpTrafficCapture;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.http.*;
 import org.springframework.stereotype.Repository;
@@ -86,6 +91,12 @@ public class DDPRepository {
     @Autowired
     DDPResponseUtil ddpResponseUtil;
 
+    @Autowired
+    DDPAsyncClient ddpAsyncClient;
+
+    @Autowired
+    DDPResponseCache ddpResponseCache;
+
     private final String BEARER_KEYWORD = "Bearer ";
     private final String HTTP_401_UNAUTHORIZED = "401 UNAUTHORIZED";
 
@@ -98,7 +109,7 @@ public class DDPRepository {
      */
     public List<Cohort> getAuthorizedCohorts() {
         String url = ddpBaseUrl + ddpCohortsEndpoint;
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("cohorts");
         List<Cohort> cohortData = new ArrayList();
         try {
             ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, getRequestEntity(), String.class);
@@ -126,7 +137,7 @@ public class DDPRepository {
      */
     public List<CohortPatient> getPatientsByCohort(Integer cohortId) {
         String url = ddpBaseUrl + ddpCohortsEndpoint + String.valueOf(cohortId) + "/" + ddpCohortsPatientEndpoint;
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("cohort_patients");
         List<CohortPatient> cohortPatients = new ArrayList();
         try {
             ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, getRequestEntity(), String.class);
@@ -164,33 +175,14 @@ public class DDPRepository {
      * @return
      */
     public PatientDemographics getPatientDemographics(String patientId) {
-        String url = ddpBaseUrl + ddpPtDemographicsEndpoint;
-        HttpEntity<Map<String, String>> requestEntity = getRequestEntityWithId(patientId);
-        RestTemplate restTemplate = new RestTemplate();
-        List<PatientDemographics> patientDemographics = new ArrayList();
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, String.class);
-            if (!Strings.isNullOrEmpty(response.getBody())) {
-                patientDemographics = (List<PatientDemographics>) ddpResponseUtil.parseData(response.getBody(), new TypeReference<List<PatientDemographics>>(){});
-            }
-            else {
-                throw new RuntimeException("Error fetching patient demographics, no data in response body");
-            }
-        }
-        catch (Exception e) {
-            // this can be a RestClientException from restTemplate.exchange, from ddpResponseUtil.parseData, or the exception we throw
-            // if 401 unauthorized then we do not have access to patient data
-            // if 400 then the dmp id provided does not resolve to a patient id in DDP system
-            String message = "Failed to fetch patient demographics: '" + patientId + "' - " + e.getLocalizedMessage();
-            LOG.error(message);
-            LOG.debug(e.getStackTrace());
-            throw new RuntimeException(message, e);
-        }
-        PatientDemographics toReturn = new PatientDemographics();
-        if (!patientDemographics.isEmpty()) {
-            toReturn = patientDemographics.get(0);
-        }
-        return toReturn;
+        return join(getPatientDemographicsAsync(patientId));
+    }
+
+    public CompletableFuture<PatientDemographics> getPatientDemographicsAsync(String patientId) {
+        return fetchPatientData("demographics", ddpPtDemographicsEndpoint, patientId, new TypeReference<List<PatientDemographics>>(){},
+                "Error fetching patient demographics, no data in response body",
+                "Failed to fetch patient demographics: '")
+                .thenApply(patientDemographics -> (patientDemographics.isEmpty() ? new PatientDemographics() : patientDemographics.get(0)));
     }
 
     /**
@@ -208,29 +200,13 @@ public class DDPRepository {
      * @return
      */
     public List<PatientDiagnosis> getPatientDiagnoses(String patientId) {
-        String url = ddpBaseUrl + ddpPtDiagnosisEndpoint;
-        HttpEntity<Map<String, String>> requestEntity = getRequestEntityWithId(patientId);
-        RestTemplate restTemplate = new RestTemplate();
-        List<PatientDiagnosis> patientDiagnosisList = new ArrayList();
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, String.class);
-            if (!Strings.isNullOrEmpty(response.getBody())) {
-                patientDiagnosisList = (List<PatientDiagnosis>) ddpResponseUtil.parseData(response.getBody(), new TypeReference<List<PatientDiagnosis>>(){});
-            }
-            else {
-                throw new RuntimeException("Error fetching patient diagnoses, no data in response body");
-            }
-        }
-        catch (Exception e) {
-            // this can be a RestClientException from restTemplate.exchange, from ddpResponseUtil.parseData, or the exception we throw
-            // if 401 unauthorized then we do not have access to patient data
-            // if 400 then the dmp id provided does not resolve to a patient id in DDP system
-            String message = "Failed to fetch patient diagnoses: '" + patientId + "' - " + e.getLocalizedMessage();
-            LOG.error(message);
-            LOG.debug(e.getStackTrace());
-            throw new RuntimeException(message, e);
-        }
-        return patientDiagnosisList;
+        return join(getPatientDiagnosesAsync(patientId));
+    }
+
+    public CompletableFuture<List<PatientDiagnosis>> getPatientDiagnosesAsync(String patientId) {
+        return fetchPatientData("diagnosis", ddpPtDiagnosisEndpoint, patientId, new TypeReference<List<PatientDiagnosis>>(){},
+                "Error fetching patient diagnoses, no data in response body",
+                "Failed to fetch patient diagnoses: '");
     }
 
     /**
@@ -248,29 +224,13 @@ public class DDPRepository {
      * @return
      */
     public PatientIdentifiers getPatientIdentifiers(String patientId) {
-        String url = ddpBaseUrl + ddpPtIdentifiersEndpoint;
-        HttpEntity<Map<String, String>> requestEntity = getRequestEntityWithId(patientId);
-        RestTemplate restTemplate = new RestTemplate();
-        PatientIdentifiers patientIdentifiers = null;
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, String.class);
-            if (!Strings.isNullOrEmpty(response.getBody())) {
-                patientIdentifiers = (PatientIdentifiers) ddpResponseUtil.parseData(response.getBody(), new TypeReference<PatientIdentifiers>(){});
-            }
-            else {
-                throw new RuntimeException("Error fetching patient identifier, no data in response body");
-            }
-        }
-        catch (Exception e) {
-            // this can be a RestClientException from restTemplate.exchange, from ddpResponseUtil.parseData, or the exception we throw
-            // if 401 unauthorized then we do not have access to patient data
-            // if 400 then the dmp id provided does not resolve to a patient id in DDP system
-            String message = "Error fetching patient identifier: '" + patientId + "' - " + e.getLocalizedMessage();
-            LOG.error(message);
-            LOG.debug(e.getStackTrace());
-            throw new RuntimeException(message, e);
-        }
-        return patientIdentifiers;
+        return join(getPatientIdentifiersAsync(patientId));
+    }
+
+    public CompletableFuture<PatientIdentifiers> getPatientIdentifiersAsync(String patientId) {
+        return fetchPatientData("identifiers", ddpPtIdentifiersEndpoint, patientId, new TypeReference<PatientIdentifiers>(){},
+                "Error fetching patient identifier, no data in response body",
+                "Error fetching patient identifier: '");
     }
 
     /**
@@ -288,26 +248,14 @@ public class DDPRepository {
      * @return
      */
     public List<Radiation> getPatientRadiationProcedures(String patientId) {
-        String url = ddpBaseUrl + ddpPtRadiationEndpoint;
-        HttpEntity<Map<String, String>> requestEntity = getRequestEntityWithId(patientId);
-        RestTemplate restTemplate = new RestTemplate();
-        List<Radiation> patientRadiationProcedures = new ArrayList();
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, String.class);
-            if (!Strings.isNullOrEmpty(response.getBody())) {
-                patientRadiationProcedures = (List<Radiation>) ddpResponseUtil.parseData(response.getBody(), new TypeReference<List<Radiation>>(){});
-            }
-        }
-        catch (Exception e) {
-            // this can be a RestClientException from restTemplate.exchange, from ddpResponseUtil.parseData, or the exception we throw
-            // if 401 unauthorized then we do not have access to patient data
-            // if 400 then the dmp id provided does not resolve to a patient id in DDP system
-            String message = "Failed to fetch patient radiation procedures: " + patientId + "' - " + e.getLocalizedMessage();
-            LOG.error(message);
-            LOG.debug(e.getStackTrace());
-            throw new RuntimeException(message, e);
-        }
-        return patientRadiationProcedures;
+        return join(getPatientRadiationProceduresAsync(patientId));
+    }
+
+    public CompletableFuture<List<Radiation>> getPatientRadiationProceduresAsync(String patientId) {
+        return fetchPatientData("radiation", ddpPtRadiationEndpoint, patientId, new TypeReference<List<Radiation>>(){},
+                null,
+                "Failed to fetch patient radiation procedures: ")
+                .thenApply(patientRadiationProcedures -> (patientRadiationProcedures == null ? new ArrayList<>() : patientRadiationProcedures));
     }
 
     /**
@@ -325,26 +273,14 @@ public class DDPRepository {
      * @return
      */
     public List<Chemotherapy> getPatientChemoProcedures(String patientId) {
-        String url = ddpBaseUrl + ddpPtChemoEndpoint;
-        HttpEntity<Map<String, String>> requestEntity = getRequestEntityWithId(patientId);
-        RestTemplate restTemplate = new RestTemplate();
-        List<Chemotherapy> patientChemoProcedures = new ArrayList();
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, String.class);
-            if (!Strings.isNullOrEmpty(response.getBody())) {
-                patientChemoProcedures = (List<Chemotherapy>) ddpResponseUtil.parseData(response.getBody(), new TypeReference<List<Chemotherapy>>(){});
-            }
-        }
-        catch (Exception e) {
-            // this can be a RestClientException from restTemplate.exchange, from ddpResponseUtil.parseData, or the exception we throw
-            // if 401 unauthorized then we do not have access to patient data
-            // if 400 then the dmp id provided does not resolve to a patient id in DDP system
-            String message = "Failed to fetch patient chemo procedures: " + patientId + "' - " + e.getLocalizedMessage();
-            LOG.error(message);
-            LOG.debug(e.getStackTrace());
-            throw new RuntimeException(message, e);
-        }
-        return patientChemoProcedures;
+        return join(getPatientChemoProceduresAsync(patientId));
+    }
+
+    public CompletableFuture<List<Chemotherapy>> getPatientChemoProceduresAsync(String patientId) {
+        return fetchPatientData("chemo", ddpPtChemoEndpoint, patientId, new TypeReference<List<Chemotherapy>>(){},
+                null,
+                "Failed to fetch patient chemo procedures: ")
+                .thenApply(patientChemoProcedures -> (patientChemoProcedures == null ? new ArrayList<>() : patientChemoProcedures));
     }
 
     /**
@@ -362,34 +298,103 @@ public class DDPRepository {
      * @return
      */
     public List<Surgery> getPatientSurgicalProcedures(String patientId) {
-        String url = ddpBaseUrl + ddpPtSurgeryEndpoint;
-        HttpEntity<Map<String, String>> requestEntity = getRequestEntityWithId(patientId);
-        RestTemplate restTemplate = new RestTemplate();
-        List<Surgery> patientSurgicalProcedures = new ArrayList();
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, String.class);
-            if (!Strings.isNullOrEmpty(response.getBody())) {
-                patientSurgicalProcedures = (List<Surgery>) ddpResponseUtil.parseData(response.getBody(), new TypeReference<List<Surgery>>(){});
+        return join(getPatientSurgicalProceduresAsync(patientId));
+    }
+
+    public CompletableFuture<List<Surgery>> getPatientSurgicalProceduresAsync(String patientId) {
+        return fetchPatientData("surgery", ddpPtSurgeryEndpoint, patientId, new TypeReference<List<Surgery>>(){},
+                null,
+                "Failed to fetch patient surgical procedures: ")
+                .thenApply(patientSurgicalProcedures -> {
+                    // filter out surgical procedures with empty procedure description
+                    // these are likely records meant for recording purposes only
+                    List<Surgery> filteredSurgicalProcedures = new ArrayList();
+                    if (patientSurgicalProcedures != null) {
+                        for (Surgery procedure : patientSurgicalProcedures) {
+                            if (!Strings.isNullOrEmpty(procedure.getProcedureDescription())) {
+                                filteredSurgicalProcedures.add(procedure);
+                            }
+                        }
+                    }
+                    return filteredSurgicalProcedures;
+                });
+    }
+
+    /**
+     * POSTs the patient id to a patient endpoint through the async client and parses the response data.
+     * A response the cache allows reusing is parsed without contacting DDP.
+     *
+     * @param endpointName name used in the client statistics report
+     * @param endpoint
+     * @param patientId
+     * @param typeReference
+     * @param emptyBodyMessage failure message when the response body is empty, null if an empty body means no data
+     * @param errorMessagePrefix
+     * @return
+     */
+    private <T> CompletableFuture<T> fetchPatientData(String endpointName, String endpoint, String patientId, TypeReference<T> typeReference,
+            String emptyBodyMessage, String errorMessagePrefix) {
+        String cachedBody = ddpResponseCache.getReusableResponse(patientId, endpointName);
+        CompletableFuture<String> futureBody;
+        if (cachedBody != null) {
+            futureBody = CompletableFuture.completedFuture(cachedBody);
+        }
+        else {
+            try {
+                futureBody = ddpAsyncClient.post(endpointName, patientId, ddpBaseUrl + endpoint, ddpResponseUtil.writeValueAsString(Collections.singletonMap("id", patientId)));
+            }
+            catch (Exception e) {
+                futureBody = CompletableFuture.failedFuture(e);
             }
         }
-        catch (Exception e) {
-            // this can be a RestClientException from restTemplate.exchange, from ddpResponseUtil.parseData, or the exception we throw
+        return futureBody.thenApply(body -> {
+            if (Strings.isNullOrEmpty(body)) {
+                if (emptyBodyMessage != null) {
+                    throw new RuntimeException(emptyBodyMessage);
+                }
+                if (cachedBody == null) {
+                    ddpResponseCache.putResponse(patientId, endpointName, body);
+                }
+                return (T) null;
+            }
+            T data;
+            try {
+                data = (T) ddpResponseUtil.parseData(body, typeReference);
+            }
+            catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            // only responses which parsed are cached
+            if (cachedBody == null) {
+                ddpResponseCache.putResponse(patientId, endpointName, body);
+            }
+            return data;
+        }).exceptionally(error -> {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            if (cause instanceof InvalidAuthenticationException) {
+                // no patient data can be fetched without a session - let callers abort
+                throw (InvalidAuthenticationException) cause;
+            }
+            // this can be a non-2xx response or io error from the client, from ddpResponseUtil.parseData, or the exception we throw
             // if 401 unauthorized then we do not have access to patient data
             // if 400 then the dmp id provided does not resolve to a patient id in DDP system
-            String message = "Failed to fetch patient surgical procedures: " + patientId + "' - " + e.getLocalizedMessage();
+            String message = errorMessagePrefix + patientId + "' - " + cause.getLocalizedMessage();
             LOG.error(message);
-            LOG.debug(e.getStackTrace());
-            throw new RuntimeException(message, e);
+            LOG.debug(cause.getStackTrace());
+            throw new RuntimeException(message, cause);
+        });
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
         }
-        // filter out surgical procedures with empty procedure description
-        // these are likely records meant for recording purposes only
-        List<Surgery> filteredSurgicalProcedures = new ArrayList();
-        for (Surgery procedure : patientSurgicalProcedures) {
-            if (!Strings.isNullOrEmpty(procedure.getProcedureDescription())) {
-                filteredSurgicalProcedures.add(procedure);
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw e;
         }
-        return filteredSurgicalProcedures;
     }
 
     public HttpEntity<Map<String, String>> getRequestEntityWithId(String id) {
@@ -412,4 +417,8 @@ public class DDPRepository {
         HttpEntity<String> requestEntity = new HttpEntity<>(headers);
         return requestEntity;
     }
+
+    private RestTemplate makeRestTemplate(String endpointName) {
+        return HttpTrafficCapture.getInstance().instrument(PipelineMetrics.instrument(new RestTemplate(), "ddp", endpointName));
+    }
 }
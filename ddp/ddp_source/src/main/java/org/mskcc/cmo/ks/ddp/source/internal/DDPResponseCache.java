@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.internal;
+
+import org.mskcc.cmo.ks.ddp.source.model.CohortPatient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PostConstruct;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Disk-backed cache of DDP patient responses, keyed by patient and endpoint.
+ *
+ * A cached response is reused unless the patient is new to the cache, the
+ * response is older than the TTL, or the patient was flagged as changed by
+ * its cohort record (vital status, active indicator, sex or notes differ from
+ * what was stored with the cache entry). Each patient's TTL is stretched by a
+ * stable 0-25% so that a cohort fetched in one run does not all expire on the
+ * same day. Every response is stored with a SHA-256 of its body, which lets
+ * the reuse report tell refetches that changed nothing from real changes.
+ *
+ * Each response is kept in its own file (one per patient and endpoint) together
+ * with the change signal it was fetched under, so a response is only marked as
+ * current once it has actually been refetched.
+ *
+ * The cache is disabled unless ddp.cache.directory is set. Responses contain
+ * patient data, so the directory must not be readable by other users.
+ */
+@Component
+public class DDPResponseCache {
+
+    private static final String METRICS_CACHE = "ddp_response";
+
+    @Value("${ddp.cache.directory:}")
+    private String cacheDirectoryName;
+
+    @Value("${ddp.cache.ttl_hours:168}")
+    private long ttlHours;
+
+    private Path cacheDirectory;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Object[] patientLocks = new Object[64];
+    private final Map<String, String> changeSignals = new ConcurrentHashMap<>();
+    private final Set<String> changedPatients = ConcurrentHashMap.newKeySet();
+    private final Map<String, EndpointStatistics> endpointStatistics = new ConcurrentHashMap<>();
+
+    private final Logger LOG = Logger.getLogger(DDPResponseCache.class);
+
+    public DDPResponseCache() {
+        for (int i = 0; i < patientLocks.length; i++) {
+            patientLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        if (Strings.isNullOrEmpty(cacheDirectoryName)) {
+            LOG.info("DDP response cache disabled (ddp.cache.directory not set) - all patient data will be fetched");
+            return;
+        }
+        cacheDirectory = Paths.get(cacheDirectoryName);
+        Files.createDirectories(cacheDirectory);
+        LOG.info("DDP response cache: " + cacheDirectory + " (ttl " + ttlHours + " hours)");
+    }
+
+    public boolean isEnabled() {
+        return cacheDirectory != null;
+    }
+
+    /**
+     * Sets the patient's cohort-level change signal for this run. Cached responses which
+     * were fetched under a different signal are refetched, and the signal is stored with
+     * each response as it is refetched.
+     *
+     * @param patientId
+     * @param changeSignal see cohortChangeSignal()
+     */
+    public void applyChangeSignal(String patientId, String changeSignal) {
+        if (!isEnabled() || changeSignal == null) {
+            return;
+        }
+        changeSignals.put(patientId, changeSignal);
+    }
+
+    /**
+     * @param patientId
+     * @param endpointName
+     * @return the cached response body, or null if it must be fetched
+     */
+    public String getReusableResponse(String patientId, String endpointName) {
+        if (!isEnabled()) {
+            return null;
+        }
+        EndpointStatistics statistics = statisticsFor(endpointName);
+        CachedResponse cachedResponse;
+        synchronized (lockFor(patientId)) {
+            cachedResponse = readResponse(patientId, endpointName);
+        }
+        if (cachedResponse == null) {
+            statistics.missing.increment();
+            PipelineMetrics.recordCacheRequest(METRICS_CACHE, false);
+            return null;
+        }
+        String changeSignal = changeSignals.get(patientId);
+        if (changeSignal != null && cachedResponse.changeSignal != null && !changeSignal.equals(cachedResponse.changeSignal)) {
+            changedPatients.add(patientId);
+            statistics.flagged.increment();
+            PipelineMetrics.recordCacheRequest(METRICS_CACHE, false);
+            return null;
+        }
+        if (System.currentTimeMillis() - cachedResponse.fetchedAt > ttlMillisFor(patientId)) {
+            statistics.stale.increment();
+            PipelineMetrics.recordCacheRequest(METRICS_CACHE, false);
+            return null;
+        }
+        statistics.reused.increment();
+        PipelineMetrics.recordCacheRequest(METRICS_CACHE, true);
+        return cachedResponse.body;
+    }
+
+    /**
+     * Stores a successfully parsed response.
+     * @param patientId
+     * @param endpointName
+     * @param body
+     */
+    public void putResponse(String patientId, String endpointName, String body) {
+        if (!isEnabled()) {
+            return;
+        }
+        CachedResponse cachedResponse = new CachedResponse();
+        cachedResponse.fetchedAt = System.currentTimeMillis();
+        cachedResponse.sha256 = sha256(Strings.nullToEmpty(body));
+        cachedResponse.body = body;
+        cachedResponse.changeSignal = changeSignals.get(patientId);
+        synchronized (lockFor(patientId)) {
+            CachedResponse previous = readResponse(patientId, endpointName);
+            if (previous != null && cachedResponse.sha256.equals(previous.sha256)) {
+                statisticsFor(endpointName).unchanged.increment();
+            }
+            writeResponse(patientId, endpointName, cachedResponse);
+        }
+    }
+
+    /**
+     * Fields of the cohort patient record which change when the patient's DDP data
+     * likely did. Age and days on cohort are left out since they change every day.
+     *
+     * @param cohortPatient
+     * @return hash of the signal fields, null if there is no cohort record
+     */
+    public static String cohortChangeSignal(CohortPatient cohortPatient) {
+        if (cohortPatient == null) {
+            return null;
+        }
+        return sha256(String.join("\t",
+                String.valueOf(cohortPatient.getCOHORTID()),
+                Strings.nullToEmpty(cohortPatient.getCHPACTIVEIND()),
+                Strings.nullToEmpty(cohortPatient.getPTVITALSTATUS()),
+                Strings.nullToEmpty(cohortPatient.getPTSEX()),
+                Strings.nullToEmpty(cohortPatient.getNOTES())));
+    }
+
+    private long ttlMillisFor(String patientId) {
+        long ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        return ttlMillis + (ttlMillis / 4) * Math.floorMod(patientId.hashCode(), 1000) / 1000;
+    }
+
+    private Object lockFor(String patientId) {
+        return patientLocks[Math.floorMod(patientId.hashCode(), patientLocks.length)];
+    }
+
+    private Path pathFor(String patientId, String endpointName) {
+        String patientDirectoryName = patientId.replaceAll("[^A-Za-z0-9._-]", "_");
+        String filename = endpointName.replaceAll("[^A-Za-z0-9._-]", "_") + ".json";
+        return cacheDirectory.resolve(sha256(patientId).substring(0, 2)).resolve(patientDirectoryName).resolve(filename);
+    }
+
+    private CachedResponse readResponse(String patientId, String endpointName) {
+        Path path = pathFor(patientId, endpointName);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return mapper.readValue(path.toFile(), CachedResponse.class);
+        }
+        catch (IOException e) {
+            LOG.warn("Ignoring unreadable DDP cache entry: " + path + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeResponse(String patientId, String endpointName, CachedResponse cachedResponse) {
+        Path path = pathFor(patientId, endpointName);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+            mapper.writeValue(temporaryPath.toFile(), cachedResponse);
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // a missing entry only costs a refetch next run
+            LOG.warn("Failed to write DDP cache entry: " + path + " - " + e.getMessage());
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private EndpointStatistics statisticsFor(String endpointName) {
+        return endpointStatistics.computeIfAbsent(endpointName, k -> new EndpointStatistics());
+    }
+
+    /**
+     * @return one line per endpoint with reused and refetched response counts
+     */
+    public String getStatisticsReport() {
+        if (!isEnabled()) {
+            return "DDP response cache disabled";
+        }
+        StringBuilder builder = new StringBuilder("DDP response cache - ")
+                .append(changedPatients.size())
+                .append(" patients flagged as changed by their cohort record");
+        for (Map.Entry<String, EndpointStatistics> entry : new TreeMap<>(endpointStatistics).entrySet()) {
+            builder.append("\n\t").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    public void logStatistics() {
+        LOG.info(getStatisticsReport());
+    }
+
+    private static class EndpointStatistics {
+        private final LongAdder reused = new LongAdder();
+        private final LongAdder missing = new LongAdder();
+        private final LongAdder stale = new LongAdder();
+        private final LongAdder flagged = new LongAdder();
+        private final LongAdder unchanged = new LongAdder();
+
+        @Override
+        public String toString() {
+            long total = reused.sum() + missing.sum() + stale.sum() + flagged.sum();
+            long percentReused = (total == 0) ? 0 : 100 * reused.sum() / total;
+            return "reused=" + reused.sum() + " (" + percentReused + "%), fetched: new=" + missing.sum() + ", stale=" + stale.sum() +
+                    ", flagged=" + flagged.sum() + ", refetched unchanged=" + unchanged.sum();
+        }
+    }
+
+    /**
+     * On-disk cache entry, one file per patient and endpoint.
+     */
+    static class CachedResponse {
+        public String changeSignal;
+        public long fetchedAt;
+        public String sha256;
+        public String body;
+    }
+}
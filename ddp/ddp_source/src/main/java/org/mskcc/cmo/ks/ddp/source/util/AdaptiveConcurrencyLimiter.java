@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.util;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of in-flight DDP requests and adjusts the cap from what
+ * the service reports back (additive increase, multiplicative decrease).
+ *
+ *  - a successful response grows the limit by 1/limit, i.e. by one request
+ *    per round trip at the current limit
+ *  - a 429, 5xx or timeout halves the limit
+ *  - a successful but slow response (smoothed latency above latencyTolerance
+ *    times the best smoothed latency seen so far) shrinks the limit by 10%
+ *
+ * Decreases are applied at most once per smoothed round trip so a burst of
+ * failures from requests sent under the old limit is only counted once.
+ * Waiting callers are queued in order and never block a thread.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome {
+        SUCCESS,    // 2xx response
+        OVERLOADED, // 429, 5xx or timeout - the service wants less traffic
+        IGNORED     // any other failure, says nothing about service load
+    }
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double OVERLOAD_BACKOFF = 0.5;
+    private static final double LATENCY_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final LongSupplier nanoClock;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private double smoothedLatencyNanos = -1;
+    private double baselineLatencyNanos = Double.MAX_VALUE;
+    private long lastDecreaseNanos;
+    private int maxObservedLimit;
+    private int minObservedLimit;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+        this(initialLimit, minLimit, maxLimit, latencyTolerance, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance, LongSupplier nanoClock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyTolerance = latencyTolerance;
+        this.nanoClock = nanoClock;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.maxObservedLimit = (int) limit;
+        this.minObservedLimit = (int) limit;
+        this.lastDecreaseNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return a future which completes once the caller holds an in-flight slot,
+     * the slot must be given back with release()
+     */
+    public CompletableFuture<Void> acquire() {
+        synchronized (this) {
+            if (inFlight < getLimit()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+            return waiter;
+        }
+    }
+
+    /**
+     * Gives back an in-flight slot and feeds the request outcome into the limit.
+     * @param outcome
+     * @param latencyNanos time from sending the request until the response (or failure) arrived
+     */
+    public void release(Outcome outcome, long latencyNanos) {
+        List<CompletableFuture<Void>> admitted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            adjustLimit(outcome, latencyNanos);
+            while (!waiters.isEmpty() && inFlight < getLimit()) {
+                inFlight++;
+                admitted.add(waiters.pollFirst());
+            }
+        }
+        // complete outside the lock - dependent stages run on this thread
+        for (CompletableFuture<Void> waiter : admitted) {
+            waiter.complete(null);
+        }
+    }
+
+    private void adjustLimit(Outcome outcome, long latencyNanos) {
+        if (outcome == Outcome.IGNORED) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        boolean canDecrease = (smoothedLatencyNanos < 0 || now - lastDecreaseNanos >= smoothedLatencyNanos);
+        if (outcome == Outcome.OVERLOADED) {
+            if (canDecrease) {
+                decrease(OVERLOAD_BACKOFF, now);
+            }
+            return;
+        }
+        smoothedLatencyNanos = (smoothedLatencyNanos < 0) ? latencyNanos :
+                (1 - LATENCY_SMOOTHING) * smoothedLatencyNanos + LATENCY_SMOOTHING * latencyNanos;
+        baselineLatencyNanos = Math.min(baselineLatencyNanos, smoothedLatencyNanos);
+        if (smoothedLatencyNanos > baselineLatencyNanos * latencyTolerance) {
+            if (canDecrease) {
+                decrease(LATENCY_BACKOFF, now);
+            }
+        }
+        else {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+            maxObservedLimit = Math.max(maxObservedLimit, getLimit());
+        }
+    }
+
+    private void decrease(double factor, long now) {
+        limit = Math.max(minLimit, limit * factor);
+        lastDecreaseNanos = now;
+        minObservedLimit = Math.min(minObservedLimit, getLimit());
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueLength() {
+        return waiters.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "limit=" + getLimit() + " (range " + minObservedLimit + "-" + maxObservedLimit +
+                " over run, bounds " + minLimit + "-" + maxLimit + "), in flight=" + inFlight + ", queued=" + waiters.size();
+    }
+}
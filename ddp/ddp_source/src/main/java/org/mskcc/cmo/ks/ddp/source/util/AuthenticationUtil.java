@@ -33,8 +33,11 @@
 package org.mskcc.cmo.ks.ddp.source.util;
 
 import java.io.IOException;
-import java.lang.Thread;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PreDestroy;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -44,8 +47,10 @@ import org.apache.http.cookie.Cookie;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.cookie.BasicClientCookie;
 import org.apache.http.StatusLine;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.util.HttpTrafficCapture;
 import org.json.JSONObject;
 import org.mskcc.cmo.ks.ddp.source.exception.InvalidAuthenticationException;
 import org.springframework.beans.factory.annotation.Value;
@@ -54,6 +59,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 
 /**
+ * Holds the DDP session cookie.
+ *
+ * The current cookie is published through a volatile field so callers
+ * never take a lock while it is usable. A refresh is started in the
+ * background once the cookie comes within the refresh-ahead window of its
+ * expiry; only callers which find no usable cookie (missing, or expiring
+ * within COOKIE_EXPIRATION_TIME_LIMIT) wait, and those "stalls" are counted.
+ * Concurrent refresh requests share one in-flight attempt sequence, and
+ * attempts are rescheduled on a timer rather than slept between.
  *
  * @author ochoaa
  */
@@ -73,11 +87,25 @@ public class AuthenticationUtil {
     @Value("${ddp.password}")
     private String password;
 
-    private Cookie authenticationCookie;
+    @Value("${ddp.authcookie.refresh_ahead_minutes:45}")
+    private long refreshAheadMinutes = 45;
+
+    @Value("${ddp.authcookie.attempt_wait_millis:10000}")
+    private long cookieAttemptWaitTime = 10000; // milliseconds
+
+    @Value("${ddp.authcookie.attempt_limit:27}")
+    private int cookieAttemptCountLimit = 27;
+
+    private volatile Cookie authenticationCookie;
+    private final AtomicReference<CompletableFuture<Cookie>> inFlightRefresh = new AtomicReference<>();
+    private ScheduledExecutorService scheduler;
+
+    private final LatencyHistogram refreshLatency = new LatencyHistogram();
+    private final LatencyHistogram stallLatency = new LatencyHistogram();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder backgroundRefreshes = new LongAdder();
 
     private final Logger LOG = Logger.getLogger(AuthenticationUtil.class);
-    private final int COOKIE_ATTEMPT_WAIT_TIME = 10000; // milliseconds
-    private final int COOKIE_ATTEMPT_COUNT_LIMIT = 27;
     private final int COOKIE_EXPIRATION_TIME_LIMIT = 30; // minutes
 
     /**
@@ -89,36 +117,139 @@ public class AuthenticationUtil {
 
     /**
      * @return the authenticationCookie
-     * attempts max 3 times to generate an authentication cookie
-     * failure throws an InvalidAuthenticationException that is handled differently
+     * waits for a refresh only if no usable cookie is held
+     * failure after all attempts throws an InvalidAuthenticationException that is handled differently
      */
-    public synchronized Cookie getAuthenticationCookie() {
-        Calendar calendar = Calendar.getInstance(); // right now
-        calendar.add(Calendar.MINUTE, COOKIE_EXPIRATION_TIME_LIMIT);
-        // if we don't have a cookie, or it will expire too quickly
-        if (authenticationCookie == null || authenticationCookie.isExpired(calendar.getTime())) {
-            for (int count = 0; count < COOKIE_ATTEMPT_COUNT_LIMIT; count++) {
-                try {
-                    fillAuthCookie();
-                    break;
-                } catch (Exception e) {
-                    // exception thrown from authentication endpoint
-                    // sleep before trying again (in case DDP is temporarily down)
-                    LOG.warn("Failed to generate authentication cookie ... trying again in " + (COOKIE_ATTEMPT_WAIT_TIME / 1000) + " seconds");
-                    try {
-                        Thread.sleep(COOKIE_ATTEMPT_WAIT_TIME);
-                    } catch (InterruptedException interruptException) {
-                        LOG.warn("InterruptedException thrown");
-                        Thread.currentThread().interrupt();
-                    }
+    public Cookie getAuthenticationCookie() {
+        try {
+            return getAuthenticationCookieAsync().join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of getAuthenticationCookie().
+     * @return future holding a cookie valid for at least COOKIE_EXPIRATION_TIME_LIMIT minutes,
+     * completes with an InvalidAuthenticationException when every attempt failed
+     */
+    public CompletableFuture<Cookie> getAuthenticationCookieAsync() {
+        Cookie cookie = authenticationCookie;
+        if (isUsable(cookie)) {
+            if (isDueForRefresh(cookie)) {
+                refresh(true);
+            }
+            return CompletableFuture.completedFuture(cookie);
+        }
+        long stallStart = System.nanoTime();
+        return refresh(false).whenComplete((refreshed, error) -> stallLatency.record(System.nanoTime() - stallStart));
+    }
+
+    /**
+     * Starts a refresh unless one is already running.
+     * @param background true if a usable cookie is still held
+     * @return the in-flight refresh
+     */
+    private CompletableFuture<Cookie> refresh(boolean background) {
+        while (true) {
+            CompletableFuture<Cookie> current = inFlightRefresh.get();
+            if (current != null && !current.isDone()) {
+                return current;
+            }
+            CompletableFuture<Cookie> next = new CompletableFuture<>();
+            if (inFlightRefresh.compareAndSet(current, next)) {
+                if (background) {
+                    backgroundRefreshes.increment();
+                    LOG.info("Authentication cookie expires soon - refreshing in background");
                 }
+                long refreshStart = System.nanoTime();
+                next.whenComplete((cookie, error) -> refreshLatency.record(System.nanoTime() - refreshStart));
+                getScheduler().execute(() -> attemptRefresh(next, 1));
+                return next;
             }
         }
-        if (authenticationCookie == null || authenticationCookie.isExpired(calendar.getTime())) {
-            LOG.error("Failed to generate authentication cookie (multiple tries attempted)");
-            throw new InvalidAuthenticationException("Failed to generate authentication cookie (multiple tries attempted)");
+    }
+
+    private void attemptRefresh(CompletableFuture<Cookie> refresh, int attempt) {
+        try {
+            Cookie cookie = fetchAuthCookie();
+            authenticationCookie = cookie;
+            scheduleBackgroundRefresh(cookie);
+            refresh.complete(cookie);
+            return;
+        }
+        catch (InvalidAuthenticationException e) {
+            failedAttempts.increment();
+            LOG.error(e.getMessage());
+            refresh.completeExceptionally(e);
+            return;
         }
-        return authenticationCookie;
+        catch (Exception e) {
+            // exception thrown from authentication endpoint
+            failedAttempts.increment();
+            if (attempt >= cookieAttemptCountLimit) {
+                LOG.error("Failed to generate authentication cookie (multiple tries attempted)");
+                refresh.completeExceptionally(new InvalidAuthenticationException("Failed to generate authentication cookie (multiple tries attempted)"));
+                return;
+            }
+        }
+        // try again later (in case DDP is temporarily down) - no thread is held while waiting
+        LOG.warn("Failed to generate authentication cookie ... trying again in " + (cookieAttemptWaitTime / 1000) + " seconds");
+        getScheduler().schedule(() -> attemptRefresh(refresh, attempt + 1), cookieAttemptWaitTime, TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduleBackgroundRefresh(Cookie cookie) {
+        if (cookie.getExpiryDate() == null) {
+            return;
+        }
+        long delayMillis = cookie.getExpiryDate().getTime() - TimeUnit.MINUTES.toMillis(refreshAheadMinutes) - System.currentTimeMillis();
+        getScheduler().schedule(() -> {
+            if (authenticationCookie == cookie) {
+                refresh(true);
+            }
+        }, Math.max(0L, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isUsable(Cookie cookie) {
+        return cookie != null && !cookie.isExpired(minutesFromNow(COOKIE_EXPIRATION_TIME_LIMIT));
+    }
+
+    private boolean isDueForRefresh(Cookie cookie) {
+        return cookie.isExpired(minutesFromNow(refreshAheadMinutes));
+    }
+
+    private Date minutesFromNow(long minutes) {
+        return new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(minutes));
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ddp-auth-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return refresh latency, caller stall time and failure counts
+     */
+    public String getStatisticsReport() {
+        return "authentication refreshes: " + refreshLatency + " (" + backgroundRefreshes.sum() + " in background), failed attempts=" +
+                failedAttempts.sum() + ", stalled callers: " + stallLatency;
     }
 
     /**
@@ -132,34 +263,45 @@ public class AuthenticationUtil {
         return credentials;
     }
 
-    private void fillAuthCookie() throws IOException {
+    /**
+     * Logs in and returns the session cookie.
+     * Client errors (e.g. bad credentials) throw an InvalidAuthenticationException since
+     * trying again cannot succeed, anything else throws an IOException and is retried.
+     * The login is not part of recorded HTTP traffic; replayed requests are matched
+     * without their cookie, so a replayed run uses a placeholder session cookie.
+     */
+    private Cookie fetchAuthCookie() throws IOException {
+        if (HttpTrafficCapture.getInstance().isReplaying()) {
+            BasicClientCookie replayCookie = new BasicClientCookie("session", "replay");
+            replayCookie.setExpiryDate(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+            return replayCookie;
+        }
         String url = ddpBaseUrl + ddpAuthCookieEndpoint;
         HttpClientContext context = HttpClientContext.create();
         RequestConfig customRequestConfig = RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build();
-        CloseableHttpClient customClient = HttpClients.custom().setDefaultRequestConfig(customRequestConfig).build();
         HttpPost postRequest = new HttpPost(url);
         StringEntity input = new StringEntity(new JSONObject(getUserCredentials()).toString());
         input.setContentType("application/json");
         postRequest.setEntity(input);
-        CloseableHttpResponse response = customClient.execute(postRequest, context);
-
-        StatusLine statusLine = response.getStatusLine();
-        if (statusLine.getStatusCode() == HttpStatus.OK.value()) {
-            // get the cookie
-            List<Cookie> cookies = context.getCookieStore().getCookies();
-            for (Cookie cookie : cookies) {
-                LOG.debug("Cookie name: '" + cookie.getName() + "' value: '" + cookie.getValue() + "'");
-                if (cookie.getName().equals("session")) {
-                    this.authenticationCookie = cookie;
-                    break; // found the cookie
+        try (CloseableHttpClient customClient = HttpClients.custom().setDefaultRequestConfig(customRequestConfig).build();
+                CloseableHttpResponse response = customClient.execute(postRequest, context)) {
+            StatusLine statusLine = response.getStatusLine();
+            if (statusLine.getStatusCode() == HttpStatus.OK.value()) {
+                // get the cookie
+                List<Cookie> cookies = context.getCookieStore().getCookies();
+                for (Cookie cookie : cookies) {
+                    LOG.debug("Cookie name: '" + cookie.getName() + "' value: '" + cookie.getValue() + "'");
+                    if (cookie.getName().equals("session")) {
+                        return cookie; // found the cookie
+                    }
                 }
+                throw new IOException("No session cookie in authentication response");
             }
-        } else {
             LOG.error("Response status: '" + statusLine + "'");
+            if (statusLine.getStatusCode() >= 400 && statusLine.getStatusCode() < 500 && statusLine.getStatusCode() != 429) {
+                throw new InvalidAuthenticationException("Failed to generate authentication cookie - response status: '" + statusLine + "'");
+            }
+            throw new IOException("Response status: '" + statusLine + "'");
         }
-
-        // close stuff
-        customClient.close();
-        response.close();
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram, safe to update from many threads.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+    // bucket upper bounds in milliseconds, the last bucket is unbounded
+    private static final long[] BUCKET_BOUNDS_MILLIS = {
+        5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Long::max, 0L);
+
+    public void record(long latencyNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MILLIS.length && millis > BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        bucketCounts.incrementAndGet(bucket);
+        count.increment();
+        totalMillis.add(millis);
+        maxMillis.accumulate(millis);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return (n == 0) ? 0d : (double) totalMillis.sum() / n;
+    }
+
+    /**
+     * @param percentile value in (0, 100]
+     * @return bucket upper bound containing the percentile, or the observed maximum for the last bucket
+     */
+    public long getPercentileMillis(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100d);
+        long seen = 0L;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS_MILLIS.length; bucket++) {
+            seen += bucketCounts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MILLIS[bucket], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fms, p50<=%dms, p95<=%dms, p99<=%dms, max=%dms",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99), getMaxMillis());
+    }
+}
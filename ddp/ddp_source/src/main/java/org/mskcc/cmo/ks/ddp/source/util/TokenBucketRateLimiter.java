@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket shared by every request sent to the DDP service.
+ *
+ * Permits are handed out in request order without blocking the caller:
+ * once the bucket is empty each acquire() reserves the next free slot and
+ * returns a future which completes when that slot arrives. A non-positive
+ * rate disables limiting.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private final Executor executor;
+
+    // may go negative - a negative balance is the backlog of reserved permits
+    private double availablePermits;
+    private long lastRefillNanos;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burstSize, Executor executor) {
+        this(permitsPerSecond, burstSize, executor, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double permitsPerSecond, int burstSize, Executor executor, LongSupplier nanoClock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, burstSize);
+        this.executor = executor;
+        this.nanoClock = nanoClock;
+        this.availablePermits = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    public boolean isUnlimited() {
+        return permitsPerSecond <= 0;
+    }
+
+    /**
+     * Reserves a single permit.
+     * @return a future that completes once the permit may be used
+     */
+    public CompletableFuture<Void> acquire() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0L) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor));
+    }
+
+    /**
+     * Reserves a single permit.
+     * @return the number of nanoseconds the caller must wait before using it
+     */
+    synchronized long reserve() {
+        if (isUnlimited()) {
+            return 0L;
+        }
+        long now = nanoClock.getAsLong();
+        availablePermits = Math.min(capacity, availablePermits + (now - lastRefillNanos) * permitsPerSecond / NANOS_PER_SECOND);
+        lastRefillNanos = now;
+        availablePermits -= 1;
+        if (availablePermits >= 0) {
+            return 0L;
+        }
+        return (long) Math.ceil(-availablePermits * NANOS_PER_SECOND / permitsPerSecond);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.internal;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.impl.cookie.BasicClientCookie;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mskcc.cmo.ks.ddp.source.util.AuthenticationUtil;
+import org.mskcc.cmo.ks.ddp.source.util.TokenBucketRateLimiter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DDPAsyncClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final Queue<Integer> scriptedStatuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<String> receivedCookies = Collections.synchronizedList(new ArrayList<>());
+    private volatile long responseDelayMillis = 0L;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/patient/", this::handle);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort() + "/patient/";
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    /* 429 and 5xx responses are retried and reported per endpoint
+    */
+    @Test
+    public void testThrottledRequestIsRetried() throws Exception {
+        scriptedStatuses.add(429);
+        scriptedStatuses.add(503);
+        DDPAsyncClient client = makeClient(4, 4, 3);
+        String body = client.post("demographics", baseUrl + "demographics", "{\"id\":\"P-0000001\"}").get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("{\"data\":[]}", body);
+        Assert.assertEquals("session=abc123", receivedCookies.get(0));
+        String report = client.getStatisticsReport();
+        Assert.assertTrue(report, report.contains("demographics: count=3"));
+        Assert.assertTrue(report, report.contains("429=1, 5xx=1"));
+        Assert.assertTrue(report, report.contains("retries=2, failed=0"));
+        client.shutdown();
+    }
+
+    /* other client errors fail immediately without a retry
+    */
+    @Test
+    public void testClientErrorIsNotRetried() throws Exception {
+        scriptedStatuses.add(400);
+        DDPAsyncClient client = makeClient(4, 4, 3);
+        try {
+            client.post("identifiers", baseUrl + "identifiers", "{\"id\":\"P-0000001\"}").get(10, TimeUnit.SECONDS);
+            Assert.fail("expected request to fail");
+        }
+        catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause().getMessage(), e.getCause().getMessage().startsWith("400 response from"));
+        }
+        Assert.assertTrue(client.getStatisticsReport().contains("retries=0, failed=1"));
+        client.shutdown();
+    }
+
+    /* no more requests than the concurrency limit are ever outstanding
+    */
+    @Test
+    public void testConcurrencyIsCapped() throws Exception {
+        responseDelayMillis = 50L;
+        DDPAsyncClient client = makeClient(3, 3, 0);
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            responses.add(client.post("surgery", baseUrl + "surgery", "{\"id\":\"P-000000" + i + "\"}"));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        Assert.assertTrue("max in flight: " + maxInFlight.get(), maxInFlight.get() <= 3);
+        Assert.assertEquals(0, client.getConcurrencyLimiter().getInFlight());
+        client.shutdown();
+    }
+
+    /* the concurrency slot is released when an attempt fails before its exchange starts,
+     * so the limiter is not left with fewer slots than its limit
+    */
+    @Test
+    public void testSlotIsReleasedWhenAttemptFailsBeforeExchange() throws Exception {
+        DDPAsyncClient client = makeClient(1, 1, 0);
+        // the request cannot be built for an unsupported scheme
+        assertFails(client.post("diagnosis", "ftp://localhost/patient/diagnosis", "{\"id\":\"P-0000001\"}"));
+        Assert.assertEquals(0, client.getConcurrencyLimiter().getInFlight());
+        // the rate limiter fails
+        TokenBucketRateLimiter failingRateLimiter = Mockito.mock(TokenBucketRateLimiter.class);
+        Mockito.when(failingRateLimiter.acquire()).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("rate limiter stopped")));
+        TokenBucketRateLimiter rateLimiter = (TokenBucketRateLimiter) ReflectionTestUtils.getField(client, "rateLimiter");
+        ReflectionTestUtils.setField(client, "rateLimiter", failingRateLimiter);
+        assertFails(client.post("diagnosis", baseUrl + "diagnosis", "{\"id\":\"P-0000001\"}"));
+        Assert.assertEquals(0, client.getConcurrencyLimiter().getInFlight());
+        // the only slot is free for the next request
+        ReflectionTestUtils.setField(client, "rateLimiter", rateLimiter);
+        Assert.assertEquals("{\"data\":[]}", client.post("diagnosis", baseUrl + "diagnosis", "{\"id\":\"P-0000001\"}").get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, client.getConcurrencyLimiter().getInFlight());
+        Assert.assertEquals(1, client.getConcurrencyLimiter().getLimit());
+        client.shutdown();
+    }
+
+    private void assertFails(CompletableFuture<String> response) throws Exception {
+        try {
+            response.get(10, TimeUnit.SECONDS);
+            Assert.fail("expected request to fail");
+        }
+        catch (ExecutionException e) {
+            // expected
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            receivedCookies.add(exchange.getRequestHeaders().getFirst("Cookie"));
+            exchange.getRequestBody().readAllBytes();
+            if (responseDelayMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(responseDelayMillis);
+            }
+            Integer status = scriptedStatuses.poll();
+            byte[] body = "{\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+            if (status != null) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(status, -1);
+            }
+            else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private DDPAsyncClient makeClient(int initialConcurrency, int maxConcurrency, int maxRetries) {
+        AuthenticationUtil authenticationUtil = Mockito.mock(AuthenticationUtil.class);
+        Mockito.when(authenticationUtil.getAuthenticationCookieAsync())
+                .thenReturn(CompletableFuture.completedFuture(new BasicClientCookie("session", "abc123")));
+        Mockito.when(authenticationUtil.getStatisticsReport()).thenReturn("authentication refreshes: count=0");
+        DDPAsyncClient client = new DDPAsyncClient();
+        ReflectionTestUtils.setField(client, "authenticationUtil", authenticationUtil);
+        ReflectionTestUtils.setField(client, "maxRequestsPerSecond", 0d);
+        ReflectionTestUtils.setField(client, "burstSize", 1);
+        ReflectionTestUtils.setField(client, "initialConcurrency", initialConcurrency);
+        ReflectionTestUtils.setField(client, "minConcurrency", 1);
+        ReflectionTestUtils.setField(client, "maxConcurrency", maxConcurrency);
+        ReflectionTestUtils.setField(client, "latencyTolerance", 2.0d);
+        ReflectionTestUtils.setField(client, "requestTimeoutSeconds", 10L);
+        ReflectionTestUtils.setField(client, "maxRetries", maxRetries);
+        ReflectionTestUtils.setField(client, "retryBackoffMillis", 10L);
+        client.initialize();
+        return client;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.internal;
+
+import java.io.File;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mskcc.cmo.ks.ddp.source.model.CohortPatient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DDPResponseCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* a response stored by one run is reused by the next run within the ttl
+    */
+    @Test
+    public void testResponseIsReusedAcrossRuns() throws Exception {
+        File cacheDirectory = temporaryFolder.newFolder("ddp_cache");
+        DDPResponseCache firstRun = makeCache(cacheDirectory, 24);
+        Assert.assertNull(firstRun.getReusableResponse("P-0000001", "demographics"));
+        firstRun.putResponse("P-0000001", "demographics", "{\"data\":[{\"PT_SEX\":\"F\"}]}");
+        firstRun.putResponse("P-0000001", "radiation", "");
+
+        DDPResponseCache secondRun = makeCache(cacheDirectory, 24);
+        Assert.assertEquals("{\"data\":[{\"PT_SEX\":\"F\"}]}", secondRun.getReusableResponse("P-0000001", "demographics"));
+        Assert.assertEquals("", secondRun.getReusableResponse("P-0000001", "radiation"));
+        Assert.assertNull(secondRun.getReusableResponse("P-0000001", "surgery"));
+        Assert.assertNull(secondRun.getReusableResponse("P-0000002", "demographics"));
+        String report = secondRun.getStatisticsReport();
+        Assert.assertTrue(report, report.contains("demographics: reused=1 (50%), fetched: new=1, stale=0"));
+        Assert.assertTrue(report, report.contains("surgery: reused=0 (0%), fetched: new=1"));
+    }
+
+    /* responses past the ttl are refetched; refetches with identical content are counted as unchanged
+    */
+    @Test
+    public void testStaleResponseIsRefetched() throws Exception {
+        File cacheDirectory = temporaryFolder.newFolder("ddp_cache");
+        makeCache(cacheDirectory, 24).putResponse("P-0000001", "diagnosis", "{\"data\":[]}");
+        DDPResponseCache secondRun = makeCache(cacheDirectory, 0);
+        Thread.sleep(5);
+        Assert.assertNull(secondRun.getReusableResponse("P-0000001", "diagnosis"));
+        secondRun.putResponse("P-0000001", "diagnosis", "{\"data\":[]}");
+        Assert.assertTrue(secondRun.getStatisticsReport().contains("stale=1, flagged=0, refetched unchanged=1"));
+    }
+
+    /* a patient whose cohort record changed is refetched for every endpoint
+    */
+    @Test
+    public void testChangedCohortRecordFlagsPatient() throws Exception {
+        File cacheDirectory = temporaryFolder.newFolder("ddp_cache");
+        DDPResponseCache firstRun = makeCache(cacheDirectory, 24);
+        firstRun.applyChangeSignal("P-0000001", DDPResponseCache.cohortChangeSignal(makeCohortPatient("ALIVE", 10)));
+        firstRun.applyChangeSignal("P-0000002", DDPResponseCache.cohortChangeSignal(makeCohortPatient("ALIVE", 10)));
+        firstRun.putResponse("P-0000001", "demographics", "{\"data\":[]}");
+        firstRun.putResponse("P-0000001", "diagnosis", "{\"data\":[]}");
+        firstRun.putResponse("P-0000002", "demographics", "{\"data\":[]}");
+
+        DDPResponseCache secondRun = makeCache(cacheDirectory, 24);
+        // vital status changed for patient 1, only the days on cohort changed for patient 2
+        secondRun.applyChangeSignal("P-0000001", DDPResponseCache.cohortChangeSignal(makeCohortPatient("DECEASED", 11)));
+        secondRun.applyChangeSignal("P-0000002", DDPResponseCache.cohortChangeSignal(makeCohortPatient("ALIVE", 11)));
+        Assert.assertNull(secondRun.getReusableResponse("P-0000001", "demographics"));
+        Assert.assertNull(secondRun.getReusableResponse("P-0000001", "diagnosis"));
+        Assert.assertNotNull(secondRun.getReusableResponse("P-0000002", "demographics"));
+        Assert.assertTrue(secondRun.getStatisticsReport().startsWith("DDP response cache - 1 patients flagged"));
+        // only the demographics refetch succeeds
+        secondRun.putResponse("P-0000001", "demographics", "{\"data\":[]}");
+
+        // the new signal is stored with the refetched response only, the failed refetch is retried next run
+        DDPResponseCache thirdRun = makeCache(cacheDirectory, 24);
+        thirdRun.applyChangeSignal("P-0000001", DDPResponseCache.cohortChangeSignal(makeCohortPatient("DECEASED", 12)));
+        Assert.assertNotNull(thirdRun.getReusableResponse("P-0000001", "demographics"));
+        Assert.assertNull(thirdRun.getReusableResponse("P-0000001", "diagnosis"));
+    }
+
+    @Test
+    public void testDisabledWithoutDirectory() throws Exception {
+        DDPResponseCache cache = new DDPResponseCache();
+        ReflectionTestUtils.setField(cache, "cacheDirectoryName", "");
+        cache.initialize();
+        cache.putResponse("P-0000001", "demographics", "{\"data\":[]}");
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertNull(cache.getReusableResponse("P-0000001", "demographics"));
+    }
+
+    private DDPResponseCache makeCache(File cacheDirectory, long ttlHours) throws Exception {
+        DDPResponseCache cache = new DDPResponseCache();
+        ReflectionTestUtils.setField(cache, "cacheDirectoryName", cacheDirectory.getAbsolutePath());
+        ReflectionTestUtils.setField(cache, "ttlHours", ttlHours);
+        cache.initialize();
+        return cache;
+    }
+
+    private CohortPatient makeCohortPatient(String vitalStatus, Integer daysOnCohort) {
+        CohortPatient cohortPatient = new CohortPatient();
+        cohortPatient.setCOHORTID(2033);
+        cohortPatient.setCHPACTIVEIND("Y");
+        cohortPatient.setPTVITALSTATUS(vitalStatus);
+        cohortPatient.setPTSEX("F");
+        cohortPatient.setDAYSONCOHORT(daysOnCohort);
+        return cohortPatient;
+    }
+}
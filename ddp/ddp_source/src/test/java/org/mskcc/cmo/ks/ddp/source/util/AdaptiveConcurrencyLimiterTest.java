@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.util;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mskcc.cmo.ks.ddp.source.util.AdaptiveConcurrencyLimiter.Outcome;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    /* callers beyond the limit wait in order and are admitted as slots are released
+    */
+    @Test
+    public void testCallersQueueBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 2, 2, 2.0);
+        List<CompletableFuture<Void>> slots = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            slots.add(limiter.acquire());
+        }
+        Assert.assertTrue(slots.get(0).isDone());
+        Assert.assertTrue(slots.get(1).isDone());
+        Assert.assertFalse(slots.get(2).isDone());
+        Assert.assertEquals(2, limiter.getQueueLength());
+        limiter.release(Outcome.SUCCESS, 10 * MILLIS);
+        Assert.assertTrue(slots.get(2).isDone());
+        Assert.assertFalse(slots.get(3).isDone());
+        Assert.assertEquals(2, limiter.getInFlight());
+    }
+
+    /* steady fast responses grow the limit by about one per round trip, up to the maximum
+    */
+    @Test
+    public void testSuccessGrowsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 6, 2.0, new AtomicLong()::get);
+        completeRequests(limiter, 5, Outcome.SUCCESS, 10 * MILLIS);
+        Assert.assertEquals(5, limiter.getLimit());
+        completeRequests(limiter, 100, Outcome.SUCCESS, 10 * MILLIS);
+        Assert.assertEquals(6, limiter.getLimit());
+    }
+
+    /* a 429/5xx halves the limit, but a burst of them within one round trip only counts once
+    */
+    @Test
+    public void testOverloadHalvesLimitOncePerRoundTrip() {
+        AtomicLong now = new AtomicLong(0L);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 1, 32, 2.0, now::get);
+        completeRequests(limiter, 1, Outcome.SUCCESS, 100 * MILLIS);
+        now.set(1000 * MILLIS);
+        completeRequests(limiter, 5, Outcome.OVERLOADED, 100 * MILLIS);
+        Assert.assertEquals(8, limiter.getLimit());
+        now.addAndGet(200 * MILLIS);
+        completeRequests(limiter, 1, Outcome.OVERLOADED, 100 * MILLIS);
+        Assert.assertEquals(4, limiter.getLimit());
+        // non-overload failures say nothing about load
+        now.addAndGet(200 * MILLIS);
+        completeRequests(limiter, 10, Outcome.IGNORED, 100 * MILLIS);
+        Assert.assertEquals(4, limiter.getLimit());
+    }
+
+    /* latency climbing well above the best observed latency shrinks the limit even without errors
+    */
+    @Test
+    public void testRisingLatencyShrinksLimit() {
+        AtomicLong now = new AtomicLong(0L);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 20, 2.0, now::get);
+        completeRequests(limiter, 10, Outcome.SUCCESS, 50 * MILLIS);
+        Assert.assertEquals(20, limiter.getLimit());
+        for (int i = 0; i < 20; i++) {
+            now.addAndGet(1000 * MILLIS);
+            completeRequests(limiter, 1, Outcome.SUCCESS, 500 * MILLIS);
+        }
+        Assert.assertTrue("limit should have backed off: " + limiter, limiter.getLimit() < 20);
+        Assert.assertTrue(limiter.getLimit() >= 1);
+    }
+
+    private void completeRequests(AdaptiveConcurrencyLimiter limiter, int count, Outcome outcome, long latencyNanos) {
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(limiter.acquire().isDone());
+            limiter.release(outcome, latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.cookie.Cookie;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mskcc.cmo.ks.ddp.source.exception.InvalidAuthenticationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AuthenticationUtilTest {
+
+    private HttpServer server;
+    private AuthenticationUtil authenticationUtil;
+    private final AtomicInteger loginCount = new AtomicInteger();
+    private final Queue<Integer> scriptedStatuses = new ConcurrentLinkedQueue<>();
+    // response delay and cookie lifetime by login number (1-based), last entry applies to later logins
+    private volatile long[] responseDelayMillis = {0L};
+    private volatile long[] cookieMaxAgeSeconds = {7200L};
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/authenticate/login", this::handleLogin);
+        server.start();
+        authenticationUtil = new AuthenticationUtil();
+        ReflectionTestUtils.setField(authenticationUtil, "ddpBaseUrl", "http://localhost:" + server.getAddress().getPort() + "/");
+        ReflectionTestUtils.setField(authenticationUtil, "ddpAuthCookieEndpoint", "authenticate/login");
+        ReflectionTestUtils.setField(authenticationUtil, "username", "user");
+        ReflectionTestUtils.setField(authenticationUtil, "password", "secret");
+        ReflectionTestUtils.setField(authenticationUtil, "cookieAttemptWaitTime", 10L);
+        ReflectionTestUtils.setField(authenticationUtil, "cookieAttemptCountLimit", 3);
+    }
+
+    @After
+    public void tearDown() {
+        authenticationUtil.shutdown();
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    /* callers arriving while there is no cookie all wait on a single login request
+    */
+    @Test
+    public void testConcurrentCallersShareOneRefresh() throws Exception {
+        responseDelayMillis = new long[]{300L};
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Cookie>> cookies = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                cookies.add(callers.submit(() -> authenticationUtil.getAuthenticationCookie()));
+            }
+            for (Future<Cookie> cookie : cookies) {
+                Assert.assertEquals("session-1", cookie.get(10, TimeUnit.SECONDS).getValue());
+            }
+        }
+        finally {
+            callers.shutdownNow();
+        }
+        Assert.assertEquals(1, loginCount.get());
+        Assert.assertTrue(authenticationUtil.getStatisticsReport(), authenticationUtil.getStatisticsReport().contains("stalled callers: count=8"));
+    }
+
+    /* a cookie inside the refresh-ahead window is still handed out while the next one is fetched in the background
+    */
+    @Test
+    public void testCookieNearExpiryIsRefreshedInBackground() throws Exception {
+        // 40 minutes is usable (more than 30 left) but inside the 45 minute refresh-ahead window
+        cookieMaxAgeSeconds = new long[]{2400L, 7200L};
+        responseDelayMillis = new long[]{0L, 500L};
+        Assert.assertEquals("session-1", authenticationUtil.getAuthenticationCookie().getValue());
+        long start = System.nanoTime();
+        Assert.assertEquals("session-1", authenticationUtil.getAuthenticationCookie().getValue());
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 400L);
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (!"session-2".equals(authenticationUtil.getAuthenticationCookie().getValue()) && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        Assert.assertEquals("session-2", authenticationUtil.getAuthenticationCookie().getValue());
+        Assert.assertEquals(2, loginCount.get());
+        Assert.assertTrue(authenticationUtil.getStatisticsReport(), authenticationUtil.getStatisticsReport().contains("stalled callers: count=1"));
+    }
+
+    /* server errors are retried, the cookie is returned once a login succeeds
+    */
+    @Test
+    public void testServerErrorIsRetried() {
+        scriptedStatuses.add(503);
+        Assert.assertEquals("session-2", authenticationUtil.getAuthenticationCookie().getValue());
+        Assert.assertTrue(authenticationUtil.getStatisticsReport().contains("failed attempts=1"));
+    }
+
+    /* rejected credentials fail immediately instead of retrying
+    */
+    @Test
+    public void testRejectedCredentialsFailFast() {
+        scriptedStatuses.add(401);
+        try {
+            authenticationUtil.getAuthenticationCookie();
+            Assert.fail("expected InvalidAuthenticationException");
+        }
+        catch (InvalidAuthenticationException e) {
+            Assert.assertEquals(1, loginCount.get());
+        }
+    }
+
+    private void handleLogin(HttpExchange exchange) throws IOException {
+        int login = loginCount.incrementAndGet();
+        try {
+            exchange.getRequestBody().readAllBytes();
+            TimeUnit.MILLISECONDS.sleep(valueForLogin(responseDelayMillis, login));
+            Integer status = scriptedStatuses.poll();
+            if (status != null) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Set-Cookie", "session=session-" + login + "; Max-Age=" + valueForLogin(cookieMaxAgeSeconds, login) + "; Path=/");
+            exchange.sendResponseHeaders(200, -1);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private long valueForLogin(long[] values, int login) {
+        return values[Math.min(login, values.length) - 1];
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.ddp.source.util;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    /* burst permits are free, later permits are spaced 1/rate apart in request order
+    */
+    @Test
+    public void testReservationsAreSpacedByRate() {
+        AtomicLong now = new AtomicLong(0L);
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 2, Runnable::run, now::get);
+        Assert.assertEquals(0L, rateLimiter.reserve());
+        Assert.assertEquals(0L, rateLimiter.reserve());
+        Assert.assertEquals(100 * MILLIS, rateLimiter.reserve());
+        Assert.assertEquals(200 * MILLIS, rateLimiter.reserve());
+        // 250ms later the backlog of two permits is mostly paid down
+        now.set(250 * MILLIS);
+        Assert.assertEquals(50 * MILLIS, rateLimiter.reserve());
+    }
+
+    /* an idle bucket refills up to the burst size and no further
+    */
+    @Test
+    public void testRefillIsCappedAtBurstSize() {
+        AtomicLong now = new AtomicLong(0L);
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 3, Runnable::run, now::get);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.reserve();
+        }
+        now.set(60_000 * MILLIS);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0L, rateLimiter.reserve());
+        }
+        Assert.assertEquals(100 * MILLIS, rateLimiter.reserve());
+    }
+
+    @Test
+    public void testNonPositiveRateDisablesLimit() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(0, 1, Runnable::run);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(rateLimiter.acquire().isDone());
+        }
+    }
+
+    /* acquire() must not block the caller when the bucket is empty
+    */
+    @Test
+    public void testAcquireDoesNotBlock() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(20, 1, executor);
+            Assert.assertTrue(rateLimiter.acquire().isDone());
+            long start = System.nanoTime();
+            CompletableFuture<Void> delayed = rateLimiter.acquire();
+            Assert.assertTrue(System.nanoTime() - start < 40 * MILLIS);
+            delayed.get(5, TimeUnit.SECONDS);
+            Assert.assertTrue(System.nanoTime() - start >= 40 * MILLIS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.mskcc.cmo.ks.redcap.pipeline.BatchConfiguration;
 import org.mskcc.cmo.ks.redcap.pipeline.util.JobParameterUtils;
 import org.mskcc.cmo.ks.redcap.source.ClinicalDataSource;
 import org.mskcc.cmo.ks.redcap.source.MetadataManager;
+import org.mskcc.cmo.ks.redcap.source.internal.CDDSnapshotManager;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.*;
@@ -82,6 +83,9 @@ public class RedcapPipeline {
     private static final String OPTION_IMPORT_MODE = "import-mode";
     private static final String OPTION_EXPORT_MODE = "export-mode";
     private static final String OPTION_CHECK_MODE = "check-mode";
+    private static final String OPTION_SHOW_CDD_SNAPSHOT = "show-cdd-snapshot";
+
+    private static final long CDD_SNAPSHOT_REFRESH_WAIT_MILLIS = 30000L;
 
     private static final Logger log = Logger.getLogger(RedcapPipeline.class);
 
@@ -97,7 +101,8 @@ public class RedcapPipeline {
             .addOption("m", OPTION_MASK_REDCAP_PROJECTS, true, "Export (or check) of data will not include the data for these redcap project titles. (can not be used with --" + OPTION_REDCAP_PROJECT_TITLE + ")")
             .addOption("i", OPTION_IMPORT_MODE, false, "Import from file to redcap-project (use one of { -i, -e, -c })")
             .addOption("e", OPTION_EXPORT_MODE, false, "Export either --" + OPTION_REDCAP_PROJECT_TITLE + " or --" + OPTION_STABLE_ID + " to directory (use one of -i, -e, -c)")
-            .addOption("c", OPTION_CHECK_MODE, false, "Check if either --" + OPTION_REDCAP_PROJECT_TITLE + " or --" + OPTION_STABLE_ID + " is present in RedCap (use one of { -i, -e, -c })");
+            .addOption("c", OPTION_CHECK_MODE, false, "Check if either --" + OPTION_REDCAP_PROJECT_TITLE + " or --" + OPTION_STABLE_ID + " is present in RedCap (use one of { -i, -e, -c })")
+            .addOption("x", OPTION_SHOW_CDD_SNAPSHOT, false, "Print a summary of the local Clinical Data Dictionary snapshot (cdd.snapshot.file) and quit.");
         return options;
     }
 
@@ -218,6 +223,12 @@ public class RedcapPipeline {
         }
     }
 
+    private static void showCddSnapshotAndExit(ConfigurableApplicationContext ctx) {
+        CDDSnapshotManager cddSnapshotManager = ctx.getBean(CDDSnapshotManager.class);
+        System.out.print(cddSnapshotManager.describeSnapshot());
+        System.exit(0);
+    }
+
     private static char parseModeFromOptions(CommandLine commandLine) {
         PrintWriter errOut = new PrintWriter(System.err, true);
         char mode = determineModeFromOptions(commandLine, errOut);
@@ -372,6 +383,11 @@ public class RedcapPipeline {
         if (commandLine.hasOption(OPTION_HELP)) {
             help(options, 0);
         }
+        if (commandLine.hasOption(OPTION_SHOW_CDD_SNAPSHOT)) {
+            SpringApplication app = new SpringApplication(RedcapPipeline.class);
+            app.setWebApplicationType(WebApplicationType.NONE);
+            showCddSnapshotAndExit(app.run(args));
+        }
         char executionMode = parseModeFromOptions(commandLine);
         if (executionMode == UNDETERMINED_MODE) {
             help(options, 1);
@@ -388,5 +404,7 @@ public class RedcapPipeline {
             checkIfProjectOrStableIdExistsAndExit(commandLine);
         }
         launchJob(ctx, executionMode, commandLine);
+        // give a pending background refresh of the CDD snapshot a chance to complete before the jvm exits
+        ctx.getBean(CDDSnapshotManager.class).awaitBackgroundRefresh(CDD_SNAPSHOT_REFRESH_WAIT_MILLIS);
     }
 }
@@ -35,6 +35,9 @@ import java.net.MalformedURLException;
 import java.util.*;
 import javax.sql.DataSource;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.jfr.FlightRecorderBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetricsBeanPostProcessor;
+import org.cbioportal.cmo.pipelines.common.report.RunReportBeanPostProcessor;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.job.builder.JobBuilder;
@@ -81,6 +84,21 @@ public class BatchConfiguration {
     @Value("${chunk}")
     private Integer chunkInterval;
 
+    @Bean
+    public static PipelineMetricsBeanPostProcessor pipelineMetricsBeanPostProcessor() {
+        return new PipelineMetricsBeanPostProcessor();
+    }
+
+    @Bean
+    public static RunReportBeanPostProcessor runReportBeanPostProcessor() {
+        return new RunReportBeanPostProcessor();
+    }
+
+    @Bean
+    public static FlightRecorderBeanPostProcessor flightRecorderBeanPostProcessor() {
+        return new FlightRecorderBeanPostProcessor();
+    }
+
     @Bean(name = "redcapExportJob")
     public Job redcapExportJob(@Qualifier("redcapJobRepository") JobRepository jobRepository,
                                @Qualifier("exportClinicalDataStep") Step exportClinicalDataStep,
@@ -37,6 +37,8 @@ import org.apache.log4j.Logger;
 import org.mskcc.cmo.ks.redcap.source.ClinicalDataSource;
 import org.mskcc.cmo.ks.redcap.source.MetadataManager;
 import org.mskcc.cmo.ks.redcap.pipeline.util.ConflictingAttributeValuesException;
+import org.mskcc.cmo.ks.redcap.pipeline.util.IndexedHeader;
+import org.mskcc.cmo.ks.redcap.pipeline.util.IndexedRecord;
 import org.mskcc.cmo.ks.redcap.pipeline.util.JobParameterUtils;
 import org.mskcc.cmo.ks.redcap.pipeline.util.RedcapUtils;
 import org.springframework.batch.item.ExecutionContext;
@@ -74,9 +76,11 @@ public class ClinicalDataReader implements ItemStreamReader<Map<String, String>>
 
     private Map<String, List<String>> fullSampleHeader = new HashMap<>();
     private Map<String, List<String>> fullPatientHeader = new HashMap<>();
-    private List<Map<String, String>> clinicalRecords = new ArrayList<>();
-    private Map<String, Map<String, String>> compiledClinicalSampleRecords = new LinkedHashMap<>();
-    private Map<String, Map<String, String>> compiledClinicalPatientRecords = new LinkedHashMap<>();
+    private IndexedHeader sampleColumns = new IndexedHeader();
+    private IndexedHeader patientColumns = new IndexedHeader();
+    private Iterator<Map<String, String>> clinicalRecordIterator = Collections.emptyIterator();
+    private Map<String, IndexedRecord> compiledClinicalSampleRecords = new LinkedHashMap<>();
+    private Map<String, IndexedRecord> compiledClinicalPatientRecords = new LinkedHashMap<>();
     private Set<String> maskRedcapProjectSet = new HashSet<>();
 
     private final Logger log = Logger.getLogger(ClinicalDataReader.class);
@@ -109,15 +113,17 @@ public class ClinicalDataReader implements ItemStreamReader<Map<String, String>>
             ec.put("fullHeader", fullHeader);
             ec.put("writeRawClinicalData", true);
             // get clinical data for current clinical data source
-            clinicalRecords = clinicalDataSource.exportRawDataForProjectTitle(projectTitle);
+            clinicalRecordIterator = clinicalDataSource.exportRawDataForProjectTitle(projectTitle).iterator();
         } else {
             resetFullHeaders(fullSampleHeader);
             resetFullHeaders(fullPatientHeader);
+            sampleColumns = new IndexedHeader();
+            patientColumns = new IndexedHeader();
             compiledClinicalSampleRecords.clear();
             compiledClinicalPatientRecords.clear();
             mergeClinicalDataSources();
             // associate patient data with their samples so that patient data for each sample is the same
-            this.clinicalRecords = mergePatientSampleClinicalRecords();
+            clinicalRecordIterator = mergePatientSampleClinicalRecords();
             // if sample header size is <= 2 then skip writing the sample clinical data file
             boolean writeClinicalSample = true;
             if (fullSampleHeader.get("header").size() <= 2) {
@@ -159,16 +165,54 @@ public class ClinicalDataReader implements ItemStreamReader<Map<String, String>>
 
     /**
      * Associates patient data with each sample it's associated with.
+     * Merged records are produced lazily (one per compiled sample record) and compiled sample
+     * records are released as they are consumed. Patient values take precedence over sample values.
      * @return
      */
-    private List<Map<String,String>> mergePatientSampleClinicalRecords() {
-        List<Map<String,String>> mergedClinicalRecords = new ArrayList<>();
-        for (Map<String, String> record : compiledClinicalSampleRecords.values()) {
-            Map<String, String> patientData = compiledClinicalPatientRecords.getOrDefault(record.get("PATIENT_ID"), new HashMap<>());
-            record.putAll(patientData);
-            mergedClinicalRecords.add(record);
+    private Iterator<Map<String,String>> mergePatientSampleClinicalRecords() {
+        final IndexedHeader mergedColumns = new IndexedHeader(sampleColumns.getColumns());
+        for (String column : patientColumns.getColumns()) {
+            mergedColumns.add(column);
+        }
+        final int[] sampleToMergedIndex = makeIndexMapping(sampleColumns, mergedColumns);
+        final int[] patientToMergedIndex = makeIndexMapping(patientColumns, mergedColumns);
+        final Iterator<IndexedRecord> sampleRecordIterator = compiledClinicalSampleRecords.values().iterator();
+        return new Iterator<Map<String,String>>() {
+            @Override
+            public boolean hasNext() {
+                return sampleRecordIterator.hasNext();
+            }
+
+            @Override
+            public Map<String,String> next() {
+                IndexedRecord sampleRecord = sampleRecordIterator.next();
+                sampleRecordIterator.remove();
+                IndexedRecord mergedRecord = new IndexedRecord(mergedColumns);
+                copyValues(sampleRecord, sampleToMergedIndex, mergedRecord);
+                IndexedRecord patientRecord = compiledClinicalPatientRecords.get(sampleRecord.get("PATIENT_ID"));
+                if (patientRecord != null) {
+                    copyValues(patientRecord, patientToMergedIndex, mergedRecord);
+                }
+                return mergedRecord;
+            }
+        };
+    }
+
+    private int[] makeIndexMapping(IndexedHeader fromColumns, IndexedHeader toColumns) {
+        int[] indexMapping = new int[fromColumns.size()];
+        for (int i = 0; i < indexMapping.length; i++) {
+            indexMapping[i] = toColumns.indexOf(fromColumns.getColumn(i));
+        }
+        return indexMapping;
+    }
+
+    private void copyValues(IndexedRecord fromRecord, int[] indexMapping, IndexedRecord toRecord) {
+        for (int i = 0; i < indexMapping.length; i++) {
+            String value = fromRecord.getValue(i);
+            if (value != null) {
+                toRecord.setValue(indexMapping[i], value);
+            }
         }
-        return mergedClinicalRecords;
     }
 
     private void mergeClinicalDataSources() {
@@ -184,7 +228,7 @@ public class ClinicalDataReader implements ItemStreamReader<Map<String, String>>
             Map<String, List<String>> sampleHeader = metadataManager.getFullHeader(clinicalDataSource.getSampleHeader(stableId));
             List<String> sampleColumnNames = sampleHeader.get("header");
             for (int i=0;i<sampleColumnNames.size();i++) {
-                if (!fullSampleHeader.get("header").contains(sampleColumnNames.get(i))) {
+                if (sampleColumns.add(sampleColumnNames.get(i))) {
                     for (String metadataName : fullSampleHeader.keySet()) {
                         this.fullSampleHeader.get(metadataName).add(sampleHeader.get(metadataName).get(i));
                     }
@@ -196,7 +240,7 @@ public class ClinicalDataReader implements ItemStreamReader<Map<String, String>>
             Map<String, List<String>> patientHeader = metadataManager.getFullHeader(clinicalDataSource.getPatientHeader(stableId));
             List<String> patientColumnNames = patientHeader.get("header");
             for (int i=0;i<patientColumnNames.size();i++) {
-                if (!fullPatientHeader.get("header").contains(patientColumnNames.get(i))) {
+                if (patientColumns.add(patientColumnNames.get(i))) {
                     for (String metadataName : fullPatientHeader.keySet()) {
                         this.fullPatientHeader.get(metadataName).add(patientHeader.get(metadataName).get(i));
                     }
@@ -211,37 +255,36 @@ public class ClinicalDataReader implements ItemStreamReader<Map<String, String>>
     }
 
     private void updateClinicalData(Map<String, String> record) {
-        updateClinicalData(record, "SAMPLE_ID", fullSampleHeader, compiledClinicalSampleRecords);
-        updateClinicalData(record, "PATIENT_ID", fullPatientHeader, compiledClinicalPatientRecords);
+        updateClinicalData(record, "SAMPLE_ID", sampleColumns, compiledClinicalSampleRecords);
+        updateClinicalData(record, "PATIENT_ID", patientColumns, compiledClinicalPatientRecords);
     }
 
     private void updateClinicalData(Map<String, String> record,
                                     String recordNameField,
-                                    Map<String, List<String>> fullHeader,
-                                    Map<String, Map<String, String>> compiledClinicalRecords) {
+                                    IndexedHeader clinicalColumns,
+                                    Map<String, IndexedRecord> compiledClinicalRecords) {
         if (!record.containsKey(recordNameField)) {
             return; // there may be no recordName field when processing a patient-only record, an autonumbered record_id field is used inside redcap to allow multiple records for the same patient -- for example, in timeline projects ; don't try to register attributes for these records
         }
         String recordName = record.get(recordNameField);
-        Map<String, String> existingData = compiledClinicalRecords.getOrDefault(recordName, new HashMap<>());
-        List<String> clinicalHeader = fullHeader.get("header");
-        for (String attribute : clinicalHeader) {
-            if (!record.containsKey(attribute)) {
-                continue;
+        IndexedRecord existingData = compiledClinicalRecords.computeIfAbsent(recordName, k -> new IndexedRecord(clinicalColumns));
+        for (Map.Entry<String, String> attributeEntry : record.entrySet()) {
+            int columnIndex = clinicalColumns.indexOf(attributeEntry.getKey());
+            if (columnIndex < 0) {
+                continue; // attribute belongs to the other (sample or patient) header
             }
-            String existingValue = existingData.get(attribute);
+            String existingValue = existingData.getValue(columnIndex);
             String replacementValue = null;
             try {
-                replacementValue = redcapUtils.getReplacementValueForAttribute(existingValue, record.get(attribute));
+                replacementValue = redcapUtils.getReplacementValueForAttribute(existingValue, attributeEntry.getValue());
             } catch (ConflictingAttributeValuesException e) {
-                logWarningOverConflictingValues(existingValue, record, attribute, recordNameField);
+                logWarningOverConflictingValues(existingValue, record, attributeEntry.getKey(), recordNameField);
             }
             if (replacementValue == null) {
                 continue;
             }
-            existingData.put(attribute, replacementValue);
+            existingData.setValue(columnIndex, replacementValue);
         }
-        compiledClinicalRecords.put(recordName, existingData);
     }
 
     private void logWarningOverConflictingValues(String existingValue, Map<String, String> record, String attribute, String recordNameField) {
@@ -261,8 +304,8 @@ public class ClinicalDataReader implements ItemStreamReader<Map<String, String>>
 
     @Override
     public Map<String, String> read() throws Exception {
-        if (!clinicalRecords.isEmpty()) {
-            return clinicalRecords.remove(0);
+        if (clinicalRecordIterator.hasNext()) {
+            return clinicalRecordIterator.next();
         }
         return null;
     }
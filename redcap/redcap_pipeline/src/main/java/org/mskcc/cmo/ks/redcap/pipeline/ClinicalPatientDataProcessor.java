@@ -45,22 +45,32 @@ public class ClinicalPatientDataProcessor implements ItemProcessor<ClinicalDataC
     @Value("#{stepExecutionContext['patientHeader']}")
     private Map<String, List<String>> total_header;
 
+    private List<String> outputColumns = null;
+
     @Override
     public ClinicalDataComposite process(ClinicalDataComposite composite) throws Exception {
-        List<String> record = new ArrayList<>();
-        List<String> header = total_header.get("header");
-        
-        if (header.contains("PATIENT_ID")) {
-            record.add(composite.getData().getOrDefault("PATIENT_ID", ""));
+        List<String> record = new ArrayList<>(getOutputColumns().size());
+        for (String column : getOutputColumns()) {
+            record.add(composite.getData().getOrDefault(column, ""));
         }
+        composite.setPatientResult(String.join("\t", record));
+        return composite;
+    }
 
-        for(String column : header) {
-            if (!column.equals("PATIENT_ID")) {
-                record.add(composite.getData().getOrDefault(column, ""));
+    // the column order is the same for every record, so it is computed once per step
+    private List<String> getOutputColumns() {
+        if (outputColumns == null) {
+            List<String> header = total_header.get("header");
+            outputColumns = new ArrayList<>(header.size());
+            if (header.contains("PATIENT_ID")) {
+                outputColumns.add("PATIENT_ID");
+            }
+            for (String column : header) {
+                if (!column.equals("PATIENT_ID")) {
+                    outputColumns.add(column);
+                }
             }
         }
-
-        composite.setPatientResult(String.join("\t", record));
-        return composite;
+        return outputColumns;
     }
 }
@@ -44,27 +44,37 @@ public class ClinicalSampleDataProcessor implements ItemProcessor<Map<String, St
     @Value("#{stepExecutionContext['sampleHeader']}")
     private Map<String, List<String>> total_header;
 
+    private List<String> outputColumns = null;
+
     @Override
     public ClinicalDataComposite process(Map<String, String> i) throws Exception {
         ClinicalDataComposite composite = new ClinicalDataComposite(i);
-        List<String> record = new ArrayList<>();
-        List<String> header = total_header.get("header");
-
-        // get the sample and patient ids first before processing the other columns
-        if (header.contains("SAMPLE_ID")) {
-            record.add(i.getOrDefault("SAMPLE_ID",""));
-        }
-        if (header.contains("PATIENT_ID")) {
-            record.add(i.getOrDefault("PATIENT_ID",""));
+        List<String> record = new ArrayList<>(getOutputColumns().size());
+        for (String column : getOutputColumns()) {
+            record.add(i.getOrDefault(column, ""));
         }
+        composite.setSampleResult(String.join("\t", record));
+        return composite;
+    }
 
-        for (String column : header) {
-            if (!column.equals("SAMPLE_ID") && !column.equals("PATIENT_ID")) {
-                record.add(i.getOrDefault(column, ""));
+    // the column order is the same for every record, so it is computed once per step
+    private List<String> getOutputColumns() {
+        if (outputColumns == null) {
+            List<String> header = total_header.get("header");
+            outputColumns = new ArrayList<>(header.size());
+            // get the sample and patient ids first before processing the other columns
+            if (header.contains("SAMPLE_ID")) {
+                outputColumns.add("SAMPLE_ID");
+            }
+            if (header.contains("PATIENT_ID")) {
+                outputColumns.add("PATIENT_ID");
+            }
+            for (String column : header) {
+                if (!column.equals("SAMPLE_ID") && !column.equals("PATIENT_ID")) {
+                    outputColumns.add(column);
+                }
             }
         }
-
-        composite.setSampleResult(String.join("\t", record));
-        return composite;
+        return outputColumns;
     }
 }
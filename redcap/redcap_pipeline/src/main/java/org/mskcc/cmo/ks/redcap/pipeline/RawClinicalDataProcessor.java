@@ -41,22 +41,34 @@ public class RawClinicalDataProcessor implements ItemProcessor<Map<String, Strin
     @Value("#{stepExecutionContext['fullHeader']}")
     private List<String> fullHeader;
 
+    private List<String> outputColumns = null;
+
     @Override
     public String process(Map<String, String> i) throws Exception {
-        List<String> record = new ArrayList<>();
-
-        // get the sample and patient ids first before processing the other columns
-        if (fullHeader.contains("SAMPLE_ID")) {
-            record.add(i.getOrDefault("SAMPLE_ID", ""));
-        }
-        if (fullHeader.contains("PATIENT_ID")) {
-            record.add(i.getOrDefault("PATIENT_ID", ""));
+        List<String> record = new ArrayList<>(getOutputColumns().size());
+        for (String column : getOutputColumns()) {
+            record.add(i.getOrDefault(column, ""));
         }
-        for (String column : fullHeader) {
-            if (!column.equals("SAMPLE_ID") && !column.equals("PATIENT_ID")) {
-                record.add(i.getOrDefault(column, ""));
+        return String.join("\t", record);
+    }
+
+    // the column order is the same for every record, so it is computed once per step
+    private List<String> getOutputColumns() {
+        if (outputColumns == null) {
+            outputColumns = new ArrayList<>(fullHeader.size());
+            // get the sample and patient ids first before processing the other columns
+            if (fullHeader.contains("SAMPLE_ID")) {
+                outputColumns.add("SAMPLE_ID");
+            }
+            if (fullHeader.contains("PATIENT_ID")) {
+                outputColumns.add("PATIENT_ID");
+            }
+            for (String column : fullHeader) {
+                if (!column.equals("SAMPLE_ID") && !column.equals("PATIENT_ID")) {
+                    outputColumns.add(column);
+                }
             }
         }
-        return String.join("\t", record);
+        return outputColumns;
     }
 }
@@ -33,8 +33,10 @@
 package org.mskcc.cmo.ks.redcap.pipeline;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -50,22 +52,35 @@ public class TimelineProcessor implements ItemProcessor<Map<String, String>, Str
     @Value("#stepExecutionContext['standardTimelineDataFields']")
     private List<String> standardTimelineDataFields;
 
+    private List<String> outputColumns = null;
+
     @Override
     public String process(Map<String, String> i) throws Exception {
-        List<String> record = new ArrayList<>();
-
-        for (String column : standardTimelineDataFields) {
-            if (timelineHeader.contains(column)) {
-                record.add(i.getOrDefault(column, ""));
-            }
+        List<String> record = new ArrayList<>(getOutputColumns().size());
+        for (String column : getOutputColumns()) {
+            record.add(i.getOrDefault(column, ""));
         }
+        return String.join("\t", record);
+    }
 
-        // get the sample and patient ids first before processing the other columns
-        for (String column : timelineHeader) {
-            if (!standardTimelineDataFields.contains(column) && !column.equals("RECORD_ID")) {
-                record.add(i.getOrDefault(column, ""));
+    // the column order is the same for every record, so it is computed once per step
+    private List<String> getOutputColumns() {
+        if (outputColumns == null) {
+            Set<String> timelineColumns = new HashSet<>(timelineHeader);
+            Set<String> standardColumns = new HashSet<>(standardTimelineDataFields);
+            outputColumns = new ArrayList<>(timelineHeader.size());
+            for (String column : standardTimelineDataFields) {
+                if (timelineColumns.contains(column)) {
+                    outputColumns.add(column);
+                }
+            }
+            // get the sample and patient ids first before processing the other columns
+            for (String column : timelineHeader) {
+                if (!standardColumns.contains(column) && !column.equals("RECORD_ID")) {
+                    outputColumns.add(column);
+                }
             }
         }
-        return String.join("\t", record);
+        return outputColumns;
     }
 }
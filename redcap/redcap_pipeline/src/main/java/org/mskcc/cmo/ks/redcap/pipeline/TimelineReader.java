@@ -35,6 +35,7 @@ package org.mskcc.cmo.ks.redcap.pipeline;
 import java.util.*;
 import org.apache.log4j.Logger;
 import org.mskcc.cmo.ks.redcap.source.*;
+import org.mskcc.cmo.ks.redcap.pipeline.util.IndexedHeader;
 import org.mskcc.cmo.ks.redcap.pipeline.util.JobParameterUtils;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
@@ -66,6 +67,7 @@ public class TimelineReader implements ItemStreamReader<Map<String, String>> {
     private final Logger log = Logger.getLogger(TimelineReader.class);
 
     public List<Map<String, String>> timelineRecords = new ArrayList<>();
+    private Iterator<Map<String, String>> timelineRecordIterator = Collections.emptyIterator();
     private List<String> timelineHeader = new ArrayList<>();
     private Set<String> maskRedcapProjectSet = new HashSet<>();
 
@@ -88,10 +90,11 @@ public class TimelineReader implements ItemStreamReader<Map<String, String>> {
                 timelineHeader = clinicalDataSource.getProjectHeader(projectTitle);
                 timelineRecords = clinicalDataSource.exportRawDataForProjectTitle(projectTitle);
             } else {
-                timelineHeader.clear();
-                timelineRecords.clear();
+                timelineHeader = new ArrayList<>();
+                timelineRecords = new ArrayList<>();
                 mergeTimelineDataSources();
             }
+            timelineRecordIterator = timelineRecords.iterator();
             // update execution context with project title and full timeline header
             ec.put("projectTitle", projectTitle);
             ec.put("timelineHeader", timelineHeader);
@@ -118,6 +121,7 @@ public class TimelineReader implements ItemStreamReader<Map<String, String>> {
     }
 
     private void mergeTimelineDataSources() {
+        IndexedHeader timelineColumns = new IndexedHeader();
         while (clinicalDataSource.hasMoreTimelineData(stableId)) {
             String projectTitle = clinicalDataSource.getNextTimelineProjectTitle(stableId);
             if (maskRedcapProjectSet.contains(projectTitle)) {
@@ -129,7 +133,7 @@ public class TimelineReader implements ItemStreamReader<Map<String, String>> {
             log.info("Merging timeline data for project: " + projectTitle);
             List<String> header = clinicalDataSource.getTimelineHeader(stableId);
             for (String column : header) {
-                if (!timelineHeader.contains(column)) {
+                if (timelineColumns.add(column)) {
                     timelineHeader.add(column);
                 }
             }
@@ -146,8 +150,8 @@ public class TimelineReader implements ItemStreamReader<Map<String, String>> {
 
     @Override
     public Map<String, String> read() throws Exception {
-        if (!timelineRecords.isEmpty()) {
-            return timelineRecords.remove(0);
+        if (timelineRecordIterator.hasNext()) {
+            return timelineRecordIterator.next();
         }
         return null;
     }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.redcap.pipeline.util;
+
+import java.util.*;
+
+/**
+ * Ordered set of column names with constant time lookup of each column's position.
+ * Columns keep the position in which they were first added, so records indexed by
+ * an IndexedHeader stay valid as further columns are merged in.
+ */
+public class IndexedHeader {
+
+    private final List<String> columns = new ArrayList<>();
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+
+    public IndexedHeader() {}
+
+    public IndexedHeader(Collection<String> columns) {
+        for (String column : columns) {
+            add(column);
+        }
+    }
+
+    /**
+     * Adds the column to the end of the header if it is not already present.
+     * @param column
+     * @return true if the column was added
+     */
+    public boolean add(String column) {
+        if (columnIndex.containsKey(column)) {
+            return false;
+        }
+        columnIndex.put(column, columns.size());
+        columns.add(column);
+        return true;
+    }
+
+    /**
+     * @param column
+     * @return the position of the column, or -1 if the column is not part of the header
+     */
+    public int indexOf(Object column) {
+        Integer index = columnIndex.get(column);
+        return (index == null) ? -1 : index;
+    }
+
+    public boolean contains(Object column) {
+        return columnIndex.containsKey(column);
+    }
+
+    public String getColumn(int index) {
+        return columns.get(index);
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.redcap.pipeline.util;
+
+import java.util.*;
+
+/**
+ * A record whose values are stored in an array indexed by column position in an IndexedHeader.
+ * Columns with no value (null) are not considered present, so the map view only
+ * contains the attributes which were actually set. Columns may be added to the header
+ * after the record is constructed; the value array grows on demand.
+ */
+public class IndexedRecord extends AbstractMap<String, String> {
+
+    private final IndexedHeader header;
+    private String[] values;
+
+    public IndexedRecord(IndexedHeader header) {
+        this.header = header;
+        this.values = new String[header.size()];
+    }
+
+    public IndexedHeader getHeader() {
+        return header;
+    }
+
+    public String getValue(int index) {
+        return (index < values.length) ? values[index] : null;
+    }
+
+    public void setValue(int index, String value) {
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, Math.max(index + 1, header.size()));
+        }
+        values[index] = value;
+    }
+
+    @Override
+    public String get(Object column) {
+        int index = header.indexOf(column);
+        return (index < 0) ? null : getValue(index);
+    }
+
+    @Override
+    public String getOrDefault(Object column, String defaultValue) {
+        String value = get(column);
+        return (value == null) ? defaultValue : value;
+    }
+
+    @Override
+    public boolean containsKey(Object column) {
+        return get(column) != null;
+    }
+
+    @Override
+    public String put(String column, String value) {
+        int index = header.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Column " + column + " is not part of the record header");
+        }
+        String previousValue = getValue(index);
+        setValue(index, value);
+        return previousValue;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private int nextIndex = advanceFrom(0);
+
+                    private int advanceFrom(int index) {
+                        while (index < values.length && values[index] == null) {
+                            index++;
+                        }
+                        return index;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return nextIndex < values.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<>(header.getColumn(nextIndex), values[nextIndex]);
+                        nextIndex = advanceFrom(nextIndex + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (String value : values) {
+                    if (value != null) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+}
@@ -47,6 +47,7 @@ import org.mskcc.cmo.ks.redcap.pipeline.util.JobParameterUtils;
 import org.mskcc.cmo.ks.redcap.source.ClinicalDataSource;
 import org.mskcc.cmo.ks.redcap.source.internal.ClinicalDataSourceRedcapImpl;
 import org.mskcc.cmo.ks.redcap.source.internal.CDDSessionManager;
+import org.mskcc.cmo.ks.redcap.source.internal.CDDSnapshotManager;
 import org.mskcc.cmo.ks.redcap.source.internal.MetadataCache;
 import org.mskcc.cmo.ks.redcap.source.internal.MetadataManagerRedcapImpl;
 import org.mskcc.cmo.ks.redcap.source.internal.RedcapRepository;
@@ -112,6 +113,11 @@ public class ClinicalDataReaderTestConfiguration {
         return cddSessionManager;
     }
 
+    @Bean
+    public CDDSnapshotManager cddSnapshotManager() {
+        return new CDDSnapshotManager();
+    }
+
     @Bean
     public MetadataCache metadataCache() {
         return new MetadataCache();
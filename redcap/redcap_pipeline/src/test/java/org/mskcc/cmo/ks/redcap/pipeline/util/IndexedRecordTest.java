@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.redcap.pipeline.util;
+
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexedRecordTest {
+
+    @Test
+    public void testHeaderKeepsInsertionOrderAndIgnoresDuplicates() {
+        IndexedHeader header = new IndexedHeader(Arrays.asList("SAMPLE_ID", "PATIENT_ID"));
+        Assert.assertFalse(header.add("SAMPLE_ID"));
+        Assert.assertTrue(header.add("CANCER_TYPE"));
+        Assert.assertEquals(Arrays.asList("SAMPLE_ID", "PATIENT_ID", "CANCER_TYPE"), header.getColumns());
+        Assert.assertEquals(2, header.indexOf("CANCER_TYPE"));
+        Assert.assertEquals(-1, header.indexOf("AGE"));
+    }
+
+    /* records created before a column is merged into the header must accept values for that column,
+     * and only columns with values are visible through the map view
+     */
+    @Test
+    public void testRecordGrowsWithHeaderAndHidesUnsetColumns() {
+        IndexedHeader header = new IndexedHeader(Arrays.asList("SAMPLE_ID", "PATIENT_ID"));
+        IndexedRecord record = new IndexedRecord(header);
+        record.setValue(header.indexOf("SAMPLE_ID"), "P-0000001-T01-IM6");
+        header.add("AGE");
+        header.add("CANCER_TYPE");
+        record.put("CANCER_TYPE", "GBM");
+        Assert.assertEquals("GBM", record.get("CANCER_TYPE"));
+        Assert.assertNull(record.get("AGE"));
+        Assert.assertEquals("", record.getOrDefault("PATIENT_ID", ""));
+        Assert.assertFalse(record.containsKey("PATIENT_ID"));
+        Map<String, String> expectedRecord = new LinkedHashMap<>();
+        expectedRecord.put("SAMPLE_ID", "P-0000001-T01-IM6");
+        expectedRecord.put("CANCER_TYPE", "GBM");
+        Assert.assertEquals(expectedRecord, record);
+        Assert.assertEquals(new ArrayList<>(expectedRecord.keySet()), new ArrayList<>(record.keySet()));
+    }
+}
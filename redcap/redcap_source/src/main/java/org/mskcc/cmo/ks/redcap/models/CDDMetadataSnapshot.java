@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.redcap.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-disk copy of the clinical attribute metadata and study overrides
+ * fetched from the Clinical Data Dictionary. Each entry records when it was
+ * last fetched (or confirmed unchanged) from CDD, in milliseconds since the epoch.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({
+    "version",
+    "last_written",
+    "default_metadata_fetched",
+    "default_metadata_etag",
+    "default_metadata",
+    "overridden_studies_fetched",
+    "overridden_studies",
+    "study_metadata_fetched",
+    "study_metadata_etags",
+    "study_metadata"
+})
+public class CDDMetadataSnapshot {
+
+    public static final int CURRENT_VERSION = 1;
+
+    @JsonProperty("version")
+    private int version = CURRENT_VERSION;
+    @JsonProperty("last_written")
+    private long lastWritten;
+    @JsonProperty("default_metadata_fetched")
+    private long defaultMetadataFetched;
+    @JsonProperty("default_metadata_etag")
+    private String defaultMetadataETag;
+    @JsonProperty("default_metadata")
+    private RedcapAttributeMetadata[] defaultMetadata;
+    @JsonProperty("overridden_studies_fetched")
+    private long overriddenStudiesFetched;
+    @JsonProperty("overridden_studies")
+    private OverriddenCancerStudy[] overriddenStudies;
+    @JsonProperty("study_metadata_fetched")
+    private Map<String, Long> studyMetadataFetched = new HashMap<>();
+    @JsonProperty("study_metadata_etags")
+    private Map<String, String> studyMetadataETags = new HashMap<>();
+    @JsonProperty("study_metadata")
+    private Map<String, RedcapAttributeMetadata[]> studyMetadata = new HashMap<>();
+
+    public CDDMetadataSnapshot() {}
+
+    /**
+     * Copy constructor - maps are copied, metadata arrays are shared (they are never modified in place)
+     * @param other
+     */
+    public CDDMetadataSnapshot(CDDMetadataSnapshot other) {
+        this.version = other.version;
+        this.lastWritten = other.lastWritten;
+        this.defaultMetadataFetched = other.defaultMetadataFetched;
+        this.defaultMetadataETag = other.defaultMetadataETag;
+        this.defaultMetadata = other.defaultMetadata;
+        this.overriddenStudiesFetched = other.overriddenStudiesFetched;
+        this.overriddenStudies = other.overriddenStudies;
+        this.studyMetadataFetched = new HashMap<>(other.studyMetadataFetched);
+        this.studyMetadataETags = new HashMap<>(other.studyMetadataETags);
+        this.studyMetadata = new HashMap<>(other.studyMetadata);
+    }
+
+    @JsonProperty("version")
+    public int getVersion() {
+        return version;
+    }
+
+    @JsonProperty("version")
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * @return time the snapshot was last written, in milliseconds since the epoch
+     */
+    @JsonProperty("last_written")
+    public long getLastWritten() {
+        return lastWritten;
+    }
+
+    @JsonProperty("last_written")
+    public void setLastWritten(long lastWritten) {
+        this.lastWritten = lastWritten;
+    }
+
+    @JsonProperty("default_metadata_fetched")
+    public long getDefaultMetadataFetched() {
+        return defaultMetadataFetched;
+    }
+
+    @JsonProperty("default_metadata_fetched")
+    public void setDefaultMetadataFetched(long defaultMetadataFetched) {
+        this.defaultMetadataFetched = defaultMetadataFetched;
+    }
+
+    @JsonProperty("default_metadata_etag")
+    public String getDefaultMetadataETag() {
+        return defaultMetadataETag;
+    }
+
+    @JsonProperty("default_metadata_etag")
+    public void setDefaultMetadataETag(String defaultMetadataETag) {
+        this.defaultMetadataETag = defaultMetadataETag;
+    }
+
+    @JsonProperty("default_metadata")
+    public RedcapAttributeMetadata[] getDefaultMetadata() {
+        return defaultMetadata;
+    }
+
+    @JsonProperty("default_metadata")
+    public void setDefaultMetadata(RedcapAttributeMetadata[] defaultMetadata) {
+        this.defaultMetadata = defaultMetadata;
+    }
+
+    @JsonProperty("overridden_studies_fetched")
+    public long getOverriddenStudiesFetched() {
+        return overriddenStudiesFetched;
+    }
+
+    @JsonProperty("overridden_studies_fetched")
+    public void setOverriddenStudiesFetched(long overriddenStudiesFetched) {
+        this.overriddenStudiesFetched = overriddenStudiesFetched;
+    }
+
+    @JsonProperty("overridden_studies")
+    public OverriddenCancerStudy[] getOverriddenStudies() {
+        return overriddenStudies;
+    }
+
+    @JsonProperty("overridden_studies")
+    public void setOverriddenStudies(OverriddenCancerStudy[] overriddenStudies) {
+        this.overriddenStudies = overriddenStudies;
+    }
+
+    @JsonProperty("study_metadata_fetched")
+    public Map<String, Long> getStudyMetadataFetched() {
+        return studyMetadataFetched;
+    }
+
+    @JsonProperty("study_metadata_fetched")
+    public void setStudyMetadataFetched(Map<String, Long> studyMetadataFetched) {
+        this.studyMetadataFetched = (studyMetadataFetched != null) ? studyMetadataFetched : new HashMap<>();
+    }
+
+    @JsonProperty("study_metadata_etags")
+    public Map<String, String> getStudyMetadataETags() {
+        return studyMetadataETags;
+    }
+
+    @JsonProperty("study_metadata_etags")
+    public void setStudyMetadataETags(Map<String, String> studyMetadataETags) {
+        this.studyMetadataETags = (studyMetadataETags != null) ? studyMetadataETags : new HashMap<>();
+    }
+
+    @JsonProperty("study_metadata")
+    public Map<String, RedcapAttributeMetadata[]> getStudyMetadata() {
+        return studyMetadata;
+    }
+
+    @JsonProperty("study_metadata")
+    public void setStudyMetadata(Map<String, RedcapAttributeMetadata[]> studyMetadata) {
+        this.studyMetadata = (studyMetadata != null) ? studyMetadata : new HashMap<>();
+    }
+}
@@ -42,6 +42,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.cbioportal.cmo.pipelines.common.util.HttpTrafficCapture;
 import org.mskcc.cmo.ks.redcap.models.RedcapAttributeMetadata;
 import org.mskcc.cmo.ks.redcap.models.OverriddenCancerStudy;
 import org.springframework.beans.factory.annotation.*;
@@ -55,7 +57,6 @@ import org.springframework.web.client.RestTemplate;
 public class CDDSessionManager {
 
     private static URI cddBaseURI = null;
-    private static URI cddApiURI = null;
     private static URI cddStudyIdURI = null;
     private static Boolean cachedUsePostRequestForEraseProjectData = null;
 
@@ -78,11 +79,8 @@ public class CDDSessionManager {
     }
 
     public URI getCddStudyIdURI(String studyId) {
-        if (cddApiURI == null) {
-            URI base = getCddURI();
-            cddApiURI = base.resolve("?cancerStudy=" + studyId);
-        }
-        return cddApiURI;
+        // not cached - a single invocation can request the metadata of several studies
+        return getCddURI().resolve("?cancerStudy=" + studyId);
     }
 
     public URI getCddOverridesURI() {
@@ -102,7 +100,7 @@ public class CDDSessionManager {
 
     public OverriddenCancerStudy[] getOverriddenStudies(String studyId) {
         LinkedMultiValueMap<String, String> uriVariables = new LinkedMultiValueMap<>();
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("overrides");
         HttpEntity<LinkedMultiValueMap<String, String>> requestEntity = getRequestEntity(uriVariables);
         log.info("Getting list of studies with overrides...");
         ResponseEntity<OverriddenCancerStudy[]> responseEntity = restTemplate.exchange(getCddOverridesURI(), HttpMethod.GET, requestEntity, OverriddenCancerStudy[].class);
@@ -111,7 +109,7 @@ public class CDDSessionManager {
 
     public RedcapAttributeMetadata[] getRedcapMetadata() {
         LinkedMultiValueMap<String, String> uriVariables = new LinkedMultiValueMap<>();
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("metadata");
         HttpEntity<LinkedMultiValueMap<String, String>> requestEntity = getRequestEntity(uriVariables);
         log.info("Getting default attribute metadata..");
         ResponseEntity<RedcapAttributeMetadata[]> responseEntity = restTemplate.exchange(getCddURI(), HttpMethod.GET, requestEntity, RedcapAttributeMetadata[].class);
@@ -120,10 +118,36 @@ public class CDDSessionManager {
 
     public RedcapAttributeMetadata[] getRedcapMetadataWithOverrides(String studyId) {
         LinkedMultiValueMap<String, String> uriVariables = new LinkedMultiValueMap<>();
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("study_metadata");
         HttpEntity<LinkedMultiValueMap<String, String>> requestEntity = getRequestEntity(uriVariables);
         log.info("Getting " + studyId + "overridden attribute metadata..");
         ResponseEntity<RedcapAttributeMetadata[]> responseEntity = restTemplate.exchange(getCddStudyIdURI(studyId), HttpMethod.GET, requestEntity, RedcapAttributeMetadata[].class);
         return responseEntity.getBody();
     }
+
+    /**
+     * Conditionally fetches attribute metadata (default metadata when studyId is null).
+     * The returned response has status NOT_MODIFIED and no body when CDD reports that
+     * nothing has changed since the provided eTag / lastFetched time.
+     */
+    public ResponseEntity<RedcapAttributeMetadata[]> getRedcapMetadataIfModified(String studyId, String eTag, long lastFetched) {
+        LinkedMultiValueMap<String, String> uriVariables = new LinkedMultiValueMap<>();
+        RestTemplate restTemplate = makeRestTemplate("metadata_if_modified");
+        HttpEntity<LinkedMultiValueMap<String, String>> requestEntity = getRequestEntity(uriVariables);
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(requestEntity.getHeaders());
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        }
+        if (lastFetched > 0) {
+            headers.setIfModifiedSince(lastFetched);
+        }
+        URI uri = (studyId == null) ? getCddURI() : getCddStudyIdURI(studyId);
+        log.info("Checking CDD for changes to " + ((studyId == null) ? "default" : studyId + " overridden") + " attribute metadata..");
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<LinkedMultiValueMap<String, String>>(uriVariables, headers), RedcapAttributeMetadata[].class);
+    }
+
+    private RestTemplate makeRestTemplate(String endpointName) {
+        return HttpTrafficCapture.getInstance().instrument(PipelineMetrics.instrument(new RestTemplate(), "cdd", endpointName));
+    }
 }
@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.redcap.source.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.mskcc.cmo.ks.redcap.models.CDDMetadataSnapshot;
+import org.mskcc.cmo.ks.redcap.models.OverriddenCancerStudy;
+import org.mskcc.cmo.ks.redcap.models.RedcapAttributeMetadata;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves Clinical Data Dictionary metadata from a local snapshot file so that
+ * each pipeline invocation does not need to contact CDD on startup.
+ *
+ * When cdd.snapshot.file is not set all requests go straight to CDDSessionManager.
+ * Otherwise each entry of the snapshot (the default metadata, the overridden studies and
+ * each study's metadata) is aged from its own fetch time. An entry younger than
+ * cdd.snapshot.max_age_hours is used as is; once any entry is older than
+ * cdd.snapshot.refresh_age_minutes the entries past that age are fetched conditionally in
+ * the background and merged into the snapshot. Entries older than the maximum age (and
+ * snapshots written by a different snapshot version) are ignored and the metadata is
+ * fetched from CDD before being returned.
+ */
+@Component
+public class CDDSnapshotManager {
+
+    private static final String METRICS_CACHE = "cdd_snapshot";
+
+    @Autowired
+    private CDDSessionManager cddSessionManager;
+
+    @Value("${cdd.snapshot.file:}")
+    private String snapshotFilename;
+
+    @Value("${cdd.snapshot.max_age_hours:24}")
+    private long maxAgeHours;
+
+    @Value("${cdd.snapshot.refresh_age_minutes:60}")
+    private long refreshAgeMinutes;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicBoolean refreshStarted = new AtomicBoolean(false);
+    private ExecutorService refreshExecutor = null;
+    private Future<?> refreshFuture = null;
+    private CDDMetadataSnapshot snapshot = null;
+    private boolean snapshotLoaded = false;
+
+    private final Logger log = Logger.getLogger(CDDSnapshotManager.class);
+
+    public boolean isEnabled() {
+        return snapshotFilename != null && !snapshotFilename.trim().isEmpty();
+    }
+
+    public synchronized RedcapAttributeMetadata[] getRedcapMetadata() {
+        if (!isEnabled()) {
+            return cddSessionManager.getRedcapMetadata();
+        }
+        CDDMetadataSnapshot current = getUsableSnapshot();
+        if (current != null && isFresh(current.getDefaultMetadata(), current.getDefaultMetadataFetched(), "default metadata")) {
+            scheduleBackgroundRefreshIfDue(current);
+            PipelineMetrics.recordCacheRequest(METRICS_CACHE, true);
+            return current.getDefaultMetadata();
+        }
+        long fetched = System.currentTimeMillis();
+        RedcapAttributeMetadata[] metadata = cddSessionManager.getRedcapMetadata();
+        PipelineMetrics.recordCacheRequest(METRICS_CACHE, false);
+        CDDMetadataSnapshot updated = copyOrCreate(current);
+        updated.setDefaultMetadata(metadata);
+        updated.setDefaultMetadataETag(null);
+        updated.setDefaultMetadataFetched(fetched);
+        saveSnapshot(updated);
+        return metadata;
+    }
+
+    public synchronized RedcapAttributeMetadata[] getRedcapMetadataWithOverrides(String studyId) {
+        if (!isEnabled()) {
+            return cddSessionManager.getRedcapMetadataWithOverrides(studyId);
+        }
+        CDDMetadataSnapshot current = getUsableSnapshot();
+        if (current != null && isFresh(current.getStudyMetadata().get(studyId), getStudyMetadataFetched(current, studyId), studyId + " overridden metadata")) {
+            scheduleBackgroundRefreshIfDue(current);
+            PipelineMetrics.recordCacheRequest(METRICS_CACHE, true);
+            return current.getStudyMetadata().get(studyId);
+        }
+        long fetched = System.currentTimeMillis();
+        RedcapAttributeMetadata[] metadata = cddSessionManager.getRedcapMetadataWithOverrides(studyId);
+        PipelineMetrics.recordCacheRequest(METRICS_CACHE, false);
+        CDDMetadataSnapshot updated = copyOrCreate(current);
+        updated.getStudyMetadata().put(studyId, metadata);
+        updated.getStudyMetadataETags().remove(studyId);
+        updated.getStudyMetadataFetched().put(studyId, fetched);
+        saveSnapshot(updated);
+        return metadata;
+    }
+
+    public synchronized OverriddenCancerStudy[] getOverriddenStudies(String studyId) {
+        if (!isEnabled()) {
+            return cddSessionManager.getOverriddenStudies(studyId);
+        }
+        CDDMetadataSnapshot current = getUsableSnapshot();
+        if (current != null && isFresh(current.getOverriddenStudies(), current.getOverriddenStudiesFetched(), "overridden studies")) {
+            scheduleBackgroundRefreshIfDue(current);
+            PipelineMetrics.recordCacheRequest(METRICS_CACHE, true);
+            return current.getOverriddenStudies();
+        }
+        long fetched = System.currentTimeMillis();
+        OverriddenCancerStudy[] overriddenStudies = cddSessionManager.getOverriddenStudies(studyId);
+        PipelineMetrics.recordCacheRequest(METRICS_CACHE, false);
+        CDDMetadataSnapshot updated = copyOrCreate(current);
+        updated.setOverriddenStudies(overriddenStudies);
+        updated.setOverriddenStudiesFetched(fetched);
+        saveSnapshot(updated);
+        return overriddenStudies;
+    }
+
+    /**
+     * Blocks until a background refresh (if one was started) has finished.
+     * @param timeoutMillis
+     * @return true if no refresh is outstanding
+     */
+    public boolean awaitBackgroundRefresh(long timeoutMillis) {
+        Future<?> future;
+        synchronized (this) {
+            future = refreshFuture;
+        }
+        if (future == null) {
+            return true;
+        }
+        try {
+            future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true; // failures are logged by the refresh itself
+        }
+    }
+
+    /**
+     * Produces a human readable summary of the snapshot file (used by the --show-cdd-snapshot command line option)
+     */
+    public String describeSnapshot() {
+        StringBuilder description = new StringBuilder();
+        if (!isEnabled()) {
+            description.append("CDD snapshot is disabled (property cdd.snapshot.file is not set)\n");
+            return description.toString();
+        }
+        description.append("CDD snapshot file: ").append(snapshotFilename).append("\n");
+        CDDMetadataSnapshot current = readSnapshotFile();
+        if (current == null) {
+            description.append("  no readable snapshot present\n");
+            return description.toString();
+        }
+        description.append("  version: ").append(current.getVersion())
+                .append((current.getVersion() == CDDMetadataSnapshot.CURRENT_VERSION) ? "" : " (unsupported, expected " + CDDMetadataSnapshot.CURRENT_VERSION + ")").append("\n");
+        description.append("  last written: ").append(Instant.ofEpochMilli(current.getLastWritten())).append("\n");
+        description.append("  maximum age: ").append(maxAgeHours).append(" hours\n");
+        description.append("  default metadata attributes: ").append(countOf(current.getDefaultMetadata()))
+                .append(describeETag(current.getDefaultMetadataETag())).append(describeAge(current.getDefaultMetadata(), current.getDefaultMetadataFetched())).append("\n");
+        description.append("  studies with overrides: ").append(countOf(current.getOverriddenStudies()))
+                .append(describeAge(current.getOverriddenStudies(), current.getOverriddenStudiesFetched())).append("\n");
+        for (Map.Entry<String, RedcapAttributeMetadata[]> entry : new TreeMap<>(current.getStudyMetadata()).entrySet()) {
+            description.append("  overridden metadata for ").append(entry.getKey()).append(": ").append(countOf(entry.getValue())).append(" attributes")
+                    .append(describeETag(current.getStudyMetadataETags().get(entry.getKey())))
+                    .append(describeAge(entry.getValue(), getStudyMetadataFetched(current, entry.getKey()))).append("\n");
+        }
+        return description.toString();
+    }
+
+    // SECTION : snapshot file handling
+
+    private CDDMetadataSnapshot getUsableSnapshot() {
+        if (!snapshotLoaded) {
+            snapshot = readSnapshotFile();
+            snapshotLoaded = true;
+            if (snapshot != null && snapshot.getVersion() != CDDMetadataSnapshot.CURRENT_VERSION) {
+                log.warn("Ignoring CDD snapshot " + snapshotFilename + " with unsupported version " + snapshot.getVersion());
+                snapshot = null;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return true if the entry is present and was fetched within the maximum age
+     */
+    private boolean isFresh(Object entry, long fetched, String entryName) {
+        if (entry == null) {
+            return false;
+        }
+        if (isStale(fetched)) {
+            log.warn("CDD snapshot " + snapshotFilename + " has " + entryName + " older than " + maxAgeHours + " hours, fetching it from CDD");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isStale(long fetched) {
+        return System.currentTimeMillis() - fetched > TimeUnit.HOURS.toMillis(maxAgeHours);
+    }
+
+    private boolean isRefreshDue(Object entry, long fetched) {
+        return entry != null && System.currentTimeMillis() - fetched >= TimeUnit.MINUTES.toMillis(refreshAgeMinutes);
+    }
+
+    private long getStudyMetadataFetched(CDDMetadataSnapshot candidate, String studyId) {
+        return candidate.getStudyMetadataFetched().getOrDefault(studyId, 0L);
+    }
+
+    private CDDMetadataSnapshot copyOrCreate(CDDMetadataSnapshot current) {
+        return (current != null) ? new CDDMetadataSnapshot(current) : new CDDMetadataSnapshot();
+    }
+
+    private CDDMetadataSnapshot readSnapshotFile() {
+        File snapshotFile = new File(snapshotFilename);
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        try {
+            return mapper.readValue(snapshotFile, CDDMetadataSnapshot.class);
+        } catch (IOException e) {
+            log.warn("Unable to read CDD snapshot " + snapshotFilename + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Merges the entries checked by a background refresh into the current snapshot. An entry
+     * is only taken from the refresh if it was checked after the current entry was fetched, so
+     * that entries saved by this invocation while the refresh was running are kept. Entries CDD
+     * reported as unchanged carry only their new fetch time.
+     */
+    private synchronized void saveRefreshedSnapshot(CDDMetadataSnapshot refreshed) {
+        CDDMetadataSnapshot updated = copyOrCreate(snapshot);
+        if (refreshed.getDefaultMetadataFetched() > updated.getDefaultMetadataFetched()) {
+            if (refreshed.getDefaultMetadata() != null) {
+                updated.setDefaultMetadata(refreshed.getDefaultMetadata());
+                updated.setDefaultMetadataETag(refreshed.getDefaultMetadataETag());
+            }
+            updated.setDefaultMetadataFetched(refreshed.getDefaultMetadataFetched());
+        }
+        for (Map.Entry<String, Long> entry : refreshed.getStudyMetadataFetched().entrySet()) {
+            String studyId = entry.getKey();
+            if (entry.getValue() > getStudyMetadataFetched(updated, studyId)) {
+                if (refreshed.getStudyMetadata().containsKey(studyId)) {
+                    updated.getStudyMetadata().put(studyId, refreshed.getStudyMetadata().get(studyId));
+                    updated.getStudyMetadataETags().put(studyId, refreshed.getStudyMetadataETags().get(studyId));
+                }
+                updated.getStudyMetadataFetched().put(studyId, entry.getValue());
+            }
+        }
+        if (refreshed.getOverriddenStudiesFetched() > updated.getOverriddenStudiesFetched()) {
+            updated.setOverriddenStudies(refreshed.getOverriddenStudies());
+            updated.setOverriddenStudiesFetched(refreshed.getOverriddenStudiesFetched());
+        }
+        saveSnapshot(updated);
+    }
+
+    private synchronized void saveSnapshot(CDDMetadataSnapshot updated) {
+        updated.setVersion(CDDMetadataSnapshot.CURRENT_VERSION);
+        updated.setLastWritten(System.currentTimeMillis());
+        snapshot = updated;
+        snapshotLoaded = true;
+        writeSnapshotFile(updated);
+    }
+
+    private void writeSnapshotFile(CDDMetadataSnapshot updated) {
+        Path snapshotPath = Paths.get(snapshotFilename).toAbsolutePath();
+        Path tmpPath = null;
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            // write to a temporary file and move it into place so concurrent invocations never see a partial snapshot
+            tmpPath = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString(), ".tmp");
+            mapper.writeValue(tmpPath.toFile(), updated);
+            Files.move(tmpPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Unable to write CDD snapshot " + snapshotFilename + " : " + e.getMessage());
+            if (tmpPath != null) {
+                tmpPath.toFile().delete();
+            }
+        }
+    }
+
+    // SECTION : background refresh
+
+    private void scheduleBackgroundRefreshIfDue(CDDMetadataSnapshot current) {
+        if (!isRefreshDue(current)) {
+            return;
+        }
+        if (!refreshStarted.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cdd-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CDDMetadataSnapshot base = new CDDMetadataSnapshot(current);
+        refreshFuture = refreshExecutor.submit(() -> refreshSnapshot(base));
+        refreshExecutor.shutdown();
+    }
+
+    private boolean isRefreshDue(CDDMetadataSnapshot current) {
+        if (isRefreshDue(current.getDefaultMetadata(), current.getDefaultMetadataFetched())
+                || isRefreshDue(current.getOverriddenStudies(), current.getOverriddenStudiesFetched())) {
+            return true;
+        }
+        for (Map.Entry<String, RedcapAttributeMetadata[]> entry : current.getStudyMetadata().entrySet()) {
+            if (isRefreshDue(entry.getValue(), getStudyMetadataFetched(current, entry.getKey()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks every entry past the refresh age against CDD, sending the entry's own fetch time
+     * as If-Modified-Since.
+     */
+    private void refreshSnapshot(CDDMetadataSnapshot base) {
+        try {
+            // holds only the entries which were checked, with the time they were checked
+            CDDMetadataSnapshot refreshed = new CDDMetadataSnapshot();
+            if (isRefreshDue(base.getDefaultMetadata(), base.getDefaultMetadataFetched())) {
+                long checked = System.currentTimeMillis();
+                ResponseEntity<RedcapAttributeMetadata[]> response = cddSessionManager.getRedcapMetadataIfModified(null, base.getDefaultMetadataETag(), base.getDefaultMetadataFetched());
+                if (responseWasModified(response)) {
+                    refreshed.setDefaultMetadata(response.getBody());
+                    refreshed.setDefaultMetadataETag(response.getHeaders().getETag());
+                    refreshed.setDefaultMetadataFetched(checked);
+                } else if (responseWasNotModified(response)) {
+                    refreshed.setDefaultMetadataFetched(checked);
+                }
+            }
+            for (Map.Entry<String, RedcapAttributeMetadata[]> entry : base.getStudyMetadata().entrySet()) {
+                String studyId = entry.getKey();
+                long studyMetadataFetched = getStudyMetadataFetched(base, studyId);
+                if (!isRefreshDue(entry.getValue(), studyMetadataFetched)) {
+                    continue;
+                }
+                long checked = System.currentTimeMillis();
+                ResponseEntity<RedcapAttributeMetadata[]> response = cddSessionManager.getRedcapMetadataIfModified(studyId, base.getStudyMetadataETags().get(studyId), studyMetadataFetched);
+                if (responseWasModified(response)) {
+                    refreshed.getStudyMetadata().put(studyId, response.getBody());
+                    refreshed.getStudyMetadataETags().put(studyId, response.getHeaders().getETag());
+                    refreshed.getStudyMetadataFetched().put(studyId, checked);
+                } else if (responseWasNotModified(response)) {
+                    refreshed.getStudyMetadataFetched().put(studyId, checked);
+                }
+            }
+            if (isRefreshDue(base.getOverriddenStudies(), base.getOverriddenStudiesFetched())) {
+                // the list of overridden studies is small and has no conditional endpoint
+                long checked = System.currentTimeMillis();
+                refreshed.setOverriddenStudies(cddSessionManager.getOverriddenStudies(null));
+                refreshed.setOverriddenStudiesFetched(checked);
+            }
+            saveRefreshedSnapshot(refreshed);
+            log.info("Refreshed CDD snapshot " + snapshotFilename);
+        } catch (Exception e) {
+            log.warn("Background refresh of CDD snapshot " + snapshotFilename + " failed, keeping existing snapshot : " + e.getMessage());
+        }
+    }
+
+    private boolean responseWasModified(ResponseEntity<RedcapAttributeMetadata[]> response) {
+        return response != null && response.getStatusCode() != HttpStatus.NOT_MODIFIED && response.getBody() != null;
+    }
+
+    private boolean responseWasNotModified(ResponseEntity<RedcapAttributeMetadata[]> response) {
+        return response != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED;
+    }
+
+    private int countOf(Object[] values) {
+        return (values == null) ? 0 : values.length;
+    }
+
+    private String describeETag(String eTag) {
+        return (eTag == null) ? "" : " (etag " + eTag + ")";
+    }
+
+    private String describeAge(Object entry, long fetched) {
+        if (entry == null) {
+            return "";
+        }
+        Duration age = Duration.ofMillis(System.currentTimeMillis() - fetched);
+        return " (fetched " + Instant.ofEpochMilli(fetched) + ", " + age.toMinutes() + " minutes ago"
+                + (isStale(fetched) ? " - STALE, will be refetched from CDD" : "") + ")";
+    }
+}
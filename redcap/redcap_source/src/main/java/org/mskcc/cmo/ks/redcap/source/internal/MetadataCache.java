@@ -54,7 +54,7 @@ import org.springframework.web.client.RestTemplate;
 public class MetadataCache {
 
     @Autowired
-    private CDDSessionManager cddSessionManager;
+    private CDDSnapshotManager cddSnapshotManager;
 
     private RedcapAttributeMetadata[] metadataArray = null;
     // mapping of normalized column header name to "RedcapProjectAttribute" object
@@ -106,9 +106,9 @@ public class MetadataCache {
 
     private void initializeMetadataList() {
         if(overrideStudyId != null) {
-            metadataArray = cddSessionManager.getRedcapMetadataWithOverrides(overrideStudyId);
+            metadataArray = cddSnapshotManager.getRedcapMetadataWithOverrides(overrideStudyId);
         } else {
-            metadataArray = cddSessionManager.getRedcapMetadata();
+            metadataArray = cddSnapshotManager.getRedcapMetadata();
         }
         int size = metadataArray.length + 1;
         RedcapAttributeMetadata tmpArray[] = new RedcapAttributeMetadata[size];
@@ -60,7 +60,7 @@ public class MetadataManagerRedcapImpl implements MetadataManager {
     private MetadataCache metadataCache;
 
     @Autowired
-    private CDDSessionManager cddSessionManager;
+    private CDDSnapshotManager cddSnapshotManager;
 
     private final Logger log = Logger.getLogger(MetadataManagerRedcapImpl.class);
 
@@ -147,7 +147,7 @@ public class MetadataManagerRedcapImpl implements MetadataManager {
     public boolean checkOverridesExist(String studyId) {
         List<OverriddenCancerStudy> listOfOverriddenStudies = null;
         try {
-            listOfOverriddenStudies = Arrays.asList(cddSessionManager.getOverriddenStudies(studyId));
+            listOfOverriddenStudies = Arrays.asList(cddSnapshotManager.getOverriddenStudies(studyId));
             for (OverriddenCancerStudy overriddenStudy : listOfOverriddenStudies) {
                 if (overriddenStudy.getName().equals(studyId)) {
                     return true;
@@ -43,6 +43,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.log4j.Logger;
+import org.cbioportal.cmo.pipelines.common.metrics.PipelineMetrics;
+import org.cbioportal.cmo.pipelines.common.util.HttpTrafficCapture;
 import org.mskcc.cmo.ks.redcap.models.RedcapProjectInfo;
 import org.mskcc.cmo.ks.redcap.models.RedcapAttributeMetadata;
 import org.mskcc.cmo.ks.redcap.models.RedcapProjectAttribute;
@@ -135,7 +137,7 @@ public class RedcapSessionManager {
         allTokensApiTokenToProjectTitleMap = new HashMap<String, String>();
         allTokensStableIdToApiTokenListMap = new HashMap<String, List<String>>();
         allTokensApiTokenToStableIdMap = new HashMap<String, String>();
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("export_tokens");
 
         log.info("Getting tokens for clinical data processor...");
 
@@ -226,7 +228,7 @@ public class RedcapSessionManager {
     // SECTION : utility functions for doing RedCap specific requests
 
     public Integer getNextRecordNameForAutonumberedProject(String projectToken) {
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("generate_next_record_name");
         LinkedMultiValueMap<String, String> uriVariables = new LinkedMultiValueMap<>();
         uriVariables.add("token", projectToken);
         uriVariables.add("content", "generateNextRecordName");
@@ -249,7 +251,7 @@ public class RedcapSessionManager {
      */
     public void deleteRedcapProjectData(String token, Set<String> recordNames) {
         log.info("requesting deletion of " + recordNames.size() + " records.");
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("delete_records");
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
         headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON_UTF8));
@@ -292,7 +294,7 @@ public class RedcapSessionManager {
 
     public void importClinicalData(String token, String dataForImport) {
         log.info("importing data ... (" + dataForImport.length() + " characters)");
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("import_records");
         LinkedMultiValueMap<String, String> importRecordUriVariables = new LinkedMultiValueMap<>();
         importRecordUriVariables.add("token", token);
         importRecordUriVariables.add("content", "record");
@@ -323,7 +325,7 @@ public class RedcapSessionManager {
         uriVariables.add("content", "record");
         uriVariables.add("format", "json");
         uriVariables.add("type", "flat");
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("export_records");
         HttpEntity<LinkedMultiValueMap<String, String>> requestEntity = getRequestEntity(uriVariables);
         log.info("Getting data for project...");
         ResponseEntity<JsonNode[]> responseEntity = restTemplate.exchange(getRedcapApiURI(), HttpMethod.POST, requestEntity, JsonNode[].class);
@@ -337,7 +339,7 @@ public class RedcapSessionManager {
         uriVariables.add("content", "metadata");
         uriVariables.add("format", "json");
         uriVariables.add("type", "flat");
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("export_metadata");
         HttpEntity<LinkedMultiValueMap<String, String>> requestEntity = getRequestEntity(uriVariables);
         log.info("Getting attributes for project...");
         ResponseEntity<RedcapProjectAttribute[]> responseEntity = restTemplate.exchange(getRedcapApiURI(), HttpMethod.POST, requestEntity, RedcapProjectAttribute[].class);
@@ -350,10 +352,14 @@ public class RedcapSessionManager {
         uriVariables.add("content", "project");
         uriVariables.add("format", "json");
         uriVariables.add("type", "flat");
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = makeRestTemplate("export_project_info");
         HttpEntity<LinkedMultiValueMap<String, String>> requestEntity = getRequestEntity(uriVariables);
         log.info("Getting info for project...");
         ResponseEntity<RedcapProjectInfo[]> responseEntity = restTemplate.exchange(getRedcapApiURI(), HttpMethod.POST, requestEntity, RedcapProjectInfo[].class);
         return responseEntity.getBody();
     }
+
+    private RestTemplate makeRestTemplate(String endpointName) {
+        return HttpTrafficCapture.getInstance().instrument(PipelineMetrics.instrument(new RestTemplate(), "redcap", endpointName));
+    }
 }
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 Memorial Sloan Kettering Cancer Center.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY, WITHOUT EVEN THE IMPLIED WARRANTY OF MERCHANTABILITY OR FITNESS
+ * FOR A PARTICULAR PURPOSE. The software and documentation provided hereunder
+ * is on an "as is" basis, and Memorial Sloan Kettering Cancer Center has no
+ * obligations to provide maintenance, support, updates, enhancements or
+ * modifications. In no event shall Memorial Sloan Kettering Cancer Center be
+ * liable to any party for direct, indirect, special, incidental or
+ * consequential damages, including lost profits, arising out of the use of this
+ * software and its documentation, even if Memorial Sloan Kettering Cancer
+ * Center has been advised of the possibility of such damage.
+ */
+
+/*
+ * This file is part of cBioPortal CMO-Pipelines.
+ *
+ * cBioPortal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package org.mskcc.cmo.ks.redcap.source.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.mskcc.cmo.ks.redcap.models.CDDMetadataSnapshot;
+import org.mskcc.cmo.ks.redcap.models.RedcapAttributeMetadata;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class CDDSnapshotManagerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /* The first invocation fetches from CDD and writes the snapshot;
+     * a later invocation (new manager, same file) is served from disk without contacting CDD
+     */
+    @Test
+    public void testSnapshotIsWrittenAndReused() throws Exception {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "cdd_snapshot.json");
+        CDDSessionManager cddSessionManager = makeMockCddSessionManager();
+        CDDSnapshotManager firstInvocation = makeSnapshotManager(cddSessionManager, snapshotFile, 24);
+        Assert.assertEquals(2, firstInvocation.getRedcapMetadata().length);
+        Assert.assertEquals("100", firstInvocation.getRedcapMetadataWithOverrides("overridden_study")[1].getPriority());
+        Assert.assertTrue(snapshotFile.exists());
+        Mockito.verify(cddSessionManager, Mockito.times(1)).getRedcapMetadata();
+
+        CDDSessionManager unreachableCddSessionManager = Mockito.mock(CDDSessionManager.class);
+        Mockito.when(unreachableCddSessionManager.getRedcapMetadata()).thenThrow(new RuntimeException("CDD is down"));
+        CDDSnapshotManager secondInvocation = makeSnapshotManager(unreachableCddSessionManager, snapshotFile, 24);
+        RedcapAttributeMetadata[] metadata = secondInvocation.getRedcapMetadata();
+        Assert.assertEquals("PATIENT_ID", metadata[0].getNormalizedColumnHeader());
+        Assert.assertEquals("Patient Ethnicity", metadata[1].getDescriptions());
+        Assert.assertEquals("100", secondInvocation.getRedcapMetadataWithOverrides("overridden_study")[1].getPriority());
+        Mockito.verify(unreachableCddSessionManager, Mockito.never()).getRedcapMetadata();
+        Mockito.verify(unreachableCddSessionManager, Mockito.never()).getRedcapMetadataWithOverrides(ArgumentMatchers.anyString());
+    }
+
+    /* A snapshot older than the configured maximum age must not be used */
+    @Test
+    public void testStaleSnapshotIsRefetched() throws Exception {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "cdd_snapshot.json");
+        CDDSnapshotManager firstInvocation = makeSnapshotManager(makeMockCddSessionManager(), snapshotFile, 24);
+        firstInvocation.getRedcapMetadata();
+        CDDSessionManager cddSessionManager = makeMockCddSessionManager();
+        // maximum age of zero hours - every snapshot is stale
+        CDDSnapshotManager secondInvocation = makeSnapshotManager(cddSessionManager, snapshotFile, 0);
+        TimeUnit.MILLISECONDS.sleep(5);
+        secondInvocation.getRedcapMetadata();
+        Mockito.verify(cddSessionManager, Mockito.times(1)).getRedcapMetadata();
+    }
+
+    /* A snapshot past its refresh age is used immediately and refreshed in the background */
+    @Test
+    public void testBackgroundRefreshRewritesSnapshot() throws Exception {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "cdd_snapshot.json");
+        makeSnapshotManager(makeMockCddSessionManager(), snapshotFile, 24).getRedcapMetadata();
+        CDDSessionManager cddSessionManager = makeMockCddSessionManager();
+        RedcapAttributeMetadata[] changedMetadata = makeMockMetadata();
+        changedMetadata[1].setDisplayName("Changed Ethnicity");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v2\"");
+        Mockito.when(cddSessionManager.getRedcapMetadataIfModified(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.anyLong()))
+                .thenReturn(new ResponseEntity<RedcapAttributeMetadata[]>(changedMetadata, headers, HttpStatus.OK));
+        CDDSnapshotManager secondInvocation = makeSnapshotManager(cddSessionManager, snapshotFile, 24);
+        ReflectionTestUtils.setField(secondInvocation, "refreshAgeMinutes", 0L);
+        TimeUnit.MILLISECONDS.sleep(5);
+        Assert.assertEquals("Ethnicity", secondInvocation.getRedcapMetadata()[1].getDisplayName());
+        Assert.assertTrue(secondInvocation.awaitBackgroundRefresh(10000L));
+        CDDSnapshotManager thirdInvocation = makeSnapshotManager(Mockito.mock(CDDSessionManager.class), snapshotFile, 24);
+        Assert.assertEquals("Changed Ethnicity", thirdInvocation.getRedcapMetadata()[1].getDisplayName());
+        Assert.assertTrue(thirdInvocation.describeSnapshot().contains("etag \"v2\""));
+    }
+
+    /* Entries saved while a background refresh is running are kept when the refresh is merged in */
+    @Test
+    public void testBackgroundRefreshKeepsEntriesSavedDuringRefresh() throws Exception {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "cdd_snapshot.json");
+        makeSnapshotManager(makeMockCddSessionManager(), snapshotFile, 24).getRedcapMetadata();
+        CDDSessionManager cddSessionManager = makeMockCddSessionManager();
+        RedcapAttributeMetadata[] changedMetadata = makeMockMetadata();
+        changedMetadata[1].setDisplayName("Changed Ethnicity");
+        CountDownLatch studyMetadataSaved = new CountDownLatch(1);
+        Mockito.when(cddSessionManager.getRedcapMetadataIfModified(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> {
+                    studyMetadataSaved.await(10, TimeUnit.SECONDS);
+                    return new ResponseEntity<RedcapAttributeMetadata[]>(changedMetadata, new HttpHeaders(), HttpStatus.OK);
+                });
+        CDDSnapshotManager secondInvocation = makeSnapshotManager(cddSessionManager, snapshotFile, 24);
+        ReflectionTestUtils.setField(secondInvocation, "refreshAgeMinutes", 0L);
+        TimeUnit.MILLISECONDS.sleep(5);
+        secondInvocation.getRedcapMetadata();
+        // fetched and saved while the refresh is still waiting on CDD
+        secondInvocation.getRedcapMetadataWithOverrides("overridden_study");
+        studyMetadataSaved.countDown();
+        Assert.assertTrue(secondInvocation.awaitBackgroundRefresh(10000L));
+        CDDSnapshotManager thirdInvocation = makeSnapshotManager(Mockito.mock(CDDSessionManager.class), snapshotFile, 24);
+        Assert.assertEquals("Changed Ethnicity", thirdInvocation.getRedcapMetadata()[1].getDisplayName());
+        Assert.assertEquals("100", thirdInvocation.getRedcapMetadataWithOverrides("overridden_study")[1].getPriority());
+    }
+
+    /* Saving one entry does not reset the age of the others: each entry is refreshed and
+     * expired from its own fetch time, which is also sent as If-Modified-Since
+     */
+    @Test
+    public void testEntriesAreAgedFromTheirOwnFetchTime() throws Exception {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "cdd_snapshot.json");
+        long twoHoursAgo = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+        long twoDaysAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2);
+        CDDMetadataSnapshot snapshot = new CDDMetadataSnapshot();
+        snapshot.setDefaultMetadata(makeMockMetadata());
+        snapshot.setDefaultMetadataFetched(twoHoursAgo);
+        snapshot.getStudyMetadata().put("expired_study", makeMockMetadata());
+        snapshot.getStudyMetadataFetched().put("expired_study", twoDaysAgo);
+        new ObjectMapper().writeValue(snapshotFile, snapshot);
+
+        CDDSessionManager cddSessionManager = makeMockCddSessionManager();
+        Mockito.when(cddSessionManager.getRedcapMetadataIfModified(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.anyLong()))
+                .thenReturn(new ResponseEntity<RedcapAttributeMetadata[]>(HttpStatus.NOT_MODIFIED));
+        CDDSnapshotManager cddSnapshotManager = makeSnapshotManager(cddSessionManager, snapshotFile, 24);
+        // fetched and saved now, the default metadata keeps its own age
+        cddSnapshotManager.getRedcapMetadataWithOverrides("overridden_study");
+        Assert.assertEquals("Ethnicity", cddSnapshotManager.getRedcapMetadata()[1].getDisplayName());
+        Assert.assertTrue(cddSnapshotManager.awaitBackgroundRefresh(10000L));
+        Mockito.verify(cddSessionManager).getRedcapMetadataIfModified(null, null, twoHoursAgo);
+        Mockito.verify(cddSessionManager, Mockito.never()).getRedcapMetadataIfModified(ArgumentMatchers.eq("overridden_study"), ArgumentMatchers.any(), ArgumentMatchers.anyLong());
+        Mockito.verify(cddSessionManager, Mockito.never()).getRedcapMetadata();
+        // the expired study was not made fresh by the other saves
+        cddSnapshotManager.getRedcapMetadataWithOverrides("expired_study");
+        Mockito.verify(cddSessionManager).getRedcapMetadataWithOverrides("expired_study");
+
+        CDDMetadataSnapshot saved = new ObjectMapper().readValue(snapshotFile, CDDMetadataSnapshot.class);
+        // confirmed unchanged by CDD, so aged from the conditional request
+        Assert.assertTrue(saved.getDefaultMetadataFetched() > twoHoursAgo);
+        Assert.assertTrue(saved.getStudyMetadataFetched().get("expired_study") > twoDaysAgo);
+    }
+
+    /* Each study's metadata is requested from its own URI, also when several studies are refreshed */
+    @Test
+    public void testStudyMetadataUrisAreResolvedPerStudy() throws Exception {
+        CDDSessionManager cddSessionManager = new CDDSessionManager();
+        ReflectionTestUtils.setField(cddSessionManager, "cddBaseUrl", "http://cdd.test/api");
+        Assert.assertEquals("cancerStudy=study_a", cddSessionManager.getCddStudyIdURI("study_a").getQuery());
+        Assert.assertEquals("cancerStudy=study_b", cddSessionManager.getCddStudyIdURI("study_b").getQuery());
+    }
+
+    private CDDSnapshotManager makeSnapshotManager(CDDSessionManager cddSessionManager, File snapshotFile, long maxAgeHours) {
+        CDDSnapshotManager cddSnapshotManager = new CDDSnapshotManager();
+        ReflectionTestUtils.setField(cddSnapshotManager, "cddSessionManager", cddSessionManager);
+        ReflectionTestUtils.setField(cddSnapshotManager, "snapshotFilename", snapshotFile.getAbsolutePath());
+        ReflectionTestUtils.setField(cddSnapshotManager, "maxAgeHours", maxAgeHours);
+        ReflectionTestUtils.setField(cddSnapshotManager, "refreshAgeMinutes", 60L);
+        return cddSnapshotManager;
+    }
+
+    private CDDSessionManager makeMockCddSessionManager() {
+        CDDSessionManager cddSessionManager = Mockito.mock(CDDSessionManager.class);
+        RedcapAttributeMetadata[] overriddenMetadata = makeMockMetadata();
+        overriddenMetadata[1].setPriority("100");
+        Mockito.when(cddSessionManager.getRedcapMetadata()).thenReturn(makeMockMetadata());
+        Mockito.when(cddSessionManager.getRedcapMetadataWithOverrides("overridden_study")).thenReturn(overriddenMetadata);
+        return cddSessionManager;
+    }
+
+    private RedcapAttributeMetadata[] makeMockMetadata() {
+        RedcapAttributeMetadata[] metadata = new RedcapAttributeMetadata[2];
+        metadata[0] = new RedcapAttributeMetadata("PATIENT_ID", "Patient Id", "This identifies a patient", "STRING", "PATIENT", "1");
+        metadata[1] = new RedcapAttributeMetadata("ETHNICITY", "Ethnicity", "Patient Ethnicity", "STRING", "PATIENT", "1");
+        return metadata;
+    }
+}
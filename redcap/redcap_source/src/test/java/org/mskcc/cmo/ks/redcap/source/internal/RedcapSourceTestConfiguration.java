@@ -110,6 +110,11 @@ public class RedcapSourceTestConfiguration {
         return cddSessionManager;
     }
 
+    @Bean
+    public CDDSnapshotManager cddSnapshotManager() {
+        return new CDDSnapshotManager();
+    }
+
     @Bean
     @Scope("prototype")
     public MetadataCache metadataCache() {